@@ -20,6 +20,7 @@ import com.codahale.metrics.Meter;
 import com.codahale.metrics.Timer;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
 import me.prettyprint.hector.api.Keyspace;
 import me.prettyprint.hector.api.beans.*;
 import me.prettyprint.hector.api.factory.HFactory;
@@ -73,6 +74,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.util.Assert;
 import rx.Observable;
+import rx.schedulers.Schedulers;
 
 import java.nio.ByteBuffer;
 import java.time.Instant;
@@ -463,25 +465,67 @@ public class CpEntityManager implements EntityManager {
 
         String type = Schema.getDefaultSchema().getEntityType( entityClass );
 
-        ArrayList<Entity> entities = new ArrayList<Entity>();
+        return Results.fromEntities( getEntities( entityIds, type, entityClass ) );
+    }
 
-        for ( UUID uuid : entityIds ) {
-            EntityRef ref = new SimpleEntityRef( type, uuid );
-            Entity entity = get( ref, entityClass );
 
-            if ( entity != null ) {
-                entities.add( entity );
-            }
+    @Override
+    public Results get( Collection<UUID> entityIds, String entityType, Class<? extends Entity> entityClass,
+                        Level resultsLevel ) throws Exception {
+
+        if ( entityClass == null ) {
+            entityClass = Schema.getDefaultSchema().getEntityClass( entityType );
         }
 
-        return Results.fromEntities( entities );
+        return Results.fromEntities( getEntities( entityIds, entityType, entityClass ) );
     }
 
 
-    @Override
-    public Results get( Collection<UUID> entityIds, String entityType, Class<? extends Entity> entityClass,
-                        Level resultsLevel ) throws Exception {
-        throw new UnsupportedOperationException( "Not supported yet." );
+    /**
+     * Load the entities with a multi-get per chunk of ids, running a bounded number of chunks in parallel.  Entities
+     * are returned in the order of the ids, ids that can't be found are skipped.
+     */
+    private List<Entity> getEntities( final Collection<UUID> entityIds, final String type,
+                                      final Class<? extends Entity> entityClass ) {
+
+        if ( entityIds == null || entityIds.isEmpty() ) {
+            return new ArrayList<>();
+        }
+
+        final List<Id> ids = new ArrayList<>( entityIds.size() );
+
+        for ( UUID uuid : entityIds ) {
+            ids.add( new SimpleId( uuid, type ) );
+        }
+
+        final Map<Id, org.apache.usergrid.persistence.model.entity.Entity> loaded =
+            Observable.from( Lists.partition( ids, entityManagerFig.getBatchGetSize() ) )
+                .flatMap( chunk -> ecm.load( chunk ).subscribeOn( Schedulers.io() ),
+                    entityManagerFig.getBatchGetConcurrency() )
+                .flatMap( entitySet -> Observable.from( entitySet.getEntities() ) )
+                .filter( mvccEntity -> mvccEntity.getEntity().isPresent() )
+                .toMap( mvccEntity -> mvccEntity.getId(), mvccEntity -> mvccEntity.getEntity().get() )
+                .toBlocking().last();
+
+        final List<Entity> entities = new ArrayList<>( loaded.size() );
+
+        for ( Id id : ids ) {
+            final org.apache.usergrid.persistence.model.entity.Entity cpEntity = loaded.get( id );
+
+            if ( cpEntity == null ) {
+                if ( logger.isDebugEnabled() ) {
+                    logger.debug( "FAILED to load entity {}:{} from app {}", id.getType(), id.getUuid(),
+                        applicationId );
+                }
+                continue;
+            }
+
+            Entity entity = EntityFactory.newEntity( id.getUuid(), type, entityClass );
+            entity.setProperties( cpEntity );
+            entities.add( entity );
+        }
+
+        return entities;
     }
 
 
@@ -683,6 +727,14 @@ public class CpEntityManager implements EntityManager {
         return getRelationManager( entityRef ).searchCollection( collectionName, query );
     }
 
+
+    @Override
+    public Observable<Entity> streamCollection( EntityRef entityRef, String collectionName, Query query )
+        throws Exception {
+
+        return getRelationManager( entityRef ).streamCollection( collectionName, query );
+    }
+
     @Override
     public Results searchCollectionConsistent(
         EntityRef entityRef, String collectionName, Query query, int expectedResults) throws Exception {
@@ -1662,6 +1714,14 @@ public class CpEntityManager implements EntityManager {
     }
 
 
+    @Override
+    public Results searchConnectionPath( EntityRef sourceEntity, List<String> connectionNames, Query query )
+        throws Exception {
+
+        return getRelationManager( sourceEntity ).searchConnectionPath( connectionNames, query );
+    }
+
+
     @Override
     public Set<String> getConnectionIndexes( EntityRef entity, String connectionType ) throws Exception {
 
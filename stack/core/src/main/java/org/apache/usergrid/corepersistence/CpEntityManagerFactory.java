@@ -38,6 +38,7 @@ import org.apache.usergrid.mq.QueueManagerFactory;
 import org.apache.usergrid.persistence.*;
 import org.apache.usergrid.persistence.actorsystem.ActorSystemFig;
 import org.apache.usergrid.persistence.actorsystem.ActorSystemManager;
+import org.apache.usergrid.persistence.cache.impl.ScopedCacheInvalidator;
 import org.apache.usergrid.persistence.cassandra.CassandraService;
 import org.apache.usergrid.persistence.cassandra.CounterUtils;
 import org.apache.usergrid.persistence.cassandra.Setup;
@@ -152,6 +153,7 @@ public class CpEntityManagerFactory implements EntityManagerFactory, Application
                 this.actorSystemManager = injector.getInstance( ActorSystemManager.class );
 
                 actorSystemManager.registerRouterProducer( uniqueValuesService );
+                actorSystemManager.registerRouterProducer( injector.getInstance( ScopedCacheInvalidator.class ) );
                 actorSystemManager.start();
                 actorSystemManager.waitForClientActor();
 
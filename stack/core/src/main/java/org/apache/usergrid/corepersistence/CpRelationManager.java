@@ -29,6 +29,7 @@ import org.apache.usergrid.corepersistence.results.EntityQueryExecutor;
 import org.apache.usergrid.corepersistence.results.IdQueryExecutor;
 import org.apache.usergrid.corepersistence.service.CollectionSearch;
 import org.apache.usergrid.corepersistence.service.CollectionService;
+import org.apache.usergrid.corepersistence.service.ConnectionPathSearch;
 import org.apache.usergrid.corepersistence.service.ConnectionSearch;
 import org.apache.usergrid.corepersistence.service.ConnectionService;
 import org.apache.usergrid.corepersistence.util.CpEntityMapUtils;
@@ -540,7 +541,7 @@ public class CpRelationManager implements RelationManager {
         // mark the edge versions and take the first for later delete edge queue event ( load is descending )
         final Edge markedSourceEdge = gm.loadEdgeVersions(
             CpNamingUtils.createEdgeFromCollectionName( cpHeadEntity.getId(), collectionName, entityId ) )
-            .flatMap(edge -> gm.markEdge(edge)).toBlocking().firstOrDefault(null);
+            .toList().flatMap(gm::markEdges).toBlocking().firstOrDefault(null);
 
 
         Edge markedReversedEdge = null;
@@ -550,7 +551,7 @@ public class CpRelationManager implements RelationManager {
             final String pluralType = InflectionUtils.pluralize( cpHeadEntity.getId().getType() );
             markedReversedEdge = gm.loadEdgeVersions(
                 CpNamingUtils.createEdgeFromCollectionName( entityId, pluralType, cpHeadEntity.getId() ) )
-                .flatMap(reverseEdge -> gm.markEdge(reverseEdge)).toBlocking().firstOrDefault(null);
+                .toList().flatMap(gm::markEdges).toBlocking().firstOrDefault(null);
         }
 
 
@@ -614,15 +615,7 @@ public class CpRelationManager implements RelationManager {
             query.setCollection( collectionName );
         }
 
-        headEntity = em.validate( headEntity );
-
-        CollectionInfo collection = getDefaultSchema().getCollection( headEntity.getType(), collectionName );
-
-        if ( collection == null ) {
-            throw new RuntimeException(
-                "Cannot find collection-info for '" + collectionName + "' of " + headEntity.getType() + ":" + headEntity
-                    .getUuid() );
-        }
+        final CollectionInfo collection = getCollectionInfo( collectionName );
 
 
         query.setEntityType( collection.getType() );
@@ -664,6 +657,57 @@ public class CpRelationManager implements RelationManager {
     }
 
 
+    @Override
+    public Observable<Entity> streamCollection( String collectionName, Query query ) throws Exception {
+
+        if ( query == null ) {
+            query = new Query();
+            query.setCollection( collectionName );
+        }
+
+        final CollectionInfo collection = getCollectionInfo( collectionName );
+
+
+        query.setEntityType( collection.getType() );
+        final Query toExecute = adjustQuery( query );
+        final Optional<String> queryString = query.isGraphSearch()? Optional.<String>absent(): query.getQl();
+
+        //no cursor, the stream reads every result
+        final CollectionSearch search =
+            new CollectionSearch( applicationScope, headEntity.asId(), collectionName, collection.getType(),
+                toExecute.getLimit(), queryString, Optional.<String>absent() );
+
+        return collectionService.streamCollection( search ).map( cpEntity -> {
+            final Id entityId = cpEntity.getId();
+
+            final Entity entity = EntityFactory.newEntity( entityId.getUuid(), entityId.getType() );
+
+            entity.setProperties( cpEntity );
+
+            return entity;
+        } );
+    }
+
+
+    /**
+     * Get the collection info of the collection on our head entity
+     */
+    private CollectionInfo getCollectionInfo( final String collectionName ) throws Exception {
+
+        headEntity = em.validate( headEntity );
+
+        CollectionInfo collection = getDefaultSchema().getCollection( headEntity.getType(), collectionName );
+
+        if ( collection == null ) {
+            throw new RuntimeException(
+                "Cannot find collection-info for '" + collectionName + "' of " + headEntity.getType() + ":" + headEntity
+                    .getUuid() );
+        }
+
+        return collection;
+    }
+
+
     @Override
     public Results searchCollectionConsistent( String collectionName, Query query, int expectedResults )
         throws Exception {
@@ -804,7 +848,7 @@ public class CpRelationManager implements RelationManager {
         final SearchByEdge search = createConnectionSearchByEdge( sourceId, connectionType, targetEntity.getId() );
 
         //delete all the edges and queue their processing
-        gm.loadEdgeVersions( search ).flatMap( returnedEdge -> gm.markEdge( returnedEdge ) )
+        gm.loadEdgeVersions( search ).toList().flatMap( gm::markEdges )
           .doOnNext( returnedEdge -> {
 
               if ( !skipIndexingForType( returnedEdge.getSourceNode().getType() ) || !skipIndexingForType( returnedEdge.getTargetNode().getType() ) ) {
@@ -969,6 +1013,31 @@ public class CpRelationManager implements RelationManager {
     }
 
 
+    @Override
+    public Results searchConnectionPath( final List<String> connectionNames, final Query query ) throws Exception {
+
+        Preconditions.checkNotNull( connectionNames, "connectionNames cannot be null" );
+        Preconditions.checkArgument( !connectionNames.isEmpty(), "at least one connection must be specified" );
+        Preconditions.checkNotNull( query, "query cannot be null" );
+
+        headEntity = em.validate( headEntity );
+
+        final Id sourceId = headEntity.asId();
+
+        return new EntityQueryExecutor( query.getCursor() ) {
+            @Override
+            protected Observable<ResultsPage<org.apache.usergrid.persistence.model.entity.Entity>> buildNewResultsPage(
+                final Optional<String> cursor ) {
+
+                //we need the callback so as we get a new cursor, we execute a new search and re-initialize our builders
+                final ConnectionPathSearch search =
+                    new ConnectionPathSearch( applicationScope, sourceId, connectionNames, query.getLimit(), cursor );
+                return connectionService.searchConnectionPath( search );
+            }
+        }.next();
+    }
+
+
     private Query adjustQuery( Query query ) {
 
         // handle the select by identifier case
@@ -42,6 +42,29 @@ public interface EntityManagerFig extends GuicyFig {
     @Default( "true" )
     boolean getDeindexOnUpdate();
 
+    /**
+     * Number of ids loaded in a single multi-get when getting a collection of entities by id.
+     */
+    @Key( "usergrid.entityManager.batch_get_size" )
+    @Default( "100" )
+    int getBatchGetSize();
+
+    /**
+     * Number of multi-gets that may run in parallel when getting a collection of entities by id.
+     */
+    @Key( "usergrid.entityManager.batch_get_concurrency" )
+    @Default( "4" )
+    int getBatchGetConcurrency();
+
+    /**
+     * Read the latest versions of query candidates from the version log before loading them, so only the candidates
+     * that are current in the index are loaded.  Saves loading entities that are dropped as stale on collections with
+     * heavy churn, at the cost of an extra read of the log for each page.
+     */
+    @Key( "usergrid.entityManager.verify_candidate_versions" )
+    @Default( "false" )
+    boolean getVerifyCandidateVersions();
+
     /**
      * Comma-separated list of one or more Amazon regions to use if multiregion
      * is set to true.
@@ -25,6 +25,7 @@ import java.io.Serializable;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -42,6 +43,8 @@ import org.apache.usergrid.corepersistence.util.CpNamingUtils;
 import org.apache.usergrid.corepersistence.util.ObjectJsonSerializer;
 import org.apache.usergrid.persistence.collection.EntityCollectionManager;
 import org.apache.usergrid.persistence.collection.EntityCollectionManagerFactory;
+import org.apache.usergrid.persistence.collection.EntitySet;
+import org.apache.usergrid.persistence.collection.MvccEntity;
 import org.apache.usergrid.persistence.collection.serialization.impl.migration.EntityIdScope;
 import org.apache.usergrid.persistence.core.metrics.MetricsFactory;
 import org.apache.usergrid.persistence.core.rx.RxTaskScheduler;
@@ -57,6 +60,7 @@ import org.apache.usergrid.persistence.map.impl.MapScopeImpl;
 import org.apache.usergrid.persistence.model.entity.Entity;
 import org.apache.usergrid.persistence.model.entity.Id;
 import org.apache.usergrid.persistence.model.util.UUIDGenerator;
+import org.apache.usergrid.persistence.queue.LocalQueueManager;
 import org.apache.usergrid.persistence.queue.QueueFig;
 import org.apache.usergrid.persistence.queue.QueueManager;
 import org.apache.usergrid.persistence.queue.QueueManagerFactory;
@@ -70,6 +74,7 @@ import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Timer;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterables;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 
@@ -124,11 +129,15 @@ public class AsyncEventServiceImpl implements AsyncEventService {
     private final Object mutex = new Object();
 
     private final Counter indexErrorCounter;
+    private final Counter deIndexCoalescedCounter;
     private final AtomicLong counter = new AtomicLong();
     private final AtomicLong inFlight = new AtomicLong();
     private final Histogram messageCycle;
     private final MapManager esMapPersistence;
 
+    //when true, worker batches go straight to the index producer instead of through map persistence and the queue
+    private final boolean indexDirectly;
+
     //the actively running subscription
     private List<Subscription> subscriptions = new ArrayList<>();
 
@@ -165,10 +174,15 @@ public class AsyncEventServiceImpl implements AsyncEventService {
         this.indexProcessorFig = indexProcessorFig;
         this.queueFig = queueFig;
 
+        this.indexDirectly = indexProcessorFig.isDirectIndexEnabled()
+            && ( queue instanceof LocalQueueManager || !queueFig.isMultiRegion() );
+
         this.writeTimer = metricsFactory.getTimer(AsyncEventServiceImpl.class, "async_event.write");
         this.readTimer = metricsFactory.getTimer(AsyncEventServiceImpl.class, "async_event.read");
         this.ackTimer = metricsFactory.getTimer(AsyncEventServiceImpl.class, "async_event.ack");
         this.indexErrorCounter = metricsFactory.getCounter(AsyncEventServiceImpl.class, "async_event.error");
+        this.deIndexCoalescedCounter =
+            metricsFactory.getCounter(AsyncEventServiceImpl.class, "async_event.deindex_old_versions.coalesced");
         this.messageCycle = metricsFactory.getHistogram(AsyncEventServiceImpl.class, "async_event.message_cycle");
 
 
@@ -281,6 +295,12 @@ public class AsyncEventServiceImpl implements AsyncEventService {
             logger.debug("callEventHandlers with {} message(s)", messages.size());
         }
 
+        // read the entities of every index event in one multi-get per scope instead of one read per message
+        final Map<ApplicationScope, Map<Id, Entity>> loadedEntities = loadEntities( messages );
+
+        // de-index the old versions of each entity once for all of its de-index events in the batch
+        final Map<QueueMessage, IndexOperationMessage> deIndexResults = handleDeIndexOldVersionEvents( messages );
+
         Stream<IndexEventResult> indexEventResults = messages.stream().map(message ->
 
         {
@@ -317,13 +337,13 @@ public class AsyncEventServiceImpl implements AsyncEventService {
                 // normal indexing event for an entity
                 if ( event instanceof  EntityIndexEvent ){
 
-                     single = handleEntityIndexUpdate( message );
+                     single = handleEntityIndexUpdate( message, loadedEntities );
 
                 }
                 // normal indexing event for an edge
                 else if ( event instanceof EdgeIndexEvent ){
 
-                    single = handleEdgeIndex( message );
+                    single = handleEdgeIndex( message, loadedEntities );
 
                 }
                 // deletes are 2-part, actual IO to delete data, then queue up a de-index
@@ -348,7 +368,13 @@ public class AsyncEventServiceImpl implements AsyncEventService {
 
                 } else if (event instanceof DeIndexOldVersionsEvent) {
 
-                    single = handleDeIndexOldVersionEvent((DeIndexOldVersionsEvent) event);
+                    single = deIndexResults.get( message );
+
+                    // the de-index of this entity failed and was logged, don't ack so the events are retried
+                    if ( single == null ) {
+                        return new IndexEventResult( Optional.absent(), Optional.absent(),
+                            thisEvent.getCreationTime() );
+                    }
 
                 } else {
 
@@ -396,6 +422,92 @@ public class AsyncEventServiceImpl implements AsyncEventService {
         return indexEventResults.collect(Collectors.toList());
     }
 
+
+    /**
+     * Load the entities referenced by the entity and edge index events in the messages.  Ids are grouped by
+     * application scope and read with multi-gets of at most the event load batch size.  Every requested id is a key
+     * in the result, with a null value if the entity does not exist.  Scopes that fail to load are left out so the
+     * handlers fall back to loading their own entity.
+     */
+    private Map<ApplicationScope, Map<Id, Entity>> loadEntities( final List<QueueMessage> messages ) {
+
+        final Map<ApplicationScope, Set<Id>> idsByScope = new HashMap<>();
+
+        for ( final QueueMessage message : messages ) {
+            final Object body = message.getBody();
+
+            if ( body instanceof EntityIndexEvent ) {
+                final EntityIdScope entityIdScope = ( ( EntityIndexEvent ) body ).getEntityIdScope();
+                idsByScope.computeIfAbsent( entityIdScope.getApplicationScope(), scope -> new HashSet<>() )
+                          .add( entityIdScope.getId() );
+            }
+            else if ( body instanceof EdgeIndexEvent ) {
+                final EdgeIndexEvent edgeIndexEvent = ( EdgeIndexEvent ) body;
+                idsByScope.computeIfAbsent( edgeIndexEvent.getApplicationScope(), scope -> new HashSet<>() )
+                          .add( edgeIndexEvent.getEntityId() );
+            }
+        }
+
+        final Map<ApplicationScope, Map<Id, Entity>> loadedEntities = new HashMap<>( idsByScope.size() );
+
+        for ( final Map.Entry<ApplicationScope, Set<Id>> entry : idsByScope.entrySet() ) {
+
+            final ApplicationScope applicationScope = entry.getKey();
+
+            // a single entity gains nothing from the multi-get, let the handler load it
+            if ( entry.getValue().size() < 2 ) {
+                continue;
+            }
+
+            final EntityCollectionManager ecm =
+                entityCollectionManagerFactory.createCollectionManager( applicationScope );
+
+            final Map<Id, Entity> entities = new HashMap<>( entry.getValue().size() );
+
+            try {
+                for ( final List<Id> ids : Iterables
+                    .partition( entry.getValue(), indexProcessorFig.getEventLoadBatchSize() ) ) {
+
+                    final EntitySet entitySet = ecm.load( ids ).toBlocking().last();
+
+                    for ( final Id id : ids ) {
+                        final MvccEntity mvccEntity = entitySet.getEntity( id );
+
+                        entities.put( id, mvccEntity == null || !mvccEntity.getEntity().isPresent() ? null
+                            : mvccEntity.getEntity().get() );
+                    }
+                }
+            }
+            catch ( Exception e ) {
+                logger.warn( "Unable to load {} entities in app scope {}, loading them individually",
+                    entry.getValue().size(), applicationScope, e );
+                continue;
+            }
+
+            loadedEntities.put( applicationScope, entities );
+        }
+
+        return loadedEntities;
+    }
+
+
+    /**
+     * Get the entity from the ones loaded for the batch, or load it if it was not part of the batch load
+     */
+    private Observable<Entity> loadEntity( final Map<ApplicationScope, Map<Id, Entity>> loadedEntities,
+                                           final ApplicationScope applicationScope, final Id entityId ) {
+
+        final Map<Id, Entity> entities = loadedEntities.get( applicationScope );
+
+        if ( entities == null || !entities.containsKey( entityId ) ) {
+            return entityCollectionManagerFactory.createCollectionManager( applicationScope ).load( entityId );
+        }
+
+        final Entity entity = entities.get( entityId );
+
+        return entity == null ? Observable.empty() : Observable.just( entity );
+    }
+
     @Override
     public void queueInitializeApplicationIndex( final ApplicationScope applicationScope) {
         IndexLocationStrategy indexLocationStrategy = indexLocationStrategyFactory.getIndexLocationStrategy(
@@ -422,7 +534,8 @@ public class AsyncEventServiceImpl implements AsyncEventService {
 
     }
 
-    private IndexOperationMessage handleEntityIndexUpdate(final QueueMessage message) {
+    private IndexOperationMessage handleEntityIndexUpdate(final QueueMessage message,
+                                                          final Map<ApplicationScope, Map<Id, Entity>> loadedEntities) {
 
         Preconditions.checkNotNull( message, "Queue Message cannot be null for handleEntityIndexUpdate" );
 
@@ -444,7 +557,9 @@ public class AsyncEventServiceImpl implements AsyncEventService {
         final EntityIndexOperation entityIndexOperation = new EntityIndexOperation( applicationScope, entityId, updatedAfter);
 
         // default this observable's return to empty index operation message if nothing is emitted
-        return eventBuilder.buildEntityIndex( entityIndexOperation ).toBlocking().lastOrDefault(new IndexOperationMessage());
+        return loadEntity( loadedEntities, applicationScope, entityId )
+            .flatMap( loadedEntity -> eventBuilder.buildEntityIndex( entityIndexOperation, loadedEntity ) )
+            .toBlocking().lastOrDefault(new IndexOperationMessage());
     }
 
 
@@ -457,7 +572,8 @@ public class AsyncEventServiceImpl implements AsyncEventService {
 
     }
 
-    private IndexOperationMessage handleEdgeIndex(final QueueMessage message) {
+    private IndexOperationMessage handleEdgeIndex(final QueueMessage message,
+                                                  final Map<ApplicationScope, Map<Id, Entity>> loadedEntities) {
 
         Preconditions.checkNotNull( message, "Queue Message cannot be null for handleEdgeIndex" );
 
@@ -468,10 +584,8 @@ public class AsyncEventServiceImpl implements AsyncEventService {
 
         final EdgeIndexEvent edgeIndexEvent = ( EdgeIndexEvent ) event;
 
-        final EntityCollectionManager ecm = entityCollectionManagerFactory.createCollectionManager( edgeIndexEvent.getApplicationScope() );
-
         // default this observable's return to empty index operation message if nothing is emitted
-        return ecm.load( edgeIndexEvent.getEntityId() )
+        return loadEntity( loadedEntities, edgeIndexEvent.getApplicationScope(), edgeIndexEvent.getEntityId() )
             .flatMap( loadedEntity -> eventBuilder.buildNewEdge(edgeIndexEvent.getApplicationScope(), loadedEntity, edgeIndexEvent.getEdge()) )
             .toBlocking().lastOrDefault(new IndexOperationMessage());
 
@@ -545,6 +659,23 @@ public class AsyncEventServiceImpl implements AsyncEventService {
         offerTopic( elasticsearchIndexEvent );
     }
 
+    /**
+     * Hand the index operations straight to the index producer, skipping the map persistence write and the
+     * ElasticsearchIndexEvent queue hop.  Only valid when no other region needs to index the batch
+     */
+    private void indexDirect( final IndexOperationMessage indexOperationMessage ) {
+
+        // don't try to produce something with nothing
+        if ( indexOperationMessage.isEmpty() ) {
+            return;
+        }
+
+        // always do a check to ensure the indexes are initialized for the index requests
+        initializeEntityIndexes( indexOperationMessage );
+
+        indexProducer.put( indexOperationMessage ).toBlocking().last();
+    }
+
     private void handleIndexOperation(final ElasticsearchIndexEvent elasticsearchIndexEvent) throws IndexDocNotFoundException {
 
         Preconditions.checkNotNull( elasticsearchIndexEvent, "elasticsearchIndexEvent cannot be null" );
@@ -612,17 +743,73 @@ public class AsyncEventServiceImpl implements AsyncEventService {
     }
 
 
-    public IndexOperationMessage handleDeIndexOldVersionEvent ( final DeIndexOldVersionsEvent deIndexOldVersionsEvent){
+    /**
+     * Handle the de-index old versions events in the messages once per entity.  A frequently updated entity queues
+     * an event per update, so the events are grouped by entity and handled with the newest marked version, reading
+     * the versions back past the oldest marked version so every version the separate events would remove is
+     * removed.  Every message of an entity maps to the same index operation message, the index producer receives
+     * the operations once since they are held in sets.  Messages of entities that fail are left out of the result.
+     */
+    public Map<QueueMessage, IndexOperationMessage> handleDeIndexOldVersionEvents( final List<QueueMessage> messages ) {
 
+        final Map<ApplicationScope, Map<Id, List<QueueMessage>>> messagesByEntity = new HashMap<>();
 
-        final ApplicationScope applicationScope = deIndexOldVersionsEvent.getEntityIdScope().getApplicationScope();
-        final Id entityId = deIndexOldVersionsEvent.getEntityIdScope().getId();
-        final UUID markedVersion = deIndexOldVersionsEvent.getMarkedVersion();
+        for ( final QueueMessage message : messages ) {
+            final Object body = message.getBody();
 
-        // default this observable's return to empty index operation message if nothing is emitted
-        return eventBuilder.deIndexOldVersions( applicationScope, entityId, markedVersion )
-            .toBlocking().lastOrDefault(new IndexOperationMessage());
+            if ( body instanceof DeIndexOldVersionsEvent ) {
+                final EntityIdScope entityIdScope = ( ( DeIndexOldVersionsEvent ) body ).getEntityIdScope();
+                messagesByEntity.computeIfAbsent( entityIdScope.getApplicationScope(), scope -> new HashMap<>() )
+                                .computeIfAbsent( entityIdScope.getId(), id -> new ArrayList<>() ).add( message );
+            }
+        }
+
+        final Map<QueueMessage, IndexOperationMessage> results = new HashMap<>();
+
+        for ( final Map.Entry<ApplicationScope, Map<Id, List<QueueMessage>>> scopeEntry : messagesByEntity.entrySet() ) {
+
+            final ApplicationScope applicationScope = scopeEntry.getKey();
+
+            for ( final Map.Entry<Id, List<QueueMessage>> entityEntry : scopeEntry.getValue().entrySet() ) {
+
+                final Id entityId = entityEntry.getKey();
+                final List<QueueMessage> entityMessages = entityEntry.getValue();
 
+                UUID markedVersion = null;
+                UUID oldestMarkedVersion = null;
+
+                for ( final QueueMessage message : entityMessages ) {
+                    final UUID version = ( ( DeIndexOldVersionsEvent ) message.getBody() ).getMarkedVersion();
+
+                    if ( markedVersion == null || version.timestamp() > markedVersion.timestamp() ) {
+                        markedVersion = version;
+                    }
+
+                    if ( oldestMarkedVersion == null || version.timestamp() < oldestMarkedVersion.timestamp() ) {
+                        oldestMarkedVersion = version;
+                    }
+                }
+
+                try {
+                    // default this observable's return to empty index operation message if nothing is emitted
+                    final IndexOperationMessage indexOperationMessage =
+                        eventBuilder.deIndexOldVersions( applicationScope, entityId, markedVersion, oldestMarkedVersion )
+                                    .toBlocking().lastOrDefault( new IndexOperationMessage() );
+
+                    for ( final QueueMessage message : entityMessages ) {
+                        results.put( message, indexOperationMessage );
+                    }
+
+                    deIndexCoalescedCounter.inc( entityMessages.size() - 1 );
+                }
+                catch ( Exception e ) {
+                    logger.error( "Failed to de-index old versions of entity {} in app scope {} for {} message(s)",
+                        entityId, applicationScope, entityMessages.size(), e );
+                }
+            }
+        }
+
+        return results;
     }
 
     /**
@@ -694,8 +881,14 @@ public class AsyncEventServiceImpl implements AsyncEventService {
 
         entityDeleteResults.getCompactedNode().toBlocking().lastOrDefault(null);
 
-        // default this observable's return to empty index operation message if nothing is emitted
-        return entityDeleteResults.getIndexObservable().toBlocking().lastOrDefault(new IndexOperationMessage());
+        // the de-index is emitted in batches, submit each one as the next arrives so they are never all held at once.
+        // the last is returned to be submitted with the rest of the events, or an empty one if nothing is emitted
+        final AtomicReference<IndexOperationMessage> lastBatch = new AtomicReference<>( new IndexOperationMessage() );
+
+        entityDeleteResults.getIndexObservable().toBlocking().forEach(
+            indexOperationMessage -> submitIndexOperationMessage( lastBatch.getAndSet( indexOperationMessage ) ) );
+
+        return lastBatch.get();
 
     }
 
@@ -861,11 +1054,24 @@ public class AsyncEventServiceImpl implements AsyncEventService {
             // collect into a list of QueueMessages that can be ack'd later
             .collect(Collectors.toList());
 
-       queueIndexOperationMessage(combined);
+        submitIndexOperationMessage( combined );
 
         return queueMessages;
     }
 
+
+    /**
+     * Index the operations directly when possible, otherwise queue them for every region
+     */
+    private void submitIndexOperationMessage( final IndexOperationMessage indexOperationMessage ) {
+        if ( indexDirectly ) {
+            indexDirect( indexOperationMessage );
+        }
+        else {
+            queueIndexOperationMessage( indexOperationMessage );
+        }
+    }
+
     public void index(final ApplicationScope applicationScope, final Id id, final long updatedSince) {
 
         EntityIndexOperation entityIndexOperation =
@@ -106,7 +106,7 @@ public class AsyncIndexProvider implements Provider<AsyncEventService> {
             case LOCAL:
                 AsyncEventServiceImpl eventService = new AsyncEventServiceImpl(scope -> new LocalQueueManager(), indexProcessorFig, indexProducer, metricsFactory,
                     entityCollectionManagerFactory, indexLocationStrategyFactory, entityIndexFactory, eventBuilder,mapManagerFactory, queueFig,rxTaskScheduler);
-                eventService.MAX_TAKE = 1000;
+                eventService.MAX_TAKE = indexProcessorFig.getLocalQueueTakeSize();
                 return eventService;
             case SQS:
                 throw new IllegalArgumentException("Configuration value of SQS is no longer allowed. Use SNS instead with only a single region");
@@ -74,6 +74,15 @@ public interface EventBuilder {
     Observable<IndexOperationMessage> buildEntityIndex( EntityIndexOperation entityIndexOperation );
 
 
+    /**
+     * Re-index an entity that has already been loaded in the scope provided
+     * @param entityIndexOperation
+     * @param entity
+     * @return
+     */
+    Observable<IndexOperationMessage> buildEntityIndex( EntityIndexOperation entityIndexOperation, Entity entity );
+
+
     /**
      * Find all versions of the entity older than the latest and de-index them.
      * @param applicationScope
@@ -84,6 +93,18 @@ public interface EventBuilder {
     Observable<IndexOperationMessage> deIndexOldVersions( ApplicationScope applicationScope,
                                                           Id entityId, UUID markedVersion );
 
+    /**
+     * Find all versions of the entity older than the marked version, back to the versions before the oldest marked
+     * version, and de-index them.  Used to handle several de-index events for the same entity at once.
+     * @param applicationScope
+     * @param entityId
+     * @param markedVersion The newest marked version
+     * @param oldestMarkedVersion The oldest marked version
+     * @return
+     */
+    Observable<IndexOperationMessage> deIndexOldVersions( ApplicationScope applicationScope, Id entityId,
+                                                          UUID markedVersion, UUID oldestMarkedVersion );
+
     /**
      * A bean to hold both our observables so the caller can choose the subscription mechanism.  Note that
      * indexOperationMessages should be subscribed and completed BEFORE the getEntitiesDeleted is subscribed
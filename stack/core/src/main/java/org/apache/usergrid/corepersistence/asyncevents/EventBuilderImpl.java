@@ -23,6 +23,7 @@ package org.apache.usergrid.corepersistence.asyncevents;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.usergrid.utils.UUIDUtils;
 import org.slf4j.Logger;
@@ -129,7 +130,8 @@ public class EventBuilderImpl implements EventBuilder {
             // fetch entity versions to be de-index by looking in cassandra
             deIndexObservable =
                 indexService.deIndexEntity(applicationScope, entityId, mostRecentlyMarked.getVersion(),
-                    getVersionsOlderThanMarked(ecm, entityId, mostRecentlyMarked.getVersion()));
+                    getVersionsOlderThanMarked(ecm, entityId, mostRecentlyMarked.getVersion(),
+                        mostRecentlyMarked.getVersion()));
 
             ecmDeleteObservable =
                 ecm.getVersionsFromMaxToMin( entityId, mostRecentlyMarked.getVersion() )
@@ -153,9 +155,20 @@ public class EventBuilderImpl implements EventBuilder {
         final Id entityId = entityIndexOperation.getId();
 
         //load the entity
-        return entityCollectionManagerFactory.createCollectionManager( applicationScope ).load( entityId ).filter(
-            entity -> {
-                final Field<Long> modified = entity.getField( Schema.PROPERTY_MODIFIED );
+        return entityCollectionManagerFactory.createCollectionManager( applicationScope ).load( entityId )
+            .flatMap( entity -> buildEntityIndex( entityIndexOperation, entity ) );
+    }
+
+
+    @Override
+    public Observable<IndexOperationMessage> buildEntityIndex( final EntityIndexOperation entityIndexOperation,
+                                                               final Entity entity ) {
+
+        final ApplicationScope applicationScope = entityIndexOperation.getApplicationScope();
+
+        return Observable.just( entity ).filter(
+            loaded -> {
+                final Field<Long> modified = loaded.getField( Schema.PROPERTY_MODIFIED );
 
                 /**
                  * We don't have a modified field, so we can't check, pass it through
@@ -169,7 +182,7 @@ public class EventBuilderImpl implements EventBuilder {
                 return modified.getValue() >= entityIndexOperation.getUpdatedSince();
             } )
             //perform indexing on the task scheduler and start it
-            .flatMap( entity -> indexService.indexEntity( applicationScope, entity ) );
+            .flatMap( loaded -> indexService.indexEntity( applicationScope, loaded ) );
     }
 
 
@@ -177,6 +190,15 @@ public class EventBuilderImpl implements EventBuilder {
     public Observable<IndexOperationMessage> deIndexOldVersions( final ApplicationScope applicationScope,
                                                                  final Id entityId, final UUID markedVersion ){
 
+        return deIndexOldVersions( applicationScope, entityId, markedVersion, markedVersion );
+    }
+
+
+    @Override
+    public Observable<IndexOperationMessage> deIndexOldVersions( final ApplicationScope applicationScope,
+                                                                 final Id entityId, final UUID markedVersion,
+                                                                 final UUID oldestMarkedVersion ){
+
         if (logger.isDebugEnabled()) {
             logger.debug("Removing old versions of entity {} from index in app scope {}", entityId, applicationScope );
         }
@@ -185,20 +207,24 @@ public class EventBuilderImpl implements EventBuilder {
 
 
         return indexService.deIndexOldVersions( applicationScope, entityId,
-            getVersionsOlderThanMarked(ecm, entityId, markedVersion), markedVersion);
+            getVersionsOlderThanMarked(ecm, entityId, markedVersion, oldestMarkedVersion), markedVersion);
 
     }
 
 
-    private List<UUID> getVersionsOlderThanMarked( final EntityCollectionManager ecm,
-                                                   final Id entityId, final UUID markedVersion ){
+    private List<UUID> getVersionsOlderThanMarked( final EntityCollectionManager ecm, final Id entityId,
+                                                   final UUID markedVersion, final UUID oldestMarkedVersion ){
 
         final List<UUID> versions = new ArrayList<>();
 
-        // only take last 5 versions to avoid eating memory. a tool can be built for massive cleanups for old usergrid
-        // clusters that do not have this in-line cleanup
+        final long oldestMarkedTimestamp = oldestMarkedVersion.timestamp();
+        final AtomicInteger fromOldestMarked = new AtomicInteger();
+
+        // only take last 5 versions from the oldest marked version to avoid eating memory. a tool can be built for
+        // massive cleanups for old usergrid clusters that do not have this in-line cleanup
         ecm.getVersionsFromMaxToMin( entityId, markedVersion)
-            .take(5)
+            .takeWhile( mvccLogEntry -> mvccLogEntry.getVersion().timestamp() > oldestMarkedTimestamp
+                || fromOldestMarked.getAndIncrement() < 5 )
             .forEach( mvccLogEntry -> {
                 if ( mvccLogEntry.getVersion().timestamp() < markedVersion.timestamp() ) {
                     versions.add(mvccLogEntry.getVersion());
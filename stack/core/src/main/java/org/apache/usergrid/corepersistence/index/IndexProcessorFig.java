@@ -46,6 +46,12 @@ public interface IndexProcessorFig extends GuicyFig {
 
     String REINDEX_CONCURRENCY_FACTOR = "elasticsearch.reindex.concurrency.factor";
 
+    String LOCAL_QUEUE_TAKE_SIZE = "elasticsearch.queue_impl.local.take_size";
+
+    String EVENT_LOAD_BATCH_SIZE = "event.load.batch_size";
+
+    String DIRECT_INDEX = "elasticsearch.queue_impl.direct_index";
+
 
     /**
      * Set the amount of time to wait when Elasticsearch rejects a requests before
@@ -101,6 +107,30 @@ public interface IndexProcessorFig extends GuicyFig {
     @Key(REINDEX_CONCURRENCY_FACTOR)
     int getReindexConcurrencyFactor();
 
+    /**
+     * The number of messages each worker takes from the queue at once when the LOCAL queue implementation is used.
+     * SQS caps a receive at 10 messages, the in memory queue has no such limit.
+     */
+    @Default("1000")
+    @Key(LOCAL_QUEUE_TAKE_SIZE)
+    int getLocalQueueTakeSize();
+
+    /**
+     * The max number of entities to read in a single multi-get when loading the entities of the index events taken
+     * from the queue.  Must not be over collection.max.load.size
+     */
+    @Default("100")
+    @Key(EVENT_LOAD_BATCH_SIZE)
+    int getEventLoadBatchSize();
+
+    /**
+     * When no other region needs to index the batch, hand the index operations built by the workers directly to the
+     * index producer instead of writing them to map persistence and queueing an ElasticsearchIndexEvent.
+     */
+    @Default("true")
+    @Key(DIRECT_INDEX)
+    boolean isDirectIndexEnabled();
+
     /**
      * Flag to resolve the LOCAL queue implementation service synchronously.
      */
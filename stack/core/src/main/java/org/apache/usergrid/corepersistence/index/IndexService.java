@@ -72,7 +72,8 @@ public interface IndexService {
 
     /**
      * De-index all documents with the specified entityId and versions provided.  This will also remove any documents
-     * where the entity is a source/target node ( index docs where this entityId is a part of connections).
+     * where the entity is a source/target node ( index docs where this entityId is a part of connections).  The
+     * documents are de-indexed in batches, so more than one message may be emitted.
      *
      * @param applicationScope
      * @param entityId
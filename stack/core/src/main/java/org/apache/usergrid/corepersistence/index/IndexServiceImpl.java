@@ -281,10 +281,17 @@ public class IndexServiceImpl implements IndexService {
 
         // for now, query the index to remove docs where the entity is source/target node and older than markedVersion
         // TODO: investigate getting this information from graph
-        CandidateResults candidateResults = ei.getNodeDocsOlderThanMarked(entityId, markedVersion );
-        candidateResults.forEach(candidateResult -> batch.deindex(candidateResult));
+        // the docs are streamed from a scroll, and each buffer of them is de-indexed in its own batch
+        final Observable<IndexOperationMessage> olderDocBatches =
+            ei.streamNodeDocsOlderThanMarked( entityId, markedVersion ).buffer( indexFig.getIndexBatchSize() )
 
-        return Observable.just(batch.build());
+                //collect each buffer into a single batch
+                .flatMap( buffer -> Observable.from( buffer )
+                    .collect( () -> ei.createBatch(),
+                        ( docBatch, candidateResult ) -> docBatch.deindex( candidateResult ) )
+                    .map( docBatch -> docBatch.build() ) );
+
+        return Observable.just( batch.build() ).concatWith( olderDocBatches );
 
     }
 
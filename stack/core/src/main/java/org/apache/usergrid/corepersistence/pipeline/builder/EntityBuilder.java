@@ -51,4 +51,13 @@ public class EntityBuilder {
         //we must add our resume filter so we drop our previous page first element if it's present
         return pipeline.withFilter( new EntityResumeFilter() ).withFilter(new ResultsPageCollector<>()).execute();
     }
+
+
+    /**
+     * Stream our results of entities without collecting them into pages.  Use with pipelines that have no cursor
+     * @return
+     */
+    public Observable<Entity> stream(){
+        return pipeline.execute().map( filterResult -> filterResult.getValue() );
+    }
 }
@@ -20,7 +20,10 @@
 package org.apache.usergrid.corepersistence.pipeline.builder;
 
 
+import java.util.List;
+
 import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
 import org.apache.usergrid.corepersistence.pipeline.Pipeline;
 import org.apache.usergrid.corepersistence.pipeline.PipelineOperation;
 import org.apache.usergrid.corepersistence.pipeline.read.FilterFactory;
@@ -112,6 +115,25 @@ public class IdBuilder {
     }
 
 
+    /**
+     * Traverse a path of connections from our input Id.  Each connection is a hop that reads the edges of the nodes
+     * emitted by the previous hop in parallel, and traverses each node only once
+     * @param connectionNames The names of the connections to traverse, in order
+     * @return
+     */
+    public IdBuilder traverseConnections( final List<String> connectionNames ) {
+        Preconditions.checkArgument( !connectionNames.isEmpty(), "at least one connection is required" );
+
+        Pipeline<FilterResult<Id>> newFilter = pipeline;
+
+        for ( final String connectionName : connectionNames ) {
+            newFilter = newFilter.withFilter( filterFactory.readGraphConnectionHopFilter( connectionName ) );
+        }
+
+        return new IdBuilder( newFilter, filterFactory );
+    }
+
+
     /**
      * Search all collections from our inputId with the specified criteria
      * @param collectionName  The name of the collection
@@ -145,6 +167,41 @@ public class IdBuilder {
     }
 
 
+    /**
+     * Stream every result of the search of the collections from our inputId.  Results are read in a scroll, so they
+     * have no cursor
+     * @param collectionName  The name of the collection
+     * @param ql The user's query to execute
+     * @param entityType The type of the entity
+     * @return  Candidate results
+     */
+    public CandidateBuilder streamCollection( final String collectionName, final String ql, final String entityType ) {
+
+        final Pipeline<FilterResult<Candidate>> newFilter = pipeline.withFilter( filterFactory.streamCollectionFilter(
+            ql, collectionName, entityType ) );
+
+        return new CandidateBuilder( newFilter, filterFactory );
+    }
+
+
+    /**
+     * Stream every result of the search of the connections from our input Id.  Results are read in a scroll, so they
+     * have no cursor
+     * @param connectionName The connection name to search
+     * @param ql The search query
+     * @param entityType The optional type of entity.  If this is absent, all entity types in the connection will be searched
+     * @return  Candidate results
+     */
+    public CandidateBuilder streamConnection( final String connectionName, final String ql,
+                                              final Optional<String> entityType ) {
+
+        final Pipeline<FilterResult<Candidate>> newFilter = pipeline.withFilter( filterFactory.streamConnectionFilter(
+            ql, connectionName, entityType ) );
+
+        return new CandidateBuilder( newFilter, filterFactory );
+    }
+
+
     /**
      * Create connection refs from our ids.  This is a legacy operation
      * @param sourceId
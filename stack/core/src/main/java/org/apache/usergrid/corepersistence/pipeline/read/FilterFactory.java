@@ -27,6 +27,8 @@ import org.apache.usergrid.corepersistence.pipeline.read.search.CandidateEntityF
 import org.apache.usergrid.corepersistence.pipeline.read.search.CandidateIdFilter;
 import org.apache.usergrid.corepersistence.pipeline.read.search.SearchCollectionFilter;
 import org.apache.usergrid.corepersistence.pipeline.read.search.SearchConnectionFilter;
+import org.apache.usergrid.corepersistence.pipeline.read.search.StreamCollectionFilter;
+import org.apache.usergrid.corepersistence.pipeline.read.search.StreamConnectionFilter;
 import org.apache.usergrid.corepersistence.pipeline.read.traverse.*;
 import org.apache.usergrid.persistence.model.entity.Id;
 
@@ -63,6 +65,14 @@ public interface FilterFactory {
     ReadGraphConnectionFilter readGraphConnectionFilter( final String connectionName );
 
 
+    /**
+     * Generate a new instance of the command with the specified parameters
+     *
+     * @param connectionName The connection name to use when traversing one hop of a multi hop traversal
+     */
+    ReadGraphConnectionHopFilter readGraphConnectionHopFilter( final String connectionName );
+
+
     /**
      * Generate a new instance of the command with the specified parameters
      *
@@ -112,6 +122,30 @@ public interface FilterFactory {
                                                    final Optional<String> connectedEntityType );
 
 
+    /**
+     * Generate a new instance of the command with the specified parameters
+     *
+     * @param query The query to use when streaming the entities in the collection
+     * @param collectionName The collection name to use when querying
+     */
+    StreamCollectionFilter streamCollectionFilter( @Assisted( "query" ) final String query,
+                                                   @Assisted( "collectionName" ) final String collectionName,
+                                                   @Assisted( "entityType" ) final String entityType );
+
+
+    /**
+     * Generate a new instance of the command with the specified parameters
+     *
+     * @param query The query to use when streaming the entities in the connection
+     * @param connectionName The type of connection to query
+     * @param connectedEntityType The type of entity in the connection.  Leave absent to query all entity types
+     */
+    StreamConnectionFilter streamConnectionFilter( @Assisted( "query" ) final String query,
+                                                   @Assisted( "connectionName" ) final String connectionName,
+                                                   @Assisted( "connectedEntityType" )
+                                                   final Optional<String> connectedEntityType );
+
+
     /**
      * Generate a new instance of the command with the specified parameters
      */
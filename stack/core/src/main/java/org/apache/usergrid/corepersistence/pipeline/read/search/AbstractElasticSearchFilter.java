@@ -43,7 +43,7 @@ import java.util.Collection;
 /**
  * Command for reading graph edges
  */
-public abstract class AbstractElasticSearchFilter extends AbstractPathFilter<Id, Candidate, Integer> {
+public abstract class AbstractElasticSearchFilter extends AbstractPathFilter<Id, Candidate, ElasticsearchCursor> {
 
     private static final Logger logger = LoggerFactory.getLogger( AbstractElasticSearchFilter.class );
 
@@ -92,11 +92,13 @@ public abstract class AbstractElasticSearchFilter extends AbstractPathFilter<Id,
                 //our offset to our start value.  This will be set the first time we emit
                 //after we receive new ids, we want to reset this to 0
                 //set our our constant state
-                final Optional<Integer> startFromCursor = getSeekValue();
+                final Optional<ElasticsearchCursor> startFromCursor = getSeekValue();
 
-                final int startOffset = startFromCursor.or( 0 );
+                int currentOffSet = startFromCursor.isPresent() ? startFromCursor.get().getOffset() : 0;
 
-                int currentOffSet = startOffset;
+                //the position of the last candidate we emitted, to start the next page after it
+                Optional<SearchPosition> startAfter = startFromCursor.isPresent() ?
+                    startFromCursor.get().getStartAfter() : Optional.<SearchPosition>absent();
 
                 subscriber.onStart();
 
@@ -105,27 +107,37 @@ public abstract class AbstractElasticSearchFilter extends AbstractPathFilter<Id,
 
                     try {
                         final CandidateResults candidateResults =
-                            applicationEntityIndex.search( searchEdge, searchTypes, query, limit, currentOffSet );
+                            applicationEntityIndex.search( searchEdge, searchTypes, query, limit, currentOffSet,
+                                startAfter );
 
 
                         Collection<SelectFieldMapping> fieldMappingCollection = candidateResults.getGetFieldMappings();
 
 
-                        for( CandidateResult candidateResult: candidateResults){
+                        for ( int i = 0; i < candidateResults.size(); i++ ) {
 
                             //our subscriber unsubscribed, break out
                             if(subscriber.isUnsubscribed()){
                                 return;
                             }
 
-                            final Candidate candidate = new Candidate( candidateResult, searchEdge, fieldMappingCollection );
+                            final Candidate candidate =
+                                new Candidate( candidateResults.get( i ), searchEdge, fieldMappingCollection );
+
+                            //resuming from this cursor includes this candidate
+                            final ElasticsearchCursor cursor = new ElasticsearchCursor( currentOffSet, startAfter );
 
                             final FilterResult<Candidate>
-                                result = createFilterResult( candidate, currentOffSet, idFilterResult.getPath() );
+                                result = createFilterResult( candidate, cursor, idFilterResult.getPath() );
 
                             subscriber.onNext( result );
 
                             currentOffSet++;
+
+                            //if the results have no positions, keep the one we had so we page by offset
+                            if ( candidateResults.hasPositions() ) {
+                                startAfter = candidateResults.getPosition( i );
+                            }
                         }
 
                         /**
@@ -155,7 +167,7 @@ public abstract class AbstractElasticSearchFilter extends AbstractPathFilter<Id,
 
 
     @Override
-    protected CursorSerializer<Integer> getCursorSerializer() {
+    protected CursorSerializer<ElasticsearchCursor> getCursorSerializer() {
         return ElasticsearchCursorSerializer.INSTANCE;
     }
 
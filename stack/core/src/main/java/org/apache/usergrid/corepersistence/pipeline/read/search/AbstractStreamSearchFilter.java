@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.corepersistence.pipeline.read.search;
+
+
+import java.util.Collection;
+
+import org.apache.usergrid.corepersistence.index.IndexLocationStrategyFactory;
+import org.apache.usergrid.corepersistence.pipeline.read.AbstractFilter;
+import org.apache.usergrid.corepersistence.pipeline.read.EdgePath;
+import org.apache.usergrid.corepersistence.pipeline.read.FilterResult;
+import org.apache.usergrid.persistence.core.metrics.MetricsFactory;
+import org.apache.usergrid.persistence.core.metrics.ObservableTimer;
+import org.apache.usergrid.persistence.index.EntityIndex;
+import org.apache.usergrid.persistence.index.EntityIndexFactory;
+import org.apache.usergrid.persistence.index.SearchEdge;
+import org.apache.usergrid.persistence.index.SearchTypes;
+import org.apache.usergrid.persistence.index.SelectFieldMapping;
+import org.apache.usergrid.persistence.index.query.ParsedQueryBuilder;
+import org.apache.usergrid.persistence.model.entity.Id;
+
+import com.codahale.metrics.Timer;
+import com.google.common.base.Optional;
+
+import rx.Observable;
+
+
+/**
+ * Command for streaming every search result.  Unlike {@link AbstractElasticSearchFilter}, results are read with a
+ * scroll instead of pages, so they have no cursor and can't be resumed.  Use for reading whole result sets, such as for
+ * exports.
+ */
+public abstract class AbstractStreamSearchFilter extends AbstractFilter<FilterResult<Id>, FilterResult<Candidate>> {
+
+    private final EntityIndexFactory entityIndexFactory;
+    private final IndexLocationStrategyFactory indexLocationStrategyFactory;
+    private final String query;
+    private final Timer streamTimer;
+
+
+    /**
+     * Create a new instance of our command
+     */
+    public AbstractStreamSearchFilter( final EntityIndexFactory entityIndexFactory,
+                                       final MetricsFactory metricsFactory,
+                                       final IndexLocationStrategyFactory indexLocationStrategyFactory,
+                                       final String query ) {
+        this.entityIndexFactory = entityIndexFactory;
+        this.indexLocationStrategyFactory = indexLocationStrategyFactory;
+        this.query = query;
+        this.streamTimer = metricsFactory.getTimer( AbstractStreamSearchFilter.class, "query.stream" );
+    }
+
+
+    @Override
+    public Observable<FilterResult<Candidate>> call( final Observable<FilterResult<Id>> observable ) {
+
+        final EntityIndex applicationEntityIndex = entityIndexFactory.createEntityIndex(
+            indexLocationStrategyFactory.getIndexLocationStrategy( pipelineContext.getApplicationScope() ) );
+
+        final SearchTypes searchTypes = getSearchTypes();
+
+        //the search results carry the select mappings, but the stream doesn't, so get them from the query
+        final Collection<SelectFieldMapping> fieldMappings = ParsedQueryBuilder.build( query ).getSelectFieldMappings();
+
+        //stream the ids one at a time, so we only have one scroll open
+        return observable.concatMap( idFilterResult -> {
+
+            final SearchEdge searchEdge = getSearchEdge( idFilterResult.getValue() );
+
+            final Observable<FilterResult<Candidate>> candidates =
+                applicationEntityIndex.streamSearch( searchEdge, searchTypes, query ).map(
+                    candidateResult -> new FilterResult<>( new Candidate( candidateResult, searchEdge, fieldMappings ),
+                        Optional.<EdgePath>absent() ) );
+
+            return ObservableTimer.time( candidates, streamTimer );
+        } );
+    }
+
+
+    /**
+     * Get the search edge from the id
+     */
+    protected abstract SearchEdge getSearchEdge( final Id id );
+
+    /**
+     * Get the search types
+     */
+    protected abstract SearchTypes getSearchTypes();
+}
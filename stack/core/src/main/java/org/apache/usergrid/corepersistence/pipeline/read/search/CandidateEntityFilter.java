@@ -22,13 +22,30 @@ package org.apache.usergrid.corepersistence.pipeline.read.search;
 
 import java.util.*;
 
+import org.apache.usergrid.corepersistence.EntityManagerFig;
 import org.apache.usergrid.corepersistence.index.IndexLocationStrategyFactory;
+import org.apache.usergrid.corepersistence.rx.impl.AsyncRepair;
+import org.apache.usergrid.persistence.core.rx.RxTaskScheduler;
 import org.apache.usergrid.persistence.index.*;
+import org.apache.usergrid.persistence.index.impl.IndexOperationMessage;
 import org.apache.usergrid.persistence.index.impl.IndexProducer;
+import org.apache.usergrid.persistence.model.field.ArrayField;
+import org.apache.usergrid.persistence.model.field.BooleanField;
+import org.apache.usergrid.persistence.model.field.ByteArrayField;
 import org.apache.usergrid.persistence.model.field.DistanceField;
 import org.apache.usergrid.persistence.model.field.DoubleField;
 import org.apache.usergrid.persistence.model.field.EntityObjectField;
 import org.apache.usergrid.persistence.model.field.Field;
+import org.apache.usergrid.persistence.model.field.FloatField;
+import org.apache.usergrid.persistence.model.field.IntegerField;
+import org.apache.usergrid.persistence.model.field.ListField;
+import org.apache.usergrid.persistence.model.field.LocationField;
+import org.apache.usergrid.persistence.model.field.LongField;
+import org.apache.usergrid.persistence.model.field.NullField;
+import org.apache.usergrid.persistence.model.field.SerializedObjectField;
+import org.apache.usergrid.persistence.model.field.SetField;
+import org.apache.usergrid.persistence.model.field.StringField;
+import org.apache.usergrid.persistence.model.field.UUIDField;
 import org.apache.usergrid.persistence.model.field.value.EntityObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +57,8 @@ import org.apache.usergrid.persistence.collection.EntityCollectionManager;
 import org.apache.usergrid.persistence.collection.EntityCollectionManagerFactory;
 import org.apache.usergrid.persistence.collection.EntitySet;
 import org.apache.usergrid.persistence.collection.MvccEntity;
+import org.apache.usergrid.persistence.collection.MvccLogEntry;
+import org.apache.usergrid.persistence.collection.VersionSet;
 import org.apache.usergrid.persistence.core.scope.ApplicationScope;
 import org.apache.usergrid.persistence.model.entity.Entity;
 import org.apache.usergrid.persistence.model.entity.Id;
@@ -55,25 +74,36 @@ import rx.Observable;
  * Loads entities from an incoming CandidateResult emissions into entities, then streams them on performs internal
  * buffering for efficiency.  Note that all entities may not be emitted if our load crosses page boundaries.
  * It is up to the collector to determine when to stop streaming entities.
+ *
+ * When candidate versions are verified first, only the version log of the candidates is read before the load, and
+ * only the candidates that are current are loaded.  Stale candidates are de-indexed off the request thread.
  */
 public class CandidateEntityFilter extends AbstractFilter<FilterResult<Candidate>, FilterResult<Entity>> {
 
+    private static final Logger logger = LoggerFactory.getLogger( CandidateEntityFilter.class );
+
     private final EntityCollectionManagerFactory entityCollectionManagerFactory;
     private final EntityIndexFactory entityIndexFactory;
     private final IndexLocationStrategyFactory indexLocationStrategyFactory;
     private final IndexProducer indexProducer;
+    private final RxTaskScheduler rxTaskScheduler;
+    private final EntityManagerFig entityManagerFig;
 
 
     @Inject
     public CandidateEntityFilter( final EntityCollectionManagerFactory entityCollectionManagerFactory,
                                   final EntityIndexFactory entityIndexFactory,
                                   final IndexLocationStrategyFactory indexLocationStrategyFactory,
-                                  final IndexProducer indexProducer
+                                  final IndexProducer indexProducer,
+                                  @AsyncRepair final RxTaskScheduler rxTaskScheduler,
+                                  final EntityManagerFig entityManagerFig
                                   ) {
         this.entityCollectionManagerFactory = entityCollectionManagerFactory;
         this.entityIndexFactory = entityIndexFactory;
         this.indexLocationStrategyFactory = indexLocationStrategyFactory;
         this.indexProducer = indexProducer;
+        this.rxTaskScheduler = rxTaskScheduler;
+        this.entityManagerFig = entityManagerFig;
     }
 
 
@@ -96,64 +126,50 @@ public class CandidateEntityFilter extends AbstractFilter<FilterResult<Candidate
         final EntityIndex applicationIndex = entityIndexFactory
             .createEntityIndex(indexLocationStrategyFactory.getIndexLocationStrategy(applicationScope) );
 
+        final boolean verifyVersions = entityManagerFig.getVerifyCandidateVersions();
+
         //buffer them to get a page size we can make 1 network hop
         final Observable<FilterResult<Entity>> searchIdSetObservable =
             candidateResultsObservable.buffer( pipelineContext.getLimit() )
 
+            //drop the stale candidates using only their latest versions
+            .flatMap( candidateResults -> verifyVersions ?
+                verifyLatestVersions( entityCollectionManager, applicationIndex, candidateResults ) :
+                Observable.just( candidateResults ) )
+
+            .filter( candidateResults -> !candidateResults.isEmpty() )
+
             //load them
             .flatMap( candidateResults -> {
 
+                final Collection<SelectFieldMapping> mappings = candidateResults.get( 0 ).getValue().getFields();
+                final Set<String> fieldNames = getTopLevelFieldNames( mappings );
+
                 //flatten toa list of ids to load
-                final Observable<List<Candidate>> candidates =
-                    Observable.from(candidateResults)
-                        .map(filterResultCandidate -> filterResultCandidate.getValue()).toList();
-                //load the ids
-                final Observable<FilterResult<Entity>> entitySetObservable =
-                    candidates.flatMap(candidatesList -> {
-                        Collection<SelectFieldMapping> mappings = candidatesList.get(0).getFields();
-                        Observable<EntitySet> entitySets = Observable.from(candidatesList)
-                            .map(candidateEntry -> candidateEntry.getCandidateResult().getId()).toList()
-                            .flatMap(idList -> entityCollectionManager.load(idList));
-                        //now we have a collection, validate our canidate set is correct.
-                        return entitySets.map(
-                            entitySet -> new EntityVerifier(
-                                applicationIndex.createBatch(), entitySet, candidateResults,indexProducer)
-                        )
-                            .doOnNext(entityCollector -> entityCollector.merge())
-                            .flatMap(entityCollector -> Observable.from(entityCollector.getResults()))
-                            .map(entityFilterResult -> {
-                                final Entity entity = entityFilterResult.getValue();
-                                if (mappings.size() > 0) {
-                                    Map<String,Field> fieldMap = new HashMap<String, Field>(mappings.size());
-                                    rx.Observable.from(mappings)
-
-                                        .filter(mapping -> {
-                                            if ( entity.getFieldMap().containsKey(mapping.getSourceFieldName())) {
-                                                return true;
-                                            }
-                                            String[] parts = mapping.getSourceFieldName().split("\\.");
-                                            return nestedFieldCheck( parts, entity.getFieldMap() );
-                                        })
-
-                                        .doOnNext(mapping -> {
-                                            Field field = entity.getField(mapping.getSourceFieldName());
-                                            if ( field != null ) {
-                                                field.setName( mapping.getTargetFieldName() );
-                                                fieldMap.put( mapping.getTargetFieldName(), field );
-                                            } else {
-                                                String[] parts = mapping.getSourceFieldName().split("\\.");
-                                                nestedFieldSet( fieldMap, parts, entity.getFieldMap() );
-                                            }
-                                        }).toBlocking().lastOrDefault(null);
-
-                                    entity.setFieldMap(fieldMap);
-                                }
-                                return entityFilterResult;
-                            });
-                    });
-                return entitySetObservable;
+                final List<Id> idList = new ArrayList<>( candidateResults.size() );
 
+                for ( final FilterResult<Candidate> candidateResult : candidateResults ) {
+                    idList.add( candidateResult.getValue().getCandidateResult().getId() );
+                }
 
+                //load the ids
+                final Observable<EntitySet> entitySets = fieldNames.isEmpty() ? entityCollectionManager.load( idList )
+                    : entityCollectionManager.load( idList, fieldNames );
+
+                //now we have a collection, validate our canidate set is correct.
+                return entitySets.map(
+                    entitySet -> new EntityVerifier( applicationIndex.createBatch(), entitySet, candidateResults ) )
+                    .doOnNext( entityCollector -> {
+                        entityCollector.merge();
+                        repair( entityCollector.getBatch() );
+                    } )
+                    .flatMap( entityCollector -> Observable.from( entityCollector.getResults() ) )
+                    .map( entityFilterResult -> {
+                        if ( !mappings.isEmpty() ) {
+                            project( entityFilterResult.getValue(), mappings );
+                        }
+                        return entityFilterResult;
+                    } );
             } );
 
         //if we filter all our results, we want to continue to try the next page
@@ -161,6 +177,164 @@ public class CandidateEntityFilter extends AbstractFilter<FilterResult<Candidate
     }
 
 
+    /**
+     * Read the latest versions of the candidates and emit the candidates that are current
+     */
+    private Observable<List<FilterResult<Candidate>>> verifyLatestVersions(
+        final EntityCollectionManager entityCollectionManager, final EntityIndex applicationIndex,
+        final List<FilterResult<Candidate>> candidateResults ) {
+
+        final List<Id> idList = new ArrayList<>( candidateResults.size() );
+
+        for ( final FilterResult<Candidate> candidateResult : candidateResults ) {
+            idList.add( candidateResult.getValue().getCandidateResult().getId() );
+        }
+
+        return entityCollectionManager.getLatestVersion( idList ).map(
+            versionSet -> new VersionVerifier( applicationIndex.createBatch(), versionSet, candidateResults ) )
+            .doOnNext( versionVerifier -> {
+                versionVerifier.merge();
+                repair( versionVerifier.getBatch() );
+            } )
+            .map( versionVerifier -> versionVerifier.getResults() );
+    }
+
+
+    /**
+     * De-index the stale candidates in the background, the results don't depend on it and a failed repair is made
+     * again on the next read
+     */
+    private void repair( final EntityIndexBatch batch ) {
+
+        final IndexOperationMessage indexOperationMessage = batch.build();
+
+        if ( indexOperationMessage.isEmpty() ) {
+            return;
+        }
+
+        indexProducer.put( indexOperationMessage ).subscribeOn( rxTaskScheduler.getAsyncIOScheduler() )
+                     .subscribe( result -> {}, t -> logger.error( "Unable to de-index stale candidates", t ) );
+    }
+
+
+    /**
+     * Get the top level fields the select mappings read, so the rest of the entity doesn't need to be loaded.  Field
+     * names are case insensitive, the same as in the entity
+     */
+    private Set<String> getTopLevelFieldNames( final Collection<SelectFieldMapping> mappings ) {
+
+        final Set<String> fieldNames = new TreeSet<>( String.CASE_INSENSITIVE_ORDER );
+
+        for ( final SelectFieldMapping mapping : mappings ) {
+            final String sourceFieldName = mapping.getSourceFieldName();
+            final int nested = sourceFieldName.indexOf( '.' );
+
+            fieldNames.add( nested < 0 ? sourceFieldName : sourceFieldName.substring( 0, nested ) );
+        }
+
+        return fieldNames;
+    }
+
+
+    /**
+     * Replace the fields of the entity with the selected fields
+     */
+    private void project( final Entity entity, final Collection<SelectFieldMapping> mappings ) {
+
+        final Map<String, Field> fieldMap = new HashMap<>( mappings.size() );
+
+        for ( final SelectFieldMapping mapping : mappings ) {
+
+            final Field field = entity.getField( mapping.getSourceFieldName() );
+
+            if ( field != null ) {
+                fieldMap.put( mapping.getTargetFieldName(), rename( field, mapping.getTargetFieldName() ) );
+                continue;
+            }
+
+            final String[] parts = mapping.getSourceFieldName().split( "\\." );
+
+            if ( nestedFieldCheck( parts, entity.getFieldMap() ) ) {
+                nestedFieldSet( fieldMap, parts, entity.getFieldMap() );
+            }
+        }
+
+        entity.setFieldMap( fieldMap );
+    }
+
+
+    /**
+     * Fields can be shared with the entity cache, so rather than renaming a field in place a copy of the same type is
+     * created with the new name.  The copy shares the value of the field, which is never modified by the projection
+     */
+    private Field rename( final Field field, final String name ) {
+
+        if ( field.getName().equals( name ) ) {
+            return field;
+        }
+
+        //distance is created for each query and is written as metadata in the map, so it can be renamed in place
+        if ( field instanceof DistanceField ) {
+            field.setName( name );
+            return field;
+        }
+
+        final boolean unique = field.isUnique();
+
+        if ( field instanceof StringField ) {
+            return new StringField( name, ( ( StringField ) field ).getValue(), unique );
+        }
+        if ( field instanceof UUIDField ) {
+            return new UUIDField( name, ( ( UUIDField ) field ).getValue(), unique );
+        }
+        if ( field instanceof LongField ) {
+            return new LongField( name, ( ( LongField ) field ).getValue(), unique );
+        }
+        if ( field instanceof IntegerField ) {
+            return new IntegerField( name, ( ( IntegerField ) field ).getValue(), unique );
+        }
+        if ( field instanceof DoubleField ) {
+            return new DoubleField( name, ( ( DoubleField ) field ).getValue(), unique );
+        }
+        if ( field instanceof FloatField ) {
+            return new FloatField( name, ( ( FloatField ) field ).getValue(), unique );
+        }
+        if ( field instanceof BooleanField ) {
+            return new BooleanField( name, ( ( BooleanField ) field ).getValue(), unique );
+        }
+        if ( field instanceof NullField ) {
+            return new NullField( name, unique );
+        }
+        if ( field instanceof EntityObjectField ) {
+            return new EntityObjectField( name, ( ( EntityObjectField ) field ).getValue() );
+        }
+        if ( field instanceof LocationField ) {
+            return new LocationField( name, ( ( LocationField ) field ).getValue() );
+        }
+        //arrays are lists, check them first
+        if ( field instanceof ArrayField ) {
+            return new ArrayField<>( name, ( ( ArrayField<?> ) field ).getValue() );
+        }
+        if ( field instanceof ListField ) {
+            return new ListField<>( name, ( ( ListField<?> ) field ).getValue() );
+        }
+        if ( field instanceof SetField ) {
+            return new SetField<>( name, ( ( SetField<?> ) field ).getValue() );
+        }
+        if ( field instanceof ByteArrayField ) {
+            final ByteArrayField byteArrayField = ( ByteArrayField ) field;
+            return new ByteArrayField( name, byteArrayField.getValue(), byteArrayField.getClassinfo() );
+        }
+        if ( field instanceof SerializedObjectField ) {
+            final SerializedObjectField serializedObjectField = ( SerializedObjectField ) field;
+            return new SerializedObjectField( name, serializedObjectField.getValue(),
+                serializedObjectField.getClassinfo() );
+        }
+
+        throw new IllegalArgumentException( "Unable to rename field of type " + field.getClass().getName() );
+    }
+
+
     /**
      * Sets field in result map with support for nested fields via recursion.
      *
@@ -217,6 +391,97 @@ public class CandidateEntityFilter extends AbstractFilter<FilterResult<Candidate
     }
 
 
+    /**
+     * Checks the candidates against the latest version in the log, without loading the entities.  Candidates that are
+     * stale are de-indexed and candidates that can't be verified are dropped, the same as the entity verifier
+     */
+    private static final class VersionVerifier {
+
+        private static final Logger logger = LoggerFactory.getLogger( VersionVerifier.class );
+        private final List<FilterResult<Candidate>> results;
+
+        private final EntityIndexBatch batch;
+        private final List<FilterResult<Candidate>> candidateResults;
+        private final VersionSet versionSet;
+
+
+        public VersionVerifier( final EntityIndexBatch batch, final VersionSet versionSet,
+                                final List<FilterResult<Candidate>> candidateResults ) {
+            this.batch = batch;
+            this.versionSet = versionSet;
+            this.candidateResults = candidateResults;
+            this.results = new ArrayList<>( candidateResults.size() );
+        }
+
+
+        /**
+         * Merge our candidates and our version set into results
+         */
+        public void merge() {
+
+            for ( final FilterResult<Candidate> candidateResult : candidateResults ) {
+                validate( candidateResult );
+            }
+        }
+
+
+        public List<FilterResult<Candidate>> getResults() {
+            return results;
+        }
+
+
+        public EntityIndexBatch getBatch() {
+            return batch;
+        }
+
+
+        private void validate( final FilterResult<Candidate> filterResult ) {
+
+            final Candidate candidate = filterResult.getValue();
+            final CandidateResult candidateResult = candidate.getCandidateResult();
+            final SearchEdge searchEdge = candidate.getSearchEdge();
+            final Id candidateId = candidateResult.getId();
+            final UUID candidateVersion = candidateResult.getVersion();
+
+            final MvccLogEntry logEntry = versionSet.getMaxVersion( candidateId );
+
+            //doesn't exist warn and drop
+            if ( logEntry == null ) {
+                logger.warn(
+                    "Searched and received candidate with entityId {} and version {}, yet was not found in cassandra.  Ignoring since this could be a region sync issue",
+                    candidateId, candidateVersion );
+                return;
+            }
+
+            final UUID entityVersion = logEntry.getVersion();
+
+            //entity is newer than ES version, could be an update or the entity is marked as deleted
+            if ( UUIDComparator.staticCompare( entityVersion, candidateVersion ) > 0
+                || logEntry.getState() == MvccLogEntry.State.DELETED ) {
+
+                if ( logger.isDebugEnabled() ) {
+                    logger.debug( "Deindexing stale entity on edge {} for entityId {} and version {}", searchEdge,
+                        candidateId, entityVersion );
+                }
+
+                batch.deindex( searchEdge, candidateId, candidateVersion );
+                return;
+            }
+
+            //ES is newer than cass, ignore it until the read in cass repairs the record
+            if ( UUIDComparator.staticCompare( candidateVersion, entityVersion ) > 0 ) {
+
+                logger.warn(
+                    "Found a newer version in ES over cassandra for edge {} for entityId {} and version {}.  Repair should be run",
+                    searchEdge, candidateId, entityVersion );
+                return;
+            }
+
+            results.add( filterResult );
+        }
+    }
+
+
     /**
      * Our collector to collect entities.  Not quite a true collector, but works within our operational
      * flow as this state is mutable and difficult to represent functionally
@@ -228,17 +493,14 @@ public class CandidateEntityFilter extends AbstractFilter<FilterResult<Candidate
 
         private final EntityIndexBatch batch;
         private final List<FilterResult<Candidate>> candidateResults;
-        private final IndexProducer indexProducer;
         private final EntitySet entitySet;
 
 
         public EntityVerifier( final EntityIndexBatch batch, final EntitySet entitySet,
-                               final List<FilterResult<Candidate>> candidateResults,
-                               final IndexProducer indexProducer) {
+                               final List<FilterResult<Candidate>> candidateResults ) {
             this.batch = batch;
             this.entitySet = entitySet;
             this.candidateResults = candidateResults;
-            this.indexProducer = indexProducer;
             this.results = new ArrayList<>( entitySet.size() );
         }
 
@@ -251,9 +513,6 @@ public class CandidateEntityFilter extends AbstractFilter<FilterResult<Candidate
             for ( final FilterResult<Candidate> candidateResult : candidateResults ) {
                 validate( candidateResult );
             }
-
-            indexProducer.put(batch.build()).toBlocking().lastOrDefault(null); // want to rethrow if batch fails
-
         }
 
 
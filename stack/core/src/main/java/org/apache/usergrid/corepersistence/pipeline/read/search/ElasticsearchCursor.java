@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.corepersistence.pipeline.read.search;
+
+
+import java.io.Serializable;
+
+import org.apache.usergrid.persistence.index.SearchPosition;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+
+
+/**
+ * The point to resume a search from.  The offset is always kept, and the position of the hit before the resume point
+ * is kept when the search supports it.  If the position is absent, the search resumes from the start of the offset.
+ */
+public class ElasticsearchCursor implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int offset;
+    private final SearchPosition startAfter;
+
+
+    public ElasticsearchCursor( final int offset, final Optional<SearchPosition> startAfter ) {
+        Preconditions.checkNotNull( startAfter, "startAfter is required" );
+
+        this.offset = offset;
+        this.startAfter = startAfter.orNull();
+    }
+
+
+    /**
+     * Get the number of results before this cursor
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+
+    /**
+     * Get the position of the result before this cursor
+     */
+    public Optional<SearchPosition> getStartAfter() {
+        return Optional.fromNullable( startAfter );
+    }
+
+
+    @Override
+    public boolean equals( final Object o ) {
+        if ( this == o ) {
+            return true;
+        }
+        if ( !( o instanceof ElasticsearchCursor ) ) {
+            return false;
+        }
+
+        final ElasticsearchCursor that = ( ElasticsearchCursor ) o;
+
+        if ( offset != that.offset ) {
+            return false;
+        }
+
+        return startAfter != null ? startAfter.equals( that.startAfter ) : that.startAfter == null;
+    }
+
+
+    @Override
+    public int hashCode() {
+        int result = offset;
+        result = 31 * result + ( startAfter != null ? startAfter.hashCode() : 0 );
+        return result;
+    }
+
+
+    @Override
+    public String toString() {
+        return "ElasticsearchCursor{" +
+            "offset=" + offset +
+            ", startAfter=" + startAfter +
+            '}';
+    }
+}
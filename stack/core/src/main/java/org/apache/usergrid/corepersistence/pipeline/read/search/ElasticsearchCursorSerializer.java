@@ -20,21 +20,76 @@
 package org.apache.usergrid.corepersistence.pipeline.read.search;
 
 
-import org.apache.usergrid.corepersistence.pipeline.cursor.AbstractCursorSerializer;
+import org.apache.usergrid.corepersistence.pipeline.cursor.CursorParseException;
+import org.apache.usergrid.corepersistence.pipeline.cursor.CursorSerializer;
+import org.apache.usergrid.persistence.index.SearchPosition;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.Optional;
 
 
 /**
- * ElasticSearch cursor serializer
+ * ElasticSearch cursor serializer.  A cursor with only an offset is written as the offset number, the same as cursors
+ * issued before positions existed, so either form can be read back.
  */
-public class ElasticsearchCursorSerializer extends AbstractCursorSerializer<Integer> {
+public class ElasticsearchCursorSerializer implements CursorSerializer<ElasticsearchCursor> {
 
 
     public static final ElasticsearchCursorSerializer INSTANCE = new ElasticsearchCursorSerializer();
 
+    private static final String OFFSET = "o";
+    private static final String TIMESTAMP = "t";
+    private static final String ENTITY_ID = "i";
+    private static final String VERSION = "v";
+
+
+    /**
+     * Intentionally private, use the singleton
+     */
+    private ElasticsearchCursorSerializer() {
+
+    }
+
+
     @Override
-    protected Class<Integer> getType() {
-        return Integer.class;
+    public ElasticsearchCursor fromJsonNode( final JsonNode node, final ObjectMapper objectMapper ) {
+
+        //only an offset
+        if ( node.isNumber() ) {
+            return new ElasticsearchCursor( node.intValue(), Optional.<SearchPosition>absent() );
+        }
+
+        if ( !node.isObject() || !node.has( OFFSET ) || !node.has( TIMESTAMP ) || !node.has( ENTITY_ID ) || !node
+            .has( VERSION ) ) {
+            throw new CursorParseException( "Unable to deserialize value " + node, null );
+        }
+
+        final SearchPosition startAfter =
+            new SearchPosition( node.get( TIMESTAMP ).longValue(), node.get( ENTITY_ID ).textValue(),
+                node.get( VERSION ).textValue() );
+
+        return new ElasticsearchCursor( node.get( OFFSET ).intValue(), Optional.of( startAfter ) );
     }
 
 
+    @Override
+    public JsonNode toNode( final ObjectMapper objectMapper, final ElasticsearchCursor value ) {
+
+        final Optional<SearchPosition> startAfter = value.getStartAfter();
+
+        if ( !startAfter.isPresent() ) {
+            return objectMapper.valueToTree( value.getOffset() );
+        }
+
+        final ObjectNode node = objectMapper.createObjectNode();
+
+        node.put( OFFSET, value.getOffset() );
+        node.put( TIMESTAMP, startAfter.get().getEdgeTimestamp() );
+        node.put( ENTITY_ID, startAfter.get().getEntityId() );
+        node.put( VERSION, startAfter.get().getEntityVersion() );
+
+        return node;
+    }
 }
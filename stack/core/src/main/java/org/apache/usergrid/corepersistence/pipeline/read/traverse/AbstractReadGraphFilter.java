@@ -97,98 +97,116 @@ public abstract class AbstractReadGraphFilter extends AbstractPathFilter<Id, Id,
             final Id id = previousFilterValue.getValue();
 
 
-            final Optional<Edge> typeWrapper = Optional.fromNullable(startFromCursor.orNull());
-
-            /**
-             * We do not want to filter.  This is intentional DO NOT REMOVE!!!
-             *
-             * We want to fire events on these edges if they exist, the delete was missed.
-             */
-            final SimpleSearchByEdgeType search =
-                new SimpleSearchByEdgeType( id, edgeName, Long.MAX_VALUE, SearchByEdgeType.Order.DESCENDING,
-                    typeWrapper, false );
-
             /**
              * TODO, pass a message with pointers to our cursor values to be generated later
              */
-            return graphManager.loadEdgesFromSource( search ).filter(markedEdge -> {
+            return loadEdges( applicationScope, graphManager, edgeName, id, startFromCursor )
+                //set the edge state for cursors
+                .doOnNext( edge -> {
+                    if (logger.isTraceEnabled()) {
+                        logger.trace("Seeking over edge {}", edge);
+                    }
+                    edgeCursorState.update( edge );
+                } )
+
+                    //map our id from the target edge  and set our cursor every edge we traverse
+                .map( edge -> createFilterResult( edge.getTargetNode(), edgeCursorState.getCursorEdge(),
+                    previousFilterValue.getPath() ) );
+        } );
+    }
+
 
-                final boolean isDeleted = markedEdge.isDeleted();
-                final boolean isSourceNodeDeleted = markedEdge.isSourceNodeDelete();
-                final boolean isTargetNodeDelete = markedEdge.isTargetNodeDeleted();
+    /**
+     * Load the edges of the given type from the id.  Deleted edges and edges to deleted nodes are removed and their
+     * deletes are queued, and edges are de-duped
+     *
+     * @param applicationScope The application scope
+     * @param graphManager The graph manager for the application
+     * @param edgeName The edge type to read
+     * @param id The source node to read edges from
+     * @param startFromCursor The edge to seek past, if resuming
+     */
+    protected Observable<MarkedEdge> loadEdges( final ApplicationScope applicationScope,
+                                                final GraphManager graphManager, final String edgeName, final Id id,
+                                                final Optional<MarkedEdge> startFromCursor ) {
 
+        final Optional<Edge> typeWrapper = Optional.fromNullable(startFromCursor.orNull());
 
-                if (isDeleted) {
+        /**
+         * We do not want to filter.  This is intentional DO NOT REMOVE!!!
+         *
+         * We want to fire events on these edges if they exist, the delete was missed.
+         */
+        final SimpleSearchByEdgeType search =
+            new SimpleSearchByEdgeType( id, edgeName, Long.MAX_VALUE, SearchByEdgeType.Order.DESCENDING,
+                typeWrapper, false );
 
-                    logger.info("Edge {} is deleted when seeking, deleting the edge", markedEdge);
-                    final Observable<IndexOperationMessage> indexMessageObservable = eventBuilder.buildDeleteEdge(applicationScope, markedEdge);
+        return graphManager.loadEdgesFromSource( search ).filter(markedEdge -> {
 
-                    indexMessageObservable
-                        .compose(applyCollector())
-                        .subscribeOn(rxTaskScheduler.getAsyncIOScheduler())
-                        .subscribe();
+            final boolean isDeleted = markedEdge.isDeleted();
+            final boolean isSourceNodeDeleted = markedEdge.isSourceNodeDelete();
+            final boolean isTargetNodeDelete = markedEdge.isTargetNodeDeleted();
 
-                }
 
-                if (isSourceNodeDeleted) {
+            if (isDeleted) {
 
-                    final Id sourceNodeId = markedEdge.getSourceNode();
-                    logger.info("Edge {} has a deleted source node, deleting the entity for id {}", markedEdge, sourceNodeId);
+                logger.info("Edge {} is deleted when seeking, deleting the edge", markedEdge);
+                final Observable<IndexOperationMessage> indexMessageObservable = eventBuilder.buildDeleteEdge(applicationScope, markedEdge);
 
-                    final EventBuilderImpl.EntityDeleteResults
-                        entityDeleteResults = eventBuilder.buildEntityDelete(applicationScope, sourceNodeId);
+                indexMessageObservable
+                    .compose(applyCollector())
+                    .subscribeOn(rxTaskScheduler.getAsyncIOScheduler())
+                    .subscribe();
 
-                    entityDeleteResults.getIndexObservable()
-                        .compose(applyCollector())
-                        .subscribeOn(rxTaskScheduler.getAsyncIOScheduler())
-                        .subscribe();
+            }
 
-                    Observable.merge(entityDeleteResults.getEntitiesDeleted(),
-                        entityDeleteResults.getCompactedNode())
-                        .subscribeOn(rxTaskScheduler.getAsyncIOScheduler()).
-                        subscribe();
+            if (isSourceNodeDeleted) {
 
-                }
+                final Id sourceNodeId = markedEdge.getSourceNode();
+                logger.info("Edge {} has a deleted source node, deleting the entity for id {}", markedEdge, sourceNodeId);
 
-                if (isTargetNodeDelete) {
+                final EventBuilderImpl.EntityDeleteResults
+                    entityDeleteResults = eventBuilder.buildEntityDelete(applicationScope, sourceNodeId);
 
-                    final Id targetNodeId = markedEdge.getTargetNode();
-                    logger.info("Edge {} has a deleted target node, deleting the entity for id {}", markedEdge, targetNodeId);
+                entityDeleteResults.getIndexObservable()
+                    .compose(applyCollector())
+                    .subscribeOn(rxTaskScheduler.getAsyncIOScheduler())
+                    .subscribe();
 
-                    final EventBuilderImpl.EntityDeleteResults
-                        entityDeleteResults = eventBuilder.buildEntityDelete(applicationScope, targetNodeId);
+                Observable.merge(entityDeleteResults.getEntitiesDeleted(),
+                    entityDeleteResults.getCompactedNode())
+                    .subscribeOn(rxTaskScheduler.getAsyncIOScheduler()).
+                    subscribe();
 
-                    entityDeleteResults.getIndexObservable()
-                        .compose(applyCollector())
-                        .subscribeOn(rxTaskScheduler.getAsyncIOScheduler())
-                        .subscribe();
+            }
 
-                    Observable.merge(entityDeleteResults.getEntitiesDeleted(),
-                        entityDeleteResults.getCompactedNode())
-                        .subscribeOn(rxTaskScheduler.getAsyncIOScheduler()).
-                        subscribe();
+            if (isTargetNodeDelete) {
 
-                }
+                final Id targetNodeId = markedEdge.getTargetNode();
+                logger.info("Edge {} has a deleted target node, deleting the entity for id {}", markedEdge, targetNodeId);
 
+                final EventBuilderImpl.EntityDeleteResults
+                    entityDeleteResults = eventBuilder.buildEntityDelete(applicationScope, targetNodeId);
 
-                //filter if any of them are marked
-                return !isDeleted && !isSourceNodeDeleted && !isTargetNodeDelete;
+                entityDeleteResults.getIndexObservable()
+                    .compose(applyCollector())
+                    .subscribeOn(rxTaskScheduler.getAsyncIOScheduler())
+                    .subscribe();
 
+                Observable.merge(entityDeleteResults.getEntitiesDeleted(),
+                    entityDeleteResults.getCompactedNode())
+                    .subscribeOn(rxTaskScheduler.getAsyncIOScheduler()).
+                    subscribe();
 
-            })  // any non-deleted edges should be de-duped here so the results are unique
-                .distinct( new EdgeDistinctKey() )
-                //set the edge state for cursors
-                .doOnNext( edge -> {
-                    if (logger.isTraceEnabled()) {
-                        logger.trace("Seeking over edge {}", edge);
-                    }
-                    edgeCursorState.update( edge );
-                } )
+            }
 
-                    //map our id from the target edge  and set our cursor every edge we traverse
-                .map( edge -> createFilterResult( edge.getTargetNode(), edgeCursorState.getCursorEdge(),
-                    previousFilterValue.getPath() ) );
-        } );
+
+            //filter if any of them are marked
+            return !isDeleted && !isSourceNodeDeleted && !isTargetNodeDelete;
+
+
+        })  // any non-deleted edges should be de-duped here so the results are unique
+            .distinct( new EdgeDistinctKey() );
     }
 
 
@@ -222,7 +240,7 @@ public abstract class AbstractReadGraphFilter extends AbstractPathFilter<Id, Id,
      * always try to seek to the same position as we ended.  Since we don't deal with a persistent read result, if we
      * seek to a value = to our last, we may skip data.
      */
-    private final class EdgeState {
+    protected final class EdgeState {
 
         private MarkedEdge cursorEdge = null;
         private MarkedEdge currentEdge = null;
@@ -231,7 +249,7 @@ public abstract class AbstractReadGraphFilter extends AbstractPathFilter<Id, Id,
         /**
          * Update the pointers
          */
-        private void update( final MarkedEdge newEdge ) {
+        protected void update( final MarkedEdge newEdge ) {
             cursorEdge = currentEdge;
             currentEdge = newEdge;
         }
@@ -240,7 +258,7 @@ public abstract class AbstractReadGraphFilter extends AbstractPathFilter<Id, Id,
         /**
          * Get the edge to use in cursors for resume
          */
-        private MarkedEdge getCursorEdge() {
+        protected MarkedEdge getCursorEdge() {
             return cursorEdge;
         }
     }
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.corepersistence.pipeline.read.traverse;
+
+
+import java.util.List;
+
+import org.apache.usergrid.corepersistence.asyncevents.AsyncEventService;
+import org.apache.usergrid.corepersistence.asyncevents.EventBuilder;
+import org.apache.usergrid.corepersistence.pipeline.read.FilterResult;
+import org.apache.usergrid.corepersistence.rx.impl.AsyncRepair;
+import org.apache.usergrid.corepersistence.rx.impl.ResponseImportTasks;
+import org.apache.usergrid.corepersistence.service.ServiceSchedulerFig;
+import org.apache.usergrid.persistence.core.rx.RxTaskScheduler;
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.graph.GraphManager;
+import org.apache.usergrid.persistence.graph.GraphManagerFactory;
+import org.apache.usergrid.persistence.graph.MarkedEdge;
+import org.apache.usergrid.persistence.model.entity.Id;
+
+import com.google.common.base.Optional;
+import com.google.inject.Inject;
+import com.google.inject.assistedinject.Assisted;
+
+import rx.Observable;
+
+import static org.apache.usergrid.corepersistence.util.CpNamingUtils.getEdgeTypeFromConnectionType;
+
+
+/**
+ * Command for reading graph edges on a connection as one hop of a multi hop traversal.  Unlike {@link
+ * ReadGraphConnectionFilter}, the edges of several incoming nodes are read in parallel.
+ *
+ * Incoming nodes are taken in groups of the traverse concurrency, and a node repeated within a group is only traversed
+ * once.  Nodes are not tracked across groups so memory stays bounded by the group on large traversals, which means a
+ * node reached from several nodes of the previous hop in different groups is traversed, and its edges emitted, more
+ * than once.  The first page of edges for every node in the group is read in parallel, then the edges are emitted in
+ * the order of the incoming nodes, reading any edges past the first page as they are consumed.  Keeping the order means
+ * the cursor of each hop resumes the traversal the same way as a single hop.
+ */
+public class ReadGraphConnectionHopFilter extends AbstractReadGraphFilter {
+
+    private final GraphManagerFactory graphManagerFactory;
+    private final RxTaskScheduler readScheduler;
+    private final ServiceSchedulerFig serviceSchedulerFig;
+    private final String connectionName;
+
+
+    /**
+     * Create a new instance of our command
+     */
+    @Inject
+    public ReadGraphConnectionHopFilter( final GraphManagerFactory graphManagerFactory,
+                                         @AsyncRepair final RxTaskScheduler rxTaskScheduler,
+                                         final EventBuilder eventBuilder,
+                                         final AsyncEventService asyncEventService,
+                                         @ResponseImportTasks final RxTaskScheduler readScheduler,
+                                         final ServiceSchedulerFig serviceSchedulerFig,
+                                         @Assisted final String connectionName ) {
+        super( graphManagerFactory, rxTaskScheduler, eventBuilder, asyncEventService );
+        this.graphManagerFactory = graphManagerFactory;
+        this.readScheduler = readScheduler;
+        this.serviceSchedulerFig = serviceSchedulerFig;
+        this.connectionName = connectionName;
+    }
+
+
+    @Override
+    public Observable<FilterResult<Id>> call( final Observable<FilterResult<Id>> previousIds ) {
+
+        final ApplicationScope applicationScope = pipelineContext.getApplicationScope();
+
+        final GraphManager graphManager = graphManagerFactory.createEdgeManager( applicationScope );
+
+        final String edgeName = getEdgeTypeName();
+
+        final int concurrency = serviceSchedulerFig.getTraverseConcurrency();
+
+        final int pageSize = pipelineContext.getLimit();
+
+
+        return previousIds
+            .buffer( concurrency )
+            .concatMap( group -> Observable.from( group )
+                //many nodes in the previous hop can share an edge to the same node, only traverse it once per group
+                .distinct( previousFilterValue -> previousFilterValue.getValue() )
+                //take our seek value in order, only the first node we traverse resumes from the cursor
+                .map( previousFilterValue -> new Hop( previousFilterValue, getSeekValue() ) )
+                .toList() )
+            .concatMap( hops -> Observable.from( hops )
+                //read the first page of every node in parallel
+                .flatMap( hop -> loadEdges( applicationScope, graphManager, edgeName, hop.source.getValue(),
+                    hop.seek ).take( pageSize ).toList().map( firstPage -> {
+                        hop.firstPage = firstPage;
+                        return hop;
+                    } ).subscribeOn( readScheduler.getAsyncIOScheduler() ), concurrency )
+                .toList()
+                //then emit them in order
+                .concatMap( loaded -> Observable.from( hops ) )
+                .concatMap( hop -> traverse( applicationScope, graphManager, edgeName, hop, pageSize ) ) );
+    }
+
+
+    /**
+     * Emit the edges of the hop, reading past the first page if it was full
+     */
+    private Observable<FilterResult<Id>> traverse( final ApplicationScope applicationScope,
+                                                   final GraphManager graphManager, final String edgeName,
+                                                   final Hop hop, final int pageSize ) {
+
+        final List<MarkedEdge> firstPage = hop.firstPage;
+
+        Observable<MarkedEdge> edges = Observable.from( firstPage );
+
+        if ( firstPage.size() == pageSize ) {
+            final MarkedEdge last = firstPage.get( firstPage.size() - 1 );
+
+            edges = edges.concatWith( Observable.defer(
+                () -> loadEdges( applicationScope, graphManager, edgeName, hop.source.getValue(),
+                    Optional.of( last ) ) ) );
+        }
+
+        final EdgeState edgeCursorState = new EdgeState();
+
+        return edges.doOnNext( edge -> edgeCursorState.update( edge ) ).map(
+            edge -> createFilterResult( edge.getTargetNode(), edgeCursorState.getCursorEdge(),
+                hop.source.getPath() ) );
+    }
+
+
+    @Override
+    protected String getEdgeTypeName() {
+        return getEdgeTypeFromConnectionType( connectionName );
+    }
+
+
+    /**
+     * A node from the previous hop and the state to read its edges
+     */
+    private static final class Hop {
+
+        private final FilterResult<Id> source;
+        private final Optional<MarkedEdge> seek;
+        private volatile List<MarkedEdge> firstPage;
+
+
+        private Hop( final FilterResult<Id> source, final Optional<MarkedEdge> seek ) {
+            this.source = source;
+            this.seek = seek;
+        }
+    }
+}
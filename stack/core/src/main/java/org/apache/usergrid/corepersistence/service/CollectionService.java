@@ -40,4 +40,13 @@ public interface CollectionService {
 
 
     Observable<ResultsPage<Id>> searchCollectionIds(final CollectionSearch search);
+
+
+    /**
+     * Stream every entity in a collection that matches the search.  Search results are read with a scroll rather than
+     * pages, so the cursor of the search is ignored and the limit is only the size of each entity load
+     * @param search The search to perform
+     * @return An observable of every matching entity
+     */
+    Observable<Entity> streamCollection(final CollectionSearch search);
 }
@@ -96,4 +96,33 @@ public class CollectionServiceImpl implements CollectionService {
 
         return results.build();
     }
+
+
+    @Override
+    public Observable<Entity> streamCollection( final CollectionSearch search ) {
+
+        final ApplicationScope applicationScope = search.getApplicationScope();
+        final String collectionName = search.getCollectionName();
+        final Optional<String> query = search.getQuery();
+
+        //no cursor, we read everything
+        final IdBuilder pipelineBuilder =
+            pipelineBuilderFactory.create( applicationScope ).withLimit( search.getLimit() )
+                                  .fromId( search.getCollectionOwnerId() );
+
+
+        final EntityBuilder results;
+
+        //graph traversals already stream their edges
+        if ( !query.isPresent() ) {
+            results = pipelineBuilder.traverseCollection( collectionName ).loadEntities();
+        }
+        else {
+            results = pipelineBuilder.streamCollection( collectionName, query.get(), search.getEntityType() )
+                                     .loadEntities();
+        }
+
+
+        return results.stream();
+    }
 }
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.usergrid.corepersistence.service;
+
+
+import java.util.List;
+
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.model.entity.Id;
+
+import com.google.common.base.Optional;
+
+
+/**
+ * Bean for input on traversing a path of connections
+ */
+public class ConnectionPathSearch {
+
+    private final ApplicationScope applicationScope;
+    private final Id sourceNodeId;
+    private final List<String> connectionNames;
+    private final int limit;
+    private final Optional<String> cursor;
+
+
+    public ConnectionPathSearch( final ApplicationScope applicationScope, final Id sourceNodeId,
+                                 final List<String> connectionNames, final int limit,
+                                 final Optional<String> cursor ) {
+        this.applicationScope = applicationScope;
+        this.sourceNodeId = sourceNodeId;
+        this.connectionNames = connectionNames;
+        this.limit = limit;
+        this.cursor = cursor;
+    }
+
+
+    public ApplicationScope getApplicationScope() {
+        return applicationScope;
+    }
+
+
+    public Id getSourceNodeId() {
+        return sourceNodeId;
+    }
+
+
+    /**
+     * The connections to traverse, in order from the source node
+     */
+    public List<String> getConnectionNames() {
+        return connectionNames;
+    }
+
+
+    public int getLimit() {
+        return limit;
+    }
+
+
+    public Optional<String> getCursor() {
+        return cursor;
+    }
+}
@@ -49,6 +49,25 @@ public interface ConnectionService {
     Observable<ResultsPage<ConnectionRef>> searchConnectionAsRefs( final ConnectionSearch search );
 
 
+    /**
+     * Stream every entity in a connection that matches the search.  Search results are read with a scroll rather than
+     * pages, so the cursor of the search is ignored and the limit is only the size of each entity load
+     * @param search The search to perform
+     * @return An observable of every matching entity
+     */
+    Observable<Entity> streamConnection( final ConnectionSearch search );
+
+
+    /**
+     * Traverse a path of connections from the source node and return the entities at the end of the path.  Each
+     * connection is read for the nodes of the previous connection in parallel, and a node is only traversed once
+     * within each parallel group, so a node reached from nodes in different groups is traversed again
+     * @param search The path to traverse
+     * @return An observable with results page entries for the stream
+     */
+    Observable<ResultsPage<Entity>> searchConnectionPath( final ConnectionPathSearch search );
+
+
     /**
      * An observable that will remove duplicate edges from the graph that represent connections.  All emitted scopes are scopes that have been deleted.
      *
@@ -115,6 +115,51 @@ public class ConnectionServiceImpl implements ConnectionService {
     }
 
 
+    @Override
+    public Observable<Entity> streamConnection( final ConnectionSearch search ) {
+
+        final Optional<String> query = search.getQuery();
+
+        //no cursor, we read everything
+        final IdBuilder pipelineBuilder =
+            pipelineBuilderFactory.create( search.getApplicationScope() ).withLimit( search.getLimit() )
+                                  .fromId( search.getSourceNodeId() );
+
+
+        final EntityBuilder results;
+
+        //graph traversals already stream their edges
+        if ( !query.isPresent() ) {
+            if ( search.getIsConnecting() ) {
+                results = pipelineBuilder.traverseReverseConnection( search.getConnectionName(), search.getEntityType() )
+                                         .loadEntities();
+            }
+            else {
+                results = pipelineBuilder.traverseConnection( search.getConnectionName(), search.getEntityType() )
+                                         .loadEntities();
+            }
+        }
+
+        else {
+            results = pipelineBuilder.streamConnection( search.getConnectionName(), query.get(), search.getEntityType() )
+                                     .loadEntities();
+        }
+
+
+        return results.stream();
+    }
+
+
+    @Override
+    public Observable<ResultsPage<Entity>> searchConnectionPath( final ConnectionPathSearch search ) {
+
+        //startid -- graph edge load per hop -- entity load (verify) from ids -> results page collector
+        return pipelineBuilderFactory.create( search.getApplicationScope() ).withCursor( search.getCursor() )
+                                     .withLimit( search.getLimit() ).fromId( search.getSourceNodeId() )
+                                     .traverseConnections( search.getConnectionNames() ).loadEntities().build();
+    }
+
+
     @Override
     public Observable<ResultsPage<ConnectionRef>> searchConnectionAsRefs( final ConnectionSearch search ) {
 
@@ -41,6 +41,11 @@ public interface ServiceSchedulerFig extends GuicyFig {
 
     String SERVICE_IMPORT_CONCURRENCY = "service.import.concurrency";
 
+    /**
+     * The number of nodes to read edges from in parallel for each hop of a multi hop traversal
+     */
+    String SERVICE_TRAVERSE_CONCURRENCY = "service.traverse.concurrency";
+
 
 
 
@@ -61,6 +66,11 @@ public interface ServiceSchedulerFig extends GuicyFig {
     int getImportConcurrency();
 
 
+    @Default("10")
+    @Key( SERVICE_TRAVERSE_CONCURRENCY)
+    int getTraverseConcurrency();
+
+
 
 
 }
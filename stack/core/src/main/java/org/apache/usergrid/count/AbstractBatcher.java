@@ -19,9 +19,9 @@ package org.apache.usergrid.count;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.Callable;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
@@ -42,6 +42,10 @@ import com.yammer.metrics.core.TimerContext;
 
 /**
  * Base batcher implementation, handles concurrency and locking throughput throttling.
+ * <p>
+ * Sums counts in memory and submits the sums in batches.  Counts for the same counter are added into a single count
+ * until the batch is flushed, so a batch holds one count for every counter it has seen, not one for every add.  The
+ * batch is flushed when it holds the batch size of counters, or on the batch interval.
  *
  * @author zznate
  */
@@ -55,6 +59,7 @@ public abstract class AbstractBatcher implements Batcher {
     private final Timer addTimer =
             Metrics.newTimer( AbstractBatcher.class, "add_invocation", TimeUnit.MICROSECONDS, TimeUnit.SECONDS );
     protected final Counter invocationCounter = Metrics.newCounter( AbstractBatcher.class, "batch_add_invocations" );
+    private final Counter rollupCounter = Metrics.newCounter( AbstractBatcher.class, "batch_add_rollups" );
     // TODO add batchCount, remove shouldSubmit, impl submit, change simpleBatcher to just be an extension
     protected int batchSize = 500;
     protected int batchIntervalSeconds = 10;
@@ -102,7 +107,10 @@ public abstract class AbstractBatcher implements Batcher {
             getBatch().addSerial( count );
         }
         else {
-            getBatch().add( count );
+            //the batch was closed by a flush while we added, add to the batch that replaced it
+            while ( !getBatch().add( count ) ) {
+                Thread.yield();
+            }
         }
         context.stop();
     }
@@ -125,20 +133,32 @@ public abstract class AbstractBatcher implements Batcher {
         }
 
         //we want to flush, and we have no capacity left, perform a flush
-        if ( batchSize > 1 && active.getCapacity() == 0 ) {
+        if ( batchSize > 1 && active.getCapacity() <= 0 ) {
             synchronized ( this ) {
-                if ( active.getCapacity() == 0 ) {
-                    active.flush();
+                if ( batch == active && active.getCapacity() <= 0 ) {
+                    flush();
                 }
+                active = batch;
             }
         }
 
         return active;
     }
 
-    private void flush(){
-        synchronized(this) {
-            getBatch().flush();
+
+    /**
+     * Replace the active batch and submit the counts of the batch it replaced
+     */
+    private void flush() {
+        synchronized ( this ) {
+            final Batch active = batch;
+
+            if ( active == null ) {
+                return;
+            }
+
+            batch = new Batch();
+            active.flush();
         }
     }
 
@@ -161,26 +181,65 @@ public abstract class AbstractBatcher implements Batcher {
     }
 
 
+    /**
+     * The sum of the counts added for a single counter
+     */
+    private static final class CountSum {
+        private final Count count;
+        private final AtomicLong value = new AtomicLong();
+
+
+        private CountSum( final Count count ) {
+            this.count = count;
+        }
+
+
+        private Count toCount() {
+            return new Count( count.getTableName(), count.getKeyName(), count.getColumnName(), value.get() );
+        }
+    }
+
+
     class Batch {
-        private BlockingQueue<Count> counts;
+        private final ConcurrentMap<String, CountSum> counts;
         private final AtomicInteger localCallCounter = new AtomicInteger();
 
+        /**
+         * Adds in progress.  A flush closes the batch, then waits for these to finish before reading the sums
+         */
+        private final AtomicInteger writers = new AtomicInteger();
+        private volatile boolean closed;
+
 
         Batch() {
-            counts = new ArrayBlockingQueue<>( batchSize );
+            counts = new ConcurrentHashMap<>( Math.min( batchSize, 1024 ) );
         }
 
 
         int getCapacity() {
-            return counts.remainingCapacity();
+            return batchSize - counts.size();
         }
 
 
+        void flush() {
+            closed = true;
 
+            while ( writers.get() > 0 ) {
+                Thread.yield();
+            }
+
+            final List<Count> flushed = new ArrayList<>( counts.size() );
+
+            for ( CountSum sum : counts.values() ) {
+                if ( sum.value.get() != 0 ) {
+                    flushed.add( sum.toCount() );
+                }
+            }
+
+            if ( flushed.isEmpty() ) {
+                return;
+            }
 
-        void flush() {
-            ArrayList<Count> flushed = new ArrayList<Count>( batchSize );
-            counts.drainTo( flushed );
             batchSubmitter.submit( flushed );
             batchSubmissionCount.incrementAndGet();
             opCount.incrementAndGet();
@@ -188,12 +247,43 @@ public abstract class AbstractBatcher implements Batcher {
         }
 
 
-        void add( Count count ) {
+        /**
+         * Add the count to the sum for its counter.  Returns false if the batch was closed by a flush, in which case
+         * the count was not added
+         */
+        boolean add( Count count ) {
+            writers.incrementAndGet();
+
             try {
-                counts.offer( count, 500, TimeUnit.MILLISECONDS );
+                if ( closed ) {
+                    return false;
+                }
+
+                final String counterName = count.getCounterName();
+
+                CountSum sum = counts.get( counterName );
+
+                if ( sum == null ) {
+                    final CountSum created = new CountSum( count );
+                    sum = counts.putIfAbsent( counterName, created );
+
+                    if ( sum == null ) {
+                        sum = created;
+                    }
+                    else {
+                        rollupCounter.inc();
+                    }
+                }
+                else {
+                    rollupCounter.inc();
+                }
+
+                sum.value.addAndGet( count.getValue() );
+
+                return true;
             }
-            catch ( Exception ex ) {
-                logger.error( "Unable to add count, dropping count {}", count, ex );
+            finally {
+                writers.decrementAndGet();
             }
         }
 
@@ -25,6 +25,7 @@ import org.slf4j.LoggerFactory;
 import org.apache.usergrid.locking.LockManager;
 import org.apache.usergrid.mq.QueueManager;
 import org.apache.usergrid.mq.QueueManagerFactory;
+import org.apache.usergrid.mq.cassandra.io.ConsumerLeases;
 import org.apache.usergrid.persistence.cassandra.CassandraService;
 import org.apache.usergrid.persistence.cassandra.CounterUtils;
 
@@ -37,9 +38,12 @@ public class QueueManagerFactoryImpl implements QueueManagerFactory {
 
     public static String IMPLEMENTATION_DESCRIPTION = "Cassandra Queue Manager Factory 1.0";
 
+    public static final long DEFAULT_MAX_LEASE_MILLIS = 1000;
+
     private CassandraService cass;
     private CounterUtils counterUtils;
     private LockManager lockManager;
+    private ConsumerLeases consumerLeases;
     private int lockTimeout;
 
     /**
@@ -49,9 +53,19 @@ public class QueueManagerFactoryImpl implements QueueManagerFactory {
      * @param counterUtils the CounterUtils
      */
     public QueueManagerFactoryImpl(CassandraService cass, CounterUtils counterUtils, final Injector injector, int lockTimeout ) {
+        this( cass, counterUtils, injector, lockTimeout, DEFAULT_MAX_LEASE_MILLIS );
+    }
+
+
+    /**
+     * @param maxLeaseMillis The longest a consumer lock is handed between readers on this node before it's released
+     */
+    public QueueManagerFactoryImpl(CassandraService cass, CounterUtils counterUtils, final Injector injector, int lockTimeout,
+                                   long maxLeaseMillis ) {
         this.cass = cass;
         this.counterUtils = counterUtils;
         lockManager = injector.getInstance(LockManager.class);
+        consumerLeases = new ConsumerLeases( lockManager, maxLeaseMillis );
         this.lockTimeout = lockTimeout;
     }
 
@@ -65,7 +79,7 @@ public class QueueManagerFactoryImpl implements QueueManagerFactory {
     @Override
     public QueueManager getQueueManager( UUID applicationId ) {
         QueueManagerImpl qm = new QueueManagerImpl();
-        qm.init( cass, counterUtils, lockManager, applicationId, lockTimeout );
+        qm.init( cass, counterUtils, lockManager, consumerLeases, applicationId, lockTimeout );
         return qm;
         //return applicationContext.getAutowireCapableBeanFactory()
         //		.createBean(QueueManagerImpl.class)
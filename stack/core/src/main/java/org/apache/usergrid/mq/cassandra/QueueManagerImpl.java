@@ -45,6 +45,7 @@ import org.apache.usergrid.mq.QueueResults;
 import org.apache.usergrid.mq.QueueSet;
 import org.apache.usergrid.mq.QueueSet.QueueInfo;
 import org.apache.usergrid.mq.cassandra.QueueIndexUpdate.QueueIndexEntry;
+import org.apache.usergrid.mq.cassandra.io.ConsumerLeases;
 import org.apache.usergrid.mq.cassandra.io.ConsumerTransaction;
 import org.apache.usergrid.mq.cassandra.io.EndSearch;
 import org.apache.usergrid.mq.cassandra.io.FilterSearch;
@@ -147,6 +148,7 @@ public class QueueManagerImpl implements QueueManager {
     private CassandraService cass;
     private CounterUtils counterUtils;
     private LockManager lockManager;
+    private ConsumerLeases consumerLeases;
     private int lockTimeout;
 
 
@@ -157,10 +159,18 @@ public class QueueManagerImpl implements QueueManager {
 
     public QueueManagerImpl init( CassandraService cass, CounterUtils counterUtils, LockManager lockManager,
                                   UUID applicationId, int lockTimeout ) {
+        return init( cass, counterUtils, lockManager, new ConsumerLeases( lockManager, 0 ), applicationId,
+            lockTimeout );
+    }
+
+
+    public QueueManagerImpl init( CassandraService cass, CounterUtils counterUtils, LockManager lockManager,
+                                  ConsumerLeases consumerLeases, UUID applicationId, int lockTimeout ) {
         this.cass = cass;
         this.counterUtils = counterUtils;
         this.applicationId = applicationId;
         this.lockManager = lockManager;
+        this.consumerLeases = consumerLeases;
         this.lockTimeout = lockTimeout;
         return this;
     }
@@ -396,7 +406,7 @@ public class QueueManagerImpl implements QueueManager {
 
         else if ( query.getPosition() == LAST || query.getPosition() == CONSUMER ) {
             if ( query.getTimeout() > 0 ) {
-                search = new ConsumerTransaction( applicationId, ko, lockManager, cass, lockTimeout );
+                search = new ConsumerTransaction( applicationId, ko, consumerLeases, cass, lockTimeout );
             }
             else {
                 search = new NoTransactionSearch( ko );
@@ -1323,7 +1333,7 @@ public class QueueManagerImpl implements QueueManager {
     public UUID renewTransaction( String queuePath, UUID transactionId, QueueQuery query )
             throws TransactionNotFoundException {
         Keyspace ko = cass.getApplicationKeyspace( applicationId );
-        return new ConsumerTransaction( applicationId, ko, lockManager, cass, lockTimeout )
+        return new ConsumerTransaction( applicationId, ko, consumerLeases, cass, lockTimeout )
                 .renewTransaction( queuePath, transactionId, query );
     }
 
@@ -1343,7 +1353,7 @@ public class QueueManagerImpl implements QueueManager {
     @Override
     public void commitTransaction( String queuePath, UUID transactionId, QueueQuery query ) {
         Keyspace ko = cass.getApplicationKeyspace( applicationId );
-        new ConsumerTransaction( applicationId, ko, lockManager, cass, lockTimeout )
+        new ConsumerTransaction( applicationId, ko, consumerLeases, cass, lockTimeout )
                 .deleteTransaction( queuePath, transactionId, query );
     }
 
@@ -1359,7 +1369,7 @@ public class QueueManagerImpl implements QueueManager {
 
         Keyspace ko = cass.getApplicationKeyspace( applicationId );
 
-        return new ConsumerTransaction( applicationId, ko, lockManager, cass , lockTimeout)
+        return new ConsumerTransaction( applicationId, ko, consumerLeases, cass, lockTimeout )
                 .hasOutstandingTransactions( queueId, consumerId );
     }
 
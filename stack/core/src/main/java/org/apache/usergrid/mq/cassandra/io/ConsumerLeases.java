@@ -0,0 +1,250 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.usergrid.mq.cassandra.io;
+
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.usergrid.locking.Lock;
+import org.apache.usergrid.locking.LockManager;
+import org.apache.usergrid.locking.exception.UGLockException;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+
+/**
+ * Node local leases on queue consumers.  Readers of the same consumer on this node wait on a local lock, and the
+ * distributed consumer lock is handed from one reader to the next while readers are waiting.  The distributed lock is
+ * released once no reader is waiting, or once it has been held for the max lease time so other nodes can read.
+ */
+public class ConsumerLeases {
+
+    private static final Logger logger = LoggerFactory.getLogger( ConsumerLeases.class );
+
+    private final LockManager lockManager;
+    private final long maxLeaseMillis;
+
+    /**
+     * Leases are only referenced while a reader holds or waits for them.  A lease that isn't referenced never holds
+     * the distributed lock, so it's safe to collect
+     */
+    private final LoadingCache<LeaseKey, Lease> leases;
+
+
+    /**
+     * @param lockManager The lock manager for the distributed consumer locks
+     * @param maxLeaseMillis The longest to hold a distributed lock while handing it between readers.  0 releases it
+     * after every read
+     */
+    public ConsumerLeases( final LockManager lockManager, final long maxLeaseMillis ) {
+        this.lockManager = lockManager;
+        this.maxLeaseMillis = maxLeaseMillis;
+        this.leases = CacheBuilder.newBuilder().weakValues().build( new CacheLoader<LeaseKey, Lease>() {
+            @Override
+            public Lease load( final LeaseKey key ) {
+                return new Lease( key );
+            }
+        } );
+    }
+
+
+    /**
+     * Acquire the lease on the consumer.  Returns null if the lease could not be acquired within the timeout
+     */
+    public Lease acquire( final UUID applicationId, final UUID queueId, final UUID consumerId, final long timeout,
+                          final TimeUnit unit ) throws UGLockException {
+
+        final Lease lease = leases.getUnchecked( new LeaseKey( applicationId, queueId, consumerId ) );
+
+        return lease.acquire( timeout, unit ) ? lease : null;
+    }
+
+
+    /**
+     * A lease on a single consumer
+     */
+    public final class Lease {
+
+        private final LeaseKey key;
+
+        //fair, so the distributed lock is handed to readers in the order they arrived
+        private final ReentrantLock local = new ReentrantLock( true );
+
+        //only accessed while holding the local lock
+        private Lock distributed;
+        private long distributedAcquired;
+
+
+        private Lease( final LeaseKey key ) {
+            this.key = key;
+        }
+
+
+        private boolean acquire( final long timeout, final TimeUnit unit ) throws UGLockException {
+
+            try {
+                if ( !local.tryLock( timeout, unit ) ) {
+                    releaseAbandoned();
+                    return false;
+                }
+            }
+            catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                releaseAbandoned();
+                throw new UGLockException( "Interrupted waiting for the lease on consumer " + key, e );
+            }
+
+            //we have the distributed lock from the previous reader
+            if ( distributed != null ) {
+                return true;
+            }
+
+            try {
+                final Lock lock = lockManager.createLock( key.applicationId, key.queueId.toString(),
+                    key.consumerId.toString() );
+
+                if ( !lock.tryLock( timeout, unit ) ) {
+                    local.unlock();
+                    return false;
+                }
+
+                distributed = lock;
+                distributedAcquired = System.currentTimeMillis();
+
+                return true;
+            }
+            catch ( UGLockException | RuntimeException e ) {
+                local.unlock();
+                throw e;
+            }
+        }
+
+
+        /**
+         * Release the lease.  The distributed lock is kept for the next waiting reader if there is one
+         */
+        public void release() throws UGLockException {
+            try {
+                final boolean handOff = local.hasQueuedThreads()
+                    && System.currentTimeMillis() - distributedAcquired < maxLeaseMillis;
+
+                if ( !handOff ) {
+                    releaseDistributed();
+                }
+            }
+            finally {
+                local.unlock();
+            }
+        }
+
+
+        /**
+         * We stopped waiting, possibly after the previous reader kept the distributed lock for us.  Release it if
+         * nobody else is there to use it
+         */
+        private void releaseAbandoned() {
+            if ( !local.tryLock() ) {
+                //the holder releases or hands off the lock
+                return;
+            }
+
+            try {
+                if ( !local.hasQueuedThreads() ) {
+                    releaseDistributed();
+                }
+            }
+            catch ( UGLockException e ) {
+                logger.error( "Unable to release the abandoned lock on consumer {}", key, e );
+            }
+            finally {
+                local.unlock();
+            }
+        }
+
+
+        /**
+         * True if readers are waiting for this lease
+         */
+        boolean hasWaiters() {
+            return local.hasQueuedThreads();
+        }
+
+
+        private void releaseDistributed() throws UGLockException {
+            if ( distributed == null ) {
+                return;
+            }
+
+            final Lock lock = distributed;
+            distributed = null;
+
+            lock.unlock();
+        }
+    }
+
+
+    private static final class LeaseKey {
+        private final UUID applicationId;
+        private final UUID queueId;
+        private final UUID consumerId;
+
+
+        private LeaseKey( final UUID applicationId, final UUID queueId, final UUID consumerId ) {
+            this.applicationId = applicationId;
+            this.queueId = queueId;
+            this.consumerId = consumerId;
+        }
+
+
+        @Override
+        public boolean equals( final Object o ) {
+            if ( this == o ) {
+                return true;
+            }
+            if ( !( o instanceof LeaseKey ) ) {
+                return false;
+            }
+
+            final LeaseKey that = ( LeaseKey ) o;
+
+            return applicationId.equals( that.applicationId ) && queueId.equals( that.queueId ) && consumerId
+                .equals( that.consumerId );
+        }
+
+
+        @Override
+        public int hashCode() {
+            int result = applicationId.hashCode();
+            result = 31 * result + queueId.hashCode();
+            result = 31 * result + consumerId.hashCode();
+            return result;
+        }
+
+
+        @Override
+        public String toString() {
+            return applicationId + "/" + queueId + "/" + consumerId;
+        }
+    }
+}
@@ -26,7 +26,6 @@ import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.apache.usergrid.locking.Lock;
 import org.apache.usergrid.locking.LockManager;
 import org.apache.usergrid.locking.exception.UGLockException;
 import org.apache.usergrid.mq.Message;
@@ -62,7 +61,7 @@ public class ConsumerTransaction extends NoTransactionSearch
 
     private static final Logger logger = LoggerFactory.getLogger( ConsumerTransaction.class );
     private static final int MAX_READ = 10000;
-    private final LockManager lockManager;
+    private final ConsumerLeases consumerLeases;
     private final UUID applicationId;
     protected final CassandraService cass;
 
@@ -74,10 +73,21 @@ public class ConsumerTransaction extends NoTransactionSearch
      * @param ko
      */
     public ConsumerTransaction( UUID applicationId, Keyspace ko, LockManager lockManager, CassandraService cass, int lockTimeout )
+    {
+        this( applicationId, ko, new ConsumerLeases( lockManager, 0 ), cass, lockTimeout );
+    }
+
+
+    /**
+     * @param ko
+     * @param consumerLeases The leases shared by the consumers on this node
+     */
+    public ConsumerTransaction( UUID applicationId, Keyspace ko, ConsumerLeases consumerLeases, CassandraService cass,
+                                int lockTimeout )
     {
         super( ko );
         this.applicationId = applicationId;
-        this.lockManager = lockManager;
+        this.consumerLeases = consumerLeases;
         this.cass = cass;
         this.lockTimeout = lockTimeout;
     }
@@ -198,13 +208,15 @@ public class ConsumerTransaction extends NoTransactionSearch
 
         QueueResults results = null;
 
-        Lock lock = lockManager.createLock( applicationId, queueId.toString(), consumerId.toString() );
+        ConsumerLeases.Lease lease = null;
 
         try
         {
 
-            //only try to get a lock with a timeout, if we can't bail
-            if(!lock.tryLock(lockTimeout, TimeUnit.SECONDS)){
+            //only try to get a lease with a timeout, if we can't bail
+            lease = consumerLeases.acquire( applicationId, queueId, consumerId, lockTimeout, TimeUnit.SECONDS );
+
+            if ( lease == null ){
                 throw new QueueException( "Unable to obtain a lock on queue '" + queuePath + "' after '" + lockTimeout + "'seconds" );
             }
 
@@ -311,7 +323,10 @@ public class ConsumerTransaction extends NoTransactionSearch
         {
             try
             {
-                lock.unlock();
+                if ( lease != null )
+                {
+                    lease.release();
+                }
             }
             catch ( UGLockException e )
             {
@@ -35,6 +35,7 @@ import org.apache.usergrid.persistence.index.query.Identifier;
 import org.apache.usergrid.persistence.model.entity.Id;
 
 import me.prettyprint.hector.api.mutation.Mutator;
+import rx.Observable;
 
 
 /**
@@ -420,6 +421,17 @@ public interface EntityManager {
     public Results searchCollection( EntityRef entityRef, String collectionName, Query query )
             throws Exception;
 
+    /**
+     * Stream every entity in the collection that matches the query, without paging.  Use for reading whole
+     * collections, such as for exports
+     *
+     * @param entityRef an entity reference
+     * @param collectionName the collection name.
+     * @param query the query, the cursor is ignored and the limit is the number of entities loaded at a time
+     */
+    public Observable<Entity> streamCollection( EntityRef entityRef, String collectionName, Query query )
+            throws Exception;
+
     public Results searchCollectionConsistent( EntityRef entityRef, String collectionName, Query query, int expectedHits)
         throws Exception;
 
@@ -506,6 +518,18 @@ public interface EntityManager {
 
 	public Results searchTargetEntities(EntityRef sourceEntity, Query query) throws Exception;
 
+    /**
+     * Get the entities at the end of a path of connections from the source entity, e.g. the entities liked by the
+     * users a user is following.  An entity reached several times close together along the path is only traversed
+     * once, one reached again further along may be traversed and returned again
+     *
+     * @param sourceEntity The entity to start from
+     * @param connectionNames The connections to traverse, in order
+     * @param query The query holding the limit, cursor and results level
+     */
+    public Results searchConnectionPath( EntityRef sourceEntity, List<String> connectionNames, Query query )
+        throws Exception;
+
 
     // Application roles
 
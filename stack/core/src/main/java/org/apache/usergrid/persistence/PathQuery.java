@@ -19,6 +19,7 @@ package org.apache.usergrid.persistence;
 
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.UUID;
 
 import org.apache.usergrid.persistence.Query.Level;
@@ -90,6 +91,10 @@ public class PathQuery<E> {
             if ( uuid != null && type != null ) {
                 return new PagingResultsIterator( getHeadResults( em ), query.getResultsLevel(), null);
             }
+            else if ( isConnectionPath() ) {
+                return new PagingResultsIterator( getConnectionPathResults( em, query ), query.getResultsLevel(),
+                    null );
+            }
             else {
                 return new MultiQueryIterator( em, source.refIterator( em, false), query );
             }
@@ -104,6 +109,9 @@ public class PathQuery<E> {
 
             if ( uuid != null && type != null ) {
                 return new PagingResultsIterator( getHeadResults( em ), query.getResultsLevel(), null);
+            }else if ( isConnectionPath() ) {
+                return new PagingResultsIterator( getConnectionPathResults( em, query ), query.getResultsLevel(),
+                    null );
             }else {
 
                 return new NotificationGraphIterator(em, source.refIterator(em, true), query);
@@ -163,6 +171,9 @@ public class PathQuery<E> {
                 q = new Query( q );
                 q.setResultsLevel( Level.REFS );
             }
+            if ( isConnectionPath() ) {
+                return new PagingResultsIterator( getConnectionPathResults( em, q ), Level.REFS, null );
+            }
             if( useGraph){
                 return new NotificationGraphIterator( em, source.refIterator( em, true), q );
             }else{
@@ -173,6 +184,53 @@ public class PathQuery<E> {
     }
 
 
+    /**
+     * True if every query from the head to this one traverses a connection without filtering, so the chain can be
+     * read as one multi hop traversal instead of a query per entity at each step
+     */
+    protected boolean isConnectionPath() {
+
+        PathQuery current = this;
+
+        while ( current.source != null ) {
+            if ( !isConnectionTraversal( current.query ) ) {
+                return false;
+            }
+
+            current = current.source;
+        }
+
+        return current.uuid != null && current.type != null && isConnectionTraversal( current.query );
+    }
+
+
+    /**
+     * Traverse the connections from the head to this query in a single read
+     */
+    protected Results getConnectionPathResults( EntityManager em, Query query ) throws Exception {
+
+        final LinkedList<String> connectionNames = new LinkedList<>();
+
+        PathQuery current = this;
+
+        while ( current.source != null ) {
+            connectionNames.addFirst( current.query.getConnectionType() );
+            current = current.source;
+        }
+
+        connectionNames.addFirst( current.query.getConnectionType() );
+
+        return em.searchConnectionPath( new SimpleEntityRef( current.type, current.uuid ), connectionNames, query );
+    }
+
+
+    private static boolean isConnectionTraversal( Query query ) {
+        return query != null && query.getConnectionType() != null && query.getCollection() == null
+            && query.getEntityType() == null && !query.isConnecting() && query.isGraphSearch()
+            && !query.hasQueryPredicates() && query.getSingleIdentifier() == null;
+    }
+
+
     public PathQuery getSource() {
         return source;
     }
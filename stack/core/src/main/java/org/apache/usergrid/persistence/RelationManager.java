@@ -26,6 +26,7 @@ import java.util.UUID;
 import org.apache.usergrid.persistence.Query.Level;
 
 import me.prettyprint.hector.api.mutation.Mutator;
+import rx.Observable;
 
 
 public interface RelationManager {
@@ -66,6 +67,12 @@ public interface RelationManager {
 
     public Results searchCollection( String collectionName, Query query ) throws Exception;
 
+    /**
+     * Stream every entity in the collection that matches the query.  Unlike searchCollection the results are not paged,
+     * so the cursor of the query is ignored and the limit is only the number of entities loaded at a time
+     */
+    public Observable<Entity> streamCollection( String collectionName, Query query ) throws Exception;
+
     /**
      * this loops for consistentcy and is dangerous to run often
      * @param collectionName
@@ -123,6 +130,16 @@ public interface RelationManager {
 
 	public Results searchTargetEntities(Query query) throws Exception;
 
+    /**
+     * Get the entities at the end of a path of connections from this entity, e.g. the entities liked by the users
+     * this user is following.  An entity reached several times close together along the path is only traversed once,
+     * one reached again further along may be traversed and returned again
+     *
+     * @param connectionNames The connections to traverse, in order
+     * @param query The query holding the limit, cursor and results level
+     */
+    public Results searchConnectionPath( List<String> connectionNames, Query query ) throws Exception;
+
 
     public Set<String> getConnectionIndexes( String connectionType ) throws Exception;
 
@@ -20,25 +20,53 @@
 package org.apache.usergrid.corepersistence.index;
 
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
 import com.google.inject.Inject;
 import net.jcip.annotations.NotThreadSafe;
 import org.apache.usergrid.corepersistence.TestIndexModule;
 import org.apache.usergrid.corepersistence.asyncevents.AsyncEventService;
 import org.apache.usergrid.corepersistence.asyncevents.AsyncEventServiceImpl;
 import org.apache.usergrid.corepersistence.asyncevents.EventBuilder;
+import org.apache.usergrid.corepersistence.asyncevents.model.DeIndexOldVersionsEvent;
+import org.apache.usergrid.persistence.collection.EntityCollectionManager;
+import org.apache.usergrid.persistence.collection.serialization.impl.migration.EntityIdScope;
 import org.apache.usergrid.persistence.core.aws.NoAWSCredsRule;
 import org.apache.usergrid.persistence.core.metrics.MetricsFactory;
 import org.apache.usergrid.persistence.core.rx.RxTaskScheduler;
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.core.scope.ApplicationScopeImpl;
 import org.apache.usergrid.persistence.core.test.UseModules;
 import org.apache.usergrid.persistence.index.EntityIndexFactory;
 import org.apache.usergrid.persistence.index.impl.EsRunner;
+import org.apache.usergrid.persistence.index.impl.IndexOperationMessage;
 import org.apache.usergrid.persistence.index.impl.IndexProducer;
 import org.apache.usergrid.persistence.map.MapManagerFactory;
+import org.apache.usergrid.persistence.model.entity.Entity;
+import org.apache.usergrid.persistence.model.entity.Id;
+import org.apache.usergrid.persistence.model.entity.SimpleId;
+import org.apache.usergrid.persistence.model.field.StringField;
+import org.apache.usergrid.persistence.model.util.UUIDGenerator;
 import org.apache.usergrid.persistence.queue.QueueFig;
 import org.apache.usergrid.persistence.queue.QueueManagerFactory;
+import org.apache.usergrid.persistence.queue.QueueMessage;
 import org.junit.Rule;
+import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import static org.apache.usergrid.persistence.core.util.IdGenerator.createId;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
 
 @RunWith( EsRunner.class )
 @UseModules( { TestIndexModule.class } )
@@ -90,7 +118,87 @@ public class AsyncEventServiceImplTest extends AsyncIndexServiceTest {
     }
 
 
+    @Test
+    public void testDeIndexOldVersionEventsPerEntity() {
+
+        final ApplicationScope applicationScope =
+            new ApplicationScopeImpl( new SimpleId( UUID.randomUUID(), "application" ) );
+
+        final EntityCollectionManager collectionManager =
+            entityCollectionManagerFactory.createCollectionManager( applicationScope );
+
+        final Id thingId = createId( "thing" );
+        final Id otherId = createId( "thing" );
+
+        final List<UUID> thingVersions = writeVersions( collectionManager, thingId, 8 );
+        final List<UUID> otherVersions = writeVersions( collectionManager, otherId, 2 );
+
+        //three updates of the first entity and one of the second are queued in the same batch
+        final QueueMessage first = deIndexMessage( applicationScope, thingId, thingVersions.get( 5 ) );
+        final QueueMessage second = deIndexMessage( applicationScope, thingId, thingVersions.get( 6 ) );
+        final QueueMessage third = deIndexMessage( applicationScope, thingId, thingVersions.get( 7 ) );
+        final QueueMessage other = deIndexMessage( applicationScope, otherId, otherVersions.get( 1 ) );
 
+        final EventBuilder eventBuilderSpy = spy( eventBuilder );
 
+        final AsyncEventServiceImpl asyncEventService =
+            new AsyncEventServiceImpl( queueManagerFactory, indexProcessorFig, indexProducer, metricsFactory,
+                entityCollectionManagerFactory, indexLocationStrategyFactory, entityIndexFactory, eventBuilderSpy,
+                mapManagerFactory, queueFig, rxTaskScheduler );
 
+        final Map<QueueMessage, IndexOperationMessage> results =
+            asyncEventService.handleDeIndexOldVersionEvents( Arrays.asList( first, other, second, third ) );
+
+        assertEquals( 4, results.size() );
+
+        //the first entity is de-indexed once from its newest marked version, the second is not merged into it
+        verify( eventBuilderSpy, times( 2 ) )
+            .deIndexOldVersions( any( ApplicationScope.class ), any( Id.class ), any( UUID.class ), any( UUID.class ) );
+
+        verify( eventBuilderSpy )
+            .deIndexOldVersions( applicationScope, thingId, thingVersions.get( 7 ), thingVersions.get( 5 ) );
+
+        verify( eventBuilderSpy )
+            .deIndexOldVersions( applicationScope, otherId, otherVersions.get( 1 ), otherVersions.get( 1 ) );
+
+        assertSame( results.get( first ), results.get( second ) );
+        assertSame( results.get( first ), results.get( third ) );
+        assertNotSame( results.get( first ), results.get( other ) );
+
+        //the version between the marked versions and 5 back from the oldest marked one, the first is outside the window
+        assertEquals( 6, results.get( first ).getDeIndexRequests().size() );
+        assertEquals( 1, results.get( other ).getDeIndexRequests().size() );
+    }
+
+
+    private QueueMessage deIndexMessage( final ApplicationScope applicationScope, final Id entityId,
+                                         final UUID markedVersion ) {
+
+        final DeIndexOldVersionsEvent event =
+            new DeIndexOldVersionsEvent( queueFig.getPrimaryRegion(), new EntityIdScope( applicationScope, entityId ),
+                markedVersion );
+
+        final String messageId = UUIDGenerator.newTimeUUID().toString();
+
+        return new QueueMessage( messageId, "handle_" + messageId, event, "test" );
+    }
+
+
+    /**
+     * Write the number of versions of the entity, oldest first
+     */
+    private List<UUID> writeVersions( final EntityCollectionManager collectionManager, final Id entityId,
+                                      final int count ) {
+
+        final List<UUID> versions = new ArrayList<>();
+
+        for ( int i = 0; i < count; i++ ) {
+            final Entity entity = new Entity( entityId );
+            entity.setField( new StringField( "string", "version" + i ) );
+
+            versions.add( collectionManager.write( entity, null ).toBlocking().last().getVersion() );
+        }
+
+        return versions;
+    }
 }
@@ -25,13 +25,16 @@ package org.apache.usergrid.corepersistence.pipeline.cursor;
 import org.junit.Test;
 
 import org.apache.usergrid.corepersistence.pipeline.read.EdgePath;
+import org.apache.usergrid.corepersistence.pipeline.read.search.ElasticsearchCursor;
 import org.apache.usergrid.corepersistence.pipeline.read.search.ElasticsearchCursorSerializer;
 import org.apache.usergrid.corepersistence.pipeline.read.traverse.EdgeCursorSerializer;
 import org.apache.usergrid.persistence.graph.Edge;
 import org.apache.usergrid.persistence.graph.MarkedEdge;
 import org.apache.usergrid.persistence.graph.impl.SimpleEdge;
 import org.apache.usergrid.persistence.graph.impl.SimpleMarkedEdge;
+import org.apache.usergrid.persistence.index.SearchPosition;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Optional;
 
 import static org.apache.usergrid.persistence.core.util.IdGenerator.createId;
@@ -51,18 +54,19 @@ public class CursorTest {
 
 
 
-        final Integer query1 = 10;
+        final ElasticsearchCursor query1 = new ElasticsearchCursor( 10, Optional.<SearchPosition>absent() );
 
-        final Integer query2 = 20;
+        final ElasticsearchCursor query2 =
+            new ElasticsearchCursor( 20, Optional.of( new SearchPosition( 100, "entityId", "entityVersion" ) ) );
 
 
 
-        final EdgePath<Integer> filter3Path = new EdgePath<>( 3, query2, ElasticsearchCursorSerializer.INSTANCE, Optional.absent() );
+        final EdgePath<ElasticsearchCursor> filter3Path = new EdgePath<>( 3, query2, ElasticsearchCursorSerializer.INSTANCE, Optional.absent() );
 
         final EdgePath<MarkedEdge> filter2Path =
             new EdgePath<>( 2, edge2, EdgeCursorSerializer.INSTANCE, Optional.of( filter3Path ) );
 
-        final EdgePath<Integer> filter1Path = new EdgePath<>( 1, query1, ElasticsearchCursorSerializer.INSTANCE, Optional.of(filter2Path) );
+        final EdgePath<ElasticsearchCursor> filter1Path = new EdgePath<>( 1, query1, ElasticsearchCursorSerializer.INSTANCE, Optional.of(filter2Path) );
 
         final EdgePath<MarkedEdge> filter0Path = new EdgePath<>( 0, edge1, EdgeCursorSerializer.INSTANCE, Optional.of( filter1Path ) );
 
@@ -83,7 +87,7 @@ public class CursorTest {
 
 
 
-        final Integer parsedQuery2 = requestCursor.getCursor( 3, ElasticsearchCursorSerializer.INSTANCE );
+        final ElasticsearchCursor parsedQuery2 = requestCursor.getCursor( 3, ElasticsearchCursorSerializer.INSTANCE );
 
         assertEquals(query2, parsedQuery2);
 
@@ -91,7 +95,7 @@ public class CursorTest {
 
         assertEquals( edge2, parsedEdge2 );
 
-        final Integer parsedQuery1 = requestCursor.getCursor( 1, ElasticsearchCursorSerializer.INSTANCE );
+        final ElasticsearchCursor parsedQuery1 = requestCursor.getCursor( 1, ElasticsearchCursorSerializer.INSTANCE );
 
         assertEquals( query1, parsedQuery1 );
 
@@ -102,4 +106,19 @@ public class CursorTest {
 
     }
 
+
+    @Test
+    public void testOffsetCursor() {
+
+        final ObjectMapper mapper = new ObjectMapper();
+
+        //cursors issued before positions were only the offset
+        final ElasticsearchCursor parsed =
+            ElasticsearchCursorSerializer.INSTANCE.fromJsonNode( mapper.valueToTree( 10 ), mapper );
+
+        assertEquals( 10, parsed.getOffset() );
+        assertFalse( parsed.getStartAfter().isPresent() );
+
+        assertEquals( 10, ElasticsearchCursorSerializer.INSTANCE.toNode( mapper, parsed ).intValue() );
+    }
 }
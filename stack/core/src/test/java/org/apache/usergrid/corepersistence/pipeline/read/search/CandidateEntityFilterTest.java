@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.corepersistence.pipeline.read.search;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import org.apache.usergrid.corepersistence.EntityManagerFig;
+import org.apache.usergrid.corepersistence.TestCoreModule;
+import org.apache.usergrid.corepersistence.index.IndexLocationStrategyFactory;
+import org.apache.usergrid.corepersistence.pipeline.PipelineContext;
+import org.apache.usergrid.corepersistence.pipeline.cursor.RequestCursor;
+import org.apache.usergrid.corepersistence.pipeline.read.FilterResult;
+import org.apache.usergrid.corepersistence.util.CpNamingUtils;
+import org.apache.usergrid.persistence.collection.EntityCollectionManager;
+import org.apache.usergrid.persistence.collection.EntityCollectionManagerFactory;
+import org.apache.usergrid.persistence.core.guice.MigrationManagerRule;
+import org.apache.usergrid.persistence.core.rx.RxTaskScheduler;
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.core.scope.ApplicationScopeImpl;
+import org.apache.usergrid.persistence.core.test.ITRunner;
+import org.apache.usergrid.persistence.core.test.UseModules;
+import org.apache.usergrid.persistence.index.CandidateResult;
+import org.apache.usergrid.persistence.index.EntityIndex;
+import org.apache.usergrid.persistence.index.EntityIndexBatch;
+import org.apache.usergrid.persistence.index.EntityIndexFactory;
+import org.apache.usergrid.persistence.index.IndexLocationStrategy;
+import org.apache.usergrid.persistence.index.SearchEdge;
+import org.apache.usergrid.persistence.index.impl.DeIndexOperation;
+import org.apache.usergrid.persistence.index.impl.IndexOperationMessage;
+import org.apache.usergrid.persistence.index.impl.IndexProducer;
+import org.apache.usergrid.persistence.model.entity.Entity;
+import org.apache.usergrid.persistence.model.entity.Id;
+import org.apache.usergrid.persistence.model.entity.SimpleId;
+import org.apache.usergrid.persistence.model.field.StringField;
+
+import com.google.common.base.Optional;
+import com.google.inject.Inject;
+
+import rx.Observable;
+import rx.schedulers.Schedulers;
+
+import static org.apache.usergrid.persistence.core.util.IdGenerator.createId;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+/**
+ * Tests the candidates {@link CandidateEntityFilter} keeps and repairs, with the candidate versions verified from the
+ * version log before loading and without
+ */
+@RunWith( ITRunner.class )
+@UseModules( TestCoreModule.class )
+public class CandidateEntityFilterTest {
+
+    @Inject
+    private EntityCollectionManagerFactory entityCollectionManagerFactory;
+
+    @Inject
+    private EntityManagerFig entityManagerFig;
+
+    @Inject
+    @Rule
+    public MigrationManagerRule migrationManagerRule;
+
+    private ApplicationScope applicationScope;
+    private SearchEdge searchEdge;
+    private EntityCollectionManager collectionManager;
+
+    private EntityIndexBatch batch;
+    private IndexOperationMessage repairMessage;
+    private IndexProducer indexProducer;
+
+    private Entity current;
+    private Entity updated;
+    private UUID staleVersion;
+
+
+    @Before
+    public void setup() {
+        applicationScope = new ApplicationScopeImpl( new SimpleId( "application" ) );
+        searchEdge = CpNamingUtils.createCollectionSearchEdge( applicationScope.getApplication(), "things" );
+
+        collectionManager = spy( entityCollectionManagerFactory.createCollectionManager( applicationScope ) );
+
+        current = write( createId( "thing" ) );
+
+        //the index still holds the first version of the updated entity
+        final Id updatedId = createId( "thing" );
+        staleVersion = write( updatedId ).getVersion();
+        updated = write( updatedId );
+
+        repairMessage = new IndexOperationMessage();
+        repairMessage.addDeIndexRequest( new DeIndexOperation( new String[] { "index" }, "document" ) );
+
+        batch = mock( EntityIndexBatch.class );
+        when( batch.build() ).thenReturn( repairMessage );
+
+        indexProducer = mock( IndexProducer.class );
+        when( indexProducer.put( repairMessage ) ).thenReturn( Observable.just( repairMessage ) );
+    }
+
+
+    @Test
+    public void verifiedVersionsDropStaleCandidates() {
+
+        final EntityManagerFig verifyingFig = mock( EntityManagerFig.class );
+        when( verifyingFig.getVerifyCandidateVersions() ).thenReturn( true );
+
+        final List<Id> results = filter( verifyingFig );
+
+        assertEquals( Arrays.asList( current.getId() ), results );
+
+        //the stale candidate is dropped from the log before loading, and its repair is queued
+        verify( collectionManager ).getLatestVersion( Arrays.asList( current.getId(), updated.getId() ) );
+        verify( collectionManager ).load( Collections.singletonList( current.getId() ) );
+
+        verify( batch ).deindex( searchEdge, updated.getId(), staleVersion );
+        verify( indexProducer, atLeastOnce() ).put( repairMessage );
+    }
+
+
+    @Test
+    public void unverifiedVersionsUnchanged() {
+
+        assertFalse( "Candidate versions should not be verified by default",
+            entityManagerFig.getVerifyCandidateVersions() );
+
+        final List<Id> results = filter( entityManagerFig );
+
+        assertEquals( Arrays.asList( current.getId() ), results );
+
+        //every candidate is loaded, and the stale one is dropped and repaired once it is loaded
+        verify( collectionManager, never() ).getLatestVersion( any( Collection.class ) );
+        verify( collectionManager ).load( Arrays.asList( current.getId(), updated.getId() ) );
+
+        verify( batch ).deindex( searchEdge, updated.getId(), staleVersion );
+        verify( indexProducer, atLeastOnce() ).put( repairMessage );
+    }
+
+
+    private Entity write( final Id entityId ) {
+        final Entity entity = new Entity( entityId );
+        entity.setField( new StringField( "name", entityId.getUuid().toString() ) );
+
+        return collectionManager.write( entity, null ).toBlocking().last();
+    }
+
+
+    /**
+     * Filter a current candidate and a stale candidate, and return the ids of the entities emitted
+     */
+    private List<Id> filter( final EntityManagerFig fig ) {
+
+        final EntityCollectionManagerFactory managerFactory = mock( EntityCollectionManagerFactory.class );
+        when( managerFactory.createCollectionManager( applicationScope ) ).thenReturn( collectionManager );
+
+        final IndexLocationStrategy indexLocationStrategy = mock( IndexLocationStrategy.class );
+        final IndexLocationStrategyFactory indexLocationStrategyFactory = mock( IndexLocationStrategyFactory.class );
+        when( indexLocationStrategyFactory.getIndexLocationStrategy( applicationScope ) )
+            .thenReturn( indexLocationStrategy );
+
+        final EntityIndex entityIndex = mock( EntityIndex.class );
+        when( entityIndex.createBatch() ).thenReturn( batch );
+
+        final EntityIndexFactory entityIndexFactory = mock( EntityIndexFactory.class );
+        when( entityIndexFactory.createEntityIndex( indexLocationStrategy ) ).thenReturn( entityIndex );
+
+        //run the repairs in line so they can be verified
+        final RxTaskScheduler rxTaskScheduler = mock( RxTaskScheduler.class );
+        when( rxTaskScheduler.getAsyncIOScheduler() ).thenReturn( Schedulers.immediate() );
+
+        final CandidateEntityFilter filter =
+            new CandidateEntityFilter( managerFactory, entityIndexFactory, indexLocationStrategyFactory,
+                indexProducer, rxTaskScheduler, fig );
+
+        filter.setContext( new PipelineContext( applicationScope, new RequestCursor( Optional.absent() ), 10, 0 ) );
+
+        final List<FilterResult<Candidate>> candidates = Arrays.asList(
+            candidate( current.getId(), current.getVersion() ), candidate( updated.getId(), staleVersion ) );
+
+        final List<Id> results = new ArrayList<>();
+
+        for ( FilterResult<Entity> result : filter.call( Observable.from( candidates ) ).toList().toBlocking()
+                                                  .last() ) {
+            results.add( result.getValue().getId() );
+        }
+
+        return results;
+    }
+
+
+    private FilterResult<Candidate> candidate( final Id entityId, final UUID version ) {
+        final CandidateResult candidateResult = new CandidateResult( entityId, version, entityId.getUuid().toString() );
+
+        return new FilterResult<>( new Candidate( candidateResult, searchEdge, Collections.emptyList() ),
+            Optional.absent() );
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.corepersistence.pipeline.read.traverse;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import org.apache.usergrid.corepersistence.TestCoreModule;
+import org.apache.usergrid.corepersistence.pipeline.builder.PipelineBuilderFactory;
+import org.apache.usergrid.corepersistence.pipeline.read.ResultsPage;
+import org.apache.usergrid.corepersistence.util.CpNamingUtils;
+import org.apache.usergrid.persistence.core.guice.MigrationManagerRule;
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.core.scope.ApplicationScopeImpl;
+import org.apache.usergrid.persistence.core.test.ITRunner;
+import org.apache.usergrid.persistence.core.test.UseModules;
+import org.apache.usergrid.persistence.graph.GraphManager;
+import org.apache.usergrid.persistence.graph.GraphManagerFactory;
+import org.apache.usergrid.persistence.graph.impl.SimpleEdge;
+import org.apache.usergrid.persistence.model.entity.Id;
+import org.apache.usergrid.persistence.model.entity.SimpleId;
+
+import com.google.common.base.Optional;
+import com.google.inject.Inject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Tests multi hop connection traversals built with {@link ReadGraphConnectionHopFilter}
+ */
+@RunWith( ITRunner.class )
+@UseModules( TestCoreModule.class )
+public class ReadGraphConnectionHopFilterTest {
+
+    private static final String FOLLOWING = "following";
+    private static final String LIKES = "likes";
+
+    @Inject
+    private GraphManagerFactory graphManagerFactory;
+
+    @Inject
+    private PipelineBuilderFactory pipelineBuilderFactory;
+
+    @Inject
+    @Rule
+    public MigrationManagerRule migrationManagerRule;
+
+    private ApplicationScope applicationScope;
+    private GraphManager gm;
+    private long timestamp;
+
+
+    @Before
+    public void setup() {
+        applicationScope = new ApplicationScopeImpl( new SimpleId( "application" ) );
+        gm = graphManagerFactory.createEdgeManager( applicationScope );
+        timestamp = CpNamingUtils.createGraphOperationTimestamp();
+    }
+
+
+    @Test
+    public void intermediateNodesTraversedOnce() {
+
+        final Id source = new SimpleId( "user" );
+        final Id followed1 = new SimpleId( "user" );
+        final Id followed2 = new SimpleId( "user" );
+        final Id shared = new SimpleId( "user" );
+        final Id liked = new SimpleId( "thing" );
+
+        connect( source, FOLLOWING, followed1 );
+        connect( source, FOLLOWING, followed2 );
+
+        //both followed users follow the same user
+        connect( followed1, FOLLOWING, shared );
+        connect( followed2, FOLLOWING, shared );
+
+        connect( shared, LIKES, liked );
+
+        final List<Id> results = traverse( source, 100, Optional.absent(), FOLLOWING, FOLLOWING, LIKES ).getEntityList();
+
+        //both followed users are in the same group, so the shared user is traversed and its likes emitted once
+        assertEquals( Arrays.asList( liked ), results );
+    }
+
+
+    @Test
+    public void edgesEmittedInIncomingOrder() {
+
+        final Id source = new SimpleId( "user" );
+        final Id followed1 = new SimpleId( "user" );
+        final Id followed2 = new SimpleId( "user" );
+
+        final Id liked1 = new SimpleId( "thing" );
+        final Id liked2 = new SimpleId( "thing" );
+        final Id liked3 = new SimpleId( "thing" );
+        final Id liked4 = new SimpleId( "thing" );
+
+        //edges are read newest first
+        connect( source, FOLLOWING, followed2 );
+        connect( source, FOLLOWING, followed1 );
+
+        connect( followed1, LIKES, liked2 );
+        connect( followed1, LIKES, liked1 );
+
+        //newer than the likes of the first followed user, but still emitted after them
+        connect( followed2, LIKES, liked4 );
+        connect( followed2, LIKES, liked3 );
+
+        final List<Id> results = traverse( source, 100, Optional.absent(), FOLLOWING, LIKES ).getEntityList();
+
+        assertEquals( Arrays.asList( liked1, liked2, liked3, liked4 ), results );
+    }
+
+
+    @Test
+    public void cursorResumesMidTraversal() {
+
+        final int followedCount = 5;
+        final int likesCount = 3;
+        final int pageSize = 4;
+
+        final Id source = new SimpleId( "user" );
+
+        for ( int i = 0; i < followedCount; i++ ) {
+            final Id followed = new SimpleId( "user" );
+            connect( source, FOLLOWING, followed );
+
+            for ( int j = 0; j < likesCount; j++ ) {
+                connect( followed, LIKES, new SimpleId( "thing" ) );
+            }
+        }
+
+        final List<Id> expected = traverse( source, 100, Optional.absent(), FOLLOWING, LIKES ).getEntityList();
+
+        assertEquals( followedCount * likesCount, expected.size() );
+
+        //now page through the same traversal, resuming each page from the cursor of the last
+        final Set<Id> paged = new LinkedHashSet<>();
+
+        Optional<String> cursor = Optional.absent();
+        int pages = 0;
+
+        do {
+            final ResultsPage<Id> page = traverse( source, pageSize, cursor, FOLLOWING, LIKES );
+
+            if ( page == null || page.getEntityList().isEmpty() ) {
+                break;
+            }
+
+            final int sizeBefore = paged.size();
+            paged.addAll( page.getEntityList() );
+
+            assertTrue( "Each page should make progress", paged.size() > sizeBefore );
+
+            cursor = page.hasMoreResults() ? page.getResponseCursor().encodeAsString() : Optional.absent();
+            pages++;
+        }
+        while ( cursor.isPresent() );
+
+        assertTrue( "Traversal should span several pages", pages > 1 );
+
+        //nothing is skipped or reordered when resuming
+        assertEquals( expected, new ArrayList<>( paged ) );
+    }
+
+
+    @Test
+    public void noEdges() {
+
+        final Id source = new SimpleId( "user" );
+
+        final ResultsPage<Id> results = traverse( source, 100, Optional.absent(), FOLLOWING, LIKES );
+
+        assertFalse( results != null && !results.getEntityList().isEmpty() );
+    }
+
+
+    private void connect( final Id source, final String connectionName, final Id target ) {
+        gm.writeEdge(
+            new SimpleEdge( source, CpNamingUtils.getEdgeTypeFromConnectionType( connectionName ), target,
+                timestamp++ ) ).toBlocking().last();
+    }
+
+
+    /**
+     * Traverse the connections from the source, and return the first page or null if nothing is emitted
+     */
+    private ResultsPage<Id> traverse( final Id source, final int limit, final Optional<String> cursor,
+                                      final String... connectionNames ) {
+
+        return pipelineBuilderFactory.create( applicationScope ).withCursor( cursor ).withLimit( limit )
+                                     .fromId( source ).traverseConnections( Arrays.asList( connectionNames ) )
+                                     .build().toBlocking().firstOrDefault( null );
+    }
+}
@@ -82,10 +82,10 @@ public class BatchCountParallelismTest {
 
                 @Override
                 public Boolean call() throws Exception {
-                    // should increment this counter to 10 for this thread, 100 overall
+                    // should add 10 distinct counters for this thread, 100 overall
                     // this is invoked 10 times
                     for ( int y = 0; y < 10; y++ ) {
-                        Count count = new Count( "Counter", "k1", "counter1", 1 );
+                        Count count = new Count( "Counter", "k" + c, "counter" + y, 1 );
                         batcher.add( count );
                     }
                     logger.info( "Task iteration # {} : ", c );
@@ -129,10 +129,46 @@ public class BatchCountParallelismTest {
     }
 
 
+    @Test
+    public void verifySameCounterSummed() throws Exception {
+
+        batcher.setBatchSize( 100 );
+        batcher.setBatchInterval( 1 );
+
+        final CountDownLatch cdl = new CountDownLatch( 10 );
+
+        for ( int x = 0; x < 10; x++ ) {
+            exec.submit( new Callable<Boolean>() {
+
+                @Override
+                public Boolean call() throws Exception {
+                    for ( int y = 0; y < 10; y++ ) {
+                        batcher.add( new Count( "Counter", "k1", "counter1", 2 ) );
+                    }
+                    cdl.countDown();
+                    return true;
+                }
+            } );
+        }
+
+        cdl.await();
+        exec.shutdown();
+
+        // the interval flush submits the sums
+        for ( int i = 0; i < 50 && submitter.counted.get() == 0; i++ ) {
+            Thread.sleep( 100L );
+        }
+
+        assertEquals( 1, submitter.counted.get() );
+        assertEquals( 200, submitter.lastValue.get() );
+    }
+
+
     class StubSubmitter implements BatchSubmitter {
 
         AtomicLong counted = new AtomicLong();
         AtomicLong submit = new AtomicLong();
+        AtomicLong lastValue = new AtomicLong();
 
 
         @Override
@@ -140,6 +176,9 @@ public class BatchCountParallelismTest {
             logger.info( "submitted: " + counts.size() );
             counted.addAndGet( counts.size() );
             submit.incrementAndGet();
+            for ( Count count : counts ) {
+                lastValue.set( count.getValue() );
+            }
             return null;
         }
 
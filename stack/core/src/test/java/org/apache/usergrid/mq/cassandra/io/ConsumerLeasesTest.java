@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.usergrid.mq.cassandra.io;
+
+
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.usergrid.locking.Lock;
+import org.apache.usergrid.locking.LockManager;
+import org.apache.usergrid.utils.UUIDUtils;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyVararg;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+public class ConsumerLeasesTest {
+
+    private final UUID applicationId = UUIDUtils.newTimeUUID();
+    private final UUID queueId = UUIDUtils.newTimeUUID();
+    private final UUID consumerId = UUIDUtils.newTimeUUID();
+
+    private LockManager lockManager;
+    private Lock lock;
+    private ExecutorService executor;
+
+
+    @Before
+    public void setup() throws Exception {
+        lock = mock( Lock.class );
+        when( lock.tryLock( anyLong(), any( TimeUnit.class ) ) ).thenReturn( true );
+
+        lockManager = mock( LockManager.class );
+        when( lockManager.createLock( any( UUID.class ), ( String[] ) anyVararg() ) ).thenReturn( lock );
+
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+
+    @Test
+    public void releasedWithoutWaiters() throws Exception {
+        final ConsumerLeases leases = new ConsumerLeases( lockManager, 60000 );
+
+        leases.acquire( applicationId, queueId, consumerId, 1, TimeUnit.SECONDS ).release();
+        leases.acquire( applicationId, queueId, consumerId, 1, TimeUnit.SECONDS ).release();
+
+        verify( lock, times( 2 ) ).tryLock( anyLong(), any( TimeUnit.class ) );
+        verify( lock, times( 2 ) ).unlock();
+    }
+
+
+    @Test
+    public void handedToWaitingReader() throws Exception {
+        final ConsumerLeases leases = new ConsumerLeases( lockManager, 60000 );
+
+        final ConsumerLeases.Lease first = leases.acquire( applicationId, queueId, consumerId, 1, TimeUnit.SECONDS );
+
+        final Future<ConsumerLeases.Lease> second = executor.submit( new Callable<ConsumerLeases.Lease>() {
+            @Override
+            public ConsumerLeases.Lease call() throws Exception {
+                return leases.acquire( applicationId, queueId, consumerId, 10, TimeUnit.SECONDS );
+            }
+        } );
+
+        waitForQueued( first );
+
+        first.release();
+
+        final ConsumerLeases.Lease handedOff = second.get( 10, TimeUnit.SECONDS );
+
+        assertNotNull( handedOff );
+
+        //the distributed lock was kept for the waiting reader
+        verify( lock, times( 0 ) ).unlock();
+
+        executor.submit( new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                handedOff.release();
+                return null;
+            }
+        } ).get( 10, TimeUnit.SECONDS );
+
+        verify( lock, times( 1 ) ).tryLock( anyLong(), any( TimeUnit.class ) );
+        verify( lock, times( 1 ) ).unlock();
+    }
+
+
+    @Test
+    public void notHandedOffPastMaxLease() throws Exception {
+        final ConsumerLeases leases = new ConsumerLeases( lockManager, 0 );
+
+        final ConsumerLeases.Lease first = leases.acquire( applicationId, queueId, consumerId, 1, TimeUnit.SECONDS );
+
+        final Future<ConsumerLeases.Lease> second = executor.submit( new Callable<ConsumerLeases.Lease>() {
+            @Override
+            public ConsumerLeases.Lease call() throws Exception {
+                return leases.acquire( applicationId, queueId, consumerId, 10, TimeUnit.SECONDS );
+            }
+        } );
+
+        waitForQueued( first );
+
+        first.release();
+
+        assertNotNull( second.get( 10, TimeUnit.SECONDS ) );
+
+        verify( lock, times( 2 ) ).tryLock( anyLong(), any( TimeUnit.class ) );
+        verify( lock, times( 1 ) ).unlock();
+    }
+
+
+    @Test
+    public void timesOutWaiting() throws Exception {
+        final ConsumerLeases leases = new ConsumerLeases( lockManager, 60000 );
+
+        final ConsumerLeases.Lease first = leases.acquire( applicationId, queueId, consumerId, 1, TimeUnit.SECONDS );
+
+        final Future<ConsumerLeases.Lease> second = executor.submit( new Callable<ConsumerLeases.Lease>() {
+            @Override
+            public ConsumerLeases.Lease call() throws Exception {
+                return leases.acquire( applicationId, queueId, consumerId, 100, TimeUnit.MILLISECONDS );
+            }
+        } );
+
+        assertNull( second.get( 10, TimeUnit.SECONDS ) );
+
+        first.release();
+
+        verify( lock, times( 1 ) ).unlock();
+    }
+
+
+    private void waitForQueued( final ConsumerLeases.Lease lease ) throws InterruptedException {
+        for ( int i = 0; i < 100 && !lease.hasWaiters(); i++ ) {
+            Thread.sleep( 10 );
+        }
+    }
+}
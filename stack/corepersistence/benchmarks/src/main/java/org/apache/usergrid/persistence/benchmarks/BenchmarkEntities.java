@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.persistence.benchmarks;
+
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.usergrid.persistence.model.entity.Entity;
+import org.apache.usergrid.persistence.model.entity.SimpleId;
+import org.apache.usergrid.persistence.model.field.ArrayField;
+import org.apache.usergrid.persistence.model.field.BooleanField;
+import org.apache.usergrid.persistence.model.field.DoubleField;
+import org.apache.usergrid.persistence.model.field.EntityObjectField;
+import org.apache.usergrid.persistence.model.field.LocationField;
+import org.apache.usergrid.persistence.model.field.LongField;
+import org.apache.usergrid.persistence.model.field.StringField;
+import org.apache.usergrid.persistence.model.field.UUIDField;
+import org.apache.usergrid.persistence.model.field.value.EntityObject;
+import org.apache.usergrid.persistence.model.field.value.Location;
+import org.apache.usergrid.persistence.model.util.UUIDGenerator;
+
+
+/**
+ * Builds the entities the benchmarks run against, so every benchmark sees the same shape of data
+ */
+public class BenchmarkEntities {
+
+
+    /**
+     * Create an entity with every primitive field type, an array and a nested object.  Each group of fields is
+     * repeated fieldSets times so the serialized size scales with the parameter
+     */
+    public static Entity createEntity( final int fieldSets ) {
+
+        final Entity entity = new Entity( new SimpleId( "benchmark" ), UUIDGenerator.newTimeUUID() );
+
+        for ( int i = 0; i < fieldSets; i++ ) {
+            entity.setField( new StringField( "name" + i, "benchmark entity name " + i ) );
+            entity.setField( new LongField( "count" + i, ( long ) i ) );
+            entity.setField( new DoubleField( "ratio" + i, i / 3d ) );
+            entity.setField( new BooleanField( "active" + i, i % 2 == 0 ) );
+            entity.setField( new UUIDField( "ref" + i, UUIDGenerator.newTimeUUID() ) );
+            entity.setField( new LocationField( "location" + i, new Location( 37.774929, -122.419416 ) ) );
+
+            final List<String> tags = new ArrayList<>( 5 );
+
+            for ( int j = 0; j < 5; j++ ) {
+                tags.add( "tag" + j );
+            }
+
+            entity.setField( new ArrayField<>( "tags" + i, tags ) );
+
+            final EntityObject address = new EntityObject();
+            address.setField( new StringField( "street", i + " Main St" ) );
+            address.setField( new StringField( "city", "San Francisco" ) );
+            address.setField( new LongField( "zip", 94103L ) );
+
+            entity.setField( new EntityObjectField( "address" + i, address ) );
+        }
+
+        return entity;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.persistence.benchmarks;
+
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.usergrid.corepersistence.pipeline.cursor.CursorSerializerUtil;
+import org.apache.usergrid.persistence.model.util.UUIDGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+
+/**
+ * Measures encoding and decoding the cursor returned with every paged response
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class CursorSerializerBenchmark {
+
+    /**
+     * The number of filters in the pipeline that contribute a cursor value
+     */
+    @Param( { "1", "3" } )
+    public int filters;
+
+    private JsonNode cursor;
+
+    private String encoded;
+
+
+    @Setup
+    public void setup() {
+        final ObjectMapper mapper = CursorSerializerUtil.getMapper();
+        final ObjectNode map = mapper.createObjectNode();
+
+        //the same shape as an edge cursor written by each read filter
+        for ( int i = 0; i < filters; i++ ) {
+            final ObjectNode edge = mapper.createObjectNode();
+
+            edge.putObject( "sourceNode" ).put( "uuid", UUIDGenerator.newTimeUUID().toString() ).put( "type", "owner" );
+            edge.put( "type", "benchmarks" );
+            edge.putObject( "targetNode" ).put( "uuid", UUIDGenerator.newTimeUUID().toString() ).put( "type", "benchmark" );
+            edge.put( "timestamp", System.currentTimeMillis() );
+
+            map.set( String.valueOf( i ), edge );
+        }
+
+        cursor = map;
+        encoded = CursorSerializerUtil.asString( cursor );
+    }
+
+
+    @Benchmark
+    public String asString() {
+        return CursorSerializerUtil.asString( cursor );
+    }
+
+
+    @Benchmark
+    public JsonNode fromString() {
+        return CursorSerializerUtil.fromString( encoded );
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.persistence.benchmarks;
+
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.usergrid.persistence.collection.MvccEntity;
+import org.apache.usergrid.persistence.collection.serialization.SerializationFig;
+import org.apache.usergrid.persistence.collection.serialization.impl.MvccEntitySerializationStrategyV3Impl;
+import org.apache.usergrid.persistence.collection.serialization.impl.MvccEntitySerializationStrategyV4Impl;
+import org.apache.usergrid.persistence.core.astyanax.CassandraFig;
+import org.apache.usergrid.persistence.core.metrics.MetricsFactory;
+import org.apache.usergrid.persistence.core.metrics.MetricsFactoryImpl;
+import org.apache.usergrid.persistence.core.metrics.MetricsFig;
+import org.apache.usergrid.persistence.model.entity.Entity;
+import org.apache.usergrid.persistence.model.entity.EntityMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.safehaus.guicyfig.GuicyFigModule;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+
+/**
+ * Measures the V3 JSON and V4 binary entity serializers that every entity read and write goes through
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class EntitySerializerBenchmark {
+
+    /**
+     * The number of field groups in the entity, see {@link BenchmarkEntities#createEntity(int)}
+     */
+    @Param( { "1", "10", "100" } )
+    public int fieldSets;
+
+    private MvccEntitySerializationStrategyV3Impl.EntitySerializer serializer;
+
+    private MvccEntitySerializationStrategyV3Impl.EntityWrapper wrapper;
+
+    private ByteBuffer serialized;
+
+    private MvccEntitySerializationStrategyV4Impl.EntitySerializer compactSerializer;
+
+    private ByteBuffer compactSerialized;
+
+
+    @Setup
+    public void setup() {
+
+        final Injector injector =
+            Guice.createInjector( new GuicyFigModule( SerializationFig.class, CassandraFig.class, MetricsFig.class ) );
+
+        final SerializationFig serializationFig = injector.getInstance( SerializationFig.class );
+        final MetricsFactory metricsFactory = new MetricsFactoryImpl( injector.getInstance( MetricsFig.class ) );
+
+        //the serializer doesn't touch the keyspace, it's only needed for reads and writes
+        final MvccEntitySerializationStrategyV3Impl strategy =
+            new MvccEntitySerializationStrategyV3Impl( null, serializationFig, injector.getInstance( CassandraFig.class ),
+                metricsFactory );
+
+        serializer = strategy.new EntitySerializer( serializationFig, metricsFactory );
+
+        final Entity entity = BenchmarkEntities.createEntity( fieldSets );
+
+        wrapper = new MvccEntitySerializationStrategyV3Impl.EntityWrapper( entity.getId(), entity.getVersion(),
+            MvccEntity.Status.COMPLETE, EntityMap.fromEntity( entity ), 0 );
+
+        serialized = serializer.toByteBuffer( wrapper );
+
+        compactSerializer = new MvccEntitySerializationStrategyV4Impl.EntitySerializer( serializationFig, metricsFactory );
+
+        compactSerialized = compactSerializer.toByteBuffer( wrapper );
+    }
+
+
+    @Benchmark
+    public ByteBuffer serialize() {
+        return serializer.toByteBuffer( wrapper );
+    }
+
+
+    @Benchmark
+    public MvccEntitySerializationStrategyV3Impl.EntityWrapper deserialize() {
+        return serializer.fromByteBuffer( serialized.duplicate() );
+    }
+
+
+    @Benchmark
+    public ByteBuffer serializeCompact() {
+        return compactSerializer.toByteBuffer( wrapper );
+    }
+
+
+    @Benchmark
+    public MvccEntitySerializationStrategyV3Impl.EntityWrapper deserializeCompact() {
+        return compactSerializer.fromByteBuffer( compactSerialized.duplicate() );
+    }
+}
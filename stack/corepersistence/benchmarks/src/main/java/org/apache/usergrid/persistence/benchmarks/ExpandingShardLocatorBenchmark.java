@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.persistence.benchmarks;
+
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.usergrid.persistence.core.shard.ExpandingShardLocator;
+import org.apache.usergrid.persistence.core.shard.StringHashUtils;
+import org.apache.usergrid.persistence.model.entity.Id;
+import org.apache.usergrid.persistence.model.entity.SimpleId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.hash.Funnel;
+import com.google.common.hash.PrimitiveSink;
+
+
+/**
+ * Measures locating the shard of an id, done for every edge and unique value read or written
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class ExpandingShardLocatorBenchmark {
+
+    /**
+     * Same funnel the edge meta data serialization uses for ids
+     */
+    private static final Funnel<Id> ID_FUNNEL = new Funnel<Id>() {
+
+        @Override
+        public void funnel( final Id from, final PrimitiveSink into ) {
+            final UUID id = from.getUuid();
+            final String type = from.getType();
+
+            into.putLong( id.getMostSignificantBits() );
+            into.putLong( id.getLeastSignificantBits() );
+            into.putString( type, StringHashUtils.UTF8 );
+        }
+    };
+
+    /**
+     * Every shard size the cluster has used, newest first in the same format as cassandra.shardvalues
+     */
+    private static final int[] SHARD_HISTORY = { 1000, 100, 20 };
+
+    /**
+     * How many of the shard sizes have been used
+     */
+    @Param( { "1", "3" } )
+    public int shardSizes;
+
+    private ExpandingShardLocator<Id> locator;
+
+    private Id id;
+
+
+    @Setup
+    public void setup() {
+        final int[] buckets = Arrays.copyOf( SHARD_HISTORY, shardSizes );
+
+        locator = new ExpandingShardLocator<>( ID_FUNNEL, buckets );
+        id = new SimpleId( "benchmark" );
+    }
+
+
+    @Benchmark
+    public int getCurrentBucket() {
+        return locator.getCurrentBucket( id );
+    }
+
+
+    @Benchmark
+    public int[] getAllBuckets() {
+        return locator.getAllBuckets( id );
+    }
+}
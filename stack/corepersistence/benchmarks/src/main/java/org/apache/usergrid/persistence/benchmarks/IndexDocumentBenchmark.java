@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.persistence.benchmarks;
+
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.core.scope.ApplicationScopeImpl;
+import org.apache.usergrid.persistence.index.IndexEdge;
+import org.apache.usergrid.persistence.index.SearchEdge;
+import org.apache.usergrid.persistence.index.impl.EntityToMapConverter;
+import org.apache.usergrid.persistence.index.impl.IndexEdgeImpl;
+import org.apache.usergrid.persistence.index.impl.IndexingUtils;
+import org.apache.usergrid.persistence.model.entity.Entity;
+import org.apache.usergrid.persistence.model.entity.SimpleId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Measures building the elasticsearch document and its id for an entity, done once per entity per index edge
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class IndexDocumentBenchmark {
+
+    /**
+     * The number of field groups in the entity, see {@link BenchmarkEntities#createEntity(int)}
+     */
+    @Param( { "1", "10", "100" } )
+    public int fieldSets;
+
+    private ApplicationScope applicationScope;
+
+    private IndexEdge indexEdge;
+
+    private Entity entity;
+
+    private String docId;
+
+
+    @Setup
+    public void setup() {
+        applicationScope = new ApplicationScopeImpl( new SimpleId( "application" ) );
+        indexEdge = new IndexEdgeImpl( new SimpleId( "owner" ), "benchmarks", SearchEdge.NodeType.SOURCE, 1000 );
+        entity = BenchmarkEntities.createEntity( fieldSets );
+        docId = IndexingUtils.createIndexDocId( applicationScope, entity, indexEdge );
+    }
+
+
+    @Benchmark
+    public Map<String, Object> convert() {
+        return EntityToMapConverter.convert( applicationScope, indexEdge, entity );
+    }
+
+
+    @Benchmark
+    public String createIndexDocId() {
+        return IndexingUtils.createIndexDocId( applicationScope, entity, indexEdge );
+    }
+
+
+    @Benchmark
+    public Object parseIndexDocId() {
+        return IndexingUtils.parseIndexDocId( docId );
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.persistence.benchmarks;
+
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.usergrid.persistence.core.rx.OrderedMerge;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rx.Observable;
+import rx.schedulers.Schedulers;
+
+
+/**
+ * Measures merging ordered streams, which is how results are read across edge shards
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class OrderedMergeBenchmark {
+
+    private static final Comparator<Long> COMPARATOR = Long::compare;
+
+    /**
+     * The number of shards being merged
+     */
+    @Param( { "2", "10" } )
+    public int sources;
+
+    @Param( { "1000" } )
+    public int itemsPerSource;
+
+    @Param( { "100" } )
+    public int bufferSize;
+
+    private Observable<Long>[] observables;
+
+
+    @Setup
+    @SuppressWarnings( "unchecked" )
+    public void setup() {
+        observables = new Observable[sources];
+
+        //interleave the values so every source is drained evenly
+        for ( int i = 0; i < sources; i++ ) {
+            final List<Long> values = new ArrayList<>( itemsPerSource );
+
+            for ( int j = 0; j < itemsPerSource; j++ ) {
+                values.add( ( long ) j * sources + i );
+            }
+
+            //each source must emit on its own thread, the merge blocks a source until the others catch up
+            observables[i] = Observable.from( values ).subscribeOn( Schedulers.io() );
+        }
+    }
+
+
+    @Benchmark
+    public int merge() {
+        return OrderedMerge.orderedMerge( COMPARATOR, bufferSize, observables ).count().toBlocking().last();
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.persistence.benchmarks;
+
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.usergrid.persistence.model.util.UUIDGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.fasterxml.uuid.EthernetAddress;
+import com.fasterxml.uuid.UUIDTimer;
+import com.fasterxml.uuid.impl.TimeBasedGenerator;
+
+
+/**
+ * Compares the lock free UUIDGenerator with the synchronized JUG TimeBasedGenerator it replaced.  Run main to
+ * measure both at 1 to 64 threads, results are written as json to target/jmh-uuid-generator-{threads}.json
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class UUIDGeneratorBenchmark {
+
+    private static final int[] THREADS = { 1, 2, 4, 8, 16, 32, 64 };
+
+    private final TimeBasedGenerator jugGenerator;
+
+
+    public UUIDGeneratorBenchmark() {
+        try {
+            jugGenerator = new TimeBasedGenerator( EthernetAddress.fromInterface(), new UUIDTimer( new Random(), null ) );
+        }
+        catch ( IOException e ) {
+            throw new RuntimeException( "Couldn't initialize timer", e );
+        }
+    }
+
+
+    @Benchmark
+    public UUID lockFree() {
+        return UUIDGenerator.newTimeUUID();
+    }
+
+
+    @Benchmark
+    public UUID jug() {
+        return jugGenerator.generate();
+    }
+
+
+    public static void main( String[] args ) throws RunnerException {
+
+        for ( int threads : THREADS ) {
+            final Options options = new OptionsBuilder()
+                .include( UUIDGeneratorBenchmark.class.getSimpleName() )
+                .threads( threads )
+                .resultFormat( ResultFormatType.JSON )
+                .result( "target/jmh-uuid-generator-" + threads + ".json" )
+                .build();
+
+            new Runner( options ).run();
+        }
+    }
+}
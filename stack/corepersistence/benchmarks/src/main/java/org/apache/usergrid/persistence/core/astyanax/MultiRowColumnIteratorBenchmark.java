@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.persistence.core.astyanax;
+
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cassandra.thrift.ColumnOrSuperColumn;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.netflix.astyanax.model.ColumnFamily;
+import com.netflix.astyanax.model.Rows;
+import com.netflix.astyanax.serializers.LongSerializer;
+import com.netflix.astyanax.thrift.model.ThriftRowsListImpl;
+
+
+/**
+ * Measures merging the columns of several shard rows into a single page.  Lives in this package since
+ * {@link MultiRowColumnIterator#mergeResults(Rows, int)} is package visible
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class MultiRowColumnIteratorBenchmark {
+
+    private static final Comparator<Long> COMPARATOR = Long::compare;
+
+    /**
+     * The number of shard rows read at once
+     */
+    @Param( { "2", "10" } )
+    public int rowCount;
+
+    @Param( { "1000" } )
+    public int pageSize;
+
+    private MultiRowColumnIterator<Long, Long, Long> iterator;
+
+    private Rows<Long, Long> rows;
+
+
+    @Setup
+    public void setup() {
+
+        final ColumnFamily<Long, Long> cf =
+            new ColumnFamily<>( "Benchmark", LongSerializer.get(), LongSerializer.get() );
+
+        final List<Long> rowKeys = new ArrayList<>( rowCount );
+        final Map<ByteBuffer, List<ColumnOrSuperColumn>> columns = new LinkedHashMap<>();
+
+        //interleave the columns across rows, the worst case for the merge
+        for ( int i = 0; i < rowCount; i++ ) {
+            final long rowKey = i;
+            rowKeys.add( rowKey );
+
+            final List<ColumnOrSuperColumn> rowColumns = new ArrayList<>( pageSize );
+
+            for ( int j = 0; j < pageSize; j++ ) {
+                final org.apache.cassandra.thrift.Column column =
+                    new org.apache.cassandra.thrift.Column( LongSerializer.get().toByteBuffer( ( long ) j * rowCount + i ) );
+                column.setValue( new byte[0] );
+                column.setTimestamp( 0 );
+
+                rowColumns.add( new ColumnOrSuperColumn().setColumn( column ) );
+            }
+
+            columns.put( LongSerializer.get().toByteBuffer( rowKey ), rowColumns );
+        }
+
+        rows = new ThriftRowsListImpl<>( columns, LongSerializer.get(), LongSerializer.get() );
+
+        //the keyspace and search are only used when reading from cassandra
+        iterator =
+            new MultiRowColumnIterator<>( null, cf, null, column -> column.getName(), null, COMPARATOR, rowKeys,
+                pageSize );
+    }
+
+
+    @Benchmark
+    public List<Long> mergeResults() {
+        return iterator.mergeResults( rows, pageSize );
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.usergrid.persistence.cache;
+
+
+import org.safehaus.guicyfig.Default;
+import org.safehaus.guicyfig.FigSingleton;
+import org.safehaus.guicyfig.GuicyFig;
+import org.safehaus.guicyfig.Key;
+
+
+/**
+ * Configuration for the node local (L1) cache that sits in front of the Cassandra backed scoped cache.
+ */
+@FigSingleton
+public interface ScopedCacheFig extends GuicyFig {
+
+    String LOCAL_CACHE_ENABLED = "usergrid.scoped_cache.local.enabled";
+
+    String LOCAL_CACHE_MAX_BYTES = "usergrid.scoped_cache.local.max_bytes";
+
+    String LOCAL_CACHE_MAX_TTL = "usergrid.scoped_cache.local.max_ttl_seconds";
+
+    String LOCAL_CACHE_UNCLUSTERED_MAX_TTL = "usergrid.scoped_cache.local.unclustered_max_ttl_seconds";
+
+
+    /**
+     * Use the node local cache or nah
+     */
+    @Key( LOCAL_CACHE_ENABLED )
+    @Default( "true" )
+    boolean getLocalCacheEnabled();
+
+    /**
+     * Maximum size of the serialized values held in the local cache
+     */
+    @Key( LOCAL_CACHE_MAX_BYTES )
+    @Default( "16777216" )
+    long getLocalCacheMaxBytes();
+
+    /**
+     * Upper bound on how long a value lives in the local cache when invalidations are published across the cluster.
+     * Values never outlive the TTL they were written to Cassandra with
+     */
+    @Key( LOCAL_CACHE_MAX_TTL )
+    @Default( "300" )
+    int getLocalCacheMaxTtl();
+
+    /**
+     * Upper bound on how long a value lives in the local cache when the Akka cluster is disabled and other nodes
+     * cannot be told about invalidations
+     */
+    @Key( LOCAL_CACHE_UNCLUSTERED_MAX_TTL )
+    @Default( "5" )
+    int getLocalCacheUnclusteredMaxTtl();
+}
@@ -22,10 +22,14 @@ import com.google.inject.Key;
 import com.google.inject.TypeLiteral;
 import com.google.inject.multibindings.Multibinder;
 import org.apache.usergrid.persistence.cache.CacheFactory;
+import org.apache.usergrid.persistence.cache.ScopedCacheFig;
 import org.apache.usergrid.persistence.cache.impl.CacheFactoryImpl;
+import org.apache.usergrid.persistence.cache.impl.ScopedCacheInvalidator;
+import org.apache.usergrid.persistence.cache.impl.ScopedCacheInvalidatorImpl;
 import org.apache.usergrid.persistence.cache.impl.ScopedCacheSerialization;
 import org.apache.usergrid.persistence.cache.impl.ScopedCacheSerializationImpl;
 import org.apache.usergrid.persistence.core.migration.schema.Migration;
+import org.safehaus.guicyfig.GuicyFigModule;
 
 import java.util.Map;
 
@@ -42,6 +46,11 @@ public class CacheModule extends AbstractModule {
 
         bind( ScopedCacheSerialization.class ).to( ScopedCacheSerializationImpl.class );
 
+        install( new GuicyFigModule( ScopedCacheFig.class ) );
+
+        // ActorSystemManager is provided by the ActorSystemModule installed with the collection module
+        bind( ScopedCacheInvalidator.class ).to( ScopedCacheInvalidatorImpl.class );
+
         Multibinder<Migration> migrationBinding = Multibinder.newSetBinder( binder(), Migration.class );
         migrationBinding.addBinding().to(Key.get(ScopedCacheSerialization.class));
 
@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.usergrid.persistence.cache.impl;
+
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.usergrid.persistence.actorsystem.ActorSystemFig;
+import org.apache.usergrid.persistence.cache.CacheScope;
+import org.apache.usergrid.persistence.cache.ScopedCacheFig;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+
+/**
+ * Node local (L1) cache of serialized scoped cache values.  Bounded by the number of serialized bytes it holds, and
+ * every entry expires no later than the value it was read from or written to in Cassandra.
+ *
+ * Every write or removal of a key bumps the generation of the key's stripe.  A value loaded from Cassandra is only
+ * kept if the generation is unchanged since the load started, so an invalidation that arrives during the load can't
+ * be overwritten by the stale value.
+ */
+@Singleton
+public class LocalScopedCache {
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final boolean enabled;
+    private final long maxTtlMillis;
+    private final Cache<LocalKey, ScopedCacheEntry> cache;
+    private final AtomicLongArray generations = new AtomicLongArray( GENERATION_STRIPES );
+
+    // identifies invalidations published by this node, which it has already applied
+    private final String nodeId = UUID.randomUUID().toString();
+
+
+    @Inject
+    public LocalScopedCache( final ScopedCacheFig scopedCacheFig, final ActorSystemFig actorSystemFig ) {
+
+        // without the cluster we can't tell other nodes to invalidate, so keep the window short
+        final int maxTtl = actorSystemFig.getEnabled()
+            ? scopedCacheFig.getLocalCacheMaxTtl()
+            : scopedCacheFig.getLocalCacheUnclusteredMaxTtl();
+
+        this.enabled = scopedCacheFig.getLocalCacheEnabled() && maxTtl > 0;
+        this.maxTtlMillis = TimeUnit.SECONDS.toMillis( maxTtl );
+
+        this.cache = CacheBuilder.newBuilder()
+            .maximumWeight( scopedCacheFig.getLocalCacheMaxBytes() )
+            .<LocalKey, ScopedCacheEntry>weigher( ( key, entry ) -> key.key.length() + entry.getBytes().length )
+            .expireAfterWrite( Math.max( maxTtl, 0 ), TimeUnit.SECONDS )
+            .build();
+    }
+
+
+    /**
+     * Get the serialized value, null if it's not cached or has expired
+     */
+    public byte[] get( final CacheScope scope, final String key ) {
+
+        if ( !enabled ) {
+            return null;
+        }
+
+        final LocalKey localKey = new LocalKey( scope, key );
+        final ScopedCacheEntry entry = cache.getIfPresent( localKey );
+
+        if ( entry == null ) {
+            return null;
+        }
+
+        if ( entry.isExpired( System.currentTimeMillis() ) ) {
+            cache.invalidate( localKey );
+            return null;
+        }
+
+        return entry.getBytes();
+    }
+
+
+    /**
+     * The generation to pass to {@link #putLoaded} for a value about to be loaded from Cassandra
+     */
+    public long getGeneration( final CacheScope scope, final String key ) {
+        return generations.get( stripe( new LocalKey( scope, key ) ) );
+    }
+
+
+    /**
+     * Cache an entry loaded from Cassandra, unless the key was written or removed since its generation was read
+     */
+    public void putLoaded( final CacheScope scope, final String key, final ScopedCacheEntry entry,
+                           final long generation ) {
+
+        if ( !enabled ) {
+            return;
+        }
+
+        final LocalKey localKey = new LocalKey( scope, key );
+        final int stripe = stripe( localKey );
+
+        if ( generations.get( stripe ) != generation ) {
+            return;
+        }
+
+        final ScopedCacheEntry localEntry = localEntry( entry );
+        cache.put( localKey, localEntry );
+
+        // removals bump the generation before removing, so one that raced the put is seen here
+        if ( generations.get( stripe ) != generation ) {
+            cache.asMap().remove( localKey, localEntry );
+        }
+    }
+
+
+    /**
+     * Cache an entry written by this node
+     */
+    public void put( final CacheScope scope, final String key, final ScopedCacheEntry entry ) {
+
+        if ( !enabled ) {
+            return;
+        }
+
+        final LocalKey localKey = new LocalKey( scope, key );
+
+        // loads of the previous value must not replace this one
+        generations.incrementAndGet( stripe( localKey ) );
+        cache.put( localKey, localEntry( entry ) );
+    }
+
+
+    public void remove( final CacheScope scope, final String key ) {
+        final LocalKey localKey = new LocalKey( scope, key );
+
+        generations.incrementAndGet( stripe( localKey ) );
+        cache.invalidate( localKey );
+    }
+
+
+    /**
+     * Remove every entry in the scope
+     */
+    public void invalidate( final CacheScope scope ) {
+        for ( int i = 0; i < GENERATION_STRIPES; i++ ) {
+            generations.incrementAndGet( i );
+        }
+
+        cache.asMap().keySet().removeIf( localKey -> localKey.scope.equals( scope ) );
+    }
+
+
+    /**
+     * Identifies this node as the origin of the invalidations it publishes
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+
+    public long size() {
+        return cache.size();
+    }
+
+
+    /**
+     * Keep the entry for no longer than it lives in Cassandra or the configured max ttl
+     */
+    private ScopedCacheEntry localEntry( final ScopedCacheEntry entry ) {
+        final long expiresAt = Math.min( entry.getExpiresAt(), System.currentTimeMillis() + maxTtlMillis );
+
+        return new ScopedCacheEntry( entry.getBytes(), expiresAt );
+    }
+
+
+    private static int stripe( final LocalKey localKey ) {
+        return ( localKey.hashCode() & Integer.MAX_VALUE ) % GENERATION_STRIPES;
+    }
+
+
+    /**
+     * Key of an entry in the local cache
+     */
+    private static final class LocalKey {
+
+        private final CacheScope scope;
+        private final String key;
+
+
+        private LocalKey( final CacheScope scope, final String key ) {
+            this.scope = scope;
+            this.key = key;
+        }
+
+
+        @Override
+        public boolean equals( final Object o ) {
+            if ( this == o ) {
+                return true;
+            }
+            if ( !( o instanceof LocalKey ) ) {
+                return false;
+            }
+
+            final LocalKey localKey = ( LocalKey ) o;
+
+            return scope.equals( localKey.scope ) && key.equals( localKey.key );
+        }
+
+
+        @Override
+        public int hashCode() {
+            return 31 * scope.hashCode() + key.hashCode();
+        }
+    }
+}
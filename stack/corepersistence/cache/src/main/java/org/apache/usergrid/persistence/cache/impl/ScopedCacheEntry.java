@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.usergrid.persistence.cache.impl;
+
+
+/**
+ * Serialized cache value along with the time at which it expires in Cassandra.
+ */
+public class ScopedCacheEntry {
+
+    private final byte[] bytes;
+    private final long expiresAt;
+
+
+    public ScopedCacheEntry( final byte[] bytes, final long expiresAt ) {
+        this.bytes = bytes;
+        this.expiresAt = expiresAt;
+    }
+
+
+    /** The serialized value */
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+
+    /** Expiration time in milliseconds since the epoch, Long.MAX_VALUE if the value does not expire */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+
+    public boolean isExpired( final long now ) {
+        return now >= expiresAt;
+    }
+}
@@ -17,13 +17,13 @@
 package org.apache.usergrid.persistence.cache.impl;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.google.inject.Inject;
 import org.apache.usergrid.persistence.cache.CacheScope;
 import org.apache.usergrid.persistence.cache.ScopedCache;
 
 
 /**
- * Cache divided into scopes which can be individually invalidated.
+ * Cache divided into scopes which can be individually invalidated.  Reads are served from the node local cache when
+ * possible and fall through to Cassandra, removals are published to the other nodes.
  */
 public class ScopedCacheImpl<K,V> implements ScopedCache<K,V> {
 
@@ -31,27 +31,59 @@ public class ScopedCacheImpl<K,V> implements ScopedCache<K,V> {
 
     ScopedCacheSerialization<K,V> serializer;
 
-    public ScopedCacheImpl( CacheScope scope, ScopedCacheSerialization<K,V> serializer ) {
+    LocalScopedCache localCache;
+
+    ScopedCacheInvalidator invalidator;
+
+    public ScopedCacheImpl( CacheScope scope, ScopedCacheSerialization<K,V> serializer, LocalScopedCache localCache,
+                            ScopedCacheInvalidator invalidator ) {
         this.scope = scope;
         this.serializer = serializer;
+        this.localCache = localCache;
+        this.invalidator = invalidator;
     }
 
     @Override
     public V put(K key, V value, Integer ttl) {
-        return serializer.writeValue( scope, key, value, ttl );
+        final ScopedCacheEntry entry = serializer.writeEntry( scope, key, serializer.serialize( value ), ttl );
+
+        // other nodes may hold the previous value.  This node ignores its own invalidation
+        localCache.put( scope, key.toString(), entry );
+        invalidator.invalidate( scope, key.toString() );
+
+        return value;
     }
 
     @Override
     public V get(K key, TypeReference typeRef ) {
-        return serializer.readValue( scope, key, typeRef );
+        byte[] bytes = localCache.get( scope, key.toString() );
+
+        if ( bytes == null ) {
+            final long generation = localCache.getGeneration( scope, key.toString() );
+            final ScopedCacheEntry entry = serializer.readEntry( scope, key );
+
+            if ( entry == null ) {
+                return null;
+            }
+
+            // dropped if the key was invalidated while we read it
+            localCache.putLoaded( scope, key.toString(), entry, generation );
+            bytes = entry.getBytes();
+        }
+
+        return serializer.deserialize( bytes, typeRef );
     }
 
     public void remove( K key ) {
         serializer.removeValue( scope, key );
+        localCache.remove( scope, key.toString() );
+        invalidator.invalidate( scope, key.toString() );
     }
 
     @Override
     public void invalidate() {
         serializer.invalidate(scope);
+        localCache.invalidate( scope );
+        invalidator.invalidate( scope );
     }
 }
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.usergrid.persistence.cache.impl;
+
+
+import java.io.Serializable;
+import java.util.UUID;
+
+import org.apache.usergrid.persistence.cache.CacheScope;
+import org.apache.usergrid.persistence.model.entity.SimpleId;
+
+
+/**
+ * Message published to all nodes when a scoped cache key or an entire scope is removed.
+ */
+public class ScopedCacheInvalidation implements Serializable {
+
+    private final UUID applicationUuid;
+    private final String applicationType;
+    private final String key;
+    private final String origin;
+
+
+    public ScopedCacheInvalidation( final CacheScope scope, final String key, final String origin ) {
+        this.applicationUuid = scope.getApplication().getUuid();
+        this.applicationType = scope.getApplication().getType();
+        this.key = key;
+        this.origin = origin;
+    }
+
+
+    public CacheScope getScope() {
+        return new CacheScope( new SimpleId( applicationUuid, applicationType ) );
+    }
+
+
+    /** The key to remove, null if the whole scope should be removed */
+    public String getKey() {
+        return key;
+    }
+
+
+    /** The node id of the local cache that published the invalidation */
+    public String getOrigin() {
+        return origin;
+    }
+
+
+    @Override
+    public String toString() {
+        return "ScopedCacheInvalidation{" +
+            "applicationUuid=" + applicationUuid +
+            ", key='" + key + '\'' +
+            ", origin=" + origin +
+            '}';
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.usergrid.persistence.cache.impl;
+
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.inject.Inject;
+
+import akka.actor.ActorRef;
+import akka.actor.UntypedActor;
+import akka.cluster.pubsub.DistributedPubSub;
+import akka.cluster.pubsub.DistributedPubSubMediator;
+
+
+/**
+ * Removes values from the local cache when another node publishes an invalidation.
+ */
+public class ScopedCacheInvalidationActor extends UntypedActor {
+
+    private static final Logger logger = LoggerFactory.getLogger( ScopedCacheInvalidationActor.class );
+
+    private final LocalScopedCache localScopedCache;
+
+
+    @Inject
+    public ScopedCacheInvalidationActor( final LocalScopedCache localScopedCache ) {
+
+        this.localScopedCache = localScopedCache;
+
+        ActorRef mediator = DistributedPubSub.get( getContext().system() ).mediator();
+        mediator.tell( new DistributedPubSubMediator.Subscribe( ScopedCacheInvalidatorImpl.TOPIC, getSelf() ),
+            getSelf() );
+    }
+
+
+    @Override
+    public void onReceive( final Object msg ) {
+
+        if ( msg instanceof ScopedCacheInvalidation ) {
+            final ScopedCacheInvalidation invalidation = ( ScopedCacheInvalidation ) msg;
+
+            // applied locally when it was published, removing again would evict the value just written
+            if ( localScopedCache.getNodeId().equals( invalidation.getOrigin() ) ) {
+                return;
+            }
+
+            if ( invalidation.getKey() == null ) {
+                localScopedCache.invalidate( invalidation.getScope() );
+            }
+            else {
+                localScopedCache.remove( invalidation.getScope(), invalidation.getKey() );
+            }
+
+            if ( logger.isTraceEnabled() ) {
+                logger.trace( "Applied {}", invalidation );
+            }
+
+        } else if ( msg instanceof DistributedPubSubMediator.SubscribeAck ) {
+            if ( logger.isDebugEnabled() ) {
+                logger.debug( "Subscribed to scoped cache invalidations" );
+            }
+
+        } else {
+            unhandled( msg );
+        }
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.usergrid.persistence.cache.impl;
+
+
+import org.apache.usergrid.persistence.actorsystem.RouterProducer;
+import org.apache.usergrid.persistence.cache.CacheScope;
+
+
+/**
+ * Tells the other nodes in the cluster to drop values from their local caches.  Must be registered with the
+ * ActorSystemManager before it is started for invalidations to be received.
+ */
+public interface ScopedCacheInvalidator extends RouterProducer {
+
+    /** Remove a single key from every node's local cache */
+    void invalidate( CacheScope scope, String key );
+
+    /** Remove every key in the scope from every node's local cache */
+    void invalidate( CacheScope scope );
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.usergrid.persistence.cache.impl;
+
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+import org.apache.usergrid.persistence.actorsystem.ActorSystemFig;
+import org.apache.usergrid.persistence.actorsystem.ActorSystemManager;
+import org.apache.usergrid.persistence.actorsystem.GuiceActorProducer;
+import org.apache.usergrid.persistence.cache.CacheScope;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+import com.google.inject.Singleton;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+
+
+/**
+ * Publishes invalidations over the Akka cluster's pub/sub mediator.  When the cluster is disabled or not yet
+ * started invalidations stay local, and the short unclustered TTL of the local cache bounds staleness.
+ */
+@Singleton
+public class ScopedCacheInvalidatorImpl implements ScopedCacheInvalidator {
+
+    private static final Logger logger = LoggerFactory.getLogger( ScopedCacheInvalidatorImpl.class );
+
+    public static final String TOPIC = "scopedcache";
+
+    private final Injector injector;
+    private final ActorSystemFig actorSystemFig;
+    private final ActorSystemManager actorSystemManager;
+    private final LocalScopedCache localScopedCache;
+
+
+    @Inject
+    public ScopedCacheInvalidatorImpl( final Injector injector, final ActorSystemFig actorSystemFig,
+                                       final ActorSystemManager actorSystemManager,
+                                       final LocalScopedCache localScopedCache ) {
+        this.injector = injector;
+        this.actorSystemFig = actorSystemFig;
+        this.actorSystemManager = actorSystemManager;
+        this.localScopedCache = localScopedCache;
+    }
+
+
+    @Override
+    public void invalidate( final CacheScope scope, final String key ) {
+        publish( new ScopedCacheInvalidation( scope, key, localScopedCache.getNodeId() ) );
+    }
+
+
+    @Override
+    public void invalidate( final CacheScope scope ) {
+        publish( new ScopedCacheInvalidation( scope, null, localScopedCache.getNodeId() ) );
+    }
+
+
+    private void publish( final ScopedCacheInvalidation invalidation ) {
+
+        if ( !actorSystemFig.getEnabled() || !actorSystemManager.isReady() ) {
+            return;
+        }
+
+        try {
+            actorSystemManager.publishToAllRegions( TOPIC, invalidation, ActorRef.noSender() );
+        }
+        catch ( Exception e ) {
+            // other nodes will drop the value when their local ttl expires
+            logger.error( "Unable to publish {}", invalidation, e );
+        }
+    }
+
+
+    @Override
+    public String getRouterPath() {
+        return "/user/scopedCacheInvalidation";
+    }
+
+
+    @Override
+    public Collection<Class> getMessageTypes() {
+        // nothing is routed, invalidations are published to the topic
+        return Collections.emptyList();
+    }
+
+
+    @Override
+    public void addConfiguration( final Map<String, Object> configMap ) {
+        // no configuration needed
+    }
+
+
+    @Override
+    public void produceRouter( final ActorSystem system, final String role ) {
+        logger.info( "Starting ScopedCacheInvalidationActor" );
+        system.actorOf( Props.create( GuiceActorProducer.class, injector, ScopedCacheInvalidationActor.class ),
+            "scopedCacheInvalidation" );
+    }
+}
@@ -31,6 +31,16 @@ public interface ScopedCacheSerialization<K,V> extends Migration {
 
     V writeValue( CacheScope scope, K key, V value, Integer ttl );
 
+    /** Read the serialized value and its expiration, null if not found */
+    ScopedCacheEntry readEntry( CacheScope scope, K key );
+
+    /** Write an already serialized value, returns the entry as it was written */
+    ScopedCacheEntry writeEntry( CacheScope scope, K key, byte[] bytes, Integer ttl );
+
+    byte[] serialize( V value );
+
+    V deserialize( byte[] bytes, TypeReference typeRef );
+
     void removeValue( CacheScope scope, K key );
 
     void invalidate( CacheScope scope );
@@ -113,6 +113,28 @@ public class ScopedCacheSerializationImpl<K,V> implements ScopedCacheSerializati
     @Override
     public V readValue(CacheScope scope, K key, TypeReference typeRef ) {
 
+        final ScopedCacheEntry entry = readEntry( scope, key );
+
+        if ( entry == null ) {
+            return null;
+        }
+
+        V value = deserialize( entry.getBytes(), typeRef );
+
+        logger.debug("Read cache item from scope {}\n   key/value types {}/{}\n   key:value: {}:{}",
+                scope.getApplication().getUuid(),
+                key.getClass().getSimpleName(),
+                value.getClass().getSimpleName(),
+                key,
+                value);
+
+        return value;
+    }
+
+
+    @Override
+    public ScopedCacheEntry readEntry( CacheScope scope, K key ) {
+
         Preconditions.checkNotNull(scope, "scope is required");
         Preconditions.checkNotNull(key, "key is required");
 
@@ -130,27 +152,13 @@ public class ScopedCacheSerializationImpl<K,V> implements ScopedCacheSerializati
                 Column<String> result = keyspace.prepareQuery(SCOPED_CACHE)
                     .getKey(keyRowKey).getColumn( columnName ).execute().getResult();
 
-                result.getByteBufferValue();
-                //V value = MAPPER.readValue(result.getByteArrayValue(), new TypeReference<V>() {});
-                V value = MAPPER.readValue(result.getByteArrayValue(), typeRef);
-
-                logger.debug("Read cache item from scope {}\n   key/value types {}/{}\n   key:value: {}:{}",
-                        scope.getApplication().getUuid(),
-                        key.getClass().getSimpleName(),
-                        value.getClass().getSimpleName(),
-                        key,
-                        value);
-
-                return value;
+                return new ScopedCacheEntry( result.getByteArrayValue(),
+                    getExpiresAt( result.getTimestamp(), result.getTtl() ) );
 
             } catch (NotFoundException nfe) {
                 if(logger.isDebugEnabled()) {
                     logger.debug("Value not found");
                 }
-
-            } catch (IOException ioe) {
-                logger.error("Unable to read cached value", ioe);
-                throw new RuntimeException("Unable to read cached value", ioe);
             }
 
         } catch (ConnectionException e) {
@@ -169,9 +177,27 @@ public class ScopedCacheSerializationImpl<K,V> implements ScopedCacheSerializati
     @Override
     public V writeValue(CacheScope scope, K key, V value, Integer ttl) {
 
+        Preconditions.checkNotNull( value, "value is required");
+
+        writeEntry( scope, key, serialize( value ), ttl );
+
+        logger.debug("Wrote cache item to scope {}\n   key/value types {}/{}\n   key:value: {}:{}",
+                scope.getApplication().getUuid(),
+                key.getClass().getSimpleName(),
+                value.getClass().getSimpleName(),
+                key,
+                value);
+
+        return value;
+    }
+
+
+    @Override
+    public ScopedCacheEntry writeEntry( CacheScope scope, K key, byte[] cacheBytes, Integer ttl ) {
+
         Preconditions.checkNotNull( scope, "scope is required");
         Preconditions.checkNotNull( key, "key is required" );
-        Preconditions.checkNotNull( value, "value is required");
+        Preconditions.checkNotNull( cacheBytes, "value is required");
         Preconditions.checkNotNull( ttl, "ttl is required");
 
         // determine bucketed row-key based application UUID
@@ -185,28 +211,46 @@ public class ScopedCacheSerializationImpl<K,V> implements ScopedCacheSerializati
         // determine column name based on K key to string
         String columnName = key.toString();
 
-        // serialize cache item
-        byte[] cacheBytes;
+        // serialize to the entry
+        final MutationBatch batch = keyspace.prepareMutationBatch();
+        batch.withRow(SCOPED_CACHE, keyRowKey).putColumn(columnName, cacheBytes, ttl);
+
+        executeBatch(batch);
+
+        return new ScopedCacheEntry( cacheBytes, getExpiresAt( System.currentTimeMillis() * 1000, ttl ) );
+    }
+
+
+    @Override
+    public byte[] serialize( V value ) {
         try {
-            cacheBytes = MAPPER.writeValueAsBytes(value);
+            return MAPPER.writeValueAsBytes(value);
         } catch (JsonProcessingException jpe) {
             throw new RuntimeException("Unable to serialize cache value", jpe);
         }
+    }
 
-        // serialize to the entry
-        final MutationBatch batch = keyspace.prepareMutationBatch();
-        batch.withRow(SCOPED_CACHE, keyRowKey).putColumn(columnName, cacheBytes, ttl);
 
-        executeBatch(batch);
+    @Override
+    public V deserialize( byte[] bytes, TypeReference typeRef ) {
+        try {
+            return MAPPER.readValue(bytes, typeRef);
+        } catch (IOException ioe) {
+            logger.error("Unable to read cached value", ioe);
+            throw new RuntimeException("Unable to read cached value", ioe);
+        }
+    }
 
-        logger.debug("Wrote cache item to scope {}\n   key/value types {}/{}\n   key:value: {}:{}",
-                scope.getApplication().getUuid(),
-                key.getClass().getSimpleName(),
-                value.getClass().getSimpleName(),
-                key,
-                value);
 
-        return value;
+    /**
+     * Get the time in millis a column expires from its write timestamp in micros and its ttl in seconds
+     */
+    private static long getExpiresAt( final long timestampMicros, final Integer ttl ) {
+        if ( ttl == null || ttl <= 0 ) {
+            return Long.MAX_VALUE;
+        }
+
+        return timestampMicros / 1000 + ttl * 1000L;
     }
 
 
@@ -21,6 +21,7 @@ package org.apache.usergrid.persistence.cache;
 
 
 import com.google.inject.TypeLiteral;
+import org.apache.usergrid.persistence.actorsystem.ActorSystemModule;
 import org.apache.usergrid.persistence.cache.guice.CacheModule;
 import org.apache.usergrid.persistence.cache.impl.CacheFactoryImpl;
 import org.apache.usergrid.persistence.cache.impl.ScopedCacheSerialization;
@@ -37,6 +38,7 @@ public class CacheTestModule extends org.apache.usergrid.persistence.core.guice.
 
         install( new CommonModule() );
         install( new CacheModule() );
+        install( new ActorSystemModule() );
 
         bind( new TypeLiteral<CacheFactory<String, Map<String, Object>>>() {} )
             .to(new TypeLiteral<CacheFactoryImpl<String, Map<String, Object>>>() { });
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.persistence.cache.impl;
+
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.usergrid.persistence.actorsystem.ActorSystemFig;
+import org.apache.usergrid.persistence.cache.CacheScope;
+import org.apache.usergrid.persistence.cache.ScopedCacheFig;
+import org.apache.usergrid.persistence.model.entity.SimpleId;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+public class LocalScopedCacheTest {
+
+    private final CacheScope scope = new CacheScope( new SimpleId( "application" ) );
+
+    private final byte[] oldValue = { 1 };
+    private final byte[] newValue = { 2 };
+
+    private LocalScopedCache localCache;
+
+
+    @Before
+    public void setup() {
+        final ScopedCacheFig scopedCacheFig = mock( ScopedCacheFig.class );
+        when( scopedCacheFig.getLocalCacheEnabled() ).thenReturn( true );
+        when( scopedCacheFig.getLocalCacheMaxBytes() ).thenReturn( 1024L * 1024L );
+        when( scopedCacheFig.getLocalCacheMaxTtl() ).thenReturn( 300 );
+
+        final ActorSystemFig actorSystemFig = mock( ActorSystemFig.class );
+        when( actorSystemFig.getEnabled() ).thenReturn( true );
+
+        localCache = new LocalScopedCache( scopedCacheFig, actorSystemFig );
+    }
+
+
+    @Test
+    public void loadedValueCached() {
+        final long generation = localCache.getGeneration( scope, "key" );
+
+        localCache.putLoaded( scope, "key", entry( oldValue ), generation );
+
+        assertArrayEquals( oldValue, localCache.get( scope, "key" ) );
+    }
+
+
+    @Test
+    public void loadDroppedWhenRemovedDuringLoad() {
+        final long generation = localCache.getGeneration( scope, "key" );
+
+        // invalidation from another node arrives while the old value is read
+        localCache.remove( scope, "key" );
+
+        localCache.putLoaded( scope, "key", entry( oldValue ), generation );
+
+        assertNull( localCache.get( scope, "key" ) );
+    }
+
+
+    @Test
+    public void loadDroppedWhenScopeInvalidatedDuringLoad() {
+        final long generation = localCache.getGeneration( scope, "key" );
+
+        localCache.invalidate( scope );
+
+        localCache.putLoaded( scope, "key", entry( oldValue ), generation );
+
+        assertNull( localCache.get( scope, "key" ) );
+    }
+
+
+    @Test
+    public void loadDoesNotReplaceWrite() {
+        final long generation = localCache.getGeneration( scope, "key" );
+
+        localCache.put( scope, "key", entry( newValue ) );
+
+        localCache.putLoaded( scope, "key", entry( oldValue ), generation );
+
+        assertArrayEquals( newValue, localCache.get( scope, "key" ) );
+    }
+
+
+    private ScopedCacheEntry entry( final byte[] bytes ) {
+        return new ScopedCacheEntry( bytes, Long.MAX_VALUE );
+    }
+}
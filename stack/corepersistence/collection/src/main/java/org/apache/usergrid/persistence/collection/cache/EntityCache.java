@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.persistence.collection.cache;
+
+
+import java.util.Collection;
+import java.util.UUID;
+
+import org.apache.usergrid.persistence.collection.EntitySet;
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.model.entity.Id;
+
+
+/**
+ * A node local, size bounded read-through cache of the latest version of entities.  Entries are keyed by
+ * application scope and entity id, and hold the parsed MvccEntity so a hit skips both the Cassandra read and
+ * deserialization.
+ */
+public interface EntityCache {
+
+    /**
+     * Get the cached latest versions for the given ids.  Ids not present in the returned set were not in the cache
+     *
+     * @param applicationScope The scope of the entities
+     * @param entityIds The ids to look up
+     *
+     * @return An entity set with a copy of every cached entity that could be found
+     */
+    EntitySet get( ApplicationScope applicationScope, Collection<Id> entityIds );
+
+    /**
+     * Put the entities loaded from cassandra into the cache.  An entity will not replace a newer version that was
+     * written or invalidated after it was read
+     *
+     * @param applicationScope The scope of the entities
+     * @param entityIds The ids that were loaded
+     * @param entitySet The entities loaded from the serialization strategy
+     */
+    void put( ApplicationScope applicationScope, Collection<Id> entityIds, EntitySet entitySet );
+
+    /**
+     * Invalidate the cached entity because the given version has been written or marked.  Loads that read a version
+     * older than this one will not be cached
+     *
+     * @param applicationScope The scope of the entity
+     * @param entityId The id of the entity
+     * @param version The version that was written
+     */
+    void invalidate( ApplicationScope applicationScope, Id entityId, UUID version );
+
+    /**
+     * Remove all entries from the cache
+     */
+    void invalidateAll();
+
+    /**
+     * @return true if the cache is configured with a size and timeout greater than 0
+     */
+    boolean isEnabled();
+
+}
@@ -0,0 +1,265 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.persistence.collection.cache;
+
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.usergrid.persistence.collection.EntitySet;
+import org.apache.usergrid.persistence.collection.MvccEntity;
+import org.apache.usergrid.persistence.collection.mvcc.entity.impl.MvccEntityImpl;
+import org.apache.usergrid.persistence.collection.serialization.impl.EntitySetImpl;
+import org.apache.usergrid.persistence.core.metrics.MetricsFactory;
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.model.entity.Entity;
+import org.apache.usergrid.persistence.model.entity.Id;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+import com.fasterxml.uuid.UUIDComparator;
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+
+/**
+ * Guava backed entity cache.  Every entry carries the version it was created for, so a load that read an older
+ * version than a concurrent write or mark can never overwrite the invalidation.  Writes on other nodes are not seen
+ * until the entry expires, so the timeout bounds how stale a read can be.
+ */
+@Singleton
+public class EntityCacheImpl implements EntityCache {
+
+
+    private final boolean enabled;
+    private final ConcurrentMap<CacheKey, CacheEntry> cache;
+
+    private final Meter hitMeter;
+    private final Meter missMeter;
+    private final Counter evictionCounter;
+
+
+    @Inject
+    public EntityCacheImpl( final EntityCacheFig entityCacheFig, final MetricsFactory metricsFactory ) {
+
+        final int cacheSize = entityCacheFig.getCacheSize();
+        final int cacheTimeout = entityCacheFig.getCacheTimeout();
+
+        this.enabled = cacheSize > 0 && cacheTimeout > 0;
+
+        this.hitMeter = metricsFactory.getMeter( EntityCacheImpl.class, "entity_cache.hit" );
+        this.missMeter = metricsFactory.getMeter( EntityCacheImpl.class, "entity_cache.miss" );
+        this.evictionCounter = metricsFactory.getCounter( EntityCacheImpl.class, "entity_cache.eviction" );
+
+        final Cache<CacheKey, CacheEntry> guavaCache = CacheBuilder.newBuilder()
+            .maximumSize( Math.max( cacheSize, 0 ) )
+            .expireAfterWrite( Math.max( cacheTimeout, 0 ), TimeUnit.MILLISECONDS )
+            .<CacheKey, CacheEntry>removalListener( notification -> {
+                if ( notification.getCause() == RemovalCause.SIZE
+                    || notification.getCause() == RemovalCause.EXPIRED ) {
+                    evictionCounter.inc();
+                }
+            } )
+            .build();
+
+        this.cache = guavaCache.asMap();
+
+        metricsFactory.addGauge( EntityCacheImpl.class, "entity_cache.size", () -> guavaCache.size() );
+    }
+
+
+    @Override
+    public EntitySet get( final ApplicationScope applicationScope, final Collection<Id> entityIds ) {
+
+        final EntitySetImpl results = new EntitySetImpl( entityIds.size() );
+
+        if ( !enabled ) {
+            return results;
+        }
+
+        for ( final Id entityId : entityIds ) {
+            final CacheEntry entry = cache.get( new CacheKey( applicationScope, entityId ) );
+
+            //tombstones from invalidation are a miss, the next load will replace them
+            if ( entry == null || entry.entity == null ) {
+                missMeter.mark();
+                continue;
+            }
+
+            hitMeter.mark();
+            results.addEntity( copy( entry.entity ) );
+        }
+
+        return results;
+    }
+
+
+    @Override
+    public void put( final ApplicationScope applicationScope, final Collection<Id> entityIds,
+                     final EntitySet entitySet ) {
+
+        if ( !enabled ) {
+            return;
+        }
+
+        for ( final Id entityId : entityIds ) {
+            final MvccEntity mvccEntity = entitySet.getEntity( entityId );
+
+            if ( mvccEntity == null ) {
+                continue;
+            }
+
+            final CacheEntry entry = new CacheEntry( mvccEntity.getVersion(), copy( mvccEntity ) );
+
+            update( new CacheKey( applicationScope, mvccEntity.getId() ), entry );
+        }
+    }
+
+
+    @Override
+    public void invalidate( final ApplicationScope applicationScope, final Id entityId, final UUID version ) {
+
+        if ( !enabled ) {
+            return;
+        }
+
+        update( new CacheKey( applicationScope, entityId ), new CacheEntry( version, null ) );
+    }
+
+
+    @Override
+    public void invalidateAll() {
+        cache.clear();
+    }
+
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+
+    /**
+     * Set the entry only if it is the same or a newer version than what is currently cached
+     */
+    private void update( final CacheKey key, final CacheEntry entry ) {
+
+        while ( true ) {
+            final CacheEntry existing = cache.putIfAbsent( key, entry );
+
+            if ( existing == null ) {
+                return;
+            }
+
+            if ( UUIDComparator.staticCompare( entry.version, existing.version ) < 0 ) {
+                return;
+            }
+
+            if ( cache.replace( key, existing, entry ) ) {
+                return;
+            }
+        }
+    }
+
+
+    /**
+     * Create a copy of the mvcc entity so callers can modify the fields of the returned entity without changing what
+     * is cached.  Field instances themselves are shared
+     */
+    static MvccEntity copy( final MvccEntity mvccEntity ) {
+
+        final Optional<Entity> entity = mvccEntity.getEntity();
+
+        if ( !entity.isPresent() ) {
+            return new MvccEntityImpl( mvccEntity.getId(), mvccEntity.getVersion(), mvccEntity.getStatus(),
+                Optional.<Entity>absent(), mvccEntity.getSize() );
+        }
+
+        final Entity source = entity.get();
+        final Entity target = new Entity( source.getId(), source.getVersion() );
+
+        target.setFieldMap( source.getFieldMap() );
+        target.setSize( source.getSize() );
+
+        return new MvccEntityImpl( mvccEntity.getId(), mvccEntity.getVersion(), mvccEntity.getStatus(),
+            Optional.of( target ), mvccEntity.getSize() );
+    }
+
+
+    /**
+     * The key of an entity in the cache
+     */
+    private static final class CacheKey {
+
+        private final ApplicationScope applicationScope;
+        private final Id entityId;
+
+
+        private CacheKey( final ApplicationScope applicationScope, final Id entityId ) {
+            this.applicationScope = applicationScope;
+            this.entityId = entityId;
+        }
+
+
+        @Override
+        public boolean equals( final Object o ) {
+            if ( this == o ) {
+                return true;
+            }
+            if ( !( o instanceof CacheKey ) ) {
+                return false;
+            }
+
+            final CacheKey cacheKey = ( CacheKey ) o;
+
+            return applicationScope.equals( cacheKey.applicationScope ) && entityId.equals( cacheKey.entityId );
+        }
+
+
+        @Override
+        public int hashCode() {
+            int result = applicationScope.hashCode();
+            result = 31 * result + entityId.hashCode();
+            return result;
+        }
+    }
+
+
+    /**
+     * A cached version.  When the entity is null the entry is a tombstone left by an invalidation
+     */
+    private static final class CacheEntry {
+
+        private final UUID version;
+        private final MvccEntity entity;
+
+
+        private CacheEntry( final UUID version, final MvccEntity entity ) {
+            this.version = version;
+            this.entity = entity;
+        }
+    }
+}
@@ -29,6 +29,7 @@ import com.netflix.astyanax.Keyspace;
 import org.apache.usergrid.persistence.actorsystem.ActorSystemManager;
 import org.apache.usergrid.persistence.collection.EntityCollectionManager;
 import org.apache.usergrid.persistence.collection.EntityCollectionManagerFactory;
+import org.apache.usergrid.persistence.collection.cache.EntityCache;
 import org.apache.usergrid.persistence.collection.mvcc.stage.delete.MarkCommit;
 import org.apache.usergrid.persistence.collection.mvcc.stage.delete.MarkStart;
 import org.apache.usergrid.persistence.collection.mvcc.stage.delete.UniqueCleanup;
@@ -75,6 +76,7 @@ public class EntityCollectionManagerFactoryImpl implements EntityCollectionManag
     private final UniqueValuesService uniqueValuesService;
 
     private final CassandraConfig cassandraConfig;
+    private final EntityCache entityCache;
 
     private LoadingCache<ApplicationScope, EntityCollectionManager> ecmCache =
         CacheBuilder.newBuilder().maximumSize( 1000 )
@@ -104,6 +106,7 @@ public class EntityCollectionManagerFactoryImpl implements EntityCollectionManag
                                 actorSystemManager,
                                 uniqueValuesService,
                                 cassandraConfig,
+                                entityCache,
                                 scope );
 
                             return target;
@@ -132,7 +135,8 @@ public class EntityCollectionManagerFactoryImpl implements EntityCollectionManag
             final RxTaskScheduler       rxTaskScheduler,
             final ActorSystemManager    actorSystemManager,
             final UniqueValuesService   uniqueValuesService,
-            final CassandraConfig       cassandraConfig ) {
+            final CassandraConfig       cassandraConfig,
+            final EntityCache           entityCache ) {
 
         this.writeStart =               writeStart;
         this.writeVerifyUnique =        writeVerifyUnique;
@@ -153,6 +157,7 @@ public class EntityCollectionManagerFactoryImpl implements EntityCollectionManag
         this.actorSystemManager =       actorSystemManager;
         this.uniqueValuesService =      uniqueValuesService;
         this.cassandraConfig =          cassandraConfig;
+        this.entityCache =              entityCache;
     }
 
     @Override
@@ -169,5 +174,6 @@ public class EntityCollectionManagerFactoryImpl implements EntityCollectionManag
     @Override
     public void invalidate() {
         ecmCache.invalidateAll();
+        entityCache.invalidateAll();
     }
 }
@@ -33,6 +33,7 @@ import com.netflix.astyanax.model.CqlResult;
 import com.netflix.astyanax.serializers.StringSerializer;
 import org.apache.usergrid.persistence.actorsystem.ActorSystemManager;
 import org.apache.usergrid.persistence.collection.*;
+import org.apache.usergrid.persistence.collection.cache.EntityCache;
 import org.apache.usergrid.persistence.collection.mvcc.stage.CollectionIoEvent;
 import org.apache.usergrid.persistence.collection.mvcc.stage.delete.MarkCommit;
 import org.apache.usergrid.persistence.collection.mvcc.stage.delete.MarkStart;
@@ -40,6 +41,7 @@ import org.apache.usergrid.persistence.collection.mvcc.stage.delete.UniqueCleanu
 import org.apache.usergrid.persistence.collection.mvcc.stage.delete.VersionCompact;
 import org.apache.usergrid.persistence.collection.mvcc.stage.write.*;
 import org.apache.usergrid.persistence.collection.serialization.*;
+import org.apache.usergrid.persistence.collection.serialization.impl.EntitySetImpl;
 import org.apache.usergrid.persistence.collection.serialization.impl.LogEntryIterator;
 import org.apache.usergrid.persistence.collection.serialization.impl.MinMaxLogEntryIterator;
 import org.apache.usergrid.persistence.collection.serialization.impl.MutableFieldSet;
@@ -92,6 +94,7 @@ public class EntityCollectionManagerImpl implements EntityCollectionManager {
 
     private final SerializationFig serializationFig;
     private final CassandraConfig cassandraConfig;
+    private final EntityCache entityCache;
 
 
     private final Keyspace keyspace;
@@ -132,6 +135,7 @@ public class EntityCollectionManagerImpl implements EntityCollectionManager {
         final ActorSystemManager    actorSystemManager,
         final UniqueValuesService   uniqueValuesService,
         final CassandraConfig       cassandraConfig,
+        final EntityCache           entityCache,
         @Assisted final ApplicationScope applicationScope ) {
 
         this.uniqueValueSerializationStrategy = uniqueValueSerializationStrategy;
@@ -169,6 +173,7 @@ public class EntityCollectionManagerImpl implements EntityCollectionManager {
         this.getLatestTimer = metricsFactory.getTimer(EntityCollectionManagerImpl.class, "base.latest");
 
         this.cassandraConfig = cassandraConfig;
+        this.entityCache = entityCache;
     }
 
 
@@ -191,6 +196,8 @@ public class EntityCollectionManagerImpl implements EntityCollectionManager {
 
         final Observable<Entity> write = observable.map( writeCommit ).map(ioEvent -> {
 
+            entityCache.invalidate( applicationScope, entityId, ioEvent.getEvent().getVersion() );
+
             // fire this in the background so we don't block writes
             Observable.just( ioEvent ).compose( uniqueCleanup )
                 .subscribeOn( rxTaskScheduler.getAsyncIOScheduler() ).subscribe();
@@ -211,7 +218,10 @@ public class EntityCollectionManagerImpl implements EntityCollectionManager {
         Preconditions.checkNotNull( entityId.getType(), "Entity type is required in this stage" );
 
         Observable<Id> o = Observable.just( new CollectionIoEvent<>( applicationScope, entityId, region ) )
-            .map( markStart ).doOnNext( markCommit ).compose( uniqueCleanup ).map(
+            .map( markStart ).doOnNext( markCommit )
+            .doOnNext( markEvent -> entityCache.invalidate( applicationScope, entityId,
+                markEvent.getEvent().getVersion() ) )
+            .compose( uniqueCleanup ).map(
                 entityEvent -> entityEvent.getEvent().getId() );
 
         return ObservableTimer.time( o, deleteTimer );
@@ -245,14 +255,29 @@ public class EntityCollectionManagerImpl implements EntityCollectionManager {
 
         Preconditions.checkNotNull( entityIds, "entityIds cannot be null" );
 
+        return loadLatest( entityIds, null );
+    }
+
+
+    @Override
+    public Observable<EntitySet> load( final Collection<Id> entityIds, final Set<String> fieldNames ) {
+
+        Preconditions.checkNotNull( entityIds, "entityIds cannot be null" );
+        Preconditions.checkNotNull( fieldNames, "fieldNames cannot be null" );
+
+        return loadLatest( entityIds, fieldNames );
+    }
+
+
+    private Observable<EntitySet> loadLatest( final Collection<Id> entityIds, final Set<String> fieldNames ) {
+
         final Observable<EntitySet> entitySetObservable =
             Observable.create( new Observable.OnSubscribe<EntitySet>() {
 
             @Override
             public void call( final Subscriber<? super EntitySet> subscriber ) {
                 try {
-                    final EntitySet results =
-                        entitySerializationStrategy.load( applicationScope, entityIds, UUIDGenerator.newTimeUUID() );
+                    final EntitySet results = readLatest( entityIds, fieldNames );
 
                     subscriber.onNext( results );
                     subscriber.onCompleted();
@@ -268,6 +293,68 @@ public class EntityCollectionManagerImpl implements EntityCollectionManager {
     }
 
 
+    /**
+     * Load the latest versions, reading through the entity cache.  Only the ids that miss the cache are read from
+     * cassandra.  Partial entities read for a set of field names are never cached
+     */
+    private EntitySet readLatest( final Collection<Id> entityIds, final Set<String> fieldNames ) {
+
+        if ( !entityCache.isEnabled() ) {
+            return readStorage( entityIds, fieldNames );
+        }
+
+        final EntitySet cached = entityCache.get( applicationScope, entityIds );
+
+        if ( cached.size() == entityIds.size() ) {
+            return cached;
+        }
+
+        final List<Id> misses = new ArrayList<>( entityIds.size() - cached.size() );
+
+        for ( final Id entityId : entityIds ) {
+            if ( cached.getEntity( entityId ) == null ) {
+                misses.add( entityId );
+            }
+        }
+
+        final EntitySet loaded = readStorage( misses, fieldNames );
+
+        if ( fieldNames == null ) {
+            entityCache.put( applicationScope, misses, loaded );
+        }
+
+        if ( cached.isEmpty() ) {
+            return loaded;
+        }
+
+        final EntitySetImpl results = new EntitySetImpl( entityIds.size() );
+
+        for ( final Id entityId : entityIds ) {
+            MvccEntity entity = cached.getEntity( entityId );
+
+            if ( entity == null ) {
+                entity = loaded.getEntity( entityId );
+            }
+
+            if ( entity != null ) {
+                results.addEntity( entity );
+            }
+        }
+
+        return results;
+    }
+
+
+    private EntitySet readStorage( final Collection<Id> entityIds, final Set<String> fieldNames ) {
+
+        if ( fieldNames == null ) {
+            return entitySerializationStrategy.load( applicationScope, entityIds, UUIDGenerator.newTimeUUID() );
+        }
+
+        return entitySerializationStrategy.load( applicationScope, entityIds, UUIDGenerator.newTimeUUID(), fieldNames );
+    }
+
+
     @Override
     public Observable<MvccLogEntry> getVersions( final Id entityId ) {
         ValidationUtils.verifyIdentity( entityId );
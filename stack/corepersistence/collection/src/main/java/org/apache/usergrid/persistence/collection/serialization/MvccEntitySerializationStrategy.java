@@ -21,6 +21,7 @@ package org.apache.usergrid.persistence.collection.serialization;
 
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.Set;
 import java.util.UUID;
 
 import org.apache.usergrid.persistence.collection.EntitySet;
@@ -57,6 +58,16 @@ public interface MvccEntitySerializationStrategy extends Migration, VersionedDat
      */
     EntitySet load( ApplicationScope scope, Collection<Id> entityIds, UUID maxVersion );
 
+
+    /**
+     * Load the entities into the entitySet from the specified Ids, only reading the given top level fields where the
+     * storage format allows it.  Entities may still contain fields that were not requested, so callers must apply their
+     * own projection
+     *
+     * @param fieldNames The names of the top level fields to read
+     */
+    EntitySet load( ApplicationScope scope, Collection<Id> entityIds, UUID maxVersion, Set<String> fieldNames );
+
     /**
      * Load a list, from highest to lowest of the entity with versions <= version up to maxSize elements
      *
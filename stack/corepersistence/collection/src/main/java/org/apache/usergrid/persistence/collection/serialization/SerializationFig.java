@@ -54,8 +54,32 @@ public interface SerializationFig extends GuicyFig {
     @Default( "5000000" )
     int getMaxEntitySize();
 
+    /**
+     * The max number of entities read in a single request when loading entities.  Larger loads are split into
+     * requests of at most this size that are read concurrently, rather than one multi-get on a single coordinator
+     */
+    @Key( "collection.load.sub_batch_size" )
+    @Default( "50" )
+    int getLoadSubBatchSize();
+
+    /**
+     * The max number of requests of a single load that are read concurrently
+     */
+    @Key( "collection.load.concurrency" )
+    @Default( "10" )
+    int getLoadConcurrency();
+
     @Key ( "usergrid.uniqueverify.poolsize" )
     @Default( "150" )
     int getUniqueVerifyPoolSize();
 
+
+    /**
+     * Entities whose binary encoding is at least this many bytes are LZ4 compressed before they are written.  Set to 0
+     * to disable compression.  Only used by the V4 entity format
+     */
+    @Key( "collection.entity.compression.threshold" )
+    @Default( "1024" )
+    int getEntityCompressionThreshold();
+
 }
@@ -40,7 +40,13 @@ public enum CollectionDataVersions{
     /**
      * The change where we move unique field versions to their own  CF, and then only store our latest object version
      */
-    LOG_REMOVAL(2);
+    LOG_REMOVAL(2),
+
+    /**
+     * The change where entity data is written in a compact binary encoding with optional compression.  Only entity
+     * data changed in this version
+     */
+    COMPACT_ENCODING(3);
 
     private final int version;
 
@@ -7,6 +7,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import com.codahale.metrics.Histogram;
@@ -91,6 +92,8 @@ public class MvccEntitySerializationStrategyV3Impl implements MvccEntitySerializ
     protected final SerializationFig serializationFig;
     protected final CassandraFig cassandraFig;
 
+    private final Histogram loadRequestSizeHistogram;
+
 
     @Inject
     public MvccEntitySerializationStrategyV3Impl( final Keyspace keyspace, final SerializationFig serializationFig,
@@ -99,6 +102,8 @@ public class MvccEntitySerializationStrategyV3Impl implements MvccEntitySerializ
         this.serializationFig = serializationFig;
         this.cassandraFig = cassandraFig;
         this.entitySerializer = new EntitySerializer( serializationFig, metricsFactory );
+        this.loadRequestSizeHistogram =
+            metricsFactory.getHistogram( MvccEntitySerializationStrategyV3Impl.class, "load.request.size" );
     }
 
 
@@ -111,11 +116,11 @@ public class MvccEntitySerializationStrategyV3Impl implements MvccEntitySerializ
         final UUID version = entity.getVersion();
 
         Optional<EntityMap> map =  EntityMap.fromEntity(entity.getEntity());
-        ByteBuffer byteBuffer = entitySerializer.toByteBuffer(
+        ByteBuffer byteBuffer = getEntitySerializer().toByteBuffer(
             new EntityWrapper(entityId,entity.getVersion(), entity.getStatus(), map.isPresent() ? map.get() : null, 0 )
         );
 
-        entity.setSize(byteBuffer.array().length);
+        entity.setSize(byteBuffer.remaining());
 
         return doWrite( applicationScope, entityId, version, colMutation -> colMutation.putColumn( COL_VALUE, byteBuffer ) );
     }
@@ -124,6 +129,25 @@ public class MvccEntitySerializationStrategyV3Impl implements MvccEntitySerializ
     @Override
     public EntitySet load( final ApplicationScope applicationScope, final Collection<Id> entityIds,
                            final UUID maxVersion ) {
+        return doLoad( applicationScope, entityIds, maxVersion, null );
+    }
+
+
+    @Override
+    public EntitySet load( final ApplicationScope applicationScope, final Collection<Id> entityIds,
+                           final UUID maxVersion, final Set<String> fieldNames ) {
+
+        Preconditions.checkNotNull( fieldNames, "fieldNames is required" );
+
+        return doLoad( applicationScope, entityIds, maxVersion, fieldNames );
+    }
+
+
+    /**
+     * Load the latest entities.  When field names are given, only those top level fields are kept
+     */
+    private EntitySet doLoad( final ApplicationScope applicationScope, final Collection<Id> entityIds,
+                              final UUID maxVersion, final Set<String> fieldNames ) {
 
 
         Preconditions.checkNotNull( applicationScope, "applicationScope is required" );
@@ -154,17 +178,23 @@ public class MvccEntitySerializationStrategyV3Impl implements MvccEntitySerializ
 
         /**
          * Our settings may mean we exceed our maximum thrift buffer size. If we do, we have to make multiple
-         * requests, not just one.
+         * requests, not just one.  Large loads are also split into sub batches, so a single coordinator doesn't
+         * read the whole load.
          * Perform the calculations and the appropriate request patterns
          *
          */
 
-        final int maxEntityResultSizeInBytes = serializationFig.getMaxEntitySize() * entityIds.size();
+        final long maxEntityResultSizeInBytes = ( long ) serializationFig.getMaxEntitySize() * entityIds.size();
 
         //if we're less than 1, set the number of requests to 1
-        final int numberRequests = Math.max( 1, maxEntityResultSizeInBytes / cassandraFig.getThriftBufferSize() );
+        final int bufferRequests =
+            ( int ) Math.max( 1, maxEntityResultSizeInBytes / cassandraFig.getThriftBufferSize() );
 
-        final int entitiesPerRequest = entityIds.size() / numberRequests;
+        final int subBatchSize = Math.max( 1, serializationFig.getLoadSubBatchSize() );
+
+        final int numberRequests = Math.max( bufferRequests, ( entityIds.size() + subBatchSize - 1 ) / subBatchSize );
+
+        final int entitiesPerRequest = ( entityIds.size() + numberRequests - 1 ) / numberRequests;
 
 
         final Scheduler scheduler;
@@ -188,9 +218,10 @@ public class MvccEntitySerializationStrategyV3Impl implements MvccEntitySerializ
                 // if we have more than 1 request
                 return Observable.just( listObservable ).map( scopedRowKeys -> {
 
+                    loadRequestSizeHistogram.update( scopedRowKeys.size() );
 
                     try {
-                        return keyspace.prepareQuery( CF_ENTITY_DATA ).getKeySlice( scopedRowKeys )
+                        return keyspace.prepareQuery( getColumnFamily() ).getKeySlice( scopedRowKeys )
                             .withColumnSlice( COL_VALUE ).execute().getResult();
                     }
                     catch ( ConnectionException e ) {
@@ -198,7 +229,7 @@ public class MvccEntitySerializationStrategyV3Impl implements MvccEntitySerializ
                             "An error occurred connecting to cassandra", e );
                     }
                 } ).subscribeOn( scheduler );
-            }, 10 ).collect( () -> new EntitySetImpl( entityIds.size() ), ( ( entitySet, rows ) -> {
+            }, serializationFig.getLoadConcurrency() ).collect( () -> new EntitySetImpl( entityIds.size() ), ( ( entitySet, rows ) -> {
                 final Iterator<Row<ScopedRowKey<Id>, Boolean>> latestEntityColumns = rows.iterator();
 
                 while ( latestEntityColumns.hasNext() ) {
@@ -215,7 +246,7 @@ public class MvccEntitySerializationStrategyV3Impl implements MvccEntitySerializ
                     final Column<Boolean> column = columns.getColumnByIndex( 0 );
 
                     final MvccEntity parsedEntity =
-                        new MvccColumnParser( entityId, entitySerializer ).parseColumn( column );
+                        new MvccColumnParser( entityId, fieldNames ).parseColumn( column );
 
 
                     entitySet.addEntity( parsedEntity );
@@ -273,7 +304,7 @@ public class MvccEntitySerializationStrategyV3Impl implements MvccEntitySerializ
 
         return doWrite(applicationScope, entityId, version, colMutation ->
                 colMutation.putColumn(COL_VALUE,
-                    entitySerializer.toByteBuffer(new EntityWrapper(entityId, version, MvccEntity.Status.DELETED, null, 0))
+                    getEntitySerializer().toByteBuffer(new EntityWrapper(entityId, version, MvccEntity.Status.DELETED, null, 0))
                 )
         );
     }
@@ -296,7 +327,7 @@ public class MvccEntitySerializationStrategyV3Impl implements MvccEntitySerializ
         //create the CF entity data.  We want it reversed b/c we want the most recent version at the top of the
         //row for fast seeks
         MultiTenantColumnFamilyDefinition cf =
-                new MultiTenantColumnFamilyDefinition( CF_ENTITY_DATA, BytesType.class.getSimpleName(),
+                new MultiTenantColumnFamilyDefinition( getColumnFamily(), BytesType.class.getSimpleName(),
                         BooleanType.class.getSimpleName() ,
                         BytesType.class.getSimpleName(), MultiTenantColumnFamilyDefinition.CacheOption.KEYS );
 
@@ -318,12 +349,44 @@ public class MvccEntitySerializationStrategyV3Impl implements MvccEntitySerializ
 
         final long timestamp = version.timestamp();
 
-        op.doOp( batch.withRow( CF_ENTITY_DATA, rowKey ).setTimestamp( timestamp  ) );
+        op.doOp( batch.withRow( getColumnFamily(), rowKey ).setTimestamp( timestamp  ) );
 
         return batch;
     }
 
 
+    /**
+     * Get the serializer for the entity column value
+     */
+    protected AbstractSerializer<EntityWrapper> getEntitySerializer() {
+        return entitySerializer;
+    }
+
+
+    /**
+     * Read the entity wrapper from the column.  When field names are given only those top level fields are kept, so
+     * they are the only ones converted into fields
+     */
+    protected EntityWrapper readEntity( final Column<Boolean> column, final Set<String> fieldNames ) {
+
+        final EntityWrapper wrapper = column.getValue( getEntitySerializer() );
+
+        if ( fieldNames != null && wrapper.getEntityMap() != null ) {
+            wrapper.getEntityMap().keySet().retainAll( fieldNames );
+        }
+
+        return wrapper;
+    }
+
+
+    /**
+     * Get the column family entity data is stored in
+     */
+    protected MultiTenantColumnFamily<ScopedRowKey<Id>, Boolean> getColumnFamily() {
+        return CF_ENTITY_DATA;
+    }
+
+
     @Override
     public int getImplementationVersion() {
         return CollectionDataVersions.LOG_REMOVAL.getVersion();
@@ -333,15 +396,15 @@ public class MvccEntitySerializationStrategyV3Impl implements MvccEntitySerializ
     /**
      * Converts raw columns the to MvccEntity representation
      */
-    private static final class MvccColumnParser implements ColumnParser<Boolean, MvccEntity> {
+    private final class MvccColumnParser implements ColumnParser<Boolean, MvccEntity> {
 
         private final Id id;
-        private final AbstractSerializer<EntityWrapper> entityJsonSerializer;
+        private final Set<String> fieldNames;
 
 
-        private MvccColumnParser( final Id id, final AbstractSerializer<EntityWrapper> entityJsonSerializer ) {
+        private MvccColumnParser( final Id id, final Set<String> fieldNames ) {
             this.id = id;
-            this.entityJsonSerializer = entityJsonSerializer;
+            this.fieldNames = fieldNames;
         }
 
 
@@ -351,7 +414,7 @@ public class MvccEntitySerializationStrategyV3Impl implements MvccEntitySerializ
             final EntityWrapper deSerialized;
 
             try {
-                deSerialized = column.getValue( entityJsonSerializer );
+                deSerialized = readEntity( column, fieldNames );
             }
             catch ( DataCorruptionException e ) {
                 log.error(
@@ -0,0 +1,609 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.persistence.collection.serialization.impl;
+
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.apache.usergrid.persistence.collection.MvccEntity;
+import org.apache.usergrid.persistence.collection.exception.DataCorruptionException;
+import org.apache.usergrid.persistence.collection.exception.EntityTooLargeException;
+import org.apache.usergrid.persistence.collection.serialization.SerializationFig;
+import org.apache.usergrid.persistence.core.astyanax.CassandraFig;
+import org.apache.usergrid.persistence.core.astyanax.IdRowCompositeSerializer;
+import org.apache.usergrid.persistence.core.astyanax.MultiTenantColumnFamily;
+import org.apache.usergrid.persistence.core.astyanax.ScopedRowKey;
+import org.apache.usergrid.persistence.core.astyanax.ScopedRowKeySerializer;
+import org.apache.usergrid.persistence.core.metrics.MetricsFactory;
+import org.apache.usergrid.persistence.model.entity.Entity;
+import org.apache.usergrid.persistence.model.entity.EntityMap;
+import org.apache.usergrid.persistence.model.entity.Id;
+import org.apache.usergrid.persistence.model.entity.SimpleId;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Timer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.netflix.astyanax.Keyspace;
+import com.netflix.astyanax.model.Column;
+import com.netflix.astyanax.serializers.AbstractSerializer;
+import com.netflix.astyanax.serializers.BooleanSerializer;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Decompressor;
+import net.jpountz.lz4.LZ4Factory;
+
+
+/**
+ * V4 Serialization Implementation.  Stores the same entity map as V3, but as type tagged binary instead of JSON with
+ * class names, and compresses it with LZ4 once it is over the configured size
+ */
+@Singleton
+public class MvccEntitySerializationStrategyV4Impl extends MvccEntitySerializationStrategyV3Impl {
+
+    private static final ScopedRowKeySerializer<Id> ROW_KEY_SER =
+        new ScopedRowKeySerializer<>( IdRowCompositeSerializer.get() );
+
+
+    private static final MultiTenantColumnFamily<ScopedRowKey<Id>, Boolean> CF_ENTITY_DATA =
+        new MultiTenantColumnFamily<>( "Entity_Version_Data_V4", ROW_KEY_SER, BooleanSerializer.get() );
+
+
+    private final EntitySerializer entitySerializer;
+
+
+    @Inject
+    public MvccEntitySerializationStrategyV4Impl( final Keyspace keyspace, final SerializationFig serializationFig,
+                                                  final CassandraFig cassandraFig,
+                                                  final MetricsFactory metricsFactory ) {
+        super( keyspace, serializationFig, cassandraFig, metricsFactory );
+        this.entitySerializer = new EntitySerializer( serializationFig, metricsFactory );
+    }
+
+
+    @Override
+    protected AbstractSerializer<EntityWrapper> getEntitySerializer() {
+        return entitySerializer;
+    }
+
+
+    @Override
+    protected MultiTenantColumnFamily<ScopedRowKey<Id>, Boolean> getColumnFamily() {
+        return CF_ENTITY_DATA;
+    }
+
+
+    /**
+     * Fields that were not requested are skipped over in the binary data instead of being decoded
+     */
+    @Override
+    protected EntityWrapper readEntity( final Column<Boolean> column, final Set<String> fieldNames ) {
+        return entitySerializer.fromByteBuffer( column.getByteBufferValue(), fieldNames );
+    }
+
+
+    @Override
+    public int getImplementationVersion() {
+        return CollectionDataVersions.COMPACT_ENCODING.getVersion();
+    }
+
+
+    /**
+     * Writes the entity wrapper as
+     *
+     * version | id uuid | id type | entity version | state | codec | [uncompressed length] | entity map
+     *
+     * Every value in the entity map is prefixed with a one byte type, so the same java types V3 restored from the
+     * class names in its JSON are restored here.  Values of any other type are written as JSON with their class name.
+     */
+    public static final class EntitySerializer extends AbstractSerializer<EntityWrapper> {
+
+        private static final byte VERSION = 1;
+
+        private static final byte STATE_COMPLETE = 0;
+        private static final byte STATE_DELETED = 1;
+
+        private static final byte CODEC_NONE = 0;
+        private static final byte CODEC_LZ4 = 1;
+
+        private static final byte TYPE_NULL = 0;
+        private static final byte TYPE_STRING = 1;
+        private static final byte TYPE_TRUE = 2;
+        private static final byte TYPE_FALSE = 3;
+        private static final byte TYPE_INTEGER = 4;
+        private static final byte TYPE_LONG = 5;
+        private static final byte TYPE_FLOAT = 6;
+        private static final byte TYPE_DOUBLE = 7;
+        private static final byte TYPE_UUID = 8;
+        private static final byte TYPE_LIST = 9;
+        private static final byte TYPE_MAP = 10;
+        private static final byte TYPE_OBJECT = 11;
+
+        private static final LZ4Factory LZ4_FACTORY = LZ4Factory.fastestInstance();
+
+        private final ObjectMapper MAPPER = new ObjectMapper();
+        private final LZ4Compressor compressor = LZ4_FACTORY.fastCompressor();
+        private final LZ4Decompressor decompressor = LZ4_FACTORY.decompressor();
+
+        private final Histogram bytesInHistorgram;
+        private final Histogram bytesOutHistorgram;
+        private final Histogram compressedHistogram;
+        private final Timer bytesOutTimer;
+
+        private final SerializationFig serializationFig;
+
+
+        public EntitySerializer( final SerializationFig serializationFig, final MetricsFactory metricsFactory ) {
+            this.serializationFig = serializationFig;
+            this.bytesOutHistorgram =
+                metricsFactory.getHistogram( MvccEntitySerializationStrategyV4Impl.class, "bytes.out" );
+            this.bytesOutTimer = metricsFactory.getTimer( MvccEntitySerializationStrategyV4Impl.class, "bytes.out" );
+            this.bytesInHistorgram =
+                metricsFactory.getHistogram( MvccEntitySerializationStrategyV4Impl.class, "bytes.in" );
+            this.compressedHistogram =
+                metricsFactory.getHistogram( MvccEntitySerializationStrategyV4Impl.class, "bytes.compressed" );
+        }
+
+
+        @Override
+        public ByteBuffer toByteBuffer( final EntityWrapper wrapper ) {
+            if ( wrapper == null ) {
+                return null;
+            }
+
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream( 256 );
+            final DataOutputStream out = new DataOutputStream( bytes );
+
+            try {
+                out.writeByte( VERSION );
+
+                final Id id = wrapper.getId();
+
+                writeUuid( out, id.getUuid() );
+                writeString( out, id.getType() );
+                writeUuid( out, wrapper.getVersion() );
+
+                //mark this version as empty
+                if ( wrapper.getEntityMap() == null ) {
+                    out.writeByte( STATE_DELETED );
+                    return ByteBuffer.wrap( bytes.toByteArray() );
+                }
+
+                //we have an entity but status is not complete don't allow it
+                if ( wrapper.getStatus() != MvccEntity.Status.COMPLETE ) {
+                    throw new UnsupportedOperationException(
+                        "Only states " + MvccEntity.Status.DELETED + " and " + MvccEntity.Status.COMPLETE
+                            + " are supported" );
+                }
+
+                out.writeByte( STATE_COMPLETE );
+
+                final byte[] entityBytes = writeEntityMap( wrapper.getEntityMap() );
+
+                final int maxEntrySize = serializationFig.getMaxEntitySize();
+
+                bytesInHistorgram.update( entityBytes.length );
+
+                if ( entityBytes.length > maxEntrySize ) {
+                    throw new EntityTooLargeException( Entity.fromMap( wrapper.getEntityMap() ), maxEntrySize,
+                        entityBytes.length, "Your entity cannot exceed " + maxEntrySize
+                        + " bytes. The entity you tried to save was " + entityBytes.length + " bytes" );
+                }
+
+                final int compressionThreshold = serializationFig.getEntityCompressionThreshold();
+
+                if ( compressionThreshold > 0 && entityBytes.length >= compressionThreshold ) {
+
+                    final byte[] compressed = new byte[compressor.maxCompressedLength( entityBytes.length )];
+                    final int compressedLength =
+                        compressor.compress( entityBytes, 0, entityBytes.length, compressed, 0, compressed.length );
+
+                    //only keep it if it saved us something, already compressed data can grow
+                    if ( compressedLength < entityBytes.length ) {
+                        compressedHistogram.update( compressedLength );
+
+                        out.writeByte( CODEC_LZ4 );
+                        out.writeInt( entityBytes.length );
+                        out.write( compressed, 0, compressedLength );
+
+                        return ByteBuffer.wrap( bytes.toByteArray() );
+                    }
+                }
+
+                out.writeByte( CODEC_NONE );
+                out.write( entityBytes );
+
+                return ByteBuffer.wrap( bytes.toByteArray() );
+            }
+            catch ( IOException ioe ) {
+                throw new RuntimeException( "Unable to serialize entity", ioe );
+            }
+        }
+
+
+        @Override
+        public EntityWrapper fromByteBuffer( final ByteBuffer byteBuffer ) {
+            return fromByteBuffer( byteBuffer, null );
+        }
+
+
+        /**
+         * Read the entity wrapper.  When field names are given, any other top level field is skipped without decoding
+         */
+        public EntityWrapper fromByteBuffer( final ByteBuffer byteBuffer, final Set<String> fieldNames ) {
+
+            /**
+             * Same as V3, anything we can't read is a data corruption exception so the entity is treated as lost
+             * instead of failing the load
+             */
+            final Timer.Context time = bytesOutTimer.time();
+
+            try {
+                final ByteBuffer buffer = byteBuffer.duplicate();
+                final int size = buffer.remaining();
+
+                bytesOutHistorgram.update( size );
+
+                final byte version = buffer.get();
+
+                if ( version != VERSION ) {
+                    throw new DataCorruptionException( "Unknown entity format version " + version, null );
+                }
+
+                final Id id = new SimpleId( readUuid( buffer ), readString( buffer ) );
+                final UUID entityVersion = readUuid( buffer );
+
+                // it's been deleted, remove it
+                if ( buffer.get() == STATE_DELETED ) {
+                    return new EntityWrapper( id, entityVersion, MvccEntity.Status.DELETED, null, 0 );
+                }
+
+                final ByteBuffer entityBuffer;
+
+                if ( buffer.get() == CODEC_LZ4 ) {
+                    final int length = buffer.getInt();
+                    final byte[] entityBytes = new byte[length];
+
+                    final byte[] compressed;
+                    final int offset;
+
+                    if ( buffer.hasArray() ) {
+                        compressed = buffer.array();
+                        offset = buffer.arrayOffset() + buffer.position();
+                    }
+                    else {
+                        compressed = new byte[buffer.remaining()];
+                        buffer.get( compressed );
+                        offset = 0;
+                    }
+
+                    decompressor.decompress( compressed, offset, entityBytes, 0, length );
+
+                    entityBuffer = ByteBuffer.wrap( entityBytes );
+                }
+                else {
+                    entityBuffer = buffer;
+                }
+
+                final EntityMap entityMap = new EntityMap();
+
+                readMap( entityBuffer, entityMap, fieldNames );
+
+                return new EntityWrapper( id, entityVersion, MvccEntity.Status.COMPLETE, entityMap, size );
+            }
+            catch ( DataCorruptionException dce ) {
+                throw dce;
+            }
+            catch ( Exception e ) {
+                throw new DataCorruptionException( "Unable to read entity data", e );
+            }
+            finally {
+                time.stop();
+            }
+        }
+
+
+        private byte[] writeEntityMap( final Map<String, Object> entityMap ) throws IOException {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream( 1024 );
+            final DataOutputStream out = new DataOutputStream( bytes );
+
+            writeMap( out, entityMap );
+
+            return bytes.toByteArray();
+        }
+
+
+        private void writeMap( final DataOutputStream out, final Map<String, ?> map ) throws IOException {
+            writeVarInt( out, map.size() );
+
+            for ( final Map.Entry<String, ?> entry : map.entrySet() ) {
+                writeString( out, entry.getKey() );
+                writeValue( out, entry.getValue() );
+            }
+        }
+
+
+        @SuppressWarnings( "unchecked" )
+        private void writeValue( final DataOutputStream out, final Object value ) throws IOException {
+
+            if ( value == null ) {
+                out.writeByte( TYPE_NULL );
+            }
+            else if ( value instanceof String ) {
+                out.writeByte( TYPE_STRING );
+                writeString( out, ( String ) value );
+            }
+            else if ( value instanceof Boolean ) {
+                out.writeByte( ( Boolean ) value ? TYPE_TRUE : TYPE_FALSE );
+            }
+            else if ( value instanceof Integer ) {
+                out.writeByte( TYPE_INTEGER );
+                out.writeInt( ( Integer ) value );
+            }
+            else if ( value instanceof Long ) {
+                out.writeByte( TYPE_LONG );
+                out.writeLong( ( Long ) value );
+            }
+            else if ( value instanceof Float ) {
+                out.writeByte( TYPE_FLOAT );
+                out.writeFloat( ( Float ) value );
+            }
+            else if ( value instanceof Double ) {
+                out.writeByte( TYPE_DOUBLE );
+                out.writeDouble( ( Double ) value );
+            }
+            else if ( value instanceof UUID ) {
+                out.writeByte( TYPE_UUID );
+                writeUuid( out, ( UUID ) value );
+            }
+            else if ( value instanceof Collection ) {
+                final Collection<?> collection = ( Collection<?> ) value;
+
+                out.writeByte( TYPE_LIST );
+                writeVarInt( out, collection.size() );
+
+                for ( final Object element : collection ) {
+                    writeValue( out, element );
+                }
+            }
+            else if ( value instanceof Map ) {
+                out.writeByte( TYPE_MAP );
+                writeMap( out, ( Map<String, ?> ) value );
+            }
+            else {
+                final byte[] json = MAPPER.writeValueAsBytes( value );
+
+                out.writeByte( TYPE_OBJECT );
+                writeString( out, value.getClass().getName() );
+                writeVarInt( out, json.length );
+                out.write( json );
+            }
+        }
+
+
+        private void readMap( final ByteBuffer buffer, final Map<String, Object> map, final Set<String> fieldNames )
+            throws IOException {
+
+            final int size = readVarInt( buffer );
+
+            for ( int i = 0; i < size; i++ ) {
+                final String key = readString( buffer );
+
+                if ( fieldNames == null || fieldNames.contains( key ) ) {
+                    map.put( key, readValue( buffer ) );
+                }
+                else {
+                    skipValue( buffer );
+                }
+            }
+        }
+
+
+        private Object readValue( final ByteBuffer buffer ) throws IOException {
+
+            final byte type = buffer.get();
+
+            switch ( type ) {
+                case TYPE_NULL:
+                    return null;
+                case TYPE_STRING:
+                    return readString( buffer );
+                case TYPE_TRUE:
+                    return Boolean.TRUE;
+                case TYPE_FALSE:
+                    return Boolean.FALSE;
+                case TYPE_INTEGER:
+                    return buffer.getInt();
+                case TYPE_LONG:
+                    return buffer.getLong();
+                case TYPE_FLOAT:
+                    return buffer.getFloat();
+                case TYPE_DOUBLE:
+                    return buffer.getDouble();
+                case TYPE_UUID:
+                    return readUuid( buffer );
+                case TYPE_LIST:
+                    final int size = readVarInt( buffer );
+                    final List<Object> list = new ArrayList<>( size );
+
+                    for ( int i = 0; i < size; i++ ) {
+                        list.add( readValue( buffer ) );
+                    }
+
+                    return list;
+                case TYPE_MAP:
+                    final Map<String, Object> map = new HashMap<>();
+                    readMap( buffer, map, null );
+                    return map;
+                case TYPE_OBJECT:
+                    final String className = readString( buffer );
+                    final byte[] json = new byte[readVarInt( buffer )];
+                    buffer.get( json );
+
+                    try {
+                        return MAPPER.readValue( json, Class.forName( className ) );
+                    }
+                    catch ( ClassNotFoundException cnfe ) {
+                        throw new IOException( "Unable to load class " + className, cnfe );
+                    }
+                default:
+                    throw new IOException( "Unknown value type " + type );
+            }
+        }
+
+
+        /**
+         * Move the buffer past the next value without creating it
+         */
+        private static void skipValue( final ByteBuffer buffer ) throws IOException {
+
+            final byte type = buffer.get();
+
+            switch ( type ) {
+                case TYPE_NULL:
+                case TYPE_TRUE:
+                case TYPE_FALSE:
+                    return;
+                case TYPE_INTEGER:
+                case TYPE_FLOAT:
+                    skip( buffer, 4 );
+                    return;
+                case TYPE_LONG:
+                case TYPE_DOUBLE:
+                    skip( buffer, 8 );
+                    return;
+                case TYPE_UUID:
+                    skip( buffer, 16 );
+                    return;
+                case TYPE_STRING:
+                    skip( buffer, readVarInt( buffer ) );
+                    return;
+                case TYPE_LIST:
+                    final int listSize = readVarInt( buffer );
+
+                    for ( int i = 0; i < listSize; i++ ) {
+                        skipValue( buffer );
+                    }
+
+                    return;
+                case TYPE_MAP:
+                    final int mapSize = readVarInt( buffer );
+
+                    for ( int i = 0; i < mapSize; i++ ) {
+                        skip( buffer, readVarInt( buffer ) );
+                        skipValue( buffer );
+                    }
+
+                    return;
+                case TYPE_OBJECT:
+                    skip( buffer, readVarInt( buffer ) );
+                    skip( buffer, readVarInt( buffer ) );
+                    return;
+                default:
+                    throw new IOException( "Unknown value type " + type );
+            }
+        }
+
+
+        private static void skip( final ByteBuffer buffer, final int length ) {
+            buffer.position( buffer.position() + length );
+        }
+
+
+        private static void writeUuid( final DataOutputStream out, final UUID uuid ) throws IOException {
+            out.writeLong( uuid.getMostSignificantBits() );
+            out.writeLong( uuid.getLeastSignificantBits() );
+        }
+
+
+        private static UUID readUuid( final ByteBuffer buffer ) {
+            return new UUID( buffer.getLong(), buffer.getLong() );
+        }
+
+
+        private static void writeString( final DataOutputStream out, final String value ) throws IOException {
+            final byte[] bytes = value.getBytes( StandardCharsets.UTF_8 );
+
+            writeVarInt( out, bytes.length );
+            out.write( bytes );
+        }
+
+
+        private static String readString( final ByteBuffer buffer ) {
+            final int length = readVarInt( buffer );
+
+            final String value;
+
+            if ( buffer.hasArray() ) {
+                value = new String( buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                    StandardCharsets.UTF_8 );
+                buffer.position( buffer.position() + length );
+            }
+            else {
+                final byte[] bytes = new byte[length];
+                buffer.get( bytes );
+                value = new String( bytes, StandardCharsets.UTF_8 );
+            }
+
+            return value;
+        }
+
+
+        /**
+         * Lengths are almost always small, write them 7 bits at a time so they usually take a single byte
+         */
+        private static void writeVarInt( final DataOutputStream out, int value ) throws IOException {
+            while ( ( value & ~0x7F ) != 0 ) {
+                out.writeByte( ( value & 0x7F ) | 0x80 );
+                value >>>= 7;
+            }
+
+            out.writeByte( value );
+        }
+
+
+        private static int readVarInt( final ByteBuffer buffer ) {
+            int value = 0;
+            int shift = 0;
+            byte current;
+
+            do {
+                current = buffer.get();
+                value |= ( current & 0x7F ) << shift;
+                shift += 7;
+            }
+            while ( ( current & 0x80 ) != 0 );
+
+            return value;
+        }
+    }
+}
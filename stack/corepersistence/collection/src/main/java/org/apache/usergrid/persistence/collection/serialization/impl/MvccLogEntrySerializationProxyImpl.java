@@ -157,7 +157,10 @@ public class MvccLogEntrySerializationProxyImpl implements MvccLogEntrySerializa
      * Return true if we're on an old version
      */
     private MigrationRelationship<MvccLogEntrySerializationStrategy> getMigrationRelationShip() {
-        return this.versions
-            .getMigrationRelationship( migrationInfoCache.getVersion( CollectionMigrationPlugin.PLUGIN_NAME ) );
+        //log entries haven't changed since LOG_REMOVAL, later versions of the plugin only migrate entity data
+        final int version = Math.min( migrationInfoCache.getVersion( CollectionMigrationPlugin.PLUGIN_NAME ),
+            CollectionDataVersions.LOG_REMOVAL.getVersion() );
+
+        return this.versions.getMigrationRelationship( version );
     }
 }
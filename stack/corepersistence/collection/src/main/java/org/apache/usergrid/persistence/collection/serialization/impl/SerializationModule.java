@@ -52,10 +52,11 @@ public class SerializationModule extends AbstractModule {
         // bind the serialization strategies
 
 
-        //bind all 3 implementations
+        //bind all 4 implementations
         bind( MvccEntitySerializationStrategyV1Impl.class );
         bind( MvccEntitySerializationStrategyV2Impl.class );
         bind( MvccEntitySerializationStrategyV3Impl.class );
+        bind( MvccEntitySerializationStrategyV4Impl.class );
         //We've migrated this one, so we need to set up the previous, current, and proxy
 
 
@@ -81,6 +82,7 @@ public class SerializationModule extends AbstractModule {
         migrationBinder.addBinding().to( Key.get( MvccEntitySerializationStrategyV1Impl.class ) );
         migrationBinder.addBinding().to( Key.get( MvccEntitySerializationStrategyV2Impl.class ) );
         migrationBinder.addBinding().to( Key.get( MvccEntitySerializationStrategyV3Impl.class ) );
+        migrationBinder.addBinding().to( Key.get( MvccEntitySerializationStrategyV4Impl.class ) );
 
         //log serialization versions
         migrationBinder.addBinding().to( Key.get( MvccLogEntrySerializationStrategyV1Impl.class ) );
@@ -116,7 +118,7 @@ public class SerializationModule extends AbstractModule {
     @Provides
     public VersionedMigrationSet<MvccEntitySerializationStrategy> getVersions(
         final MvccEntitySerializationStrategyV1Impl v1, final MvccEntitySerializationStrategyV2Impl v2,
-        final MvccEntitySerializationStrategyV3Impl v3 ) {
+        final MvccEntitySerializationStrategyV3Impl v3, final MvccEntitySerializationStrategyV4Impl v4 ) {
 
 
         //we must perform a migration from v1 to v3 in order to maintain consistency
@@ -127,15 +129,18 @@ public class SerializationModule extends AbstractModule {
         MigrationRelationship<MvccEntitySerializationStrategy> v2Tov3 = new MigrationRelationship<>( v2, v3 );
 
 
-        //note that we MUST migrate to v3 before our next migration, if v4 and v5 is implemented we will need a
-        // v3->v5 and a v4->v5 set
+        //v4 only changes the encoding of the latest version, so we can copy it from v3 once everything is on v3.  If
+        // v5 is implemented we will need a v3->v5 and a v4->v5 set
+        MigrationRelationship<MvccEntitySerializationStrategy> v3Tov4 = new MigrationRelationship<>( v3, v4 );
+
+
         MigrationRelationship<MvccEntitySerializationStrategy> current =
-            new MigrationRelationship<>( v3, v3 );
+            new MigrationRelationship<>( v4, v4 );
 
 
         //now create our set of versions
         VersionedMigrationSet<MvccEntitySerializationStrategy> set =
-            new VersionedMigrationSet<>( v1Tov3, v2Tov3, current );
+            new VersionedMigrationSet<>( v1Tov3, v2Tov3, v3Tov4, current );
 
         return set;
     }
@@ -174,8 +174,11 @@ public class UniqueValueSerializationStrategyProxyImpl implements UniqueValueSer
      * Return true if we're on an old version
      */
     private MigrationRelationship<UniqueValueSerializationStrategy> getMigrationRelationShip() {
-        return this.versions
-            .getMigrationRelationship( migrationInfoCache.getVersion( CollectionMigrationPlugin.PLUGIN_NAME ) );
+        //unique values haven't changed since LOG_REMOVAL, later versions of the plugin only migrate entity data
+        final int version = Math.min( migrationInfoCache.getVersion( CollectionMigrationPlugin.PLUGIN_NAME ),
+            CollectionDataVersions.LOG_REMOVAL.getVersion() );
+
+        return this.versions.getMigrationRelationship( version );
     }
 
 
@@ -21,8 +21,10 @@ package org.apache.usergrid.persistence.collection.serialization.impl.migration;
 
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -35,7 +37,8 @@ import org.apache.usergrid.persistence.collection.serialization.MvccEntitySerial
 import org.apache.usergrid.persistence.collection.serialization.MvccLogEntrySerializationStrategy;
 import org.apache.usergrid.persistence.collection.serialization.UniqueValue;
 import org.apache.usergrid.persistence.collection.serialization.UniqueValueSerializationStrategy;
-import org.apache.usergrid.persistence.collection.serialization.impl.MvccEntitySerializationStrategyV3Impl;
+import org.apache.usergrid.persistence.collection.serialization.impl.CollectionDataVersions;
+import org.apache.usergrid.persistence.collection.serialization.impl.MvccEntitySerializationStrategyV4Impl;
 import org.apache.usergrid.persistence.collection.serialization.impl.UniqueValueImpl;
 import org.apache.usergrid.persistence.core.migration.data.DataMigration;
 import org.apache.usergrid.persistence.core.migration.data.DataMigrationException;
@@ -72,7 +75,7 @@ public class MvccEntityDataMigrationImpl implements DataMigration{
 
     private final Keyspace keyspace;
     private final VersionedMigrationSet<MvccEntitySerializationStrategy> allVersions;
-    private final MvccEntitySerializationStrategyV3Impl mvccEntitySerializationStrategyV3;
+    private final MvccEntitySerializationStrategyV4Impl mvccEntitySerializationStrategyV4;
     private final UniqueValueSerializationStrategy uniqueValueSerializationStrategy;
     private final MvccLogEntrySerializationStrategy mvccLogEntrySerializationStrategy;
     private final MigrationDataProvider<EntityIdScope> migrationDataProvider;
@@ -81,13 +84,13 @@ public class MvccEntityDataMigrationImpl implements DataMigration{
     @Inject
     public MvccEntityDataMigrationImpl( final Keyspace keyspace,
                                         final VersionedMigrationSet<MvccEntitySerializationStrategy> allVersions,
-                                        final MvccEntitySerializationStrategyV3Impl mvccEntitySerializationStrategyV3,
+                                        final MvccEntitySerializationStrategyV4Impl mvccEntitySerializationStrategyV4,
                                         final UniqueValueSerializationStrategy uniqueValueSerializationStrategy,
                                         final MvccLogEntrySerializationStrategy mvccLogEntrySerializationStrategy,
                                         final MigrationDataProvider<EntityIdScope> migrationDataProvider ) {
         this.keyspace = keyspace;
         this.allVersions = allVersions;
-        this.mvccEntitySerializationStrategyV3 = mvccEntitySerializationStrategyV3;
+        this.mvccEntitySerializationStrategyV4 = mvccEntitySerializationStrategyV4;
         this.uniqueValueSerializationStrategy = uniqueValueSerializationStrategy;
         this.mvccLogEntrySerializationStrategy = mvccLogEntrySerializationStrategy;
         this.migrationDataProvider = migrationDataProvider;
@@ -96,14 +99,14 @@ public class MvccEntityDataMigrationImpl implements DataMigration{
 
     @Override
     public boolean supports( final int currentVersion ) {
-        //we can only migrate up to v3 with this implementation.  Beyond that, we should use a different migration
-        return currentVersion < mvccEntitySerializationStrategyV3.getImplementationVersion();
+        //we can only migrate up to v4 with this implementation.  Beyond that, we should use a different migration
+        return currentVersion < mvccEntitySerializationStrategyV4.getImplementationVersion();
     }
 
 
     @Override
     public int getMaxVersion() {
-        return mvccEntitySerializationStrategyV3.getImplementationVersion();
+        return mvccEntitySerializationStrategyV4.getImplementationVersion();
     }
 
 
@@ -120,6 +123,12 @@ public class MvccEntityDataMigrationImpl implements DataMigration{
             allVersions.getMigrationRelationship( currentVersion );
 
 
+        //from v3 on only the latest version is stored and unique values and logs are already migrated
+        if ( migration.from.getImplementationVersion() >= CollectionDataVersions.LOG_REMOVAL.getVersion() ) {
+            return migrateLatestVersions( migration, observer );
+        }
+
+
         final Observable<List<EntityToSaveMessage>> migrated =
             migrationDataProvider.getData().subscribeOn( Schedulers.io() ).flatMap( entityToSaveList -> Observable.just( entityToSaveList ).flatMap( entityIdScope -> {
 
@@ -252,6 +261,51 @@ public class MvccEntityDataMigrationImpl implements DataMigration{
     }
 
 
+    /**
+     * Copy the latest version of each entity to the new format.  Entities are loaded in batches per application
+     */
+    private int migrateLatestVersions( final MigrationRelationship<MvccEntitySerializationStrategy> migration,
+                                       final ProgressObserver observer ) {
+
+        final AtomicLong atomicLong = new AtomicLong();
+
+        final int targetVersion = migration.to.getImplementationVersion();
+
+        migrationDataProvider.getData().subscribeOn( Schedulers.io() ).buffer( 100 )
+            .flatMap( entityIdScopes -> Observable.just( entityIdScopes ).doOnNext( toMigrate -> {
+
+                final Map<ApplicationScope, List<Id>> idsByScope = new HashMap<>();
+
+                for ( final EntityIdScope entityIdScope : toMigrate ) {
+                    idsByScope.computeIfAbsent( entityIdScope.getApplicationScope(), scope -> new ArrayList<>() )
+                              .add( entityIdScope.getId() );
+                }
+
+                final MutationBatch totalBatch = keyspace.prepareMutationBatch();
+
+                for ( final Map.Entry<ApplicationScope, List<Id>> entry : idsByScope.entrySet() ) {
+                    try {
+                        final Iterable<MvccEntity> entities = migration.from
+                            .load( entry.getKey(), entry.getValue(), UUIDGenerator.newTimeUUID() ).getEntities();
+
+                        for ( final MvccEntity entity : entities ) {
+                            totalBatch.mergeShallow( migration.to.write( entry.getKey(), entity ) );
+                            atomicLong.incrementAndGet();
+                        }
+                    }
+                    catch ( Exception e ) {
+                        logger.error( "Failed to migrate entities {} in application {}", entry.getValue(),
+                            entry.getKey().getApplication(), e );
+                    }
+                }
+
+                executeBatch( targetVersion, totalBatch, observer, atomicLong );
+            } ).subscribeOn( Schedulers.io() ), 10 ).toBlocking().lastOrDefault( null );
+
+        return targetVersion;
+    }
+
+
     protected void executeBatch( final int targetVersion, final MutationBatch batch, final ProgressObserver po,
                                  final AtomicLong count ) {
         try {
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.persistence.collection.cache;
+
+
+import java.util.Collections;
+import java.util.UUID;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.usergrid.persistence.collection.EntitySet;
+import org.apache.usergrid.persistence.collection.MvccEntity;
+import org.apache.usergrid.persistence.collection.mvcc.entity.impl.MvccEntityImpl;
+import org.apache.usergrid.persistence.collection.serialization.impl.EntitySetImpl;
+import org.apache.usergrid.persistence.core.metrics.MetricsFactory;
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.core.scope.ApplicationScopeImpl;
+import org.apache.usergrid.persistence.model.entity.Entity;
+import org.apache.usergrid.persistence.model.entity.Id;
+import org.apache.usergrid.persistence.model.entity.SimpleId;
+import org.apache.usergrid.persistence.model.field.StringField;
+import org.apache.usergrid.persistence.model.util.UUIDGenerator;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+public class EntityCacheImplTest {
+
+    private EntityCache entityCache;
+    private ApplicationScope scope;
+
+
+    @Before
+    public void setup() {
+        final EntityCacheFig entityCacheFig = mock( EntityCacheFig.class );
+        when( entityCacheFig.getCacheSize() ).thenReturn( 100 );
+        when( entityCacheFig.getCacheTimeout() ).thenReturn( 60000 );
+
+        final MetricsFactory metricsFactory = mock( MetricsFactory.class );
+        when( metricsFactory.getMeter( any( Class.class ), anyString() ) ).thenReturn( new Meter() );
+        when( metricsFactory.getCounter( any( Class.class ), anyString() ) ).thenReturn( new Counter() );
+
+        entityCache = new EntityCacheImpl( entityCacheFig, metricsFactory );
+        scope = new ApplicationScopeImpl( new SimpleId( "application" ) );
+    }
+
+
+    @Test
+    public void putAndGet() {
+
+        final MvccEntity entity = createEntity( new SimpleId( "test" ), UUIDGenerator.newTimeUUID() );
+
+        entityCache.put( scope, Collections.singleton( entity.getId() ), entitySet( entity ) );
+
+        final EntitySet cached = entityCache.get( scope, Collections.singleton( entity.getId() ) );
+
+        assertEquals( 1, cached.size() );
+
+        final MvccEntity returned = cached.getEntity( entity.getId() );
+
+        assertEquals( entity.getVersion(), returned.getVersion() );
+        assertEquals( "value", returned.getEntity().get().getField( "name" ).getValue() );
+
+        //callers get a copy they can safely modify
+        assertNotSame( entity.getEntity().get(), returned.getEntity().get() );
+
+        returned.getEntity().get().removeField( "name" );
+
+        final MvccEntity again = entityCache.get( scope, Collections.singleton( entity.getId() ) )
+            .getEntity( entity.getId() );
+
+        assertEquals( "value", again.getEntity().get().getField( "name" ).getValue() );
+    }
+
+
+    @Test
+    public void scopeIsolation() {
+
+        final MvccEntity entity = createEntity( new SimpleId( "test" ), UUIDGenerator.newTimeUUID() );
+
+        entityCache.put( scope, Collections.singleton( entity.getId() ), entitySet( entity ) );
+
+        final ApplicationScope otherScope = new ApplicationScopeImpl( new SimpleId( "application" ) );
+
+        assertTrue( entityCache.get( otherScope, Collections.singleton( entity.getId() ) ).isEmpty() );
+    }
+
+
+    @Test
+    public void invalidateRejectsOlderLoad() {
+
+        final Id id = new SimpleId( "test" );
+
+        final UUID loadedVersion = UUIDGenerator.newTimeUUID();
+        final UUID writtenVersion = UUIDGenerator.newTimeUUID();
+
+        entityCache.invalidate( scope, id, writtenVersion );
+
+        //a load that read the entity before the write completed should not be cached
+        entityCache.put( scope, Collections.singleton( id ), entitySet( createEntity( id, loadedVersion ) ) );
+
+        assertNull( entityCache.get( scope, Collections.singleton( id ) ).getEntity( id ) );
+
+        //a load of the written version replaces the invalidation
+        entityCache.put( scope, Collections.singleton( id ), entitySet( createEntity( id, writtenVersion ) ) );
+
+        assertEquals( writtenVersion, entityCache.get( scope, Collections.singleton( id ) ).getEntity( id ).getVersion() );
+    }
+
+
+    private static MvccEntity createEntity( final Id id, final UUID version ) {
+        final Entity entity = new Entity( id, version );
+        entity.setField( new StringField( "name", "value" ) );
+
+        return new MvccEntityImpl( id, version, MvccEntity.Status.COMPLETE, entity );
+    }
+
+
+    private static EntitySet entitySet( final MvccEntity entity ) {
+        final EntitySetImpl entitySet = new EntitySetImpl( 1 );
+        entitySet.addEntity( entity );
+        return entitySet;
+    }
+}
@@ -1,24 +1,38 @@
 package org.apache.usergrid.persistence.collection.serialization.impl;
 
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import org.apache.usergrid.persistence.collection.EntitySet;
+import org.apache.usergrid.persistence.collection.MvccEntity;
 import org.apache.usergrid.persistence.collection.guice.TestCollectionModule;
+import org.apache.usergrid.persistence.collection.mvcc.entity.impl.MvccEntityImpl;
 import org.apache.usergrid.persistence.collection.serialization.MvccEntitySerializationStrategy;
+import org.apache.usergrid.persistence.collection.util.EntityHelper;
+import org.apache.usergrid.persistence.core.guicyfig.SetConfigTestBypass;
+import org.apache.usergrid.persistence.core.metrics.MetricsFactory;
 import org.apache.usergrid.persistence.core.scope.ApplicationScope;
 import org.apache.usergrid.persistence.core.scope.ApplicationScopeImpl;
 import org.apache.usergrid.persistence.core.test.ITRunner;
 import org.apache.usergrid.persistence.core.test.UseModules;
+import org.apache.usergrid.persistence.model.entity.Entity;
 import org.apache.usergrid.persistence.model.entity.Id;
 import org.apache.usergrid.persistence.model.entity.SimpleId;
+import org.apache.usergrid.persistence.model.util.EntityUtils;
 import org.apache.usergrid.persistence.model.util.UUIDGenerator;
 
+import com.codahale.metrics.Histogram;
 import com.google.inject.Inject;
 import com.netflix.astyanax.connectionpool.exceptions.ConnectionException;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
 
 /**
  * Same tests as v2, we just override some methods to ensure they throw the correct exceptions
@@ -29,6 +43,9 @@ public class MvccEntitySerializationStrategyV3ImplTest extends MvccEntitySeriali
     @Inject
     private MvccEntitySerializationStrategyV3Impl serializationStrategy;
 
+    @Inject
+    private MetricsFactory metricsFactory;
+
 
     @Override
     protected MvccEntitySerializationStrategy getMvccEntitySerializationStrategy() {
@@ -65,5 +82,89 @@ public class MvccEntitySerializationStrategyV3ImplTest extends MvccEntitySeriali
 
         serializationStrategy.loadDescendingHistory( context, entityId, version1, 20 );
     }
-}
 
+
+    /**
+     * Loads more entities than a sub batch, both a multiple of the sub batch size and not, and checks every entity is
+     * loaded once
+     */
+    @Test
+    public void loadInSubBatches() throws ConnectionException {
+
+        final int subBatchSize = 7;
+
+        final int setSubBatchSize = serializationFig.getLoadSubBatchSize();
+
+        SetConfigTestBypass.setValueByPass( serializationFig, "getLoadSubBatchSize", subBatchSize + "" );
+
+        //small enough that the thrift buffer never splits the load, only the sub batch size does
+        SetConfigTestBypass.setValueByPass( serializationFig, "getMaxEntitySize", 10000 + "" );
+
+        final Histogram requestSizes =
+            metricsFactory.getHistogram( MvccEntitySerializationStrategyV3Impl.class, "load.request.size" );
+
+        try {
+            for ( int size : new int[] { subBatchSize * 3, subBatchSize * 3 + 2 } ) {
+
+                final long requestsBefore = requestSizes.getCount();
+
+                assertLoadedOnce( size );
+
+                assertEquals( "The load should be read in sub batches", ( size + subBatchSize - 1 ) / subBatchSize,
+                    requestSizes.getCount() - requestsBefore );
+            }
+        }
+        finally {
+            SetConfigTestBypass.setValueByPass( serializationFig, "getLoadSubBatchSize", setSubBatchSize + "" );
+        }
+    }
+
+
+    /**
+     * Loads enough entities that the max size of the result is past the range of an int, and checks every entity is
+     * loaded once
+     */
+    @Test
+    public void loadPastMaxIntResultSize() throws ConnectionException {
+
+        final int size = 23;
+
+        SetConfigTestBypass.setValueByPass( serializationFig, "getMaxEntitySize", Integer.MAX_VALUE / 20 + "" );
+
+        assertLoadedOnce( size );
+    }
+
+
+    /**
+     * Write the number of entities, then load them all in one load and check each is returned once
+     */
+    private void assertLoadedOnce( final int size ) throws ConnectionException {
+
+        final ApplicationScope context = new ApplicationScopeImpl( new SimpleId( "organization" ) );
+
+        final Map<Id, MvccEntity> entities = new HashMap<>( size );
+
+        for ( int i = 0; i < size; i++ ) {
+            final Entity entity = EntityHelper.generateEntity( 100 );
+
+            final Id id = entity.getId();
+            final UUID version = UUIDGenerator.newTimeUUID();
+            EntityUtils.setVersion( entity, version );
+
+            final MvccEntity mvccEntity = new MvccEntityImpl( id, version, MvccEntity.Status.COMPLETE, entity );
+
+            serializationStrategy.write( context, mvccEntity ).execute();
+
+            entities.put( id, mvccEntity );
+        }
+
+        final EntitySet loaded = serializationStrategy.load( context, entities.keySet(), UUIDGenerator.newTimeUUID() );
+
+        assertNotNull( "Entity set was loaded", loaded );
+        assertEquals( "Every entity should be loaded once", size, loaded.size() );
+
+        for ( Map.Entry<Id, MvccEntity> entry : entities.entrySet() ) {
+            assertLargeEntity( entry.getValue(), loaded.getEntity( entry.getKey() ) );
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package org.apache.usergrid.persistence.collection.serialization.impl;
+
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import org.apache.usergrid.persistence.collection.MvccEntity;
+import org.apache.usergrid.persistence.collection.guice.TestCollectionModule;
+import org.apache.usergrid.persistence.collection.mvcc.entity.impl.MvccEntityImpl;
+import org.apache.usergrid.persistence.collection.serialization.MvccEntitySerializationStrategy;
+import org.apache.usergrid.persistence.collection.util.EntityHelper;
+import org.apache.usergrid.persistence.core.guicyfig.SetConfigTestBypass;
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.core.scope.ApplicationScopeImpl;
+import org.apache.usergrid.persistence.core.test.ITRunner;
+import org.apache.usergrid.persistence.core.test.UseModules;
+import org.apache.usergrid.persistence.model.entity.Entity;
+import org.apache.usergrid.persistence.model.entity.Id;
+import org.apache.usergrid.persistence.model.entity.SimpleId;
+import org.apache.usergrid.persistence.model.field.BooleanField;
+import org.apache.usergrid.persistence.model.field.DoubleField;
+import org.apache.usergrid.persistence.model.field.IntegerField;
+import org.apache.usergrid.persistence.model.field.ListField;
+import org.apache.usergrid.persistence.model.field.LongField;
+import org.apache.usergrid.persistence.model.field.StringField;
+import org.apache.usergrid.persistence.model.field.UUIDField;
+import org.apache.usergrid.persistence.model.util.EntityUtils;
+import org.apache.usergrid.persistence.model.util.UUIDGenerator;
+
+import com.google.inject.Inject;
+import com.netflix.astyanax.connectionpool.exceptions.ConnectionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+
+/**
+ * Same tests as v3, plus round trips of every value type with and without compression
+ */
+@RunWith( ITRunner.class )
+@UseModules( TestCollectionModule.class )
+public class MvccEntitySerializationStrategyV4ImplTest extends MvccEntitySerializationStrategyV2Test {
+    @Inject
+    private MvccEntitySerializationStrategyV4Impl serializationStrategy;
+
+
+    private int compressionThreshold;
+
+
+    @Override
+    protected MvccEntitySerializationStrategy getMvccEntitySerializationStrategy() {
+        return serializationStrategy;
+    }
+
+
+    @Before
+    public void saveCompressionThreshold() {
+        compressionThreshold = serializationFig.getEntityCompressionThreshold();
+    }
+
+
+    @After
+    public void resetCompressionThreshold() {
+        SetConfigTestBypass
+            .setValueByPass( serializationFig, "getEntityCompressionThreshold", compressionThreshold + "" );
+    }
+
+
+    @Test
+    public void typedFieldsUncompressed() throws ConnectionException {
+        SetConfigTestBypass.setValueByPass( serializationFig, "getEntityCompressionThreshold", "0" );
+
+        writeLoadTypedFields();
+    }
+
+
+    @Test
+    public void typedFieldsCompressed() throws ConnectionException {
+        SetConfigTestBypass.setValueByPass( serializationFig, "getEntityCompressionThreshold", "1" );
+
+        writeLoadTypedFields();
+    }
+
+
+    @Test
+    public void loadSelectedFields() throws ConnectionException {
+
+        final ApplicationScope context = new ApplicationScopeImpl( new SimpleId( "application" ) );
+
+        final Id id = new SimpleId( "test" );
+        final UUID version = UUIDGenerator.newTimeUUID();
+
+        final Entity entity = new Entity( id );
+        EntityUtils.setVersion( entity, version );
+
+        entity.setField( new StringField( "token", "abc123" ) );
+        entity.setField( new StringField( "name", "device" ) );
+        entity.setField( new ListField<>( "list", Arrays.asList( "one", "two", "three" ) ) );
+
+        serializationStrategy
+            .write( context, new MvccEntityImpl( id, version, MvccEntity.Status.COMPLETE, entity ) ).execute();
+
+        final Set<String> fieldNames = new TreeSet<>( String.CASE_INSENSITIVE_ORDER );
+        fieldNames.add( "TOKEN" );
+
+        final MvccEntity returned =
+            serializationStrategy.load( context, Collections.singleton( id ), UUIDGenerator.newTimeUUID(), fieldNames )
+                                 .getEntity( id );
+
+        assertEquals( "Same version", version, returned.getVersion() );
+
+        final Entity returnedEntity = returned.getEntity().get();
+
+        assertEquals( "Selected field loaded", "abc123", returnedEntity.getField( "token" ).getValue() );
+        assertNull( "Other fields skipped", returnedEntity.getField( "name" ) );
+        assertNull( "Other fields skipped", returnedEntity.getField( "list" ) );
+    }
+
+
+    @Test( expected = UnsupportedOperationException.class )
+    public void loadAscendingHistory() throws ConnectionException {
+        final Id applicationId = new SimpleId( "application" );
+        final String name = "test";
+
+        ApplicationScope context = new ApplicationScopeImpl( applicationId );
+
+
+        final Id entityId = new SimpleId( UUIDGenerator.newTimeUUID(), name );
+        final UUID version1 = UUIDGenerator.newTimeUUID();
+
+        serializationStrategy.loadAscendingHistory( context, entityId, version1, 20 );
+    }
+
+
+    @Test( expected = UnsupportedOperationException.class )
+    public void loadDescendingHistory() throws ConnectionException {
+
+        final String name = "test";
+
+        final Id applicationId = new SimpleId( "application" );
+
+        ApplicationScope context = new ApplicationScopeImpl( applicationId );
+
+        final Id entityId = new SimpleId( UUIDGenerator.newTimeUUID(), name );
+        final UUID version1 = UUIDGenerator.newTimeUUID();
+
+        serializationStrategy.loadDescendingHistory( context, entityId, version1, 20 );
+    }
+
+
+    private void writeLoadTypedFields() throws ConnectionException {
+
+        final ApplicationScope context = new ApplicationScopeImpl( new SimpleId( "application" ) );
+
+        final Id id = new SimpleId( "test" );
+        final UUID version = UUIDGenerator.newTimeUUID();
+
+        final Entity entity = new Entity( id );
+        EntityUtils.setVersion( entity, version );
+
+        entity.setField( new StringField( "string", "the quick brown fox jumps over the lazy dog" ) );
+        entity.setField( new BooleanField( "boolean", true ) );
+        entity.setField( new IntegerField( "integer", 42 ) );
+        entity.setField( new LongField( "long", Long.MAX_VALUE ) );
+        entity.setField( new DoubleField( "double", 1.5d ) );
+        entity.setField( new UUIDField( "uuid", UUIDGenerator.newTimeUUID() ) );
+        entity.setField( new ListField<>( "list", Arrays.asList( "one", "two", "three" ) ) );
+
+        final MvccEntity mvccEntity = new MvccEntityImpl( id, version, MvccEntity.Status.COMPLETE, entity );
+
+        serializationStrategy.write( context, mvccEntity ).execute();
+
+        final MvccEntity returned = serializationStrategy.load( context, id ).get();
+
+        assertEquals( "Same entity", mvccEntity, returned );
+
+        EntityHelper.verifyDeepEquals( entity, returned.getEntity().get() );
+    }
+}
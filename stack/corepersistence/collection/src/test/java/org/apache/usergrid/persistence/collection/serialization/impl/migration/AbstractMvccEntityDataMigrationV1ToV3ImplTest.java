@@ -33,7 +33,7 @@ import org.apache.usergrid.persistence.collection.serialization.MvccEntitySerial
 import org.apache.usergrid.persistence.collection.serialization.MvccLogEntrySerializationStrategy;
 import org.apache.usergrid.persistence.collection.serialization.UniqueValueSerializationStrategy;
 import org.apache.usergrid.persistence.collection.serialization.impl.CollectionDataVersions;
-import org.apache.usergrid.persistence.collection.serialization.impl.MvccEntitySerializationStrategyV3Impl;
+import org.apache.usergrid.persistence.collection.serialization.impl.MvccEntitySerializationStrategyV4Impl;
 import org.apache.usergrid.persistence.core.guice.DataMigrationResetRule;
 import org.apache.usergrid.persistence.core.guice.MigrationManagerRule;
 import org.apache.usergrid.persistence.core.migration.data.DataMigrationManager;
@@ -89,7 +89,7 @@ public abstract class AbstractMvccEntityDataMigrationV1ToV3ImplTest
     @Inject
     public VersionedMigrationSet<MvccEntitySerializationStrategy> allVersions;
     @Inject
-    public MvccEntitySerializationStrategyV3Impl mvccEntitySerializationStrategyV3;
+    public MvccEntitySerializationStrategyV4Impl mvccEntitySerializationStrategyV4;
     @Inject
     public UniqueValueSerializationStrategy uniqueValueSerializationStrategy;
     @Inject
@@ -148,7 +148,7 @@ public abstract class AbstractMvccEntityDataMigrationV1ToV3ImplTest
         assertEquals( "Same instance for to", v3Impl.getClass(), tuple.to.getClass() );
 
 
-        MvccEntityDataMigrationImpl mvccEntityDataMigrationImpl = new MvccEntityDataMigrationImpl(keyspace, allVersions, mvccEntitySerializationStrategyV3, uniqueValueSerializationStrategy,  mvccLogEntrySerializationStrategy, migrationProvider);
+        MvccEntityDataMigrationImpl mvccEntityDataMigrationImpl = new MvccEntityDataMigrationImpl(keyspace, allVersions, mvccEntitySerializationStrategyV4, uniqueValueSerializationStrategy,  mvccLogEntrySerializationStrategy, migrationProvider);
 
 
         //now migration
@@ -176,8 +176,9 @@ public abstract class AbstractMvccEntityDataMigrationV1ToV3ImplTest
             versions.getMigrationRelationship( newVersion );
 
 
+        //the next migration copies the latest versions from v3 into v4
         assertEquals( "Same instance for from", v3Impl.getClass(), newTuple.from.getClass() );
-        assertEquals( "Same instance for to", v3Impl.getClass(), newTuple.to.getClass() );
+        assertEquals( "Same instance for to", mvccEntitySerializationStrategyV4.getClass(), newTuple.to.getClass() );
     }
 
 
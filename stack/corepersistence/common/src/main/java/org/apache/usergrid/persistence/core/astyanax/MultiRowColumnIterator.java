@@ -27,6 +27,7 @@ import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -77,6 +78,10 @@ public class MultiRowColumnIterator<R, C, T> implements Iterator<T> {
 
     private Iterator<T> currentColumnIterator;
 
+    private final ExecutorService readAheadExecutor;
+
+    private ReadAhead<R, C, T> readAhead;
+
 
     /**
      * Remove after finding bug
@@ -99,6 +104,19 @@ public class MultiRowColumnIterator<R, C, T> implements Iterator<T> {
                                    final ConsistencyLevel consistencyLevel, final ColumnParser<C, T> columnParser,
                                    final ColumnSearch<T> columnSearch, final Comparator<T> comparator,
                                    final Collection<R> rowKeys, final int pageSize ) {
+        this( keyspace, cf, consistencyLevel, columnParser, columnSearch, comparator, rowKeys, pageSize, null );
+    }
+
+
+    /**
+     * Create the iterator.  When the executor is present, the next page is read on it while the current page is
+     * consumed
+     */
+    public MultiRowColumnIterator( final Keyspace keyspace, final ColumnFamily<R, C> cf,
+                                   final ConsistencyLevel consistencyLevel, final ColumnParser<C, T> columnParser,
+                                   final ColumnSearch<T> columnSearch, final Comparator<T> comparator,
+                                   final Collection<R> rowKeys, final int pageSize,
+                                   final ExecutorService readAheadExecutor ) {
         this.cf = cf;
         this.pageSize = pageSize;
         this.columnParser = columnParser;
@@ -108,6 +126,7 @@ public class MultiRowColumnIterator<R, C, T> implements Iterator<T> {
         this.keyspace = keyspace;
         this.consistencyLevel = consistencyLevel;
         this.moreToReturn = true;
+        this.readAheadExecutor = readAheadExecutor;
 
         //        seenResults = new HashMap<>( pageSize * 10 );
     }
@@ -159,38 +178,22 @@ public class MultiRowColumnIterator<R, C, T> implements Iterator<T> {
 
         final int selectSize = skipFirstColumn ? pageSize + 1 : pageSize;
 
-        final RangeBuilder rangeBuilder = new RangeBuilder();
-
-
-        //set the range into the search
+        final Rows<R, C> result;
 
-        if ( startColumn == null ) {
-            columnSearch.buildRange( rangeBuilder );
+        //use the page read ahead if it was read from the same column, otherwise it's a stale read
+        if ( readAhead != null && readAhead.isFor( null, startColumn ) ) {
+            result = readAhead.get();
         }
         else {
-            columnSearch.buildRange( rangeBuilder, startColumn, null );
-        }
-
-
-        rangeBuilder.setLimit( selectSize );
-
-        if (logger.isTraceEnabled()) logger.trace( "Executing cassandra query" );
-
-        /**
-         * Get our list of slices
-         */
-        final RowSliceQuery<R, C> query =
-            keyspace.prepareQuery( cf ).setConsistencyLevel( consistencyLevel ).getKeySlice( rowKeys )
-                .withColumnRange( rangeBuilder.build() );
+            if ( readAhead != null ) {
+                readAhead.cancel();
+            }
 
-        final Rows<R, C> result;
-        try {
-            result = query.execute().getResult();
-        }
-        catch ( ConnectionException e ) {
-            throw new RuntimeException( "Unable to connect to casandra", e );
+            result = executeQuery( startColumn, selectSize );
         }
 
+        readAhead = null;
+
 
         //now aggregate them together
 
@@ -243,10 +246,57 @@ public class MultiRowColumnIterator<R, C, T> implements Iterator<T> {
 
         currentColumnIterator = mergedResults.iterator();
 
+        //read the next page while this one is consumed
+        if ( moreToReturn && readAheadExecutor != null ) {
+            final T nextStart = startColumn;
+            final int nextSelectSize = nextStart != null ? pageSize + 1 : pageSize;
+
+            readAhead = ReadAhead.submit( readAheadExecutor, null, nextStart,
+                () -> executeQuery( nextStart, nextSelectSize ) );
+        }
+
         if (logger.isTraceEnabled()) logger.trace( "Finished parsing {} rows for results", rowKeys.size() );
     }
 
 
+    /**
+     * Read a page of the rows from the start column
+     */
+    private Rows<R, C> executeQuery( final T start, final int selectSize ) {
+
+        final RangeBuilder rangeBuilder = new RangeBuilder();
+
+
+        //set the range into the search
+
+        if ( start == null ) {
+            columnSearch.buildRange( rangeBuilder );
+        }
+        else {
+            columnSearch.buildRange( rangeBuilder, start, null );
+        }
+
+
+        rangeBuilder.setLimit( selectSize );
+
+        if (logger.isTraceEnabled()) logger.trace( "Executing cassandra query" );
+
+        /**
+         * Get our list of slices
+         */
+        final RowSliceQuery<R, C> query =
+            keyspace.prepareQuery( cf ).setConsistencyLevel( consistencyLevel ).getKeySlice( rowKeys )
+                .withColumnRange( rangeBuilder.build() );
+
+        try {
+            return query.execute().getResult();
+        }
+        catch ( ConnectionException e ) {
+            throw new RuntimeException( "Unable to connect to casandra", e );
+        }
+    }
+
+
     /**
      * Return true if we have < 2 rows with columns, false otherwise
      */
@@ -303,11 +353,12 @@ public class MultiRowColumnIterator<R, C, T> implements Iterator<T> {
 
 
     /**
-     * Multiple rows are present, merge them into a single result set
+     * Multiple rows are present, merge them into a single result set.  Package visible so it can be benchmarked
+     * without a keyspace
      * @param result
      * @return
      */
-    private List<T> mergeResults( final Rows<R, C> result, final int maxSize ) {
+    List<T> mergeResults( final Rows<R, C> result, final int maxSize ) {
 
         if (logger.isTraceEnabled()) logger.trace( "Multiple rows have columns.  Merging" );
 
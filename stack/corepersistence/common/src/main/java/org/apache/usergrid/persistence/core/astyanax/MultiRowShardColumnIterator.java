@@ -21,8 +21,11 @@ package org.apache.usergrid.persistence.core.astyanax;
 
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
 
 import com.google.common.base.Optional;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.PeekingIterator;
 import org.apache.usergrid.persistence.core.shard.SmartShard;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -68,7 +71,7 @@ public class MultiRowShardColumnIterator<R, C, T> implements Iterator<T> {
 
     private Iterator<T> currentColumnIterator;
 
-    private Iterator<SmartShard> currentShardIterator;
+    private PeekingIterator<SmartShard> currentShardIterator;
 
     private List<SmartShard> rowKeysWithShardEnd;
 
@@ -82,12 +85,31 @@ public class MultiRowShardColumnIterator<R, C, T> implements Iterator<T> {
 
     private Optional<Long> lastTimestamp;
 
+    private final ExecutorService readAheadExecutor;
+
+    private ReadAhead<R, C, T> readAhead;
+
 
     public MultiRowShardColumnIterator( final Keyspace keyspace, final ColumnFamily<R, C> cf,
                                         final ConsistencyLevel consistencyLevel, final ColumnParser<C, T> columnParser,
                                         final ColumnSearch<T> columnSearch, final Comparator<T> comparator,
                                         final int pageSize, final List<SmartShard> rowKeysWithShardEnd,
                                         final boolean ascending, final Optional<Long> lastTimestamp) {
+        this( keyspace, cf, consistencyLevel, columnParser, columnSearch, comparator, pageSize, rowKeysWithShardEnd,
+            ascending, lastTimestamp, null );
+    }
+
+
+    /**
+     * Create the iterator.  When the executor is present, the next page of the shard, or the first page of the next
+     * shard, is read on it while the current page is consumed
+     */
+    public MultiRowShardColumnIterator( final Keyspace keyspace, final ColumnFamily<R, C> cf,
+                                        final ConsistencyLevel consistencyLevel, final ColumnParser<C, T> columnParser,
+                                        final ColumnSearch<T> columnSearch, final Comparator<T> comparator,
+                                        final int pageSize, final List<SmartShard> rowKeysWithShardEnd,
+                                        final boolean ascending, final Optional<Long> lastTimestamp,
+                                        final ExecutorService readAheadExecutor ) {
         this.cf = cf;
         this.pageSize = pageSize;
         this.columnParser = columnParser;
@@ -100,6 +122,7 @@ public class MultiRowShardColumnIterator<R, C, T> implements Iterator<T> {
         this.resultsTracking = new ArrayList<>();
         this.ascending = ascending;
         this.lastTimestamp = lastTimestamp;
+        this.readAheadExecutor = readAheadExecutor;
 
 
     }
@@ -170,8 +193,6 @@ public class MultiRowShardColumnIterator<R, C, T> implements Iterator<T> {
 
         final int selectSize = skipFirstColumn ? pageSize + 1 : pageSize;
 
-        final RangeBuilder rangeBuilder = new RangeBuilder();
-
         SmartShard startShard = null;
 
 
@@ -203,7 +224,7 @@ public class MultiRowShardColumnIterator<R, C, T> implements Iterator<T> {
 
             }
 
-            currentShardIterator = rowKeysWithShardEnd.iterator();
+            currentShardIterator = Iterators.peekingIterator( rowKeysWithShardEnd.iterator() );
 
         }
 
@@ -232,103 +253,21 @@ public class MultiRowShardColumnIterator<R, C, T> implements Iterator<T> {
 
 
 
-        // initial request, build the range with no start and no end
-        if ( startColumn == null && currentShard.getShardEnd() == null ){
-
-            columnSearch.buildRange( rangeBuilder );
-
-            if(logger.isTraceEnabled()){
-                logger.trace("initial search (no start or shard end)");
-            }
-
-        }
-        // if there's only a startColumn set the range start startColumn always
-        else if ( startColumn != null && currentShard.getShardEnd() == null ){
-
-            columnSearch.buildRange( rangeBuilder, startColumn, null );
-
-            if(logger.isTraceEnabled()){
-                logger.trace("search (no shard end) with start: {}", startColumn);
-            }
-
-        }
-        // if there's only a shardEnd, set the start/end according based on the search order
-        else if ( startColumn == null && currentShard.getShardEnd() != null ){
-
-            T shardEnd = (T) currentShard.getShardEnd();
-
-            // if we have a shardEnd and it's not an ascending search, use the shardEnd as a start
-            if(!ascending) {
-
-                columnSearch.buildRange(rangeBuilder, shardEnd, null);
-
-                if(logger.isTraceEnabled()){
-                    logger.trace("search descending with start: {}", shardEnd);
-                }
-
-            }
-            // if we have a shardEnd and it is an ascending search, use the shardEnd as the end
-            else{
-
-                columnSearch.buildRange( rangeBuilder, null, shardEnd );
-
-                if(logger.isTraceEnabled()){
-                    logger.trace("search ascending with end: {}", shardEnd);
-                }
-
-            }
+        final Rows<R, C> result;
 
+        //use the page read ahead if it was read from the same shard and column, otherwise it's a stale read
+        if ( readAhead != null && readAhead.isFor( currentShard, startColumn ) ) {
+            result = readAhead.get();
         }
-        // if there's both a startColumn and a shardEnd, decide which should be used as start/end based on search order
-        else if ( startColumn != null && currentShard.getShardEnd() != null) {
-
-            T shardEnd = (T) currentShard.getShardEnd();
-
-
-            // if the search is not ascending, set the start to be the older edge
-            if(!ascending){
-
-                T searchStart = comparator.compare(shardEnd, startColumn) > 0 ? shardEnd : startColumn;
-                columnSearch.buildRange( rangeBuilder, searchStart, null);
-
-                if(logger.isTraceEnabled()){
-                    logger.trace("search descending with start: {} in shard", searchStart, currentShard);
-                }
-
-            }
-            // if the search is ascending, then always use the startColumn for the start and shardEnd for the range end
-            else{
-
-                columnSearch.buildRange( rangeBuilder, startColumn , shardEnd);
-
-                if(logger.isTraceEnabled()){
-                    logger.trace("search with start: {}, end: {}", startColumn, shardEnd);
-                }
-
-
-
+        else {
+            if ( readAhead != null ) {
+                readAhead.cancel();
             }
 
+            result = executeQuery( currentShard, startColumn, selectSize );
         }
 
-        rangeBuilder.setLimit( selectSize );
-
-        if (logger.isTraceEnabled()) logger.trace( "Executing cassandra query with shard {}", currentShard );
-
-        /**
-         * Get our list of slices
-         */
-        final RowSliceQuery<R, C> query =
-            keyspace.prepareQuery( cf ).setConsistencyLevel( consistencyLevel ).getKeySlice( (R) currentShard.getRowKey() )
-                .withColumnRange( rangeBuilder.build() );
-
-        final Rows<R, C> result;
-        try {
-            result = query.execute().getResult();
-        }
-        catch ( ConnectionException e ) {
-            throw new RuntimeException( "Unable to connect to casandra", e );
-        }
+        readAhead = null;
 
 
 
@@ -395,6 +334,21 @@ public class MultiRowShardColumnIterator<R, C, T> implements Iterator<T> {
 
         currentColumnIterator = mergedResults.iterator();
 
+        //read the next page of this shard, or the first page of the next shard, while this page is consumed
+        if ( readAheadExecutor != null ) {
+
+            final SmartShard nextShard =
+                moreToReturn ? currentShard : currentShardIterator.hasNext() ? currentShardIterator.peek() : null;
+
+            if ( nextShard != null ) {
+                final T nextStart = startColumn;
+                final int nextSelectSize = nextStart != null ? pageSize + 1 : pageSize;
+
+                readAhead = ReadAhead.submit( readAheadExecutor, nextShard, nextStart,
+                    () -> executeQuery( nextShard, nextStart, nextSelectSize ) );
+            }
+        }
+
 
         //force an advance of this iterator when there are still shards to read but result set on current shard is 0
         if(size == 0 && currentShardIterator.hasNext()){
@@ -411,6 +365,112 @@ public class MultiRowShardColumnIterator<R, C, T> implements Iterator<T> {
     }
 
 
+    /**
+     * Read a page of the shard from the start column
+     */
+    private Rows<R, C> executeQuery( final SmartShard shard, final T start, final int selectSize ) {
+
+        final RangeBuilder rangeBuilder = new RangeBuilder();
+
+        // initial request, build the range with no start and no end
+        if ( start == null && shard.getShardEnd() == null ){
+
+            columnSearch.buildRange( rangeBuilder );
+
+            if(logger.isTraceEnabled()){
+                logger.trace("initial search (no start or shard end)");
+            }
+
+        }
+        // if there's only a start column set the range start to the start column always
+        else if ( start != null && shard.getShardEnd() == null ){
+
+            columnSearch.buildRange( rangeBuilder, start, null );
+
+            if(logger.isTraceEnabled()){
+                logger.trace("search (no shard end) with start: {}", start);
+            }
+
+        }
+        // if there's only a shardEnd, set the start/end according based on the search order
+        else if ( start == null && shard.getShardEnd() != null ){
+
+            T shardEnd = (T) shard.getShardEnd();
+
+            // if we have a shardEnd and it's not an ascending search, use the shardEnd as a start
+            if(!ascending) {
+
+                columnSearch.buildRange(rangeBuilder, shardEnd, null);
+
+                if(logger.isTraceEnabled()){
+                    logger.trace("search descending with start: {}", shardEnd);
+                }
+
+            }
+            // if we have a shardEnd and it is an ascending search, use the shardEnd as the end
+            else{
+
+                columnSearch.buildRange( rangeBuilder, null, shardEnd );
+
+                if(logger.isTraceEnabled()){
+                    logger.trace("search ascending with end: {}", shardEnd);
+                }
+
+            }
+
+        }
+        // if there's both a start column and a shardEnd, decide which should be used as start/end based on search order
+        else if ( start != null && shard.getShardEnd() != null) {
+
+            T shardEnd = (T) shard.getShardEnd();
+
+
+            // if the search is not ascending, set the start to be the older edge
+            if(!ascending){
+
+                T searchStart = comparator.compare(shardEnd, start) > 0 ? shardEnd : start;
+                columnSearch.buildRange( rangeBuilder, searchStart, null);
+
+                if(logger.isTraceEnabled()){
+                    logger.trace("search descending with start: {} in shard", searchStart, shard);
+                }
+
+            }
+            // if the search is ascending, then always use the start column for the start and shardEnd for the range end
+            else{
+
+                columnSearch.buildRange( rangeBuilder, start , shardEnd);
+
+                if(logger.isTraceEnabled()){
+                    logger.trace("search with start: {}, end: {}", start, shardEnd);
+                }
+
+
+
+            }
+
+        }
+
+        rangeBuilder.setLimit( selectSize );
+
+        if (logger.isTraceEnabled()) logger.trace( "Executing cassandra query with shard {}", shard );
+
+        /**
+         * Get our list of slices
+         */
+        final RowSliceQuery<R, C> query =
+            keyspace.prepareQuery( cf ).setConsistencyLevel( consistencyLevel ).getKeySlice( (R) shard.getRowKey() )
+                .withColumnRange( rangeBuilder.build() );
+
+        try {
+            return query.execute().getResult();
+        }
+        catch ( ConnectionException e ) {
+            throw new RuntimeException( "Unable to connect to casandra", e );
+        }
+    }
+
+
     /**
      * Process the result set and filter any duplicates that may have already been seen in previous shards.  During
      * a shard transition, there could be the same columns in multiple shards (rows).  This will also allow for
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.persistence.core.astyanax;
+
+
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import com.netflix.astyanax.model.Rows;
+
+
+/**
+ * A page of rows a column iterator reads in the background while its current page is consumed.  The page is only
+ * used if the iterator goes on to read the same row from the same start column.
+ *
+ * @param <R> The row type
+ * @param <C> The column type
+ * @param <T> The parsed column type
+ */
+final class ReadAhead<R, C, T> {
+
+    private final Object row;
+
+    private final T startColumn;
+
+    private final Future<Rows<R, C>> page;
+
+
+    private ReadAhead( final Object row, final T startColumn, final Future<Rows<R, C>> page ) {
+        this.row = row;
+        this.startColumn = startColumn;
+        this.page = page;
+    }
+
+
+    /**
+     * Start reading the page on the executor.  Returns null if the executor has no worker free, the page is then read
+     * when the iterator needs it
+     *
+     * @param row The row or shard the page is read from, or null if the iterator reads a fixed set of rows
+     * @param startColumn The column the page is read from
+     */
+    static <R, C, T> ReadAhead<R, C, T> submit( final ExecutorService executor, final Object row,
+                                                final T startColumn, final Callable<Rows<R, C>> read ) {
+        try {
+            return new ReadAhead<>( row, startColumn, executor.submit( read ) );
+        }
+        catch ( RejectedExecutionException ree ) {
+            return null;
+        }
+    }
+
+
+    /**
+     * Return true if the page was read from the row and start column
+     */
+    boolean isFor( final Object row, final T startColumn ) {
+        return Objects.equals( this.row, row ) && this.startColumn == startColumn;
+    }
+
+
+    /**
+     * Wait for the page to be read
+     */
+    Rows<R, C> get() {
+        try {
+            return page.get();
+        }
+        catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException( "Interrupted waiting for the page read ahead", e );
+        }
+        catch ( ExecutionException e ) {
+            if ( e.getCause() instanceof RuntimeException ) {
+                throw ( RuntimeException ) e.getCause();
+            }
+
+            throw new RuntimeException( "Unable to read ahead", e.getCause() );
+        }
+    }
+
+
+    /**
+     * The page won't be used, stop reading it if it hasn't started
+     */
+    void cancel() {
+        page.cancel( false );
+    }
+}
@@ -24,9 +24,9 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Deque;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -284,7 +284,10 @@ public final class OrderedMerge<T> implements Observable.OnSubscribe<T> {
     private static final class InnerObserver<T> extends Subscriber<T> {
 
         private final SubscriberCoordinator<T> coordinator;
-        private final Deque<T> items = new LinkedList<>();
+        /**
+         * Written by the producer thread while the coordinator reads it, so it must be thread safe
+         */
+        private final Deque<T> items = new ConcurrentLinkedDeque<>();
         private final int maxQueueSize;
         /**
          * TODO: T.N. Once backpressure makes it into RX Java, this needs to be remove and should use backpressure
@@ -375,7 +378,7 @@ public final class OrderedMerge<T> implements Observable.OnSubscribe<T> {
          * if we've started and finished, and this is the last element, we want to mark ourselves as completely drained
          */
         private void checkDrained() {
-            drained = started && completed && items.size() == 0;
+            drained = started && completed && items.isEmpty();
         }
     }
 
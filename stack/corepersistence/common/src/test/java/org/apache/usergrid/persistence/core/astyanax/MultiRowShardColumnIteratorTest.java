@@ -0,0 +1,346 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.persistence.core.astyanax;
+
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import org.apache.usergrid.persistence.core.executor.TaskExecutorFactory;
+import org.apache.usergrid.persistence.core.shard.SmartShard;
+import org.apache.usergrid.persistence.model.entity.Id;
+import org.apache.usergrid.persistence.model.entity.SimpleId;
+
+import com.google.common.base.Optional;
+import com.netflix.astyanax.Keyspace;
+import com.netflix.astyanax.connectionpool.OperationResult;
+import com.netflix.astyanax.model.ByteBufferRange;
+import com.netflix.astyanax.model.Column;
+import com.netflix.astyanax.model.ColumnFamily;
+import com.netflix.astyanax.model.ColumnList;
+import com.netflix.astyanax.model.ConsistencyLevel;
+import com.netflix.astyanax.model.Row;
+import com.netflix.astyanax.model.Rows;
+import com.netflix.astyanax.query.ColumnFamilyQuery;
+import com.netflix.astyanax.query.RowSliceQuery;
+import com.netflix.astyanax.serializers.LongSerializer;
+import com.netflix.astyanax.util.RangeBuilder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyVararg;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+/**
+ * Reads two shards of descending columns from a mocked keyspace, and records every page read from it
+ */
+public class MultiRowShardColumnIteratorTest {
+
+    private static final int PAGE_SIZE = 10;
+
+    private static final ColumnFamily<ScopedRowKey<String>, Long> COLUMN_FAMILY =
+        new ColumnFamily<>( "MultiRowShardTests", new ScopedRowKeySerializer<>( StringRowCompositeSerializer.get() ),
+            LongSerializer.get() );
+
+    private static final ColumnParser<Long, Long> PARSER = column -> column.getName();
+
+    private static final Comparator<Long> DESCENDING = Collections.reverseOrder();
+
+    private static final ColumnSearch<Long> SEARCH = new ColumnSearch<Long>() {
+        @Override
+        public void buildRange( final RangeBuilder rangeBuilder, final Long start, final Long end ) {
+            if ( start != null ) {
+                rangeBuilder.setStart( start );
+            }
+
+            rangeBuilder.setReversed( true );
+        }
+
+
+        @Override
+        public void buildRange( final RangeBuilder rangeBuilder ) {
+            rangeBuilder.setReversed( true );
+        }
+
+
+        @Override
+        public boolean skipFirst( final Long first ) {
+            return false;
+        }
+    };
+
+    private final Id scope = new SimpleId( "test" );
+
+    private final ScopedRowKey<String> newShard = ScopedRowKey.fromKey( scope, "shard2" );
+
+    private final ScopedRowKey<String> oldShard = ScopedRowKey.fromKey( scope, "shard1" );
+
+    //the columns of each row, newest first
+    private final Map<ScopedRowKey<String>, List<Column<Long>>> columns = new HashMap<>();
+
+    //every page read, in the order read
+    private final List<PageRead> reads = Collections.synchronizedList( new ArrayList<>() );
+
+    private Keyspace keyspace;
+
+
+    @Before
+    public void setup() {
+
+        columns.put( newShard, columns( 100, 51 ) );
+        columns.put( oldShard, columns( 50, 1 ) );
+
+        final ColumnFamilyQuery<ScopedRowKey<String>, Long> cfQuery = mock( ColumnFamilyQuery.class );
+
+        when( cfQuery.setConsistencyLevel( any( ConsistencyLevel.class ) ) ).thenReturn( cfQuery );
+        when( cfQuery.getKeySlice( ( ScopedRowKey<String>[] ) anyVararg() ) ).thenAnswer(
+            new Answer<RowSliceQuery<ScopedRowKey<String>, Long>>() {
+                @Override
+                public RowSliceQuery<ScopedRowKey<String>, Long> answer( final InvocationOnMock invocation )
+                    throws Throwable {
+                    return rowSlice( ( ScopedRowKey<String> ) invocation.getArguments()[0] );
+                }
+            } );
+
+        keyspace = mock( Keyspace.class );
+        when( keyspace.prepareQuery( COLUMN_FAMILY ) ).thenReturn( cfQuery );
+    }
+
+
+    @Test
+    public void readAheadDisabledReadsOnDemand() {
+
+        final List<Long> results = readAll( null );
+
+        assertEquals( expectedResults(), results );
+        assertEquals( expectedReads(), pages() );
+
+        //every page is read by the consuming thread
+        for ( PageRead read : reads ) {
+            assertEquals( Thread.currentThread().getName(), read.thread );
+        }
+    }
+
+
+    @Test
+    public void readAheadConsumesPrefetchedPages() {
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            final List<Long> results = readAll( executor );
+
+            assertEquals( expectedResults(), results );
+
+            //each page read ahead was used, so no page is read twice and the reads match reading on demand
+            assertEquals( expectedReads(), pages() );
+
+            //only the first page is read by the consuming thread, the next shard is read ahead too
+            assertEquals( Thread.currentThread().getName(), reads.get( 0 ).thread );
+
+            for ( PageRead read : reads.subList( 1, reads.size() ) ) {
+                assertNotEquals( Thread.currentThread().getName(), read.thread );
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+
+    @Test
+    public void readAheadRejectedReadsOnDemand() {
+
+        final CountDownLatch release = new CountDownLatch( 1 );
+
+        final ExecutorService busy = TaskExecutorFactory
+            .createTaskExecutor( "MultiRowShardColumnIteratorTest", 1, 0, TaskExecutorFactory.RejectionAction.ABORT );
+
+        try {
+            busy.submit( () -> {
+                release.await();
+                return null;
+            } );
+
+            final List<Long> results = readAll( busy );
+
+            assertEquals( expectedResults(), results );
+            assertEquals( expectedReads(), pages() );
+
+            for ( PageRead read : reads ) {
+                assertEquals( Thread.currentThread().getName(), read.thread );
+            }
+        }
+        finally {
+            release.countDown();
+            busy.shutdownNow();
+        }
+    }
+
+
+    private List<Long> readAll( final ExecutorService readAheadExecutor ) {
+
+        final List<SmartShard> shards = Arrays.asList( new SmartShard<>( newShard, 2, null ),
+            new SmartShard<>( oldShard, 1, null ) );
+
+        final MultiRowShardColumnIterator<ScopedRowKey<String>, Long, Long> iterator =
+            new MultiRowShardColumnIterator<>( keyspace, COLUMN_FAMILY, ConsistencyLevel.CL_QUORUM, PARSER, SEARCH,
+                DESCENDING, PAGE_SIZE, new ArrayList<>( shards ), false, Optional.absent(), readAheadExecutor );
+
+        final List<Long> results = new ArrayList<>();
+
+        while ( iterator.hasNext() ) {
+            results.add( iterator.next() );
+        }
+
+        return results;
+    }
+
+
+    private List<Long> expectedResults() {
+        final List<Long> expected = new ArrayList<>();
+
+        for ( long i = 100; i > 0; i-- ) {
+            expected.add( i );
+        }
+
+        return expected;
+    }
+
+
+    /**
+     * The pages read with the page size, the second shard is read from the last column of the first
+     */
+    private List<String> expectedReads() {
+        return Arrays.asList( "shard2:null", "shard2:91", "shard2:81", "shard2:71", "shard2:61", "shard2:51",
+            "shard1:51", "shard1:40", "shard1:30", "shard1:20", "shard1:10", "shard1:1" );
+    }
+
+
+    private List<String> pages() {
+        final List<String> pages = new ArrayList<>();
+
+        synchronized ( reads ) {
+            for ( PageRead read : reads ) {
+                pages.add( read.rowKey.getKey() + ":" + read.start );
+            }
+        }
+
+        return pages;
+    }
+
+
+    private List<Column<Long>> columns( final long max, final long min ) {
+        final List<Column<Long>> created = new ArrayList<>();
+
+        for ( long i = max; i >= min; i-- ) {
+            final Column<Long> column = mock( Column.class );
+            when( column.getName() ).thenReturn( i );
+            created.add( column );
+        }
+
+        return created;
+    }
+
+
+    /**
+     * A slice of the row that reads the columns from the start of the range, up to the limit
+     */
+    private RowSliceQuery<ScopedRowKey<String>, Long> rowSlice( final ScopedRowKey<String> rowKey ) {
+
+        final RowSliceQuery<ScopedRowKey<String>, Long> query = mock( RowSliceQuery.class );
+
+        when( query.withColumnRange( any( ByteBufferRange.class ) ) ).thenAnswer(
+            new Answer<RowSliceQuery<ScopedRowKey<String>, Long>>() {
+                @Override
+                public RowSliceQuery<ScopedRowKey<String>, Long> answer( final InvocationOnMock invocation )
+                    throws Throwable {
+
+                    final ByteBufferRange range = ( ByteBufferRange ) invocation.getArguments()[0];
+                    final ByteBuffer startBuffer = range.getStart();
+
+                    final Long start = startBuffer == null || !startBuffer.hasRemaining() ? null :
+                                       LongSerializer.get().fromByteBuffer( startBuffer.duplicate() );
+
+                    reads.add( new PageRead( rowKey, start, Thread.currentThread().getName() ) );
+
+                    final List<Column<Long>> page = new ArrayList<>();
+
+                    for ( Column<Long> column : columns.get( rowKey ) ) {
+                        if ( page.size() < range.getLimit() && ( start == null || column.getName() <= start ) ) {
+                            page.add( column );
+                        }
+                    }
+
+                    final ColumnList<Long> columnList = mock( ColumnList.class );
+                    when( columnList.iterator() ).thenReturn( page.iterator() );
+
+                    final Row<ScopedRowKey<String>, Long> row = mock( Row.class );
+                    when( row.getColumns() ).thenReturn( columnList );
+
+                    final Rows<ScopedRowKey<String>, Long> rows = mock( Rows.class );
+                    when( rows.getKeys() ).thenReturn( Collections.singletonList( rowKey ) );
+                    when( rows.getRow( rowKey ) ).thenReturn( row );
+
+                    final OperationResult<Rows<ScopedRowKey<String>, Long>> result = mock( OperationResult.class );
+                    when( result.getResult() ).thenReturn( rows );
+
+                    final RowSliceQuery<ScopedRowKey<String>, Long> executed = mock( RowSliceQuery.class );
+                    when( executed.execute() ).thenReturn( result );
+
+                    return executed;
+                }
+            } );
+
+        return query;
+    }
+
+
+    private static final class PageRead {
+
+        private final ScopedRowKey<String> rowKey;
+        private final Long start;
+        private final String thread;
+
+
+        private PageRead( final ScopedRowKey<String> rowKey, final Long start, final String thread ) {
+            this.rowKey = rowKey;
+            this.start = start;
+            this.thread = thread;
+        }
+    }
+}
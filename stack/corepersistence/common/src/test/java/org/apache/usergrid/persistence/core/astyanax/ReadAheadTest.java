@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.persistence.core.astyanax;
+
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.usergrid.persistence.core.executor.TaskExecutorFactory;
+
+import com.netflix.astyanax.model.Rows;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+
+public class ReadAheadTest {
+
+    private final CountDownLatch release = new CountDownLatch( 1 );
+
+    private ExecutorService executor;
+
+
+    @Before
+    public void setup() {
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+
+    @After
+    public void shutdown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+
+    @Test
+    public void pageUsedForSameRowAndStart() {
+
+        final Long startColumn = 100l;
+        final Rows<String, Long> rows = mock( Rows.class );
+
+        final ReadAhead<String, Long, Long> readAhead =
+            ReadAhead.submit( executor, "shard1", startColumn, () -> rows );
+
+        assertNotNull( readAhead );
+        assertTrue( readAhead.isFor( "shard1", startColumn ) );
+        assertSame( rows, readAhead.get() );
+    }
+
+
+    @Test
+    public void pageDiscardedForOtherRowOrStart() throws InterruptedException {
+
+        //hold the only worker so the read ahead is still queued when it's discarded
+        executor.submit( () -> {
+            release.await();
+            return null;
+        } );
+
+        final AtomicBoolean read = new AtomicBoolean();
+        final Long startColumn = 100l;
+
+        final ReadAhead<String, Long, Long> readAhead = ReadAhead.submit( executor, "shard1", startColumn, () -> {
+            read.set( true );
+            return mock( Rows.class );
+        } );
+
+        assertNotNull( readAhead );
+
+        assertFalse( readAhead.isFor( "shard2", startColumn ) );
+        assertFalse( readAhead.isFor( "shard1", 90l ) );
+        assertFalse( readAhead.isFor( "shard1", null ) );
+
+        readAhead.cancel();
+
+        release.countDown();
+        executor.shutdown();
+        assertTrue( executor.awaitTermination( 10, TimeUnit.SECONDS ) );
+
+        assertFalse( "A discarded page should not be read", read.get() );
+    }
+
+
+    @Test
+    public void rejectedWhenWorkersBusy() {
+
+        final ExecutorService busy =
+            TaskExecutorFactory.createTaskExecutor( "ReadAheadTest", 1, 0, TaskExecutorFactory.RejectionAction.ABORT );
+
+        try {
+            busy.submit( () -> {
+                release.await();
+                return null;
+            } );
+
+            final ReadAhead<String, Long, Long> readAhead =
+                ReadAhead.submit( busy, "shard1", 100l, () -> mock( Rows.class ) );
+
+            assertNull( "The page should be read on demand when every worker is busy", readAhead );
+        }
+        finally {
+            busy.shutdownNow();
+        }
+    }
+}
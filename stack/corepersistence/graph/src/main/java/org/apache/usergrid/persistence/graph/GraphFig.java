@@ -96,8 +96,14 @@ public interface GraphFig extends GuicyFig {
 
     String COUNTER_WRITE_FLUSH_QUEUE_SIZE = "usergrid.graph.shard.counter.queue.size";
 
+    String COUNTER_VERIFY_INTERVAL = "usergrid.graph.shard.counter.verify.interval";
+
     String SMART_SHARD_SEEK_ENABLED = "usergrid.graph.smartshard.seek.enabled";
 
+    String EDGE_WRITE_BATCH_SIZE = "usergrid.graph.edge.write.batch.size";
+
+    String READ_AHEAD_WORKERS = "usergrid.graph.read.ahead.worker.count";
+
 
 
 
@@ -153,23 +159,59 @@ public interface GraphFig extends GuicyFig {
     int getShardAuditWorkerQueueSize();
 
 
+    /**
+     * The number of shard count increments buffered in memory before they are flushed early
+     */
     @Default("10000")
     @Key(COUNTER_WRITE_FLUSH_COUNT)
     long getCounterFlushCount();
 
 
+    /**
+     * The interval in milliseconds to flush buffered shard counts to cassandra
+     */
     @Default("30000")
     @Key(COUNTER_WRITE_FLUSH_INTERVAL)
     long getCounterFlushInterval();
 
+    /**
+     * The number of shard count flushes that can be queued before more are dropped
+     */
     @Default("1000")
     @Key(COUNTER_WRITE_FLUSH_QUEUE_SIZE)
     int getCounterFlushQueueSize();
 
+
+    /**
+     * Audits of a shard with a seeded count scan the shard to correct its count about once in this many audits.
+     * Counts drift when edges are written more than once or deletes are repaired more than once.  0 never scans
+     */
+    @Default("10")
+    @Key(COUNTER_VERIFY_INTERVAL)
+    int getCounterVerifyInterval();
+
     @Default("true")
     @Key(SMART_SHARD_SEEK_ENABLED)
     boolean getSmartShardSeekEnabled();
 
 
+    /**
+     * The max number of edges written or marked in a single mutation by the batch edge operations
+     */
+    @Default("100")
+    @Key(EDGE_WRITE_BATCH_SIZE)
+    int getEdgeWriteBatchSize();
+
+
+    /**
+     * The max number of edge pages read ahead at once.  An edge iterator reads its next page, or the first page of
+     * its next shard, while the current page is consumed.  Iterators read their pages on demand when every worker is
+     * busy.  0 disables read ahead
+     */
+    @Default("0")
+    @Key(READ_AHEAD_WORKERS)
+    int getReadAheadWorkerCount();
+
+
 }
 
@@ -20,6 +20,8 @@
 package org.apache.usergrid.persistence.graph;
 
 
+import java.util.Collection;
+
 import org.apache.usergrid.persistence.core.CPManager;
 import org.apache.usergrid.persistence.model.entity.Id;
 
@@ -70,6 +72,25 @@ public interface GraphManager extends CPManager {
      */
     Observable<MarkedEdge> markEdge( Edge edge );
 
+
+    /**
+     * @param edges The edges to write
+     *
+     * Create or update all the edges, including their incoming (reversed) edges.  The edges are written in batches,
+     * each written edge is emitted once the batch containing it has been committed.  If a batch fails, the
+     * observable errors after emitting the edges of the batches that were committed before it.
+     */
+    Observable<MarkedEdge> writeEdges( Collection<? extends Edge> edges );
+
+
+    /**
+     * @param edges The edges to mark as deleted in the graph
+     *
+     * Mark all the edges and their incoming (reversed) edges.  Only marks the specific versions.  Edges are marked in
+     * batches and emitted the same way as {@link #writeEdges(java.util.Collection)}
+     */
+    Observable<MarkedEdge> markEdges( Collection<? extends Edge> edges );
+
     /**
      * @param edge Remove the edge in the graph
      *
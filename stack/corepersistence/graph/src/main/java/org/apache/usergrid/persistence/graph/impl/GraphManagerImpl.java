@@ -20,6 +20,8 @@
 package org.apache.usergrid.persistence.graph.impl;
 
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -54,6 +56,7 @@ import org.apache.usergrid.persistence.model.util.UUIDGenerator;
 import com.codahale.metrics.Timer;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
 import com.google.inject.Inject;
 import com.netflix.astyanax.MutationBatch;
 import com.netflix.astyanax.connectionpool.exceptions.ConnectionException;
@@ -81,6 +84,8 @@ public class GraphManagerImpl implements GraphManager {
     private final NodeDeleteListener nodeDeleteListener;
     private final Timer writeEdgeTimer;
     private final Timer markEdgeTimer;
+    private final Timer writeEdgesTimer;
+    private final Timer markEdgesTimer;
     private final Timer markNodeTimer;
     private final Timer loadEdgesFromSourceTimer;
     private final Timer loadEdgesToTargetTimer;
@@ -127,6 +132,8 @@ public class GraphManagerImpl implements GraphManager {
         this.writeEdgeTimer = metricsFactory.getTimer( GraphManagerImpl.class, "edge.write" );
 
         this.markEdgeTimer = metricsFactory.getTimer( GraphManagerImpl.class, "edge.mark" );
+        this.writeEdgesTimer = metricsFactory.getTimer( GraphManagerImpl.class, "edge.write_batch" );
+        this.markEdgesTimer = metricsFactory.getTimer( GraphManagerImpl.class, "edge.mark_batch" );
         this.deleteEdgeTimer = metricsFactory.getTimer( GraphManagerImpl.class, "edge.delete" );
         this.loadEdgesFromSourceTimer = metricsFactory.getTimer( GraphManagerImpl.class, "edge.load_from" );
         this.loadEdgesToTargetTimer = metricsFactory.getTimer( GraphManagerImpl.class, "edge.load_to" );
@@ -167,6 +174,8 @@ public class GraphManagerImpl implements GraphManager {
                 throw new RuntimeException( "Unable to execute mutation", e );
             }
 
+            storageEdgeSerialization.countEdge( scope, edge1, 1 );
+
             return edge1;
         } );
 
@@ -206,6 +215,102 @@ public class GraphManagerImpl implements GraphManager {
     }
 
 
+    @Override
+    public Observable<MarkedEdge> writeEdges( final Collection<? extends Edge> edges ) {
+        final List<MarkedEdge> markedEdges = toMarkedEdges( edges, false );
+
+        final Observable<MarkedEdge> observable =
+            Observable.from( Lists.partition( markedEdges, graphFig.getEdgeWriteBatchSize() ) )
+                      .concatMap( batch -> Observable.from( executeBatch( batch, true ) ) );
+
+        return ObservableTimer.time( observable, writeEdgesTimer );
+    }
+
+
+    @Override
+    public Observable<MarkedEdge> markEdges( final Collection<? extends Edge> edges ) {
+        final List<MarkedEdge> markedEdges = toMarkedEdges( edges, true );
+
+        final Observable<MarkedEdge> observable =
+            Observable.from( Lists.partition( markedEdges, graphFig.getEdgeWriteBatchSize() ) )
+                      .concatMap( batch -> Observable.from( executeBatch( batch, false ) ) );
+
+        return ObservableTimer.time( observable, markEdgesTimer );
+    }
+
+
+    /**
+     * Validate the edges and wrap them as marked edges
+     */
+    private List<MarkedEdge> toMarkedEdges( final Collection<? extends Edge> edges, final boolean deleted ) {
+        Preconditions.checkNotNull( edges, "edges must not be null" );
+
+        final List<MarkedEdge> markedEdges = new ArrayList<>( edges.size() );
+
+        for ( final Edge edge : edges ) {
+            GraphValidation.validateEdge( edge );
+            markedEdges.add( new SimpleMarkedEdge( edge, deleted ) );
+        }
+
+        return markedEdges;
+    }
+
+
+    /**
+     * Merge the mutations of all the edges into a single batch and execute it.  Mutations to the same row are
+     * combined by the batch, so edges sharing a source or target node write their rows once
+     *
+     * @param edges The edges to write
+     * @param writeMetadata True if the edge types should be written to the meta data as well
+     */
+    private List<MarkedEdge> executeBatch( final List<MarkedEdge> edges, final boolean writeMetadata ) {
+
+        MutationBatch mutation = null;
+
+        for ( final MarkedEdge edge : edges ) {
+
+            final UUID timestamp = UUIDGenerator.newTimeUUID();
+
+            final MutationBatch edgeMutation = storageEdgeSerialization.writeEdge( scope, edge, timestamp );
+
+            if ( writeMetadata ) {
+                edgeMutation.mergeShallow( edgeMetadataSerialization.writeEdge( scope, edge ) );
+            }
+
+            if ( mutation == null ) {
+                mutation = edgeMutation;
+            }
+            else {
+                mutation.mergeShallow( edgeMutation );
+            }
+        }
+
+        if ( mutation == null ) {
+            return edges;
+        }
+
+        if ( logger.isTraceEnabled() ) {
+            logger.trace( "Writing batch of {} edges", edges.size() );
+        }
+
+        try {
+            mutation.execute();
+        }
+        catch ( ConnectionException e ) {
+            throw new RuntimeException( "Unable to execute mutation", e );
+        }
+
+        //marking an edge for deletion writes it again, only count the original write
+        for ( final MarkedEdge edge : edges ) {
+            if ( !edge.isDeleted() ) {
+                storageEdgeSerialization.countEdge( scope, edge, 1 );
+            }
+        }
+
+        return edges;
+    }
+
+
     @Override
     public Observable<Edge> deleteEdge( final Edge edge ) {
 
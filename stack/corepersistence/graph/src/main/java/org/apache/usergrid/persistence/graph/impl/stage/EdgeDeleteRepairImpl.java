@@ -90,6 +90,8 @@ public class EdgeDeleteRepairImpl implements EdgeDeleteRepair {
                         catch ( ConnectionException e ) {
                             throw new RuntimeException( "Unable to connect to casandra", e );
                         }
+
+                        storageSerialization.countEdge( scope, markedEdge, -1 );
                     }
               );
     }
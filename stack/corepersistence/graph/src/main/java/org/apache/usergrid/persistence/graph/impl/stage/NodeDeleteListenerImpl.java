@@ -212,6 +212,10 @@ public class NodeDeleteListenerImpl implements NodeDeleteListener {
                         throw new RuntimeException( "Unable to connect to casandra", e );
                     }
 
+                    for ( MarkedEdge edge : markedEdges ) {
+                        storageSerialization.countEdge( scope, edge, -1 );
+                    }
+
                     //now  delete meta data
 
 
@@ -54,6 +54,16 @@ public interface EdgeSerialization {
      */
     MutationBatch deleteEdge( ApplicationScope scope, MarkedEdge edge, UUID timestamp );
 
+    /**
+     * Add the count to the approximate edge count of every shard the edge is written to.  Call it once the mutation
+     * writing or deleting the edge has executed, so a failed mutation is never counted
+     *
+     * @param scope The org scope of the graph
+     * @param edge The edge written or deleted
+     * @param count 1 for a written edge, -1 for a deleted edge
+     */
+    void countEdge( ApplicationScope scope, MarkedEdge edge, long count );
+
 
     /**
      * Search for all versions of this edge < the search version.  Returns all versions
@@ -39,6 +39,7 @@ import org.apache.usergrid.persistence.graph.serialization.EdgeSerialization;
 import org.apache.usergrid.persistence.graph.serialization.impl.shard.DirectedEdgeMeta;
 import org.apache.usergrid.persistence.graph.serialization.impl.shard.EdgeColumnFamilies;
 import org.apache.usergrid.persistence.graph.serialization.impl.shard.EdgeShardStrategy;
+import org.apache.usergrid.persistence.graph.serialization.impl.shard.NodeShardApproximation;
 import org.apache.usergrid.persistence.graph.serialization.impl.shard.Shard;
 import org.apache.usergrid.persistence.graph.serialization.impl.shard.ShardEntryGroup;
 import org.apache.usergrid.persistence.graph.serialization.impl.shard.ShardGroupDeletion;
@@ -69,6 +70,7 @@ public class EdgeSerializationImpl implements EdgeSerialization {
     protected final ShardedEdgeSerialization shardedEdgeSerialization;
     protected final TimeService timeService;
     protected final ShardGroupDeletion shardGroupDeletion;
+    protected final NodeShardApproximation nodeShardApproximation;
 
 
     @Inject
@@ -76,7 +78,8 @@ public class EdgeSerializationImpl implements EdgeSerialization {
                                   final GraphFig graphFig, final EdgeShardStrategy edgeShardStrategy,
                                   final EdgeColumnFamilies edgeColumnFamilies,
                                   final ShardedEdgeSerialization shardedEdgeSerialization,
-                                  final TimeService timeService, final ShardGroupDeletion shardGroupDeletion ) {
+                                  final TimeService timeService, final ShardGroupDeletion shardGroupDeletion,
+                                  final NodeShardApproximation nodeShardApproximation ) {
 
 
 
@@ -87,6 +90,7 @@ public class EdgeSerializationImpl implements EdgeSerialization {
         checkNotNull( shardedEdgeSerialization, "shardedEdgeSerialization required" );
         checkNotNull( timeService, "timeService required" );
         checkNotNull( shardGroupDeletion, "shardGroupDeletion require");
+        checkNotNull( nodeShardApproximation, "nodeShardApproximation required" );
 
 
         this.keyspace = keyspace;
@@ -97,6 +101,7 @@ public class EdgeSerializationImpl implements EdgeSerialization {
         this.shardedEdgeSerialization = shardedEdgeSerialization;
         this.timeService = timeService;
         this.shardGroupDeletion = shardGroupDeletion;
+        this.nodeShardApproximation = nodeShardApproximation;
     }
 
 
@@ -279,6 +284,47 @@ public class EdgeSerializationImpl implements EdgeSerialization {
     }
 
 
+    @Override
+    public void countEdge( final ApplicationScope scope, final MarkedEdge markedEdge, final long count ) {
+
+        ValidationUtils.validateApplicationScope( scope );
+        GraphValidation.validateEdge( markedEdge );
+
+        final long now = timeService.getCurrentTime();
+        final Id sourceNode = markedEdge.getSourceNode();
+        final Id targetNode = markedEdge.getTargetNode();
+        final String edgeType = markedEdge.getType();
+        final long edgeTimestamp = markedEdge.getTimestamp();
+
+        countEdge( scope, DirectedEdgeMeta.fromSourceNode( sourceNode, edgeType ), edgeTimestamp, now, count );
+
+        countEdge( scope, DirectedEdgeMeta.fromSourceNodeTargetType( sourceNode, edgeType, targetNode.getType() ),
+            edgeTimestamp, now, count );
+
+        countEdge( scope, DirectedEdgeMeta.fromTargetNode( targetNode, edgeType ), edgeTimestamp, now, count );
+
+        countEdge( scope, DirectedEdgeMeta.fromTargetNodeSourceType( targetNode, edgeType, sourceNode.getType() ),
+            edgeTimestamp, now, count );
+
+        countEdge( scope, DirectedEdgeMeta.fromEdge( sourceNode, targetNode, edgeType ), edgeTimestamp, now, count );
+    }
+
+
+    /**
+     * Add the count to each shard the edge is written to for the edge meta
+     */
+    private void countEdge( final ApplicationScope scope, final DirectedEdgeMeta directedEdgeMeta,
+                            final long edgeTimestamp, final long now, final long count ) {
+
+        final Collection<Shard> shards =
+                edgeShardStrategy.getWriteShards( scope, edgeTimestamp, directedEdgeMeta ).getWriteShards( now );
+
+        for ( final Shard shard : shards ) {
+            nodeShardApproximation.increment( scope, shard, count, directedEdgeMeta );
+        }
+    }
+
+
     @Override
     public Iterator<MarkedEdge> getEdgeVersions( final ApplicationScope scope, final SearchByEdge search ) {
         ValidationUtils.validateApplicationScope( scope );
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.persistence.graph.serialization.impl.shard;
+
+
+import org.apache.usergrid.persistence.core.migration.schema.Migration;
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+
+import com.netflix.astyanax.MutationBatch;
+
+
+/**
+ * Stores the approximate number of edges written to each shard
+ */
+public interface EdgeShardCounterSerialization extends Migration {
+
+    /**
+     * Add the count to the counter of the shard.  The count may be negative
+     * @param scope The scope of the application
+     * @param shard The shard to count
+     * @param count The number of edges added to or removed from the shard
+     * @param directedEdgeMeta The edge meta data to use
+     */
+    public MutationBatch incrementCount( ApplicationScope scope, Shard shard, long count,
+                                         DirectedEdgeMeta directedEdgeMeta );
+
+    /**
+     * Get the count of the shard.  Returns 0 if nothing has ever been counted for the shard
+     * @param scope The scope of the application
+     * @param shard The shard to read
+     * @param directedEdgeMeta The edge meta data to use
+     */
+    public long getCount( ApplicationScope scope, Shard shard, DirectedEdgeMeta directedEdgeMeta );
+
+    /**
+     * Mark the count of the shard as seeded from a scan of its edges
+     * @param scope The scope of the application
+     * @param shard The shard to mark
+     * @param directedEdgeMeta The edge meta data to use
+     */
+    public MutationBatch markSeeded( ApplicationScope scope, Shard shard, DirectedEdgeMeta directedEdgeMeta );
+
+    /**
+     * Return true if the count of the shard has been marked as seeded
+     * @param scope The scope of the application
+     * @param shard The shard to read
+     * @param directedEdgeMeta The edge meta data to use
+     */
+    public boolean isSeeded( ApplicationScope scope, Shard shard, DirectedEdgeMeta directedEdgeMeta );
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.persistence.graph.serialization.impl.shard;
+
+
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+
+
+/**
+ * Keeps an approximate count of the edges in each shard.  Counts are buffered in memory and flushed to cassandra on
+ * an interval and when the node stops, so they can lag behind the writes of other nodes.
+ */
+public interface NodeShardApproximation {
+
+    /**
+     * Add the count to the shard.  Negative counts are used for removed edges
+     * @param scope The scope of the application
+     * @param shard The shard the edges were written to
+     * @param count The number of edges
+     * @param directedEdgeMeta The edge meta data of the shard
+     */
+    public void increment( ApplicationScope scope, Shard shard, long count, DirectedEdgeMeta directedEdgeMeta );
+
+    /**
+     * Get the approximate count of the shard, including counts this node has not flushed yet.  The count can drift
+     * under zero when a delete is counted more than once
+     * @param scope The scope of the application
+     * @param shard The shard to count
+     * @param directedEdgeMeta The edge meta data of the shard
+     */
+    public long getCount( ApplicationScope scope, Shard shard, DirectedEdgeMeta directedEdgeMeta );
+
+    /**
+     * Return true if the count of the shard has been seeded.  Shards written before edges were counted only hold the
+     * count of edges written since, so their count is incomplete until it is seeded from a scan
+     * @param scope The scope of the application
+     * @param shard The shard to check
+     * @param directedEdgeMeta The edge meta data of the shard
+     */
+    public boolean isSeeded( ApplicationScope scope, Shard shard, DirectedEdgeMeta directedEdgeMeta );
+
+    /**
+     * Correct the count of the shard to the edges found scanning it, and mark it seeded.  Both are written before
+     * returning
+     * @param scope The scope of the application
+     * @param shard The scanned shard
+     * @param correction The difference between the edges scanned and the count of the shard
+     * @param directedEdgeMeta The edge meta data of the shard
+     */
+    public void seed( ApplicationScope scope, Shard shard, long correction, DirectedEdgeMeta directedEdgeMeta );
+
+    /**
+     * Write all buffered counts to cassandra
+     */
+    public void flush();
+}
@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.persistence.graph.serialization.impl.shard.impl;
+
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.apache.cassandra.db.marshal.BytesType;
+import org.apache.cassandra.db.marshal.CounterColumnType;
+import org.apache.cassandra.db.marshal.LongType;
+
+import org.apache.usergrid.persistence.core.astyanax.CassandraConfig;
+import org.apache.usergrid.persistence.core.astyanax.MultiTenantColumnFamily;
+import org.apache.usergrid.persistence.core.astyanax.MultiTenantColumnFamilyDefinition;
+import org.apache.usergrid.persistence.core.astyanax.ScopedRowKey;
+import org.apache.usergrid.persistence.core.astyanax.ScopedRowKeySerializer;
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.core.util.ValidationUtils;
+import org.apache.usergrid.persistence.graph.serialization.impl.shard.DirectedEdgeMeta;
+import org.apache.usergrid.persistence.graph.serialization.impl.shard.EdgeShardCounterSerialization;
+import org.apache.usergrid.persistence.graph.serialization.impl.shard.Shard;
+import org.apache.usergrid.persistence.graph.serialization.impl.shard.impl.serialize.EdgeShardRowKeySerializer;
+import org.apache.usergrid.persistence.graph.serialization.util.GraphValidation;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.netflix.astyanax.Keyspace;
+import com.netflix.astyanax.MutationBatch;
+import com.netflix.astyanax.connectionpool.exceptions.ConnectionException;
+import com.netflix.astyanax.connectionpool.exceptions.NotFoundException;
+import com.netflix.astyanax.model.Column;
+import com.netflix.astyanax.serializers.LongSerializer;
+
+
+@Singleton
+public class EdgeShardCounterSerializationImpl implements EdgeShardCounterSerialization {
+
+
+    /**
+     * Edge shard counts.  Uses the same row key as the shard meta data, one counter column per shard index
+     */
+    private static final MultiTenantColumnFamily<ScopedRowKey<DirectedEdgeMeta>, Long> EDGE_SHARD_COUNTS =
+            new MultiTenantColumnFamily<>( "Edge_Shard_Counts",
+                    new ScopedRowKeySerializer<>( EdgeShardRowKeySerializer.INSTANCE ), LongSerializer.get() );
+
+
+    /**
+     * Shards whose count has been seeded from a scan.  Shards written before edges were counted are missing from their
+     * count until they are seeded, so a count alone can't tell us it's complete
+     */
+    private static final MultiTenantColumnFamily<ScopedRowKey<DirectedEdgeMeta>, Long> EDGE_SHARD_COUNT_SEEDS =
+            new MultiTenantColumnFamily<>( "Edge_Shard_Count_Seeds",
+                    new ScopedRowKeySerializer<>( EdgeShardRowKeySerializer.INSTANCE ), LongSerializer.get() );
+
+
+    protected final Keyspace keyspace;
+    protected final CassandraConfig cassandraConfig;
+
+
+    @Inject
+    public EdgeShardCounterSerializationImpl( final Keyspace keyspace, final CassandraConfig cassandraConfig ) {
+        this.keyspace = keyspace;
+        this.cassandraConfig = cassandraConfig;
+    }
+
+
+    @Override
+    public MutationBatch incrementCount( final ApplicationScope scope, final Shard shard, final long count,
+                                         final DirectedEdgeMeta directedEdgeMeta ) {
+
+        ValidationUtils.validateApplicationScope( scope );
+        GraphValidation.valiateShard( shard );
+        GraphValidation.validateDirectedEdgeMeta( directedEdgeMeta );
+
+        final ScopedRowKey<DirectedEdgeMeta> rowKey = ScopedRowKey.fromKey( scope.getApplication(), directedEdgeMeta );
+
+        final MutationBatch batch = keyspace.prepareMutationBatch();
+
+        batch.withRow( EDGE_SHARD_COUNTS, rowKey ).incrementCounterColumn( shard.getShardIndex(), count );
+
+        return batch;
+    }
+
+
+    @Override
+    public long getCount( final ApplicationScope scope, final Shard shard, final DirectedEdgeMeta directedEdgeMeta ) {
+
+        ValidationUtils.validateApplicationScope( scope );
+        GraphValidation.valiateShard( shard );
+        GraphValidation.validateDirectedEdgeMeta( directedEdgeMeta );
+
+        final ScopedRowKey<DirectedEdgeMeta> rowKey = ScopedRowKey.fromKey( scope.getApplication(), directedEdgeMeta );
+
+        try {
+            final Column<Long> column =
+                keyspace.prepareQuery( EDGE_SHARD_COUNTS ).setConsistencyLevel( cassandraConfig.getReadCL() )
+                        .getKey( rowKey ).getColumn( shard.getShardIndex() ).execute().getResult();
+
+            return column.getLongValue();
+        }
+        catch ( NotFoundException nfe ) {
+            //nothing has been counted for this shard
+            return 0;
+        }
+        catch ( ConnectionException e ) {
+            throw new RuntimeException( "Unable to connect to cassandra", e );
+        }
+    }
+
+
+    @Override
+    public MutationBatch markSeeded( final ApplicationScope scope, final Shard shard,
+                                     final DirectedEdgeMeta directedEdgeMeta ) {
+
+        ValidationUtils.validateApplicationScope( scope );
+        GraphValidation.valiateShard( shard );
+        GraphValidation.validateDirectedEdgeMeta( directedEdgeMeta );
+
+        final ScopedRowKey<DirectedEdgeMeta> rowKey = ScopedRowKey.fromKey( scope.getApplication(), directedEdgeMeta );
+
+        final MutationBatch batch = keyspace.prepareMutationBatch();
+
+        batch.withRow( EDGE_SHARD_COUNT_SEEDS, rowKey ).putColumn( shard.getShardIndex(), true );
+
+        return batch;
+    }
+
+
+    @Override
+    public boolean isSeeded( final ApplicationScope scope, final Shard shard,
+                             final DirectedEdgeMeta directedEdgeMeta ) {
+
+        ValidationUtils.validateApplicationScope( scope );
+        GraphValidation.valiateShard( shard );
+        GraphValidation.validateDirectedEdgeMeta( directedEdgeMeta );
+
+        final ScopedRowKey<DirectedEdgeMeta> rowKey = ScopedRowKey.fromKey( scope.getApplication(), directedEdgeMeta );
+
+        try {
+            keyspace.prepareQuery( EDGE_SHARD_COUNT_SEEDS ).setConsistencyLevel( cassandraConfig.getReadCL() )
+                    .getKey( rowKey ).getColumn( shard.getShardIndex() ).execute();
+
+            return true;
+        }
+        catch ( NotFoundException nfe ) {
+            return false;
+        }
+        catch ( ConnectionException e ) {
+            throw new RuntimeException( "Unable to connect to cassandra", e );
+        }
+    }
+
+
+    @Override
+    public Collection<MultiTenantColumnFamilyDefinition> getColumnFamilies() {
+
+        return Arrays.asList(
+                new MultiTenantColumnFamilyDefinition( EDGE_SHARD_COUNTS, BytesType.class.getSimpleName(),
+                        LongType.class.getSimpleName(), CounterColumnType.class.getSimpleName(),
+                        MultiTenantColumnFamilyDefinition.CacheOption.KEYS ),
+                new MultiTenantColumnFamilyDefinition( EDGE_SHARD_COUNT_SEEDS, BytesType.class.getSimpleName(),
+                        LongType.class.getSimpleName(), BytesType.class.getSimpleName(),
+                        MultiTenantColumnFamilyDefinition.CacheOption.KEYS ) );
+    }
+}
@@ -22,6 +22,7 @@ package org.apache.usergrid.persistence.graph.serialization.impl.shard.impl;
 
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.concurrent.ThreadLocalRandom;
 
 import org.apache.usergrid.persistence.graph.serialization.impl.shard.*;
 import org.slf4j.Logger;
@@ -59,6 +60,7 @@ public class NodeShardAllocationImpl implements NodeShardAllocation {
     private final GraphFig graphFig;
     private final ShardGroupCompaction shardGroupCompaction;
     private final NodeShardCache nodeShardCache;
+    private final NodeShardApproximation nodeShardApproximation;
 
 
     @Inject
@@ -66,7 +68,8 @@ public class NodeShardAllocationImpl implements NodeShardAllocation {
                                     final EdgeColumnFamilies edgeColumnFamilies,
                                     final ShardedEdgeSerialization shardedEdgeSerialization, final TimeService timeService,
                                     final GraphFig graphFig, final ShardGroupCompaction shardGroupCompaction,
-                                    final NodeShardCache nodeShardCache) {
+                                    final NodeShardCache nodeShardCache,
+                                    final NodeShardApproximation nodeShardApproximation ) {
         this.edgeShardSerialization = edgeShardSerialization;
         this.edgeColumnFamilies = edgeColumnFamilies;
         this.shardedEdgeSerialization = shardedEdgeSerialization;
@@ -74,6 +77,7 @@ public class NodeShardAllocationImpl implements NodeShardAllocation {
         this.graphFig = graphFig;
         this.shardGroupCompaction = shardGroupCompaction;
         this.nodeShardCache = nodeShardCache;
+        this.nodeShardApproximation = nodeShardApproximation;
     }
 
 
@@ -184,41 +188,32 @@ public class NodeShardAllocationImpl implements NodeShardAllocation {
 
 
         /**
-         * Allocate the shard
+         * Allocate the shard.  Use the approximate count of the shard so we only read up to the pivot, rather than
+         * every edge in the shard
          */
 
-        final Iterator<MarkedEdge> edges = directedEdgeMeta
-            .loadEdges( shardedEdgeSerialization, edgeColumnFamilies, scope, Collections.singletonList(shard),0,
-                SearchByEdgeType.Order.ASCENDING );
+        final long count = nodeShardApproximation.getCount( scope, shard, directedEdgeMeta );
 
+        final MarkedEdge marked;
 
-        if ( !edges.hasNext() ) {
-            if (logger.isTraceEnabled()) logger.trace(
-                "Tried to allocate a new shard for edge meta data {}, but no max value could be found in that row",
-                directedEdgeMeta );
-            return false;
+        //the count isn't seeded, the shard may hold edges written before we counted them.  Scan it and seed the count
+        if ( !nodeShardApproximation.isSeeded( scope, shard, directedEdgeMeta ) ) {
+            marked = scanForPivot( scope, shard, directedEdgeMeta, shardSize, count, true );
         }
-
-
-        MarkedEdge marked = null;
-
-        /**
-         * Advance to the pivot point we should use.  Once it's compacted, we can split again.
-         * We either want to take the first one (unlikely) or we take our total count - the shard size.
-         * If this is a negative number, we're approaching our max count for this shard, so the first
-         * element will suffice.
-         */
-
-        long edgeCount = 0;
-        for ( long i = 1; edges.hasNext(); i++ ) {
-            //we hit a pivot shard, set it since it could be the last one we encounter
-            if ( i % shardSize == 0 ) {
-                marked = edges.next();
-            }
-            else {
-                edges.next();
+        //a count under zero has drifted, and any count can drift low and stop the shard from splitting.  Scan to
+        //correct it
+        else if ( count < 0 || isVerifyDue() ) {
+            marked = scanForPivot( scope, shard, directedEdgeMeta, shardSize, count, false );
+        }
+        else if ( count < shardSize ) {
+            if (logger.isTraceEnabled()){
+                logger.trace( "Shard {} in shard group {} not full, " +
+                    "not splitting. Approximate edge count: {}",  shard, shardEntryGroup, count );
             }
-            edgeCount++;
+            return false;
+        }
+        else {
+            marked = seekToPivot( scope, shard, directedEdgeMeta, shardSize, count );
         }
 
 
@@ -227,8 +222,7 @@ public class NodeShardAllocationImpl implements NodeShardAllocation {
          */
         if ( marked == null ) {
             if (logger.isTraceEnabled()){
-                logger.trace( "Shard {} in shard group {} not full, " +
-                    "not splitting. Edge count: {}",  shard, shardEntryGroup, edgeCount );
+                logger.trace( "Shard {} in shard group {} not full, not splitting", shard, shardEntryGroup );
             }
             return false;
         }
@@ -262,6 +256,103 @@ public class NodeShardAllocationImpl implements NodeShardAllocation {
     }
 
 
+    /**
+     * Find the pivot by reading the shard from the highest edge down.  The pivot is the last edge at a multiple of
+     * the shard size in ascending order, so we skip fewer than shard size edges to reach it.  If the count is higher
+     * than the edges actually in the shard, fall back to scanning it.
+     */
+    private MarkedEdge seekToPivot( final ApplicationScope scope, final Shard shard,
+                                    final DirectedEdgeMeta directedEdgeMeta, final long shardSize, final long count ) {
+
+        final long toSkip = count % shardSize;
+
+        final Iterator<MarkedEdge> edges = directedEdgeMeta
+            .loadEdges( shardedEdgeSerialization, edgeColumnFamilies, scope, Collections.singletonList( shard ),
+                Long.MAX_VALUE, SearchByEdgeType.Order.DESCENDING );
+
+        for ( long i = 0; i < toSkip && edges.hasNext(); i++ ) {
+            edges.next();
+        }
+
+        if ( !edges.hasNext() ) {
+            if (logger.isTraceEnabled()) {
+                logger.trace( "Approximate count {} of shard {} is over its edges, scanning it", count, shard );
+            }
+
+            return scanForPivot( scope, shard, directedEdgeMeta, shardSize, count, false );
+        }
+
+        return edges.next();
+    }
+
+
+    /**
+     * Find the pivot by iterating every edge in the shard.  Corrects the approximate count of the shard to the number
+     * of edges we read, and seeds it if it has not been seeded.
+     */
+    private MarkedEdge scanForPivot( final ApplicationScope scope, final Shard shard,
+                                     final DirectedEdgeMeta directedEdgeMeta, final long shardSize,
+                                     final long count, final boolean seed ) {
+
+        final Iterator<MarkedEdge> edges = directedEdgeMeta
+            .loadEdges( shardedEdgeSerialization, edgeColumnFamilies, scope, Collections.singletonList(shard),0,
+                SearchByEdgeType.Order.ASCENDING );
+
+
+        if ( !edges.hasNext() ) {
+            if (logger.isTraceEnabled()) logger.trace(
+                "Tried to allocate a new shard for edge meta data {}, but no max value could be found in that row",
+                directedEdgeMeta );
+            return null;
+        }
+
+
+        MarkedEdge marked = null;
+
+        /**
+         * Advance to the pivot point we should use.  Once it's compacted, we can split again.
+         * We either want to take the first one (unlikely) or we take our total count - the shard size.
+         * If this is a negative number, we're approaching our max count for this shard, so the first
+         * element will suffice.
+         */
+
+        long edgeCount = 0;
+        for ( long i = 1; edges.hasNext(); i++ ) {
+            //we hit a pivot shard, set it since it could be the last one we encounter
+            if ( i % shardSize == 0 ) {
+                marked = edges.next();
+            }
+            else {
+                edges.next();
+            }
+            edgeCount++;
+        }
+
+        if ( seed ) {
+            nodeShardApproximation.seed( scope, shard, edgeCount - count, directedEdgeMeta );
+        }
+        else if ( edgeCount != count ) {
+            nodeShardApproximation.increment( scope, shard, edgeCount - count, directedEdgeMeta );
+        }
+
+        if ( logger.isTraceEnabled() ) {
+            logger.trace( "Scanned {} edges in shard {}", edgeCount, shard );
+        }
+
+        return marked;
+    }
+
+
+    /**
+     * Return true if this audit should verify the count by scanning, about once every verify interval audits
+     */
+    private boolean isVerifyDue() {
+        final int verifyInterval = graphFig.getCounterVerifyInterval();
+
+        return verifyInterval > 0 && ThreadLocalRandom.current().nextInt( verifyInterval ) == 0;
+    }
+
+
     @Override
     public long getMinTime() {
 
@@ -0,0 +1,256 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.persistence.graph.serialization.impl.shard.impl;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.usergrid.persistence.core.executor.TaskExecutorFactory;
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.graph.GraphFig;
+import org.apache.usergrid.persistence.graph.serialization.impl.shard.DirectedEdgeMeta;
+import org.apache.usergrid.persistence.graph.serialization.impl.shard.EdgeShardCounterSerialization;
+import org.apache.usergrid.persistence.graph.serialization.impl.shard.NodeShardApproximation;
+import org.apache.usergrid.persistence.graph.serialization.impl.shard.Shard;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.netflix.astyanax.MutationBatch;
+import com.netflix.astyanax.connectionpool.exceptions.ConnectionException;
+
+
+/**
+ * Buffers shard counts in memory and writes them to cassandra every flush interval, or sooner once the flush count of
+ * increments has been buffered.  Counts that fail to write are kept for the next flush, and anything still buffered
+ * is written when the node stops.
+ */
+@Singleton
+public class NodeShardApproximationImpl implements NodeShardApproximation {
+
+    private static final Logger logger = LoggerFactory.getLogger( NodeShardApproximationImpl.class );
+
+
+    private final GraphFig graphFig;
+    private final EdgeShardCounterSerialization edgeShardCounterSerialization;
+
+    /**
+     * Counts not yet written to cassandra.  Merged and removed atomically so no increment is lost during a flush
+     */
+    private final ConcurrentHashMap<ShardKey, Long> pending = new ConcurrentHashMap<>();
+
+    private final AtomicLong pendingIncrements = new AtomicLong();
+
+    private final ThreadPoolExecutor flushExecutor;
+    private final ScheduledExecutorService timer;
+    private final Thread shutdownHook;
+
+
+    @Inject
+    public NodeShardApproximationImpl( final GraphFig graphFig,
+                                       final EdgeShardCounterSerialization edgeShardCounterSerialization ) {
+        this.graphFig = graphFig;
+        this.edgeShardCounterSerialization = edgeShardCounterSerialization;
+
+        //every flush drains all pending counts, so dropping a flush when others are queued loses nothing
+        this.flushExecutor = TaskExecutorFactory
+            .createTaskExecutor( "ShardCounterFlush", 1, graphFig.getCounterFlushQueueSize(),
+                TaskExecutorFactory.RejectionAction.DROP );
+
+        this.timer = Executors.newSingleThreadScheduledExecutor( r -> {
+            final Thread thread = new Thread( r, "ShardCounterFlushTimer" );
+            thread.setDaemon( true );
+            return thread;
+        } );
+
+        final long interval = graphFig.getCounterFlushInterval();
+
+        timer.scheduleWithFixedDelay( () -> flushExecutor.execute( this::flush ), interval, interval,
+            TimeUnit.MILLISECONDS );
+
+        // guice doesn't call @PreDestroy, so also flush if the JVM exits without the container stopping us
+        this.shutdownHook = new Thread( this::flush, "ShardCounterFlushShutdown" );
+        Runtime.getRuntime().addShutdownHook( shutdownHook );
+    }
+
+
+    /**
+     * Stop flushing on an interval and write every buffered count.  Removes the shutdown hook, so a stopped instance
+     * isn't held until the JVM exits
+     */
+    @PreDestroy
+    public void stop() {
+
+        timer.shutdown();
+        flushExecutor.shutdown();
+
+        try {
+            Runtime.getRuntime().removeShutdownHook( shutdownHook );
+        }
+        catch ( IllegalStateException ise ) {
+            //the JVM is shutting down, the hook flushes
+        }
+
+        flush();
+    }
+
+
+    @Override
+    public void increment( final ApplicationScope scope, final Shard shard, final long count,
+                           final DirectedEdgeMeta directedEdgeMeta ) {
+
+        pending.merge( new ShardKey( scope, shard, directedEdgeMeta ), count, Long::sum );
+
+        if ( pendingIncrements.incrementAndGet() >= graphFig.getCounterFlushCount() ) {
+            pendingIncrements.set( 0 );
+            flushExecutor.execute( this::flush );
+        }
+    }
+
+
+    @Override
+    public long getCount( final ApplicationScope scope, final Shard shard, final DirectedEdgeMeta directedEdgeMeta ) {
+
+        final Long unflushed = pending.get( new ShardKey( scope, shard, directedEdgeMeta ) );
+
+        final long count = edgeShardCounterSerialization.getCount( scope, shard, directedEdgeMeta );
+
+        return unflushed == null ? count : count + unflushed;
+    }
+
+
+    @Override
+    public boolean isSeeded( final ApplicationScope scope, final Shard shard,
+                             final DirectedEdgeMeta directedEdgeMeta ) {
+        return edgeShardCounterSerialization.isSeeded( scope, shard, directedEdgeMeta );
+    }
+
+
+    @Override
+    public void seed( final ApplicationScope scope, final Shard shard, final long correction,
+                      final DirectedEdgeMeta directedEdgeMeta ) {
+
+        try {
+            //write the correction before the mark, so a failure in between leaves the shard to be scanned again
+            if ( correction != 0 ) {
+                edgeShardCounterSerialization.incrementCount( scope, shard, correction, directedEdgeMeta ).execute();
+            }
+
+            edgeShardCounterSerialization.markSeeded( scope, shard, directedEdgeMeta ).execute();
+        }
+        catch ( ConnectionException e ) {
+            throw new RuntimeException( "Unable to connect to cassandra", e );
+        }
+    }
+
+
+    @Override
+    public void flush() {
+
+        pendingIncrements.set( 0 );
+
+        final List<ShardKey> keys = new ArrayList<>( pending.keySet() );
+
+        if ( keys.isEmpty() ) {
+            return;
+        }
+
+        //write each count in its own batch, cassandra applies counter batches non-atomically anyway
+        for ( final ShardKey key : keys ) {
+
+            final Long count = pending.remove( key );
+
+            if ( count == null || count == 0 ) {
+                continue;
+            }
+
+            final MutationBatch batch =
+                edgeShardCounterSerialization.incrementCount( key.scope, key.shard, count, key.directedEdgeMeta );
+
+            try {
+                batch.execute();
+            }
+            catch ( ConnectionException e ) {
+                logger.error( "Unable to flush shard count for shard {} of {}, retrying on the next flush",
+                    key.shard, key.directedEdgeMeta, e );
+
+                //put it back so the next flush writes it
+                pending.merge( key, count, Long::sum );
+            }
+        }
+
+        if ( logger.isTraceEnabled() ) {
+            logger.trace( "Flushed {} shard counts", keys.size() );
+        }
+    }
+
+
+    /**
+     * The key of a shard count.  Shards are identified by their index, the same as the column in cassandra
+     */
+    private static final class ShardKey {
+
+        private final ApplicationScope scope;
+        private final Shard shard;
+        private final DirectedEdgeMeta directedEdgeMeta;
+
+
+        private ShardKey( final ApplicationScope scope, final Shard shard, final DirectedEdgeMeta directedEdgeMeta ) {
+            this.scope = scope;
+            this.shard = shard;
+            this.directedEdgeMeta = directedEdgeMeta;
+        }
+
+
+        @Override
+        public boolean equals( final Object o ) {
+            if ( this == o ) {
+                return true;
+            }
+            if ( !( o instanceof ShardKey ) ) {
+                return false;
+            }
+
+            final ShardKey shardKey = ( ShardKey ) o;
+
+            return shard.getShardIndex() == shardKey.shard.getShardIndex() && scope.equals( shardKey.scope )
+                && directedEdgeMeta.equals( shardKey.directedEdgeMeta );
+        }
+
+
+        @Override
+        public int hashCode() {
+            int result = scope.hashCode();
+            result = 31 * result + Long.hashCode( shard.getShardIndex() );
+            result = 31 * result + directedEdgeMeta.hashCode();
+            return result;
+        }
+    }
+}
@@ -89,6 +89,7 @@ public class ShardGroupCompactionImpl implements ShardGroupCompaction {
     private final ShardCompactionTaskTracker shardCompactionTaskTracker;
     private final ShardAuditTaskTracker shardAuditTaskTracker;
     private final NodeShardCache nodeShardCache;
+    private final NodeShardApproximation nodeShardApproximation;
 
 
     @Inject
@@ -98,7 +99,8 @@ public class ShardGroupCompactionImpl implements ShardGroupCompaction {
                                      final EdgeColumnFamilies edgeColumnFamilies, final Keyspace keyspace,
                                      final EdgeShardSerialization edgeShardSerialization,
                                      final AsyncTaskExecutor asyncTaskExecutor,
-                                     final NodeShardCache nodeShardCache ) {
+                                     final NodeShardCache nodeShardCache,
+                                     final NodeShardApproximation nodeShardApproximation ) {
 
         this.timeService = timeService;
         this.countAudits = new AtomicLong();
@@ -116,6 +118,7 @@ public class ShardGroupCompactionImpl implements ShardGroupCompaction {
 
         this.taskExecutor = asyncTaskExecutor.getExecutorService();
         this.nodeShardCache = nodeShardCache;
+        this.nodeShardApproximation = nodeShardApproximation;
     }
 
 
@@ -218,6 +221,9 @@ public class ShardGroupCompactionImpl implements ShardGroupCompaction {
                         // write the edges into the new shard atomically so we know they all succeed
                         newRowBatch.withAtomicBatch(true).execute();
 
+                        // move the approximate counts along with the edges, once each batch is written
+                        nodeShardApproximation.increment( scope, targetShard, edgeCount, edgeMeta );
+
 
                         // Update the shard end after each batch so any reads during transition stay as close to current
                         sourceShard.setShardEnd(
@@ -241,6 +247,8 @@ public class ShardGroupCompactionImpl implements ShardGroupCompaction {
                         }
                         deleteRowBatch.withAtomicBatch(true).execute();
 
+                        nodeShardApproximation.increment( scope, sourceShard, -edgeCount, edgeMeta );
+
                         updateShardMetaBatch.execute();
 
 
@@ -264,6 +272,10 @@ public class ShardGroupCompactionImpl implements ShardGroupCompaction {
                 // write the edges into the new shard atomically so we know they all succeed
                 newRowBatch.withAtomicBatch(true).execute();
 
+                if ( edgeCount > 0 ) {
+                    nodeShardApproximation.increment( scope, targetShard, edgeCount, edgeMeta );
+                }
+
                 // on purpose block this thread before deleting the old edges to be sure there are no gaps
                 // duplicates are filtered on graph seeking so this is OK
                 Thread.sleep(1000);
@@ -273,6 +285,10 @@ public class ShardGroupCompactionImpl implements ShardGroupCompaction {
                 }
                 deleteRowBatch.withAtomicBatch(true).execute();
 
+                if ( edgeCount > 0 ) {
+                    nodeShardApproximation.increment( scope, sourceShard, -edgeCount, edgeMeta );
+                }
+
                 if (shardEnd != null){
 
                     sourceShard.setShardEnd(
@@ -25,6 +25,7 @@ import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
 
 import javax.annotation.Nullable;
 import javax.inject.Inject;
@@ -34,6 +35,7 @@ import org.apache.usergrid.persistence.core.astyanax.CassandraConfig;
 import org.apache.usergrid.persistence.core.astyanax.MultiTenantColumnFamily;
 import org.apache.usergrid.persistence.core.astyanax.ScopedRowKey;
 import org.apache.usergrid.persistence.core.consistency.TimeService;
+import org.apache.usergrid.persistence.core.executor.TaskExecutorFactory;
 import org.apache.usergrid.persistence.core.scope.ApplicationScope;
 import org.apache.usergrid.persistence.core.util.ValidationUtils;
 import org.apache.usergrid.persistence.graph.Edge;
@@ -89,6 +91,9 @@ public class ShardedEdgeSerializationImpl implements ShardedEdgeSerialization {
     protected final EdgeShardStrategy writeEdgeShardStrategy;
     protected final TimeService timeService;
 
+    //null when read ahead is disabled
+    private final ExecutorService readAheadExecutor;
+
 
     @Inject
     public ShardedEdgeSerializationImpl( final Keyspace keyspace, final CassandraConfig cassandraConfig,
@@ -108,6 +113,12 @@ public class ShardedEdgeSerializationImpl implements ShardedEdgeSerialization {
         this.graphFig = graphFig;
         this.writeEdgeShardStrategy = writeEdgeShardStrategy;
         this.timeService = timeService;
+
+        final int readAheadWorkers = graphFig.getReadAheadWorkerCount();
+
+        this.readAheadExecutor = readAheadWorkers > 0 ? TaskExecutorFactory
+            .createTaskExecutor( "EdgeReadAhead", readAheadWorkers, 0, TaskExecutorFactory.RejectionAction.ABORT )
+            : null;
     }
 
 
@@ -399,7 +410,7 @@ public class ShardedEdgeSerializationImpl implements ShardedEdgeSerialization {
                 };
 
         return new ShardsColumnIterator<>( searcher, columnFamily, keyspace, cassandraConfig.getReadCL(),
-                graphFig.getScanPageSize(), graphFig.getSmartShardSeekEnabled() );
+                graphFig.getScanPageSize(), graphFig.getSmartShardSeekEnabled(), readAheadExecutor );
     }
 
 
@@ -470,7 +481,7 @@ public class ShardedEdgeSerializationImpl implements ShardedEdgeSerialization {
 
 
         return new ShardsColumnIterator<>( searcher, columnFamily, keyspace, cassandraConfig.getReadCL(),
-                graphFig.getScanPageSize(), graphFig.getSmartShardSeekEnabled() );
+                graphFig.getScanPageSize(), graphFig.getSmartShardSeekEnabled(), readAheadExecutor );
     }
 
 
@@ -535,7 +546,7 @@ public class ShardedEdgeSerializationImpl implements ShardedEdgeSerialization {
                 };
 
         return new ShardsColumnIterator( searcher, columnFamily, keyspace, cassandraConfig.getReadCL(),
-                graphFig.getScanPageSize(), graphFig.getSmartShardSeekEnabled() );
+                graphFig.getScanPageSize(), graphFig.getSmartShardSeekEnabled(), readAheadExecutor );
     }
 
 
@@ -597,7 +608,7 @@ public class ShardedEdgeSerializationImpl implements ShardedEdgeSerialization {
 
 
         return new ShardsColumnIterator<>( searcher, columnFamily, keyspace, cassandraConfig.getReadCL(),
-                graphFig.getScanPageSize(), graphFig.getSmartShardSeekEnabled() );
+                graphFig.getScanPageSize(), graphFig.getSmartShardSeekEnabled(), readAheadExecutor );
     }
 
 
@@ -660,7 +671,7 @@ public class ShardedEdgeSerializationImpl implements ShardedEdgeSerialization {
                 };
 
         return new ShardsColumnIterator<>( searcher, columnFamily, keyspace, cassandraConfig.getReadCL(),
-                graphFig.getScanPageSize(), graphFig.getSmartShardSeekEnabled() );
+                graphFig.getScanPageSize(), graphFig.getSmartShardSeekEnabled(), readAheadExecutor );
     }
 
 
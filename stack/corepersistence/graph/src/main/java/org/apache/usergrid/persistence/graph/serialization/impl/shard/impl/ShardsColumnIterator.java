@@ -20,6 +20,7 @@ package org.apache.usergrid.persistence.graph.serialization.impl.shard.impl;
 
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.usergrid.persistence.core.astyanax.MultiRowColumnIterator;
 import org.apache.usergrid.persistence.core.astyanax.MultiRowShardColumnIterator;
@@ -62,17 +63,31 @@ public class ShardsColumnIterator<R, C, T> implements Iterator<T> {
 
     private final boolean smartShardSeekEnabled;
 
+    private final ExecutorService readAheadExecutor;
+
 
     public ShardsColumnIterator(final EdgeSearcher<R, C, T> searcher,
                                 final MultiTenantColumnFamily<ScopedRowKey<R>, C> cf, final Keyspace keyspace,
                                 final ConsistencyLevel consistencyLevel, final int pageSize,
                                 final boolean smartShardSeekEnabled) {
+        this( searcher, cf, keyspace, consistencyLevel, pageSize, smartShardSeekEnabled, null );
+    }
+
+
+    /**
+     * Create the iterator.  When the executor is present, pages are read ahead on it
+     */
+    public ShardsColumnIterator(final EdgeSearcher<R, C, T> searcher,
+                                final MultiTenantColumnFamily<ScopedRowKey<R>, C> cf, final Keyspace keyspace,
+                                final ConsistencyLevel consistencyLevel, final int pageSize,
+                                final boolean smartShardSeekEnabled, final ExecutorService readAheadExecutor) {
         this.searcher = searcher;
         this.cf = cf;
         this.keyspace = keyspace;
         this.pageSize = pageSize;
         this.consistencyLevel = consistencyLevel;
         this.smartShardSeekEnabled = smartShardSeekEnabled;
+        this.readAheadExecutor = readAheadExecutor;
     }
 
 
@@ -130,7 +145,8 @@ public class ShardsColumnIterator<R, C, T> implements Iterator<T> {
             final boolean ascending = searcher.getOrder() == SearchByEdgeType.Order.ASCENDING;
 
             currentColumnIterator = new MultiRowShardColumnIterator<>( keyspace, cf,  consistencyLevel, searcher, searcher,
-                searcher.getComparator(), pageSize, rowKeysWithShardEnd, ascending, searcher.getLastTimestamp() );
+                searcher.getComparator(), pageSize, rowKeysWithShardEnd, ascending, searcher.getLastTimestamp(),
+                readAheadExecutor );
 
         }else{
 
@@ -138,7 +154,7 @@ public class ShardsColumnIterator<R, C, T> implements Iterator<T> {
             final List<ScopedRowKey<R>> rowKeys = searcher.getRowKeys();
 
             currentColumnIterator = new MultiRowColumnIterator<>( keyspace, cf,  consistencyLevel, searcher, searcher,
-                searcher.getComparator(), rowKeys, pageSize );
+                searcher.getComparator(), rowKeys, pageSize, readAheadExecutor );
 
 
         }
@@ -19,6 +19,7 @@
 package org.apache.usergrid.persistence.graph;
 
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.TimeoutException;
@@ -82,6 +83,51 @@ public class GraphManagerIT {
     }
 
 
+    @Test
+    public void testWriteMarkEdgesBatch() {
+
+        GraphManager gm = emf.createEdgeManager( scope );
+
+        final Id sourceId = createId( "source" );
+
+        final long timestamp = System.currentTimeMillis();
+
+        //more than a single write batch
+        final int size = 250;
+
+        final List<Edge> edges = new ArrayList<>( size );
+
+        for ( int i = 0; i < size; i++ ) {
+            edges.add( createEdge( sourceId, "test", createId( "target" ), timestamp + i ) );
+        }
+
+        final List<MarkedEdge> written = gm.writeEdges( edges ).toList().toBlocking().single();
+
+        assertEquals( "All edges written", size, written.size() );
+
+        final SearchByEdgeType search = createSearchByEdge( sourceId, "test", Long.MAX_VALUE, null );
+
+        assertEquals( "All edges returned", size,
+            gm.loadEdgesFromSource( search ).count().toBlocking().single().intValue() );
+
+        final List<String> idTypes =
+            gm.getIdTypesFromSource( new SimpleSearchIdType( sourceId, "test", null, null ) ).toList().toBlocking()
+              .single();
+
+        assertEquals( "Target type written to meta data", 1, idTypes.size() );
+
+
+        final List<MarkedEdge> marked = gm.markEdges( edges ).toList().toBlocking().single();
+
+        assertEquals( "All edges marked", size, marked.size() );
+
+        assertTrue( "Edges are marked", marked.get( 0 ).isDeleted() );
+
+        assertEquals( "No edges returned", 0,
+            gm.loadEdgesFromSource( search ).count().toBlocking().single().intValue() );
+    }
+
+
     @Test
     public void testWriteReadEdgeTypeSource() throws TimeoutException, InterruptedException {
 
@@ -52,8 +52,12 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Matchers.same;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 
@@ -106,7 +110,8 @@ public class NodeShardAllocationTest {
 
         NodeShardAllocation approximation =
                 new NodeShardAllocationImpl( edgeShardSerialization, edgeColumnFamilies, shardedEdgeSerialization,
-                         timeService, graphFig, shardGroupCompaction, nodeShardCache );
+                         timeService, graphFig, shardGroupCompaction, nodeShardCache,
+                         mock( NodeShardApproximation.class ) );
 
 
         final long timeservicetime = System.currentTimeMillis();
@@ -139,7 +144,8 @@ public class NodeShardAllocationTest {
 
         NodeShardAllocation approximation =
                 new NodeShardAllocationImpl( edgeShardSerialization, edgeColumnFamilies, shardedEdgeSerialization,
-                      timeService, graphFig, shardGroupCompaction, nodeShardCache);
+                      timeService, graphFig, shardGroupCompaction, nodeShardCache,
+                      mock( NodeShardApproximation.class ) );
 
         final Id nodeId = IdGenerator.createId( "test" );
         final String type = "type";
@@ -182,7 +188,8 @@ public class NodeShardAllocationTest {
 
         NodeShardAllocation approximation =
                 new NodeShardAllocationImpl( edgeShardSerialization, edgeColumnFamilies, shardedEdgeSerialization,
-                        timeService, graphFig, shardGroupCompaction, nodeShardCache );
+                        timeService, graphFig, shardGroupCompaction, nodeShardCache,
+                        mock( NodeShardApproximation.class ) );
 
         final Id nodeId = IdGenerator.createId( "test" );
         final String type = "type";
@@ -229,7 +236,8 @@ public class NodeShardAllocationTest {
 
         NodeShardAllocation approximation =
                 new NodeShardAllocationImpl( edgeShardSerialization, edgeColumnFamilies, shardedEdgeSerialization,
-                        timeService, graphFig, shardGroupCompaction, nodeShardCache );
+                        timeService, graphFig, shardGroupCompaction, nodeShardCache,
+                        mock( NodeShardApproximation.class ) );
 
         final Id nodeId = IdGenerator.createId( "test" );
         final String type = "type";
@@ -323,6 +331,443 @@ public class NodeShardAllocationTest {
     }
 
 
+    @Test
+    public void countedShardSeeksPivot() {
+        final ShardGroupCompaction shardGroupCompaction = mock( ShardGroupCompaction.class );
+
+        final EdgeShardSerialization edgeShardSerialization = mock( EdgeShardSerialization.class );
+
+        final EdgeColumnFamilies edgeColumnFamilies = mock( EdgeColumnFamilies.class );
+
+        final ShardedEdgeSerialization shardedEdgeSerialization = mock( ShardedEdgeSerialization.class );
+
+
+        final TimeService timeService = mock( TimeService.class );
+
+        final NodeShardCache nodeShardCache = mock( NodeShardCache.class );
+
+        final NodeShardApproximation nodeShardApproximation = mock( NodeShardApproximation.class );
+
+
+        NodeShardAllocation approximation =
+                new NodeShardAllocationImpl( edgeShardSerialization, edgeColumnFamilies, shardedEdgeSerialization,
+                        timeService, graphFig, shardGroupCompaction, nodeShardCache, nodeShardApproximation );
+
+        final Id nodeId = IdGenerator.createId( "test" );
+        final String type = "type";
+        final String subType = "subType";
+
+
+        final long timeservicetime = System.currentTimeMillis();
+
+        when( timeService.getCurrentTime() ).thenReturn( timeservicetime );
+
+        final Shard futureShard = new Shard( 0l, 0l, true );
+
+        final ShardEntryGroup shardEntryGroup = new ShardEntryGroup( 1000l );
+        shardEntryGroup.addShard( futureShard );
+
+        final DirectedEdgeMeta targetEdgeMeta = DirectedEdgeMeta.fromSourceNodeTargetType( nodeId, type, subType );
+
+
+        /**
+         * Count 2.5x what this shard should have.  Reading from the top, we should only skip the half shard above
+         * the pivot at 2x
+         */
+        final long shardCount = ( long ) ( graphFig.getShardSize() * 2.5 );
+
+        when( nodeShardApproximation.getCount( same( scope ), same( futureShard ), same( targetEdgeMeta ) ) )
+                .thenReturn( shardCount );
+
+        when( nodeShardApproximation.isSeeded( same( scope ), same( futureShard ), same( targetEdgeMeta ) ) )
+                .thenReturn( true );
+
+        final int numToSkip = ( int ) ( shardCount % graphFig.getShardSize() );
+
+
+        SimpleMarkedEdge skipped = new SimpleMarkedEdge( nodeId, type, IdGenerator.createId( subType ), 30000, false );
+        SimpleMarkedEdge keep = new SimpleMarkedEdge( nodeId, type, IdGenerator.createId( subType ), 20000, false );
+
+        //edges come back in descending order, only the skipped edges and the pivot should be read
+        List<MarkedEdge> edges = new ArrayList<>( numToSkip + 1 );
+
+        for ( int i = 0; i < numToSkip; i++ ) {
+            edges.add( skipped );
+        }
+
+        edges.add( keep );
+
+
+        //mock up returning the value
+        when( shardedEdgeSerialization
+                .getEdgesFromSourceByTargetType( same( edgeColumnFamilies ), same( scope ), any( SearchByIdType.class ),
+                        any( Collection.class ) ) ).thenReturn( edges.iterator() );
+
+
+        ArgumentCaptor<Shard> shardValue = ArgumentCaptor.forClass( Shard.class );
+
+
+        //mock up our mutation
+        when( edgeShardSerialization.writeShardMeta( same( scope ), shardValue.capture(), same( targetEdgeMeta ) ) )
+                .thenReturn( mock( MutationBatch.class ) );
+
+
+        final boolean result = approximation.auditShard( scope, shardEntryGroup, targetEdgeMeta );
+
+        assertTrue( "Shard was split correctly", result );
+
+        assertEquals( "Expected pivot edge", keep.getTimestamp(), shardValue.getValue().getShardIndex() );
+    }
+
+
+    @Test
+    public void unseededShardScannedAndSeeded() {
+        final ShardGroupCompaction shardGroupCompaction = mock( ShardGroupCompaction.class );
+
+        final EdgeShardSerialization edgeShardSerialization = mock( EdgeShardSerialization.class );
+
+        final EdgeColumnFamilies edgeColumnFamilies = mock( EdgeColumnFamilies.class );
+
+        final ShardedEdgeSerialization shardedEdgeSerialization = mock( ShardedEdgeSerialization.class );
+
+
+        final TimeService timeService = mock( TimeService.class );
+
+        final NodeShardCache nodeShardCache = mock( NodeShardCache.class );
+
+        final NodeShardApproximation nodeShardApproximation = mock( NodeShardApproximation.class );
+
+
+        NodeShardAllocation approximation =
+                new NodeShardAllocationImpl( edgeShardSerialization, edgeColumnFamilies, shardedEdgeSerialization,
+                        timeService, graphFig, shardGroupCompaction, nodeShardCache, nodeShardApproximation );
+
+        final Id nodeId = IdGenerator.createId( "test" );
+        final String type = "type";
+        final String subType = "subType";
+
+
+        final long timeservicetime = System.currentTimeMillis();
+
+        when( timeService.getCurrentTime() ).thenReturn( timeservicetime );
+
+        final Shard futureShard = new Shard( 0l, 0l, true );
+
+        final ShardEntryGroup shardEntryGroup = new ShardEntryGroup( 1000l );
+        shardEntryGroup.addShard( futureShard );
+
+        final DirectedEdgeMeta targetEdgeMeta = DirectedEdgeMeta.fromSourceNodeTargetType( nodeId, type, subType );
+
+
+        /**
+         * A shard written before we counted edges.  It only has a count of the edges written since, which is under
+         * the shard size, but it really holds 2x the shard size
+         */
+        final long shardCount = graphFig.getShardSize() / 2;
+
+        when( nodeShardApproximation.getCount( same( scope ), same( futureShard ), same( targetEdgeMeta ) ) )
+                .thenReturn( shardCount );
+
+        when( nodeShardApproximation.isSeeded( same( scope ), same( futureShard ), same( targetEdgeMeta ) ) )
+                .thenReturn( false );
+
+        final int edgeCount = ( int ) ( graphFig.getShardSize() * 2 );
+
+
+        SimpleMarkedEdge skipped = new SimpleMarkedEdge( nodeId, type, IdGenerator.createId( subType ), 10000, false );
+        SimpleMarkedEdge keep = new SimpleMarkedEdge( nodeId, type, IdGenerator.createId( subType ), 20000, false );
+
+        //edges come back in ascending order when scanned, the last pivot is the last edge
+        List<MarkedEdge> edges = new ArrayList<>( edgeCount );
+
+        for ( int i = 0; i < edgeCount - 1; i++ ) {
+            edges.add( skipped );
+        }
+
+        edges.add( keep );
+
+
+        //mock up returning the value
+        when( shardedEdgeSerialization
+                .getEdgesFromSourceByTargetType( same( edgeColumnFamilies ), same( scope ), any( SearchByIdType.class ),
+                        any( Collection.class ) ) ).thenReturn( edges.iterator() );
+
+
+        ArgumentCaptor<Shard> shardValue = ArgumentCaptor.forClass( Shard.class );
+
+
+        //mock up our mutation
+        when( edgeShardSerialization.writeShardMeta( same( scope ), shardValue.capture(), same( targetEdgeMeta ) ) )
+                .thenReturn( mock( MutationBatch.class ) );
+
+
+        final boolean result = approximation.auditShard( scope, shardEntryGroup, targetEdgeMeta );
+
+        assertTrue( "Shard was split correctly", result );
+
+        assertEquals( "Expected pivot edge", keep.getTimestamp(), shardValue.getValue().getShardIndex() );
+
+        //the count is corrected to the edges we scanned and marked seeded
+        verify( nodeShardApproximation )
+                .seed( same( scope ), same( futureShard ), eq( edgeCount - shardCount ), same( targetEdgeMeta ) );
+    }
+
+
+    @Test
+    public void seededShardUnderSizeNotScanned() {
+        final ShardGroupCompaction shardGroupCompaction = mock( ShardGroupCompaction.class );
+
+        final EdgeShardSerialization edgeShardSerialization = mock( EdgeShardSerialization.class );
+
+        final EdgeColumnFamilies edgeColumnFamilies = mock( EdgeColumnFamilies.class );
+
+        final ShardedEdgeSerialization shardedEdgeSerialization = mock( ShardedEdgeSerialization.class );
+
+
+        final TimeService timeService = mock( TimeService.class );
+
+        final NodeShardCache nodeShardCache = mock( NodeShardCache.class );
+
+        final NodeShardApproximation nodeShardApproximation = mock( NodeShardApproximation.class );
+
+
+        NodeShardAllocation approximation =
+                new NodeShardAllocationImpl( edgeShardSerialization, edgeColumnFamilies, shardedEdgeSerialization,
+                        timeService, graphFig, shardGroupCompaction, nodeShardCache, nodeShardApproximation );
+
+        final Id nodeId = IdGenerator.createId( "test" );
+        final String type = "type";
+        final String subType = "subType";
+
+
+        final long timeservicetime = System.currentTimeMillis();
+
+        when( timeService.getCurrentTime() ).thenReturn( timeservicetime );
+
+        final Shard futureShard = new Shard( 0l, 0l, true );
+
+        final ShardEntryGroup shardEntryGroup = new ShardEntryGroup( 1000l );
+        shardEntryGroup.addShard( futureShard );
+
+        final DirectedEdgeMeta targetEdgeMeta = DirectedEdgeMeta.fromSourceNodeTargetType( nodeId, type, subType );
+
+
+        final long shardCount = graphFig.getShardSize() - 1;
+
+        when( nodeShardApproximation.getCount( same( scope ), same( futureShard ), same( targetEdgeMeta ) ) )
+                .thenReturn( shardCount );
+
+        when( nodeShardApproximation.isSeeded( same( scope ), same( futureShard ), same( targetEdgeMeta ) ) )
+                .thenReturn( true );
+
+
+        final boolean result = approximation.auditShard( scope, shardEntryGroup, targetEdgeMeta );
+
+        assertFalse( "Shard is not full", result );
+
+        //the seeded count is trusted, nothing is read from the shard
+        verify( shardedEdgeSerialization, never() )
+                .getEdgesFromSourceByTargetType( same( edgeColumnFamilies ), same( scope ), any( SearchByIdType.class ),
+                        any( Collection.class ) );
+
+        verify( nodeShardApproximation, never() )
+                .seed( any( ApplicationScope.class ), any( Shard.class ), anyLong(), any( DirectedEdgeMeta.class ) );
+    }
+
+
+    @Test
+    public void seededShardVerifiedOnInterval() {
+        final ShardGroupCompaction shardGroupCompaction = mock( ShardGroupCompaction.class );
+
+        final EdgeShardSerialization edgeShardSerialization = mock( EdgeShardSerialization.class );
+
+        final EdgeColumnFamilies edgeColumnFamilies = mock( EdgeColumnFamilies.class );
+
+        final ShardedEdgeSerialization shardedEdgeSerialization = mock( ShardedEdgeSerialization.class );
+
+
+        final TimeService timeService = mock( TimeService.class );
+
+        final NodeShardCache nodeShardCache = mock( NodeShardCache.class );
+
+        final NodeShardApproximation nodeShardApproximation = mock( NodeShardApproximation.class );
+
+        //verify the count on every audit
+        when( graphFig.getCounterVerifyInterval() ).thenReturn( 1 );
+
+
+        NodeShardAllocation approximation =
+                new NodeShardAllocationImpl( edgeShardSerialization, edgeColumnFamilies, shardedEdgeSerialization,
+                        timeService, graphFig, shardGroupCompaction, nodeShardCache, nodeShardApproximation );
+
+        final Id nodeId = IdGenerator.createId( "test" );
+        final String type = "type";
+        final String subType = "subType";
+
+
+        final long timeservicetime = System.currentTimeMillis();
+
+        when( timeService.getCurrentTime() ).thenReturn( timeservicetime );
+
+        final Shard futureShard = new Shard( 0l, 0l, true );
+
+        final ShardEntryGroup shardEntryGroup = new ShardEntryGroup( 1000l );
+        shardEntryGroup.addShard( futureShard );
+
+        final DirectedEdgeMeta targetEdgeMeta = DirectedEdgeMeta.fromSourceNodeTargetType( nodeId, type, subType );
+
+
+        /**
+         * A seeded shard whose count drifted under the shard size, it really holds 2x the shard size
+         */
+        final long shardCount = graphFig.getShardSize() - 1;
+
+        when( nodeShardApproximation.getCount( same( scope ), same( futureShard ), same( targetEdgeMeta ) ) )
+                .thenReturn( shardCount );
+
+        when( nodeShardApproximation.isSeeded( same( scope ), same( futureShard ), same( targetEdgeMeta ) ) )
+                .thenReturn( true );
+
+        final int edgeCount = ( int ) ( graphFig.getShardSize() * 2 );
+
+
+        SimpleMarkedEdge skipped = new SimpleMarkedEdge( nodeId, type, IdGenerator.createId( subType ), 10000, false );
+        SimpleMarkedEdge keep = new SimpleMarkedEdge( nodeId, type, IdGenerator.createId( subType ), 20000, false );
+
+        //edges come back in ascending order when scanned, the last pivot is the last edge
+        List<MarkedEdge> edges = new ArrayList<>( edgeCount );
+
+        for ( int i = 0; i < edgeCount - 1; i++ ) {
+            edges.add( skipped );
+        }
+
+        edges.add( keep );
+
+
+        //mock up returning the value
+        when( shardedEdgeSerialization
+                .getEdgesFromSourceByTargetType( same( edgeColumnFamilies ), same( scope ), any( SearchByIdType.class ),
+                        any( Collection.class ) ) ).thenReturn( edges.iterator() );
+
+
+        ArgumentCaptor<Shard> shardValue = ArgumentCaptor.forClass( Shard.class );
+
+
+        //mock up our mutation
+        when( edgeShardSerialization.writeShardMeta( same( scope ), shardValue.capture(), same( targetEdgeMeta ) ) )
+                .thenReturn( mock( MutationBatch.class ) );
+
+
+        final boolean result = approximation.auditShard( scope, shardEntryGroup, targetEdgeMeta );
+
+        assertTrue( "Shard was split correctly", result );
+
+        assertEquals( "Expected pivot edge", keep.getTimestamp(), shardValue.getValue().getShardIndex() );
+
+        //the count is corrected to the edges we scanned, it was already seeded
+        verify( nodeShardApproximation )
+                .increment( same( scope ), same( futureShard ), eq( edgeCount - shardCount ), same( targetEdgeMeta ) );
+
+        verify( nodeShardApproximation, never() )
+                .seed( any( ApplicationScope.class ), any( Shard.class ), anyLong(), any( DirectedEdgeMeta.class ) );
+    }
+
+
+    @Test
+    public void negativeCountScanned() {
+        final ShardGroupCompaction shardGroupCompaction = mock( ShardGroupCompaction.class );
+
+        final EdgeShardSerialization edgeShardSerialization = mock( EdgeShardSerialization.class );
+
+        final EdgeColumnFamilies edgeColumnFamilies = mock( EdgeColumnFamilies.class );
+
+        final ShardedEdgeSerialization shardedEdgeSerialization = mock( ShardedEdgeSerialization.class );
+
+
+        final TimeService timeService = mock( TimeService.class );
+
+        final NodeShardCache nodeShardCache = mock( NodeShardCache.class );
+
+        final NodeShardApproximation nodeShardApproximation = mock( NodeShardApproximation.class );
+
+
+        NodeShardAllocation approximation =
+                new NodeShardAllocationImpl( edgeShardSerialization, edgeColumnFamilies, shardedEdgeSerialization,
+                        timeService, graphFig, shardGroupCompaction, nodeShardCache, nodeShardApproximation );
+
+        final Id nodeId = IdGenerator.createId( "test" );
+        final String type = "type";
+        final String subType = "subType";
+
+
+        final long timeservicetime = System.currentTimeMillis();
+
+        when( timeService.getCurrentTime() ).thenReturn( timeservicetime );
+
+        final Shard futureShard = new Shard( 0l, 0l, true );
+
+        final ShardEntryGroup shardEntryGroup = new ShardEntryGroup( 1000l );
+        shardEntryGroup.addShard( futureShard );
+
+        final DirectedEdgeMeta targetEdgeMeta = DirectedEdgeMeta.fromSourceNodeTargetType( nodeId, type, subType );
+
+
+        /**
+         * A seeded shard whose count drifted under zero from deletes counted more than once
+         */
+        final long shardCount = -10;
+
+        when( nodeShardApproximation.getCount( same( scope ), same( futureShard ), same( targetEdgeMeta ) ) )
+                .thenReturn( shardCount );
+
+        when( nodeShardApproximation.isSeeded( same( scope ), same( futureShard ), same( targetEdgeMeta ) ) )
+                .thenReturn( true );
+
+        final int edgeCount = ( int ) ( graphFig.getShardSize() * 2 );
+
+
+        SimpleMarkedEdge skipped = new SimpleMarkedEdge( nodeId, type, IdGenerator.createId( subType ), 10000, false );
+        SimpleMarkedEdge keep = new SimpleMarkedEdge( nodeId, type, IdGenerator.createId( subType ), 20000, false );
+
+        //edges come back in ascending order when scanned, the last pivot is the last edge
+        List<MarkedEdge> edges = new ArrayList<>( edgeCount );
+
+        for ( int i = 0; i < edgeCount - 1; i++ ) {
+            edges.add( skipped );
+        }
+
+        edges.add( keep );
+
+
+        //mock up returning the value
+        when( shardedEdgeSerialization
+                .getEdgesFromSourceByTargetType( same( edgeColumnFamilies ), same( scope ), any( SearchByIdType.class ),
+                        any( Collection.class ) ) ).thenReturn( edges.iterator() );
+
+
+        ArgumentCaptor<Shard> shardValue = ArgumentCaptor.forClass( Shard.class );
+
+
+        //mock up our mutation
+        when( edgeShardSerialization.writeShardMeta( same( scope ), shardValue.capture(), same( targetEdgeMeta ) ) )
+                .thenReturn( mock( MutationBatch.class ) );
+
+
+        final boolean result = approximation.auditShard( scope, shardEntryGroup, targetEdgeMeta );
+
+        assertTrue( "Shard was split correctly", result );
+
+        assertEquals( "Expected pivot edge", keep.getTimestamp(), shardValue.getValue().getShardIndex() );
+
+        //the count is corrected to the edges we scanned, it was already seeded
+        verify( nodeShardApproximation )
+                .increment( same( scope ), same( futureShard ), eq( edgeCount - shardCount ), same( targetEdgeMeta ) );
+
+        verify( nodeShardApproximation, never() )
+                .seed( any( ApplicationScope.class ), any( Shard.class ), anyLong(), any( DirectedEdgeMeta.class ) );
+    }
+
+
     @Test
     public void equalCountFutureShard() {
 
@@ -342,7 +787,8 @@ public class NodeShardAllocationTest {
 
         NodeShardAllocation approximation =
                 new NodeShardAllocationImpl( edgeShardSerialization, edgeColumnFamilies, shardedEdgeSerialization,
-                         timeService, graphFig, shardGroupCompaction, nodeShardCache );
+                         timeService, graphFig, shardGroupCompaction, nodeShardCache,
+                         mock( NodeShardApproximation.class ) );
 
         final Id nodeId = IdGenerator.createId( "test" );
         final String type = "type";
@@ -431,7 +877,8 @@ public class NodeShardAllocationTest {
 
         NodeShardAllocation approximation =
                 new NodeShardAllocationImpl( edgeShardSerialization, edgeColumnFamilies, shardedEdgeSerialization,
-                       timeService, graphFig, shardGroupCompaction, nodeShardCache );
+                       timeService, graphFig, shardGroupCompaction, nodeShardCache,
+                       mock( NodeShardApproximation.class ) );
 
         final Id nodeId = IdGenerator.createId( "test" );
         final String type = "type";
@@ -498,7 +945,8 @@ public class NodeShardAllocationTest {
 
         NodeShardAllocation approximation =
                 new NodeShardAllocationImpl( edgeShardSerialization, edgeColumnFamilies, shardedEdgeSerialization,
-                         timeService, graphFig, shardGroupCompaction, nodeShardCache );
+                         timeService, graphFig, shardGroupCompaction, nodeShardCache,
+                         mock( NodeShardApproximation.class ) );
 
         final Id nodeId = IdGenerator.createId( "test" );
         final String type = "type";
@@ -638,7 +1086,8 @@ public class NodeShardAllocationTest {
 
         NodeShardAllocation approximation =
                 new NodeShardAllocationImpl( edgeShardSerialization, edgeColumnFamilies, shardedEdgeSerialization,
-                       timeService, graphFig, shardGroupCompaction, nodeShardCache );
+                       timeService, graphFig, shardGroupCompaction, nodeShardCache,
+                       mock( NodeShardApproximation.class ) );
 
         final Id nodeId = IdGenerator.createId( "test" );
         final String type = "type";
@@ -732,7 +1181,8 @@ public class NodeShardAllocationTest {
 
         NodeShardAllocation approximation =
                 new NodeShardAllocationImpl( edgeShardSerialization, edgeColumnFamilies, shardedEdgeSerialization,
-                      timeService, graphFig, shardGroupCompaction, nodeShardCache );
+                      timeService, graphFig, shardGroupCompaction, nodeShardCache,
+                      mock( NodeShardApproximation.class ) );
 
 
         /**
@@ -19,43 +19,91 @@
 package org.apache.usergrid.persistence.model.util;
 
 
-import java.io.IOException;
-import java.util.Random;
+import java.security.SecureRandom;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.fasterxml.uuid.EthernetAddress;
-import com.fasterxml.uuid.UUIDTimer;
-import com.fasterxml.uuid.impl.TimeBasedGenerator;
 
 
 /**
- * TODO replace this with the Astyanax generator libs
+ * Lock free generator of version 1 (time based) UUIDs.
+ *
+ * Every UUID generated on this node has a strictly greater timestamp than the one before it, so time UUIDs are
+ * monotonic per node and unique without taking a lock.  Multiple UUIDs in the same millisecond use the 10,000
+ * 100ns intervals of that millisecond; past that the timestamp runs slightly ahead of the clock until the clock
+ * catches up.  The clock sequence is randomized at startup, so a restart that moves the clock backwards does not
+ * generate duplicates.
  */
 public class UUIDGenerator {
 
+    /**
+     * Number of 100ns intervals between the UUID epoch, 1582-10-15, and the unix epoch
+     */
+    private static final long UUID_EPOCH_OFFSET = 0x01b21dd213814000L;
+
+    /**
+     * Number of 100ns intervals in a millisecond
+     */
+    private static final long INTERVALS_PER_MILLI = 10000L;
 
-    private static final Random random = new Random();
-    private static final UUIDTimer timer;
+    /**
+     * The last timestamp handed out, in 100ns intervals since the UUID epoch
+     */
+    private static final AtomicLong lastTimestamp = new AtomicLong();
 
     /**
-     * Lame, but required
+     * The clock sequence, variant and node never change for the life of the JVM
      */
+    private static final long clockSeqAndNode;
+
+
     static {
-        try {
-            timer = new UUIDTimer( random, null );
-        }
-        catch ( IOException e ) {
-            throw new RuntimeException( "Couldn't initialize timer", e );
+        EthernetAddress address = EthernetAddress.fromInterface();
+
+        if ( address == null ) {
+            address = EthernetAddress.constructMulticastAddress();
         }
-    }
 
+        final int clockSeq = new SecureRandom().nextInt() & 0x3FFF;
 
-    private static final TimeBasedGenerator generator =
-        new TimeBasedGenerator( EthernetAddress.fromInterface(), timer );
+        // variant bits 10 followed by the 14 bit clock sequence, then the 48 bit node
+        clockSeqAndNode = ( ( 0x8000L | clockSeq ) << 48 ) | ( address.toLong() & 0xFFFFFFFFFFFFL );
+    }
 
 
     /** Create a new time uuid */
     public static UUID newTimeUUID() {
-        return generator.generate();
+        return new UUID( getMostSignificantBits( nextTimestamp() ), clockSeqAndNode );
+    }
+
+
+    /**
+     * Get the next timestamp, which is always greater than any timestamp returned before it
+     */
+    private static long nextTimestamp() {
+
+        final long now = System.currentTimeMillis() * INTERVALS_PER_MILLI + UUID_EPOCH_OFFSET;
+
+        while ( true ) {
+            final long last = lastTimestamp.get();
+            final long next = now > last ? now : last + 1;
+
+            if ( lastTimestamp.compareAndSet( last, next ) ) {
+                return next;
+            }
+        }
+    }
+
+
+    /**
+     * Lay out the 60 bit timestamp as time_low, time_mid and time_hi_and_version
+     */
+    private static long getMostSignificantBits( final long timestamp ) {
+        final long timeLow = timestamp & 0xFFFFFFFFL;
+        final long timeMid = ( timestamp >>> 32 ) & 0xFFFFL;
+        final long timeHi = ( timestamp >>> 48 ) & 0x0FFFL;
+
+        return ( timeLow << 32 ) | ( timeMid << 16 ) | 0x1000L | timeHi;
     }
 }
@@ -86,6 +86,32 @@ public class UUIDGeneratorTest {
     }
 
 
+    @Test
+    public void testTimeBased() {
+
+        final long before = System.currentTimeMillis();
+
+        final UUID first = UUIDGenerator.newTimeUUID();
+        final UUID second = UUIDGenerator.newTimeUUID();
+
+        final long after = System.currentTimeMillis();
+
+        assertEquals( "Time based version", 1, first.version() );
+        assertEquals( "IETF variant", 2, first.variant() );
+
+        //same node and clock sequence for the life of the generator
+        assertEquals( first.getLeastSignificantBits(), second.getLeastSignificantBits() );
+
+        assertTrue( "Timestamps are strictly increasing", second.timestamp() > first.timestamp() );
+
+        //convert the 100ns intervals since 1582-10-15 to millis since the unix epoch
+        final long millis = ( first.timestamp() - 0x01b21dd213814000L ) / 10000;
+
+        assertTrue( millis >= before );
+        assertTrue( millis <= after + 1 );
+    }
+
+
     private static class UUIDConsumer implements Callable<Void> {
 
         private final int toGenerate;
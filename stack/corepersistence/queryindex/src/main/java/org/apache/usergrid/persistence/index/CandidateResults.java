@@ -24,6 +24,7 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
 
 
 
@@ -39,6 +40,8 @@ public class CandidateResults implements Iterable<CandidateResult> {
     private final List<CandidateResult> candidates;
     private final Collection<SelectFieldMapping> getFieldMappings;
 
+    private List<SearchPosition> positions = null;
+
     public CandidateResults( List<CandidateResult> candidates, final Collection<SelectFieldMapping> getFieldMappings) {
         this.candidates = candidates;
         this.getFieldMappings = getFieldMappings;
@@ -68,6 +71,35 @@ public class CandidateResults implements Iterable<CandidateResult> {
 
 
 
+    /**
+     * Set the search position of every candidate, in the same order as the candidates
+     */
+    public void initializePositions( final List<SearchPosition> positions ) {
+        Preconditions.checkArgument( positions.size() == candidates.size(), "a position is required per candidate" );
+        this.positions = positions;
+    }
+
+
+    /**
+     * True if the search can resume after any candidate by its position instead of an offset
+     */
+    public boolean hasPositions() {
+        return positions != null;
+    }
+
+
+    /**
+     * Get the search position of the candidate at the index
+     */
+    public Optional<SearchPosition> getPosition( int index ) {
+        if ( positions == null ) {
+            return Optional.absent();
+        }
+
+        return Optional.of( positions.get( index ) );
+    }
+
+
     public int size() {
         return candidates.size();
     }
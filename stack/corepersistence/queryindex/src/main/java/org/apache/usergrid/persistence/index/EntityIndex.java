@@ -102,6 +102,35 @@ public interface EntityIndex extends CPManager {
     CandidateResults search(final SearchEdge searchEdge, final SearchTypes searchTypes, final String query,
                             final int limit, final int offset);
 
+    /**
+     * Search on every document in the specified search edge, resuming after the position of the last hit read.  When
+     * the query uses the default sort, the results start after the position and the offset is ignored.  Otherwise the
+     * position is ignored and the offset is used, so the caller should keep both.
+     *
+     * @param searchEdge  The edge to search on
+     * @param searchTypes The search types to search
+     * @param query       The query to execute
+     * @param limit       The limit of values to return
+     * @param offset      The offset to query on
+     * @param startAfter  The position of the last hit read, if any
+     * @return
+     */
+    CandidateResults search(final SearchEdge searchEdge, final SearchTypes searchTypes, final String query,
+                            final int limit, final int offset, final Optional<SearchPosition> startAfter);
+
+
+    /**
+     * Stream every document in the specified search edge that matches the query, in the same order as search.  Hits
+     * are read a scroll page at a time as they are requested, so the whole result set is never held in memory.
+     *
+     * @param searchEdge  The edge to search on
+     * @param searchTypes The search types to search
+     * @param query       The query to execute
+     * @return An observable of every matching candidate
+     */
+    Observable<CandidateResult> streamSearch(final SearchEdge searchEdge, final SearchTypes searchTypes,
+                                             final String query);
+
 
     /**
      * Same as search, just iterates all documents that match the index edge exactly.
@@ -120,6 +149,16 @@ public interface EntityIndex extends CPManager {
      * @return
      */
     CandidateResults getNodeDocsOlderThanMarked(final Id entityId, final UUID markedVersion);
+
+    /**
+     * Same as getNodeDocsOlderThanMarked, but streams every matching document a scroll page at a time
+     *
+     * @param entityId      The entityId to match when searching
+     * @param markedVersion The version that has been marked for deletion. All version before this one must be deleted.
+     * @return
+     */
+    Observable<CandidateResult> streamNodeDocsOlderThanMarked(final Id entityId, final UUID markedVersion);
+
     /**
      * delete all application records
      *
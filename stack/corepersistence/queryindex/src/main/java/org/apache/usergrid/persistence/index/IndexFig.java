@@ -52,6 +52,14 @@ public interface IndexFig extends GuicyFig {
 
     String INDEX_BATCH_SIZE = "elasticsearch.batch_size";
 
+    String INDEX_BATCH_MIN_SIZE = "elasticsearch.batch_min_size";
+
+    String INDEX_BATCH_MAX_BYTES = "elasticsearch.batch_max_bytes";
+
+    String INDEX_BATCH_TARGET_LATENCY = "elasticsearch.batch_target_latency";
+
+    String INDEX_BATCH_RETRY_COUNT = "elasticsearch.batch_retry_count";
+
     String INDEX_WRITE_CONSISTENCY_LEVEL = "elasticsearch.write_consistency_level";
 
     String INDEX_FLUSH_WORKER_COUNT = "index.flush.workers";
@@ -64,6 +72,10 @@ public interface IndexFig extends GuicyFig {
 
     String ELASTICSEARCH_VERSION_QUERY_LIMIT = "elasticsearch.version_query_limit";
 
+    String ELASTICSEARCH_QUERY_CACHE_SIZE = "elasticsearch.query_cache_size";
+
+    String ELASTICSEARCH_SCROLL_SIZE = "elasticsearch.scroll_size";
+
 
     /**
      * Comma-separated list of Elasticsearch hosts.
@@ -157,8 +169,8 @@ public interface IndexFig extends GuicyFig {
 
 
     /**
-     * The number of worker threads used for flushing batches of index write requests
-     * in the buffer for Elasticsearch.
+     * The max number of bulk index write requests in flight to Elasticsearch.  The actual
+     * number is lowered while Elasticsearch is slow or rejecting requests.
      */
     @Default("10")
     @Key(INDEX_FLUSH_WORKER_COUNT)
@@ -166,11 +178,41 @@ public interface IndexFig extends GuicyFig {
 
     /**
      * The batch size to use when sending batched index write requests to Elasticsearch.
+     * Bulk requests start at this size and never grow past it.
      */
     @Default( "1000" )
     @Key( INDEX_BATCH_SIZE )
     int getIndexBatchSize();
 
+    /**
+     * The smallest batch size bulk requests shrink to while Elasticsearch is slow or rejecting requests.
+     */
+    @Default( "50" )
+    @Key( INDEX_BATCH_MIN_SIZE )
+    int getIndexBatchMinSize();
+
+    /**
+     * The max estimated size of a bulk index write request in bytes.  A single operation over
+     * this size is still sent, in a request of its own.
+     */
+    @Default( "5242880" )
+    @Key( INDEX_BATCH_MAX_BYTES )
+    long getIndexBatchMaxBytes();
+
+    /**
+     * The bulk response time above which batch size and concurrency are reduced. (in milliseconds)
+     */
+    @Default( "1000" )
+    @Key( INDEX_BATCH_TARGET_LATENCY )
+    long getIndexBatchTargetLatency();
+
+    /**
+     * The number of times operations rejected by Elasticsearch are retried before the batch fails.
+     */
+    @Default( "3" )
+    @Key( INDEX_BATCH_RETRY_COUNT )
+    int getIndexBatchRetryCount();
+
     /**
      * The write consistency level for writing into the Elasticsearch index.  The
      * default value is 'one', and you can configure 'all' and 'quorum'.
@@ -201,6 +243,10 @@ public interface IndexFig extends GuicyFig {
     long getWriteTimeout();
 
 
+    /**
+     * The time to wait before retrying operations rejected by Elasticsearch, multiplied by
+     * the retry attempt. (in milliseconds)
+     */
     @Default("1000")
     @Key( "elasticsearch_queue_error_sleep_ms" )
     long getSleepTimeForQueueError();
@@ -208,4 +254,18 @@ public interface IndexFig extends GuicyFig {
     @Default("100")
     @Key( ELASTICSEARCH_VERSION_QUERY_LIMIT )
     int getVersionQueryLimit();
+
+    /**
+     * The max number of distinct query strings to keep parsed, along with the Elasticsearch queries built from them
+     */
+    @Default("1000")
+    @Key( ELASTICSEARCH_QUERY_CACHE_SIZE )
+    int getQueryCacheSize();
+
+    /**
+     * The number of hits to read in each scroll page when streaming search results
+     */
+    @Default("100")
+    @Key( ELASTICSEARCH_SCROLL_SIZE )
+    int getScrollSize();
 }
@@ -0,0 +1,139 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package org.apache.usergrid.persistence.index.impl;
+
+
+import com.google.common.base.Preconditions;
+
+
+/**
+ * Sizes bulk requests and limits how many are in flight from the latency and rejections Elasticsearch reports.
+ * Uses additive increase and multiplicative decrease: the batch size grows by a tenth after every response under the
+ * target latency, and once it is at the max one more request is allowed in flight.  A slow response shrinks the batch
+ * by a quarter and drops one in flight request, a rejection halves both.
+ */
+public class AdaptiveBulkSizer {
+
+    private final int minBatchSize;
+    private final int maxBatchSize;
+    private final int maxConcurrency;
+    private final long targetLatency;
+
+    private int batchSize;
+    private int concurrency;
+    private int inFlight;
+
+
+    /**
+     * @param minBatchSize The smallest number of operations to send in a bulk request
+     * @param maxBatchSize The largest number of operations to send in a bulk request
+     * @param maxConcurrency The max number of bulk requests in flight
+     * @param targetLatency The bulk response time in milliseconds above which we back off
+     */
+    public AdaptiveBulkSizer( final int minBatchSize, final int maxBatchSize, final int maxConcurrency,
+                              final long targetLatency ) {
+
+        Preconditions.checkArgument( minBatchSize > 0, "minBatchSize must be greater than 0" );
+        Preconditions.checkArgument( maxBatchSize >= minBatchSize, "maxBatchSize must be at least minBatchSize" );
+        Preconditions.checkArgument( maxConcurrency > 0, "maxConcurrency must be greater than 0" );
+
+        this.minBatchSize = minBatchSize;
+        this.maxBatchSize = maxBatchSize;
+        this.maxConcurrency = maxConcurrency;
+        this.targetLatency = targetLatency;
+
+        this.batchSize = maxBatchSize;
+        this.concurrency = maxConcurrency;
+    }
+
+
+    /**
+     * Wait until another bulk request is allowed in flight
+     */
+    public synchronized void acquire() throws InterruptedException {
+        while ( inFlight >= concurrency ) {
+            wait();
+        }
+
+        inFlight++;
+    }
+
+
+    /**
+     * Release the request slot taken by acquire.  Must be called exactly once for every acquire
+     */
+    public synchronized void release() {
+        inFlight--;
+        notifyAll();
+    }
+
+
+    /**
+     * Adjust from a bulk request that completed
+     *
+     * @param latency The time the request took in milliseconds
+     * @param rejected True if Elasticsearch rejected any operations in the request
+     */
+    public synchronized void onResponse( final long latency, final boolean rejected ) {
+
+        if ( rejected ) {
+            batchSize = Math.max( minBatchSize, batchSize / 2 );
+            concurrency = Math.max( 1, concurrency / 2 );
+        }
+        else if ( latency > targetLatency ) {
+            batchSize = Math.max( minBatchSize, batchSize - batchSize / 4 );
+            concurrency = Math.max( 1, concurrency - 1 );
+        }
+        else if ( batchSize < maxBatchSize ) {
+            batchSize = Math.min( maxBatchSize, batchSize + Math.max( 1, batchSize / 10 ) );
+        }
+        else if ( concurrency < maxConcurrency ) {
+            concurrency++;
+            //more slots are available, wake any waiting senders
+            notifyAll();
+        }
+    }
+
+
+    /**
+     * Get the number of operations to send in the next bulk request
+     */
+    public synchronized int getBatchSize() {
+        return batchSize;
+    }
+
+
+    /**
+     * Get the number of bulk requests currently allowed in flight
+     */
+    public synchronized int getConcurrency() {
+        return concurrency;
+    }
+
+
+    /**
+     * Get the number of bulk requests in flight
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+}
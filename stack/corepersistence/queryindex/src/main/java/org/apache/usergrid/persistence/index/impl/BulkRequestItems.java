@@ -0,0 +1,117 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package org.apache.usergrid.persistence.index.impl;
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.rest.RestStatus;
+
+
+/**
+ * The operations in a bulk request and the bulk items each of them added.  An operation can add more than one item,
+ * e.g. a de-index adds a delete per index, so bulk item ids are mapped back to operations here.
+ */
+class BulkRequestItems {
+
+    private final List<BatchOperation> operations = new ArrayList<>();
+
+    //the operation of each bulk item, by item id
+    private final List<BatchOperation> itemOperations = new ArrayList<>();
+
+
+    /**
+     * Add the operation's items to the bulk request
+     */
+    public void add( final Client client, final BulkRequestBuilder bulkRequest, final BatchOperation operation ) {
+
+        final int before = bulkRequest.numberOfActions();
+
+        operation.doOperation( client, bulkRequest );
+
+        for ( int i = before; i < bulkRequest.numberOfActions(); i++ ) {
+            itemOperations.add( operation );
+        }
+
+        operations.add( operation );
+    }
+
+
+    /**
+     * The operations, in the order they were added
+     */
+    public List<BatchOperation> getOperations() {
+        return operations;
+    }
+
+
+    /**
+     * The operation that added the bulk item
+     */
+    public BatchOperation getOperation( final int itemId ) {
+        return itemOperations.get( itemId );
+    }
+
+
+    /**
+     * The operations with an item Elasticsearch rejected because it is overloaded, each once and in the order they
+     * were added.  Every other failed item is passed to the failure handler
+     */
+    public List<BatchOperation> getRejected( final Iterable<BulkItemResponse> responses,
+                                             final Consumer<BulkItemResponse> failureHandler ) {
+
+        final List<BatchOperation> rejected = new ArrayList<>();
+        final Set<BatchOperation> seen = Collections.newSetFromMap( new IdentityHashMap<>() );
+
+        for ( BulkItemResponse response : responses ) {
+
+            if ( !response.isFailed() ) {
+                continue;
+            }
+
+            //retry the whole operation, deletes and index writes can be repeated
+            if ( response.getFailure() != null
+                && response.getFailure().getStatus() == RestStatus.TOO_MANY_REQUESTS ) {
+
+                final BatchOperation operation = getOperation( response.getItemId() );
+
+                if ( seen.add( operation ) ) {
+                    rejected.add( operation );
+                }
+
+                continue;
+            }
+
+            failureHandler.accept( response );
+        }
+
+        return rejected;
+    }
+}
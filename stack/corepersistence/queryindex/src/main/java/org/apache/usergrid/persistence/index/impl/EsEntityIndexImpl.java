@@ -21,6 +21,7 @@ package org.apache.usergrid.persistence.index.impl;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.Timer;
 import com.google.common.base.*;
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.io.Resources;
 import com.google.inject.Inject;
@@ -38,10 +39,10 @@ import org.apache.usergrid.persistence.index.ElasticSearchQueryBuilder.SearchReq
 import org.apache.usergrid.persistence.index.exceptions.IndexException;
 import org.apache.usergrid.persistence.index.migration.IndexDataVersions;
 import org.apache.usergrid.persistence.index.query.ParsedQuery;
-import org.apache.usergrid.persistence.index.query.ParsedQueryBuilder;
 import org.apache.usergrid.persistence.index.utils.IndexValidationUtils;
 import org.apache.usergrid.persistence.model.entity.Id;
 import org.apache.usergrid.persistence.model.util.UUIDGenerator;
+import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.action.ActionFuture;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.ListenableActionFuture;
@@ -72,6 +73,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import rx.Observable;
+import rx.functions.Func1;
 
 import java.io.IOException;
 import java.net.URL;
@@ -115,6 +117,7 @@ public class EsEntityIndexImpl implements EntityIndex,VersionedData {
 
     private final ApplicationScope applicationScope;
     private final SearchRequestBuilderStrategy searchRequest;
+    private final EsQueryCache queryCache;
     private final SearchRequestBuilderStrategyV2 searchRequestBuilderStrategyV2;
     private final int cursorTimeout;
     private final long queryTimeout;
@@ -132,10 +135,12 @@ public class EsEntityIndexImpl implements EntityIndex,VersionedData {
                               final IndexCache indexCache,
                               final IndexFig indexFig,
                               final MetricsFactory metricsFactory,
-                              final IndexLocationStrategy indexLocationStrategy
+                              final IndexLocationStrategy indexLocationStrategy,
+                              final EsQueryCache queryCache
     ) {
 
         this.indexFig = indexFig;
+        this.queryCache = queryCache;
         this.indexLocationStrategy = indexLocationStrategy;
         this.failureMonitor = new FailureMonitorImpl( indexFig, provider );
         this.esProvider = provider;
@@ -145,7 +150,7 @@ public class EsEntityIndexImpl implements EntityIndex,VersionedData {
         this.cursorTimeout = indexFig.getQueryCursorTimeout();
         this.queryTimeout = indexFig.getWriteTimeout();
         this.searchRequest
-            = new SearchRequestBuilderStrategy(esProvider, applicationScope, alias, cursorTimeout );
+            = new SearchRequestBuilderStrategy(esProvider, applicationScope, alias, cursorTimeout, queryCache );
         this.searchRequestBuilderStrategyV2 = new SearchRequestBuilderStrategyV2( esProvider, applicationScope, alias, cursorTimeout  );
 
         this.addTimer = metricsFactory.getTimer(EsEntityIndexImpl.class, "index.add");
@@ -411,6 +416,12 @@ public class EsEntityIndexImpl implements EntityIndex,VersionedData {
 
     public CandidateResults search( final SearchEdge searchEdge, final SearchTypes searchTypes, final String query,
                                     final int limit, final int offset ) {
+        return search( searchEdge, searchTypes, query, limit, offset, Optional.<SearchPosition>absent() );
+    }
+
+
+    public CandidateResults search( final SearchEdge searchEdge, final SearchTypes searchTypes, final String query,
+                                    final int limit, final int offset, final Optional<SearchPosition> startAfter ) {
 
         IndexValidationUtils.validateSearchEdge(searchEdge);
         Preconditions.checkNotNull(searchTypes, "searchTypes cannot be null");
@@ -420,10 +431,11 @@ public class EsEntityIndexImpl implements EntityIndex,VersionedData {
 
         SearchResponse searchResponse;
 
-        final ParsedQuery parsedQuery = ParsedQueryBuilder.build(query);
+        final ParsedQuery parsedQuery = queryCache.getParsedQuery( query );
 
-        final SearchRequestBuilder srb = searchRequest.getBuilder( searchEdge, searchTypes, parsedQuery, limit, offset )
-            .setTimeout(TimeValue.timeValueMillis(queryTimeout));
+        final SearchRequestBuilder srb =
+            searchRequest.getBuilder( searchEdge, searchTypes, parsedQuery, limit, offset, startAfter )
+                         .setTimeout( TimeValue.timeValueMillis( queryTimeout ) );
 
         if ( logger.isDebugEnabled() ) {
             logger.debug( "Searching index (read alias): {}\n  nodeId: {}, edgeType: {},  \n type: {}\n   query: {} ",
@@ -453,6 +465,32 @@ public class EsEntityIndexImpl implements EntityIndex,VersionedData {
     }
 
 
+    @Override
+    public Observable<CandidateResult> streamSearch( final SearchEdge searchEdge, final SearchTypes searchTypes,
+                                                     final String query ) {
+
+        IndexValidationUtils.validateSearchEdge( searchEdge );
+        Preconditions.checkNotNull( searchTypes, "searchTypes cannot be null" );
+        Preconditions.checkNotNull( query, "query cannot be null" );
+
+        final ParsedQuery parsedQuery = queryCache.getParsedQuery( query );
+
+        final boolean isGeo = parsedQuery.isGeoQuery();
+
+        final SearchRequestBuilder srb =
+            searchRequest.getBuilder( searchEdge, searchTypes, parsedQuery, indexFig.getScrollSize(), 0 )
+                         .setTimeout( TimeValue.timeValueMillis( queryTimeout ) );
+
+        if ( logger.isDebugEnabled() ) {
+            logger.debug( "Streaming index (read alias): {}\n  nodeId: {}, edgeType: {},  \n type: {}\n   query: {} ",
+                this.alias.getReadAlias(), searchEdge.getNodeId(), searchEdge.getEdgeName(),
+                searchTypes.getTypeNames( applicationScope ), srb );
+        }
+
+        return streamScroll( srb, hit -> parseIndexDocId( hit, isGeo ) );
+    }
+
+
     @Override
     public CandidateResults getAllEdgeDocuments( final IndexEdge edge, final Id entityId ) {
         /**
@@ -538,28 +576,12 @@ public class EsEntityIndexImpl implements EntityIndex,VersionedData {
         // never let this fetch more than 100 to save memory
         final int searchLimit = Math.min(100, indexFig.getVersionQueryLimit());
 
-        // this query will find all the documents where this entity is a source/target node
-        final QueryBuilder nodeQuery = QueryBuilders
-            .termQuery(IndexingUtils.EDGE_NODE_ID_FIELDNAME, IndexingUtils.nodeId(entityId));
-
         final SearchRequestBuilder srb = searchRequestBuilderStrategyV2.getBuilder()
             .addSort(IndexingUtils.EDGE_TIMESTAMP_FIELDNAME, SortOrder.ASC);
 
         try {
 
-            long queryTimestamp = 0L;
-
-            QueryBuilder timestampQuery =  QueryBuilders
-                .rangeQuery(IndexingUtils.EDGE_TIMESTAMP_FIELDNAME)
-                .gte(queryTimestamp)
-                .lt(markedTimestamp);
-
-            QueryBuilder finalQuery = QueryBuilders.constantScoreQuery(
-                QueryBuilders
-                    .boolQuery()
-                    .must(timestampQuery)
-                    .must(nodeQuery)
-            );
+            QueryBuilder finalQuery = createNodeDocsOlderThanQuery( entityId, markedTimestamp );
 
 
             searchResponse = srb
@@ -583,6 +605,64 @@ public class EsEntityIndexImpl implements EntityIndex,VersionedData {
     }
 
 
+    @Override
+    public Observable<CandidateResult> streamNodeDocsOlderThanMarked( final Id entityId, final UUID markedVersion ) {
+
+        Preconditions.checkNotNull( entityId, "entityId cannot be null" );
+        Preconditions.checkNotNull( markedVersion, "markedVersion cannot be null" );
+        ValidationUtils.verifyVersion( markedVersion );
+
+        final long markedTimestamp = markedVersion.timestamp();
+
+        final SearchRequestBuilder srb = searchRequestBuilderStrategyV2.getBuilder()
+            .addSort( IndexingUtils.EDGE_TIMESTAMP_FIELDNAME, SortOrder.ASC )
+            .setQuery( createNodeDocsOlderThanQuery( entityId, markedTimestamp ) )
+            .setSize( indexFig.getScrollSize() );
+
+        //same as aggregateScrollResults, only versions up to the marked version
+        return streamScroll( srb, hit -> parseIndexDocId( hit ) )
+            .filter( candidateResult -> candidateResult.getVersion().timestamp() <= markedTimestamp );
+    }
+
+
+    /**
+     * This query will find all the documents where this entity is a source/target node, with an edge older than the
+     * timestamp
+     */
+    private QueryBuilder createNodeDocsOlderThanQuery( final Id entityId, final long markedTimestamp ) {
+
+        final QueryBuilder nodeQuery = QueryBuilders
+            .termQuery(IndexingUtils.EDGE_NODE_ID_FIELDNAME, IndexingUtils.nodeId(entityId));
+
+        long queryTimestamp = 0L;
+
+        QueryBuilder timestampQuery =  QueryBuilders
+            .rangeQuery(IndexingUtils.EDGE_TIMESTAMP_FIELDNAME)
+            .gte(queryTimestamp)
+            .lt(markedTimestamp);
+
+        return QueryBuilders.constantScoreQuery(
+            QueryBuilders
+                .boolQuery()
+                .must(timestampQuery)
+                .must(nodeQuery)
+        );
+    }
+
+
+    /**
+     * Stream the hits of the search request a scroll page at a time.  The scroll is only read as hits are requested,
+     * and is cleared when the subscriber completes or unsubscribes
+     */
+    private Observable<CandidateResult> streamScroll( final SearchRequestBuilder srb,
+                                                      final Func1<SearchHit, CandidateResult> hitParser ) {
+
+        return Observable.using( () -> new ScrollIterator( srb ),
+            scrollIterator -> Observable.from( ( Iterable<SearchHit> ) () -> scrollIterator ).map( hitParser ),
+            scrollIterator -> scrollIterator.close() );
+    }
+
+
     /**
      * Completely delete an index.
      */
@@ -632,6 +712,26 @@ public class EsEntityIndexImpl implements EntityIndex,VersionedData {
     }
 
 
+    /**
+     * Parse the position of the hit from the values of the default sort
+     */
+    private static SearchPosition parseSearchPosition( final SearchHit hit ) {
+        final Object[] sortValues = hit.sortValues();
+
+        return new SearchPosition( ( ( Number ) sortValues[0] ).longValue(), sortValueString( sortValues[1] ),
+            sortValueString( sortValues[2] ) );
+    }
+
+
+    private static String sortValueString( final Object sortValue ) {
+        if ( sortValue instanceof BytesRef ) {
+            return ( ( BytesRef ) sortValue ).utf8ToString();
+        }
+
+        return sortValue.toString();
+    }
+
+
     /**
      * Parse the results and return the canddiate results
      */
@@ -658,6 +758,17 @@ public class EsEntityIndexImpl implements EntityIndex,VersionedData {
 
         final CandidateResults candidateResults = new CandidateResults( candidates, query.getSelectFieldMappings());
 
+        //with the default sort, every hit can be resumed from by its sort values
+        if ( !query.isGeoQuery() && searchRequest.isPositionSupported( query ) ) {
+            final List<SearchPosition> positions = new ArrayList<>( hits.length );
+
+            for ( SearchHit hit : hits ) {
+                positions.add( parseSearchPosition( hit ) );
+            }
+
+            candidateResults.initializePositions( positions );
+        }
+
         // >= seems odd.  However if we get an overflow, we need to account for it.
         if (  hits.length >= limit ) {
 
@@ -834,4 +945,113 @@ public class EsEntityIndexImpl implements EntityIndex,VersionedData {
 
 
 
+
+
+    /**
+     * Iterates the hits of a search a scroll page at a time.  The next page is only read once the current page has been
+     * consumed, and the scroll is cleared after the last page is read or the iterator is closed
+     */
+    private final class ScrollIterator implements Iterator<SearchHit> {
+
+        private final SearchRequestBuilder searchRequestBuilder;
+        private final TimeValue keepAlive;
+
+        private Iterator<SearchHit> page = Collections.emptyIterator();
+        private String scrollId;
+        private boolean complete;
+
+
+        private ScrollIterator( final SearchRequestBuilder searchRequestBuilder ) {
+            this.searchRequestBuilder = searchRequestBuilder;
+            this.keepAlive = TimeValue.timeValueMinutes( cursorTimeout );
+        }
+
+
+        @Override
+        public boolean hasNext() {
+            while ( !page.hasNext() ) {
+                if ( complete ) {
+                    return false;
+                }
+
+                advance();
+            }
+
+            return true;
+        }
+
+
+        @Override
+        public SearchHit next() {
+            if ( !hasNext() ) {
+                throw new NoSuchElementException( "No more hits in the scroll" );
+            }
+
+            return page.next();
+        }
+
+
+        /**
+         * Read the next page of hits
+         */
+        private void advance() {
+
+            final SearchResponse searchResponse;
+
+            final Timer.Context timerContext = searchTimer.time();
+
+            try {
+                if ( scrollId == null ) {
+                    searchResponse = searchRequestBuilder.setScroll( keepAlive ).execute().actionGet();
+                }
+                else {
+                    searchResponse = searchRequestBuilderStrategyV2.getScrollBuilder( scrollId ).setScroll( keepAlive )
+                                                                   .execute().actionGet();
+                }
+            }
+            catch ( Throwable t ) {
+                logger.error( "Unable to communicate with Elasticsearch", t );
+                failureMonitor.fail( "Unable to execute batch", t );
+                throw t;
+            }
+            finally {
+                timerContext.stop();
+            }
+
+            failureMonitor.success();
+
+            scrollId = searchResponse.getScrollId();
+
+            final SearchHit[] hits = searchResponse.getHits().getHits();
+
+            //an empty page is the end of the scroll
+            if ( hits.length == 0 ) {
+                close();
+            }
+
+            page = Arrays.asList( hits ).iterator();
+        }
+
+
+        /**
+         * Stop iterating and release the scroll in Elasticsearch
+         */
+        private void close() {
+            complete = true;
+
+            if ( scrollId == null ) {
+                return;
+            }
+
+            try {
+                esProvider.getClient().prepareClearScroll().addScrollId( scrollId ).execute().actionGet();
+            }
+            catch ( Throwable t ) {
+                //it will still expire after the keep alive
+                logger.warn( "Unable to clear scroll {}", scrollId, t );
+            }
+
+            scrollId = null;
+        }
+    }
 }
@@ -18,7 +18,10 @@
 package org.apache.usergrid.persistence.index.impl;
 
 
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -27,11 +30,9 @@ import com.codahale.metrics.Histogram;
 
 import org.apache.usergrid.persistence.index.EntityIndexBatch;
 import org.elasticsearch.action.WriteConsistencyLevel;
-import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkRequestBuilder;
 import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.client.Client;
-import org.elasticsearch.rest.RestStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -45,6 +46,7 @@ import com.google.inject.Inject;
 import com.google.inject.Singleton;
 
 import rx.Observable;
+import rx.schedulers.Schedulers;
 
 
 /**
@@ -62,6 +64,9 @@ public class EsIndexProducerImpl implements IndexProducer {
     private final Counter indexSizeCounter;
     private final Histogram roundtripTimer;
     private final Timer indexTimer;
+    private final Counter rejectedCounter;
+    private final Counter retryCounter;
+    private final AdaptiveBulkSizer bulkSizer;
 
 
     private AtomicLong inFlight = new AtomicLong();
@@ -73,10 +78,20 @@ public class EsIndexProducerImpl implements IndexProducer {
         this.flushTimer = metricsFactory.getTimer(EsIndexProducerImpl.class, "index_buffer.flush");
         this.indexSizeCounter = metricsFactory.getCounter(EsIndexProducerImpl.class, "index_buffer.size");
         this.roundtripTimer = metricsFactory.getHistogram(EsIndexProducerImpl.class, "index_buffer.message_cycle");
+        this.rejectedCounter = metricsFactory.getCounter(EsIndexProducerImpl.class, "index_buffer.rejected");
+        this.retryCounter = metricsFactory.getCounter(EsIndexProducerImpl.class, "index_buffer.retried");
+
+        this.bulkSizer = new AdaptiveBulkSizer( indexFig.getIndexBatchMinSize(), indexFig.getIndexBatchSize(),
+            indexFig.getIndexFlushWorkerCount(), indexFig.getIndexBatchTargetLatency() );
 
         //wire up the gauge of inflight messages
         metricsFactory.addGauge(EsIndexProducerImpl.class, "index_buffer.inflight", () -> inFlight.longValue());
 
+        //expose what the bulk sizer has adapted to
+        metricsFactory.addGauge(EsIndexProducerImpl.class, "index_buffer.batch_size", () -> bulkSizer.getBatchSize());
+        metricsFactory.addGauge(EsIndexProducerImpl.class, "index_buffer.concurrency", () -> bulkSizer.getConcurrency());
+        metricsFactory.addGauge(EsIndexProducerImpl.class, "index_buffer.bulk_inflight", () -> bulkSizer.getInFlight());
+
 
         this.indexTimer = metricsFactory.getTimer( EsIndexProducerImpl.class, "index" );
 
@@ -111,11 +126,8 @@ public class EsIndexProducerImpl implements IndexProducer {
     private Observable<IndexOperationMessage> processBatch( final IndexOperationMessage batch ) {
 
         //take our stream of batches, then stream then into individual ops for consumption on ES
-        final Set<IndexOperation> indexOperationSet = batch.getIndexRequests();
-        final Set<DeIndexOperation> deIndexOperationSet = batch.getDeIndexRequests();
-
-        final int indexOperationSetSize = indexOperationSet.size();
-        final int deIndexOperationSetSize = deIndexOperationSet.size();
+        final int indexOperationSetSize = batch.getIndexRequests().size();
+        final int deIndexOperationSetSize = batch.getDeIndexRequests().size();
 
         if (logger.isTraceEnabled()) {
             logger.trace("Emitting {} add and {} remove operations", indexOperationSetSize, deIndexOperationSetSize);
@@ -124,40 +136,31 @@ public class EsIndexProducerImpl implements IndexProducer {
         indexSizeCounter.dec(indexOperationSetSize);
         indexSizeCounter.dec(deIndexOperationSetSize);
 
-        final Observable<IndexOperation> index = Observable.from(batch.getIndexRequests());
-        final Observable<DeIndexOperation> deIndex = Observable.from(batch.getDeIndexRequests());
-
         //TODO: look at indexing ordering
-        final Observable<BatchOperation> batchOps = Observable.merge(index, deIndex);
-
-        //buffer into the max size we can send ES and fire them all off until we're completed
-        final Observable<BulkRequestBuilder> requests = batchOps
-            .buffer(250, TimeUnit.MILLISECONDS, indexFig.getIndexBatchSize())
-
-            //flatten the buffer into a single batch execution
-            .flatMap(individualOps -> Observable.from(individualOps)
-                //collect them
-                .collect(() -> initRequest(), (bulkRequestBuilder, batchOperation) -> {
-                    if (logger.isTraceEnabled()) {
-                        logger.trace("adding operation {} to bulkRequestBuilder {}", batchOperation, bulkRequestBuilder);
-                    }
-                    batchOperation.doOperation(client, bulkRequestBuilder);
-                }))
-                //write them
-            .doOnNext(bulkRequestBuilder -> sendRequest(bulkRequestBuilder));
-
-
-        //now that we've processed them all, ack the futures after our last batch comes through
-        final Observable<IndexOperationMessage> processedIndexOperations =
-            requests.flatMap(lastRequest -> {
-                if (lastRequest != null) {
-                    return Observable.just(batch);
-                } else {
-                    return Observable.empty();
+        final Observable<IndexOperationMessage> processedIndexOperations = Observable.defer( () -> {
+
+            final List<BatchOperation> operations =
+                new ArrayList<>( indexOperationSetSize + deIndexOperationSetSize );
+
+            operations.addAll( batch.getIndexRequests() );
+            operations.addAll( batch.getDeIndexRequests() );
+
+            //bulk requests are sent in parallel, so failures are appended under its lock
+            final StringBuffer errorString = new StringBuffer();
+
+            final Timer.Context timer = flushTimer.time();
+
+            return sendOperations( operations, 0, errorString ).doOnTerminate( timer::stop ).map( attempts -> {
+                if ( errorString.length() > 0 ) {
+                    throw new RuntimeException(
+                        "Error during processing of bulk index operations one of the responses failed. \n"
+                            + errorString );
                 }
-            });
 
-        //subscribe to the operations that generate requests on a new thread so that we can execute them quickly
+                return batch;
+            } );
+        } );
+
         //mark this as done
         return processedIndexOperations.doOnNext(processedIndexOp -> {
             roundtripTimer.update(System.currentTimeMillis() - processedIndexOp.getCreationTime());
@@ -165,7 +168,54 @@ public class EsIndexProducerImpl implements IndexProducer {
     }
 
 
-    /*
+    /**
+     * Send the operations in bulk requests sized by the bulk sizer, up to the flush worker count of them in parallel.
+     * Operations Elasticsearch rejected are retried on their own once every request of the attempt is done, after a
+     * wait scheduled on a timer so no thread sleeps through it.  Anything else that fails is appended to the error
+     * string to be thrown once every operation has been sent.
+     *
+     * @return An observable that emits the number of attempts it took
+     */
+    private Observable<Integer> sendOperations( final List<BatchOperation> operations, final int attempt,
+                                                final StringBuffer errorString ) {
+
+        final Iterable<PendingRequest> requests = () -> new BulkRequests( operations );
+
+        return Observable.from( requests )
+            .flatMap( request -> Observable.defer(
+                () -> Observable.just( sendRequest( request.bulkRequest, request.items, errorString ) ) )
+                .subscribeOn( Schedulers.io() ), indexFig.getIndexFlushWorkerCount() )
+            .reduce( new ArrayList<BatchOperation>(), ( pending, rejected ) -> {
+                pending.addAll( rejected );
+                return pending;
+            } )
+            .flatMap( pending -> {
+
+                if ( pending.isEmpty() ) {
+                    return Observable.just( attempt + 1 );
+                }
+
+                final int retry = attempt + 1;
+                final int maxRetries = indexFig.getIndexBatchRetryCount();
+
+                if ( retry > maxRetries ) {
+                    return Observable.<Integer>error( new RuntimeException(
+                        "Elasticsearch rejected " + pending.size() + " index operations after " + maxRetries
+                            + " retries" ) );
+                }
+
+                final long sleepTime = indexFig.getSleepTimeForQueueError() * retry;
+
+                logger.warn( "Elasticsearch rejected {} operations, retrying them in {} ms", pending.size(),
+                    sleepTime );
+
+                retryCounter.inc( pending.size() );
+
+                return Observable.timer( sleepTime, TimeUnit.MILLISECONDS )
+                    .flatMap( tick -> sendOperations( pending, retry, errorString ) );
+            } );
+    }
+
 
     /**
      * initialize request
@@ -180,63 +230,126 @@ public class EsIndexProducerImpl implements IndexProducer {
 
     /**
      * send bulk request
+     *
+     * @param bulkRequest The request to send
+     * @param items The operations in the request and the bulk items they added
+     * @param errorString Where to append failures that should not be retried
+     *
+     * @return The operations Elasticsearch rejected because it is overloaded
      */
-    private void sendRequest( BulkRequestBuilder bulkRequest ) {
+    private List<BatchOperation> sendRequest( final BulkRequestBuilder bulkRequest,
+                                              final BulkRequestItems items,
+                                              final StringBuffer errorString ) {
         //nothing to do, we haven't added anything to the index
         if ( bulkRequest.numberOfActions() == 0 ) {
-            return;
+            return new ArrayList<>( 0 );
         }
 
         final BulkResponse responses;
 
+        try {
+            bulkSizer.acquire();
+        }
+        catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException( "Interrupted while waiting to send bulk index operations", e );
+        }
 
         final Timer.Context timer = indexTimer.time();
+        final long start = System.currentTimeMillis();
 
         try {
             responses = bulkRequest.execute().actionGet( );
         } catch ( Throwable t ) {
             logger.error( "Unable to communicate with elasticsearch", t );
             failureMonitor.fail( "Unable to execute batch", t );
+            bulkSizer.onResponse( System.currentTimeMillis() - start, true );
             throw t;
         }finally{
             timer.stop();
+            bulkSizer.release();
         }
 
         failureMonitor.success();
 
-        boolean error = false;
+        //if index is overloaded on the queue, retry just the rejected operations
+        final List<BatchOperation> rejected = items.getRejected( responses, response -> {
 
-        final StringBuilder errorString = new StringBuilder(  );
+            // log error and continue processing
+            logger.error( "Unable to index id={}, type={}, index={}, failureMessage={} ", response.getId(),
+                response.getType(), response.getIndex(),  response.getFailureMessage() );
 
-        boolean hasTooManyRequests= false;
-        for ( BulkItemResponse response : responses ) {
+            errorString.append( response.getFailureMessage() + "\n" );
+        } );
 
-            if ( response.isFailed() ) {
-                // log error and continue processing
-                logger.error( "Unable to index id={}, type={}, index={}, failureMessage={} ", response.getId(),
-                    response.getType(), response.getIndex(),  response.getFailureMessage() );
-                //if index is overloaded on the queue fail.
-                if(response.getFailure()!=null && response.getFailure().getStatus() == RestStatus.TOO_MANY_REQUESTS){
-                    hasTooManyRequests =true;
-                }
-                error = true;
+        bulkSizer.onResponse( System.currentTimeMillis() - start, !rejected.isEmpty() );
 
-                errorString.append( response.getFailureMessage() ).append( "\n" );
-            }
+        if ( !rejected.isEmpty() ) {
+            rejectedCounter.inc( rejected.size() );
+            logger.warn( "Elasticsearch rejected {} of {} operations, batch size is now {} with {} requests in flight",
+                rejected.size(), items.getOperations().size(), bulkSizer.getBatchSize(), bulkSizer.getConcurrency() );
         }
 
-        if ( error ) {
-            if(hasTooManyRequests){
-                try{
-                    logger.warn("Encountered Queue Capacity Exception from ElasticSearch slowing by {}",
-                        indexFig.getSleepTimeForQueueError() );
-                    Thread.sleep(indexFig.getSleepTimeForQueueError());
-                }catch (Exception e){
-                    //move on
-                }
+        return rejected;
+    }
+
+
+    /**
+     * Builds the bulk requests for the operations as they are taken, so each request is sized by the bulk sizer as
+     * it is when the request is about to be sent
+     */
+    private final class BulkRequests implements Iterator<PendingRequest> {
+
+        private final List<BatchOperation> operations;
+        private final long maxBytes = indexFig.getIndexBatchMaxBytes();
+
+        private int next = 0;
+
+
+        private BulkRequests( final List<BatchOperation> operations ) {
+            this.operations = operations;
+        }
+
+
+        @Override
+        public boolean hasNext() {
+            return next < operations.size();
+        }
+
+
+        @Override
+        public PendingRequest next() {
+
+            if ( !hasNext() ) {
+                throw new NoSuchElementException();
+            }
+
+            final int batchSize = bulkSizer.getBatchSize();
+            final PendingRequest request = new PendingRequest( initRequest() );
+
+            //always add one operation so a document over the byte limit still gets sent by itself
+            do {
+                request.items.add( client, request.bulkRequest, operations.get( next++ ) );
             }
-            throw new RuntimeException(
-                "Error during processing of bulk index operations one of the responses failed. \n" + errorString);
+            while ( next < operations.size() && request.items.getOperations().size() < batchSize
+                && request.bulkRequest.request().estimatedSizeInBytes() < maxBytes );
+
+            return request;
+        }
+    }
+
+
+    /**
+     * A bulk request and the operations in it
+     */
+    private static final class PendingRequest {
+
+        private final BulkRequestBuilder bulkRequest;
+        private final BulkRequestItems items = new BulkRequestItems();
+
+
+        private PendingRequest( final BulkRequestBuilder bulkRequest ) {
+            this.bulkRequest = bulkRequest;
         }
     }
 }
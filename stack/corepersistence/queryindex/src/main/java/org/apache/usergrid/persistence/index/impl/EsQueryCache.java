@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.persistence.index.impl;
+
+
+import org.apache.commons.lang.StringUtils;
+
+import org.apache.usergrid.persistence.index.IndexFig;
+import org.apache.usergrid.persistence.index.exceptions.IndexException;
+import org.apache.usergrid.persistence.index.query.ParsedQuery;
+import org.apache.usergrid.persistence.index.query.ParsedQueryBuilder;
+import org.apache.usergrid.persistence.index.query.tree.QueryVisitor;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+
+/**
+ * Caches parsed queries by their query string, and the visited Elasticsearch queries by their parsed query.  Neither
+ * is modified once built, so they are shared between searches.  Visitors are weakly keyed on the parsed query, so they
+ * are released once the parsed query is evicted.
+ */
+@Singleton
+public class EsQueryCache {
+
+    private final LoadingCache<String, ParsedQuery> parsedQueries;
+    private final LoadingCache<ParsedQuery, QueryVisitor> visitors;
+
+
+    @Inject
+    public EsQueryCache( final IndexFig indexFig ) {
+
+        final int cacheSize = indexFig.getQueryCacheSize();
+
+        this.parsedQueries =
+            CacheBuilder.newBuilder().maximumSize( cacheSize ).build( new CacheLoader<String, ParsedQuery>() {
+                @Override
+                public ParsedQuery load( final String ql ) {
+                    return ParsedQueryBuilder.build( ql );
+                }
+            } );
+
+        this.visitors = CacheBuilder.newBuilder().maximumSize( cacheSize ).weakKeys()
+                                    .build( new CacheLoader<ParsedQuery, QueryVisitor>() {
+                                        @Override
+                                        public QueryVisitor load( final ParsedQuery parsedQuery ) {
+                                            return visit( parsedQuery );
+                                        }
+                                    } );
+    }
+
+
+    /**
+     * Get the parsed query for the ql, or null if the ql is empty
+     */
+    public ParsedQuery getParsedQuery( final String ql ) {
+
+        //the builder returns null for empty queries, which we can't cache
+        if ( StringUtils.isEmpty( ql ) ) {
+            return null;
+        }
+
+        try {
+            return parsedQueries.getUnchecked( ql );
+        }
+        catch ( UncheckedExecutionException uee ) {
+            //throw our parse exception to the caller
+            if ( uee.getCause() instanceof RuntimeException ) {
+                throw ( RuntimeException ) uee.getCause();
+            }
+
+            throw uee;
+        }
+    }
+
+
+    /**
+     * Get the visitor with the Elasticsearch queries built from the parsed query
+     */
+    public QueryVisitor getVisitor( final ParsedQuery parsedQuery ) {
+        try {
+            return visitors.getUnchecked( parsedQuery );
+        }
+        catch ( UncheckedExecutionException uee ) {
+            if ( uee.getCause() instanceof RuntimeException ) {
+                throw ( RuntimeException ) uee.getCause();
+            }
+
+            throw uee;
+        }
+    }
+
+
+    /**
+     * Perform our visit of the query once for efficiency
+     */
+    private static QueryVisitor visit( final ParsedQuery parsedQuery ) {
+        QueryVisitor v = new EsQueryVistor();
+
+        if ( parsedQuery.getRootOperand() != null ) {
+
+            try {
+                parsedQuery.getRootOperand().visit( v );
+            }
+            catch ( IndexException ex ) {
+                throw new RuntimeException( "Error building ElasticSearch query", ex );
+            }
+        }
+
+        return v;
+    }
+}
@@ -38,8 +38,8 @@ import org.slf4j.LoggerFactory;
 import org.apache.usergrid.persistence.core.scope.ApplicationScope;
 import org.apache.usergrid.persistence.index.EntityIndex;
 import org.apache.usergrid.persistence.index.SearchEdge;
+import org.apache.usergrid.persistence.index.SearchPosition;
 import org.apache.usergrid.persistence.index.SearchTypes;
-import org.apache.usergrid.persistence.index.exceptions.IndexException;
 import org.apache.usergrid.persistence.index.query.ParsedQuery;
 import org.apache.usergrid.persistence.index.query.SortPredicate;
 import org.apache.usergrid.persistence.index.query.tree.QueryVisitor;
@@ -63,15 +63,17 @@ public class SearchRequestBuilderStrategy {
     private final ApplicationScope applicationScope;
     private final IndexAlias alias;
     private final int cursorTimeout;
+    private final EsQueryCache queryCache;
 
 
     public SearchRequestBuilderStrategy( final EsProvider esProvider, final ApplicationScope applicationScope,
-                                         final IndexAlias alias, int cursorTimeout ) {
+                                         final IndexAlias alias, int cursorTimeout, final EsQueryCache queryCache ) {
 
         this.esProvider = esProvider;
         this.applicationScope = applicationScope;
         this.alias = alias;
         this.cursorTimeout = cursorTimeout;
+        this.queryCache = queryCache;
     }
 
 
@@ -80,6 +82,17 @@ public class SearchRequestBuilderStrategy {
      */
     public SearchRequestBuilder getBuilder( final SearchEdge searchEdge, final SearchTypes searchTypes,
                                             final ParsedQuery query, final int limit, final int from ) {
+        return getBuilder( searchEdge, searchTypes, query, limit, from, Optional.<SearchPosition>absent() );
+    }
+
+
+    /**
+     * Get the search request builder.  If the query uses the default sort and a position is present, the request
+     * starts after the position instead of skipping from hits.
+     */
+    public SearchRequestBuilder getBuilder( final SearchEdge searchEdge, final SearchTypes searchTypes,
+                                            final ParsedQuery query, final int limit, final int from,
+                                            final Optional<SearchPosition> startAfter ) {
 
         Preconditions
             .checkArgument( limit <= EntityIndex.MAX_LIMIT, "limit is greater than max " + EntityIndex.MAX_LIMIT );
@@ -89,7 +102,7 @@ public class SearchRequestBuilderStrategy {
                       .setSearchType( SearchType.QUERY_THEN_FETCH );
 
 
-        final QueryVisitor visitor = visitParsedQuery( query );
+        final QueryVisitor visitor = queryCache.getVisitor( query );
 
         final Optional<QueryBuilder> queryBuilder = visitor.getQueryBuilder();
 
@@ -97,16 +110,25 @@ public class SearchRequestBuilderStrategy {
             srb.setQuery( queryBuilder.get() );
         }
 
-        srb.setPostFilter( createFilterBuilder( searchEdge, visitor, searchTypes ) );
-
-
-        srb = srb.setFrom( from ).setSize( limit );
+        final BoolFilterBuilder filterBuilder = createFilterBuilder( searchEdge, visitor, searchTypes );
 
 
         //if we have a geo field, sort by closest to farthest by default
         final GeoSortFields geoFields = visitor.getGeoSorts();
 
 
+        //seek past the last hit read instead of making every shard collect and skip from hits
+        if ( startAfter.isPresent() && isPositionSupported( query, geoFields ) ) {
+            filterBuilder.must( createStartAfterFilter( startAfter.get() ) );
+            srb = srb.setFrom( 0 ).setSize( limit );
+        }
+        else {
+            srb = srb.setFrom( from ).setSize( limit );
+        }
+
+        srb.setPostFilter( filterBuilder );
+
+
         //no sort predicates, sort by edge time descending, entity id second
         if ( query.getSortPredicates().size() == 0 ) {
             applyDefaultSortPredicates( srb, geoFields );
@@ -139,10 +161,51 @@ public class SearchRequestBuilderStrategy {
         //sort by the entity id if our times are equal
         srb.addSort( SortBuilders.fieldSort( IndexingUtils.ENTITY_ID_FIELDNAME ).order( SortOrder.ASC ) );
 
+        //sort by the version last, so every document has a unique position
+        srb.addSort( SortBuilders.fieldSort( IndexingUtils.ENTITY_VERSION_FIELDNAME ).order( SortOrder.ASC ) );
+
         return;
     }
 
 
+    /**
+     * True if the results of the query can be resumed from a {@link SearchPosition}.  This is only the case for the
+     * default sort, since user sorts span several typed fields and geo sorts are computed per request.
+     */
+    public boolean isPositionSupported( final ParsedQuery query ) {
+        return isPositionSupported( query, queryCache.getVisitor( query ).getGeoSorts() );
+    }
+
+
+    private boolean isPositionSupported( final ParsedQuery query, final GeoSortFields geoFields ) {
+        return query.getSortPredicates().isEmpty() && geoFields.isEmpty();
+    }
+
+
+    /**
+     * Create the filter for every document that sorts after the position in the default sort.  That is an earlier edge
+     * timestamp, or the same timestamp with a greater entity id, or the same entity id with a greater version.
+     */
+    private FilterBuilder createStartAfterFilter( final SearchPosition position ) {
+
+        final FilterBuilder sameEntity = FilterBuilders.boolFilter()
+            .must( FilterBuilders.termFilter( IndexingUtils.ENTITY_ID_FIELDNAME, position.getEntityId() ) )
+            .must( FilterBuilders.rangeFilter( IndexingUtils.ENTITY_VERSION_FIELDNAME )
+                                 .gt( position.getEntityVersion() ) );
+
+        final FilterBuilder sameTimestamp = FilterBuilders.boolFilter()
+            .must( FilterBuilders.termFilter( IndexingUtils.EDGE_TIMESTAMP_FIELDNAME, position.getEdgeTimestamp() ) )
+            .must( FilterBuilders.boolFilter()
+                .should( FilterBuilders.rangeFilter( IndexingUtils.ENTITY_ID_FIELDNAME ).gt( position.getEntityId() ) )
+                .should( sameEntity ) );
+
+        return FilterBuilders.boolFilter()
+            .should( FilterBuilders.rangeFilter( IndexingUtils.EDGE_TIMESTAMP_FIELDNAME )
+                                   .lt( position.getEdgeTimestamp() ) )
+            .should( sameTimestamp );
+    }
+
+
     /**
      * Invoked when there are sort predicates
      */
@@ -195,8 +258,8 @@ public class SearchRequestBuilderStrategy {
      * Create our filter builder.  We need to restrict our results on edge search, as well as on types, and any filters
      * that came from the grammar.
      */
-    private FilterBuilder createFilterBuilder( final SearchEdge searchEdge, final QueryVisitor visitor,
-                                               final SearchTypes searchTypes ) {
+    private BoolFilterBuilder createFilterBuilder( final SearchEdge searchEdge, final QueryVisitor visitor,
+                                                   final SearchTypes searchTypes ) {
         String context = createContextName( applicationScope, searchEdge );
 
 
@@ -243,26 +306,6 @@ public class SearchRequestBuilderStrategy {
     }
 
 
-    /**
-     * Perform our visit of the query once for efficiency
-     */
-    private QueryVisitor visitParsedQuery( final ParsedQuery parsedQuery ) {
-        QueryVisitor v = new EsQueryVistor();
-
-        if ( parsedQuery.getRootOperand() != null ) {
-
-            try {
-                parsedQuery.getRootOperand().visit( v );
-            }
-            catch ( IndexException ex ) {
-                throw new RuntimeException( "Error building ElasticSearch query", ex );
-            }
-        }
-
-        return v;
-    }
-
-
     /**
      * Create a sort for the property name and field name specified
      *
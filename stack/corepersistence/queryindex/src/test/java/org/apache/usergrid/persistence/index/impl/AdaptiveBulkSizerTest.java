@@ -0,0 +1,120 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package org.apache.usergrid.persistence.index.impl;
+
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+public class AdaptiveBulkSizerTest {
+
+
+    @Test
+    public void rejectionHalvesAndRecovers() {
+
+        final AdaptiveBulkSizer sizer = new AdaptiveBulkSizer( 10, 1000, 8, 100 );
+
+        assertEquals( 1000, sizer.getBatchSize() );
+        assertEquals( 8, sizer.getConcurrency() );
+
+        sizer.onResponse( 10, true );
+
+        assertEquals( 500, sizer.getBatchSize() );
+        assertEquals( 4, sizer.getConcurrency() );
+
+        //never drops below the minimum
+        for ( int i = 0; i < 20; i++ ) {
+            sizer.onResponse( 10, true );
+        }
+
+        assertEquals( 10, sizer.getBatchSize() );
+        assertEquals( 1, sizer.getConcurrency() );
+
+        //fast responses grow the batch back to the max before adding concurrency
+        for ( int i = 0; i < 100 && sizer.getBatchSize() < 1000; i++ ) {
+            sizer.onResponse( 10, false );
+            assertEquals( 1, sizer.getConcurrency() );
+        }
+
+        assertEquals( 1000, sizer.getBatchSize() );
+
+        for ( int i = 0; i < 20; i++ ) {
+            sizer.onResponse( 10, false );
+        }
+
+        assertEquals( 1000, sizer.getBatchSize() );
+        assertEquals( 8, sizer.getConcurrency() );
+    }
+
+
+    @Test
+    public void slowResponseShrinks() {
+
+        final AdaptiveBulkSizer sizer = new AdaptiveBulkSizer( 10, 1000, 8, 100 );
+
+        sizer.onResponse( 500, false );
+
+        assertEquals( 750, sizer.getBatchSize() );
+        assertEquals( 7, sizer.getConcurrency() );
+    }
+
+
+    @Test
+    public void acquireWaitsForConcurrency() throws InterruptedException {
+
+        final AdaptiveBulkSizer sizer = new AdaptiveBulkSizer( 10, 1000, 2, 100 );
+
+        sizer.onResponse( 10, true );
+
+        assertEquals( 1, sizer.getConcurrency() );
+
+        sizer.acquire();
+
+        final CountDownLatch acquired = new CountDownLatch( 1 );
+
+        final Thread waiter = new Thread( () -> {
+            try {
+                sizer.acquire();
+                acquired.countDown();
+            }
+            catch ( InterruptedException e ) {
+                //test will fail
+            }
+        } );
+
+        waiter.start();
+
+        assertFalse( acquired.await( 200, TimeUnit.MILLISECONDS ) );
+
+        sizer.release();
+
+        assertTrue( acquired.await( 5, TimeUnit.SECONDS ) );
+        assertEquals( 1, sizer.getInFlight() );
+    }
+}
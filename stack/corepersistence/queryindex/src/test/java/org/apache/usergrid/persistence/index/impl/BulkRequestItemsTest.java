@@ -0,0 +1,138 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package org.apache.usergrid.persistence.index.impl;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.delete.DeleteRequestBuilder;
+import org.elasticsearch.action.delete.DeleteResponse;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.rest.RestStatus;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+public class BulkRequestItemsTest {
+
+    private Client client;
+
+
+    @Before
+    public void setup() {
+        client = mock( Client.class );
+
+        when( client.prepareDelete( anyString(), anyString(), anyString() ) ).thenAnswer(
+            new Answer<DeleteRequestBuilder>() {
+                @Override
+                public DeleteRequestBuilder answer( final InvocationOnMock invocation ) throws Throwable {
+                    final Object[] args = invocation.getArguments();
+                    return new DeleteRequestBuilder( client, ( String ) args[0] ).setType( ( String ) args[1] )
+                                                                                 .setId( ( String ) args[2] );
+                }
+            } );
+    }
+
+
+    @Test
+    public void itemsMappedToMultiIndexOperations() {
+
+        final DeIndexOperation first = new DeIndexOperation( new String[] { "index1", "index2", "index3" }, "doc1" );
+        final DeIndexOperation second = new DeIndexOperation( new String[] { "index1" }, "doc2" );
+
+        final BulkRequestBuilder bulkRequest = new BulkRequestBuilder( client );
+        final BulkRequestItems items = new BulkRequestItems();
+
+        items.add( client, bulkRequest, first );
+        items.add( client, bulkRequest, second );
+
+        assertEquals( 4, bulkRequest.numberOfActions() );
+        assertEquals( Arrays.<BatchOperation>asList( first, second ), items.getOperations() );
+
+        assertSame( first, items.getOperation( 0 ) );
+        assertSame( first, items.getOperation( 2 ) );
+        assertSame( second, items.getOperation( 3 ) );
+    }
+
+
+    @Test
+    public void partiallyRejectedBulk() {
+
+        final DeIndexOperation first = new DeIndexOperation( new String[] { "index1", "index2", "index3" }, "doc1" );
+        final DeIndexOperation second = new DeIndexOperation( new String[] { "index1", "index2" }, "doc2" );
+        final DeIndexOperation third = new DeIndexOperation( new String[] { "index1" }, "doc3" );
+
+        final BulkRequestBuilder bulkRequest = new BulkRequestBuilder( client );
+        final BulkRequestItems items = new BulkRequestItems();
+
+        items.add( client, bulkRequest, first );
+        items.add( client, bulkRequest, second );
+        items.add( client, bulkRequest, third );
+
+        //two deletes of the first operation are rejected, the last delete of the second fails for another reason
+        final List<BulkItemResponse> responses = Arrays.asList(
+            deleted( 0, "index1", "doc1" ),
+            failed( 1, "index2", "doc1", RestStatus.TOO_MANY_REQUESTS ),
+            failed( 2, "index3", "doc1", RestStatus.TOO_MANY_REQUESTS ),
+            deleted( 3, "index1", "doc2" ),
+            failed( 4, "index2", "doc2", RestStatus.INTERNAL_SERVER_ERROR ),
+            deleted( 5, "index1", "doc3" ) );
+
+        final List<BulkItemResponse> failures = new ArrayList<>();
+
+        final List<BatchOperation> rejected = items.getRejected( responses, failures::add );
+
+        //the rejected operation is retried once, not once per item
+        assertEquals( 1, rejected.size() );
+        assertSame( first, rejected.get( 0 ) );
+
+        assertEquals( 1, failures.size() );
+        assertEquals( 4, failures.get( 0 ).getItemId() );
+        assertTrue( failures.get( 0 ).isFailed() );
+    }
+
+
+    private BulkItemResponse deleted( final int itemId, final String index, final String id ) {
+        return new BulkItemResponse( itemId, "delete",
+            new DeleteResponse( index, IndexingUtils.ES_ENTITY_TYPE, id, 1, true ) );
+    }
+
+
+    private BulkItemResponse failed( final int itemId, final String index, final String id,
+                                     final RestStatus status ) {
+        return new BulkItemResponse( itemId, "delete",
+            new BulkItemResponse.Failure( index, IndexingUtils.ES_ENTITY_TYPE, id, status.name(), status ) );
+    }
+}
@@ -697,6 +697,73 @@ public class EntityIndexTest extends BaseIT {
     }
 
 
+    @Test
+    public void testStreamSearch() throws Exception {
+
+        String myType = UUID.randomUUID().toString();
+        Id ownerId = new SimpleId( UUID.randomUUID(),"owner" );
+
+
+        IndexEdge indexEdge = new IndexEdgeImpl( ownerId, "users", SearchEdge.NodeType.SOURCE, 10 );
+
+
+        final EntityIndexBatch batch = entityIndex.createBatch();
+
+
+        //more than a scroll page
+        final int size = 250;
+
+        final List<Id> entityIds = new ArrayList<>( size );
+
+
+        for ( int i = 0; i < size; i++ ) {
+
+            final int ordinal = i;
+
+            Map entityMap = new HashMap() {{
+                put( "username", "edanuff" );
+                put( "ordinal", ordinal );
+                put( "mytype", myType);
+            }};
+
+            final Id userId = new SimpleId( "user" );
+
+            Entity user = EntityIndexMapUtils.fromMap( entityMap );
+            EntityUtils.setId( user, userId );
+            EntityUtils.setVersion( user, UUIDGenerator.newTimeUUID() );
+
+            entityIds.add(userId );
+
+
+            batch.index( indexEdge, user );
+        }
+
+
+        indexProducer.put(batch.build()).subscribe();
+
+        entityIndex.refreshAsync().toBlocking().first();
+
+
+        final String query = "select * where mytype='"+myType+"' order by ordinal asc";
+
+        final List<CandidateResult> results =
+            entityIndex.streamSearch( indexEdge, SearchTypes.allTypes(), query ).toList().toBlocking().last();
+
+        assertEquals( size, results.size() );
+
+        for ( int i = 0; i < size; i++ ) {
+            assertEquals( "Failed on result " + i, entityIds.get( i ), results.get( i ).getId() );
+        }
+
+        //only reading some of the stream should stop the scroll
+        final List<CandidateResult> firstResults =
+            entityIndex.streamSearch( indexEdge, SearchTypes.allTypes(), query ).take( 10 ).toList().toBlocking()
+                       .last();
+
+        assertEquals( 10, firstResults.size() );
+    }
+
+
     @Test
     public void queryByUUID() throws Throwable {
 
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.persistence.index.impl;
+
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.usergrid.persistence.index.IndexFig;
+import org.apache.usergrid.persistence.index.exceptions.QueryParseException;
+import org.apache.usergrid.persistence.index.query.ParsedQuery;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+public class EsQueryCacheTest {
+
+    private EsQueryCache queryCache;
+
+
+    @Before
+    public void setup() {
+        final IndexFig indexFig = mock( IndexFig.class );
+
+        when( indexFig.getQueryCacheSize() ).thenReturn( 100 );
+
+        queryCache = new EsQueryCache( indexFig );
+    }
+
+
+    @Test
+    public void sameQueryParsedOnce() {
+
+        final ParsedQuery first = queryCache.getParsedQuery( "select * where name = 'bob' order by name asc" );
+        final ParsedQuery second = queryCache.getParsedQuery( "select * where name = 'bob' order by name asc" );
+
+        assertSame( first, second );
+        assertEquals( 1, first.getSortPredicates().size() );
+
+        final ParsedQuery other = queryCache.getParsedQuery( "select * where name = 'fred'" );
+
+        assertNotSame( first, other );
+    }
+
+
+    @Test
+    public void emptyQuery() {
+        assertNull( queryCache.getParsedQuery( "" ) );
+        assertNull( queryCache.getParsedQuery( null ) );
+    }
+
+
+    @Test
+    public void badQueryThrowsParseException() {
+
+        for ( int i = 0; i < 2; i++ ) {
+            try {
+                queryCache.getParsedQuery( "select * where name = 'bob' order by" );
+                fail( "should throw an exception" );
+            }
+            catch ( QueryParseException qpe ) {
+                //expected, and not cached
+            }
+        }
+    }
+}
@@ -44,14 +44,12 @@ public class LocalQueueManager implements QueueManager {
     public    List<QueueMessage> getMessages(int limit, Class klass) {
         List<QueueMessage> returnQueue = new ArrayList<>();
         try {
-            QueueMessage message=null;
-            int count = 5;
-            do {
-                message = queue.poll(100, TimeUnit.MILLISECONDS);
-                if (message != null) {
-                    returnQueue.add(message);
-                }
-            }while(message!=null && count-->0);
+            //wait a short time for the first message, then take whatever else is ready up to our limit
+            QueueMessage message = queue.poll(100, TimeUnit.MILLISECONDS);
+            if (message != null) {
+                returnQueue.add(message);
+                queue.drainTo(returnQueue, limit - 1);
+            }
         }catch (InterruptedException ie){
             throw new RuntimeException(ie);
         }
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.persistence.queue;
+
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class LocalQueueManagerTest {
+
+
+    @Test
+    public void takeHonorsLimit() throws Exception {
+
+        final LocalQueueManager qm = new LocalQueueManager();
+
+        final List<String> bodies = new ArrayList<>();
+
+        for ( int i = 0; i < 250; i++ ) {
+            bodies.add( "body" + i );
+        }
+
+        qm.sendMessages( bodies );
+
+        final List<QueueMessage> first = qm.getMessages( 200, String.class );
+
+        assertEquals( 200, first.size() );
+        assertEquals( "body0", first.get( 0 ).getBody() );
+        assertEquals( "body199", first.get( 199 ).getBody() );
+
+        final List<QueueMessage> second = qm.getMessages( 200, String.class );
+
+        assertEquals( 50, second.size() );
+        assertEquals( "body200", second.get( 0 ).getBody() );
+
+        assertTrue( qm.getMessages( 200, String.class ).isEmpty() );
+        assertEquals( 0, qm.getQueueDepth() );
+    }
+}
@@ -18,6 +18,7 @@ package org.apache.usergrid.rest;
 
 import org.apache.usergrid.batch.service.JobSchedulerService;
 import org.apache.usergrid.persistence.EntityManager;
+import org.apache.usergrid.services.activities.ActivityFeedFanout;
 import org.apache.usergrid.services.notifications.QueueListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,6 +49,9 @@ public class JobServiceBoostrap implements
     @Autowired
     private QueueListener notificationsQueueListener;
 
+    @Autowired
+    private ActivityFeedFanout activityFeedFanout;
+
     public JobServiceBoostrap() {
     }
 
@@ -77,6 +81,13 @@ public class JobServiceBoostrap implements
             logger.info("QueueListener: never started due to config value usergrid.notifications.listener.run.");
         }
 
+        boolean fanoutShouldRun = new Boolean(properties.getProperty("usergrid.activities.fanout.listener.run","true"));
+        if(fanoutShouldRun){
+            activityFeedFanout.start();
+        }else{
+            logger.info("ActivityFeedFanout: never started due to config value usergrid.activities.fanout.listener.run.");
+        }
+
     }
 
 }
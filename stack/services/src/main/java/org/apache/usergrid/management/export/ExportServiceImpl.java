@@ -23,6 +23,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,7 +36,6 @@ import org.apache.usergrid.persistence.ConnectionRef;
 import org.apache.usergrid.persistence.Entity;
 import org.apache.usergrid.persistence.EntityManager;
 import org.apache.usergrid.persistence.EntityManagerFactory;
-import org.apache.usergrid.persistence.PagingResultsIterator;
 import org.apache.usergrid.persistence.Results;
 import org.apache.usergrid.persistence.SimpleEntityRef;
 import org.apache.usergrid.persistence.entities.Export;
@@ -602,21 +602,26 @@ public class ExportServiceImpl implements ExportService {
                 query.setResultsLevel( Level.ALL_PROPERTIES );
                 query.setCollection( collectionName );
 
-                Results entities = em.searchCollection( em.getApplicationRef(), collectionName, query );
+                final AtomicLong heartbeatTime = new AtomicLong( starting_time );
 
-                //pages through the query and backs up all results.
-                PagingResultsIterator itr = new PagingResultsIterator( entities );
-                for ( Object e : itr ) {
-                    starting_time = checkTimeDelta( starting_time, jobExecution );
-                    Entity entity = ( Entity ) e;
-                    jg.writeStartObject();
-                    jg.writeFieldName( "Metadata" );
-                    jg.writeObject( entity );
-                    saveCollectionMembers( jg, em, ( String ) config.get( "collectionName" ), entity );
-                    jg.writeEndObject();
-                    jg.flush();
+                //streams every result of the query and backs them up, without holding more than a load in memory
+                em.streamCollection( em.getApplicationRef(), collectionName, query ).toBlocking().forEach( entity -> {
+                    heartbeatTime.set( checkTimeDelta( heartbeatTime.get(), jobExecution ) );
 
-                }
+                    try {
+                        jg.writeStartObject();
+                        jg.writeFieldName( "Metadata" );
+                        jg.writeObject( entity );
+                        saveCollectionMembers( jg, em, ( String ) config.get( "collectionName" ), entity );
+                        jg.writeEndObject();
+                        jg.flush();
+                    }
+                    catch ( Exception e ) {
+                        throw new RuntimeException( "Unable to export entity " + entity.getUuid(), e );
+                    }
+                } );
+
+                starting_time = heartbeatTime.get();
 
 
 
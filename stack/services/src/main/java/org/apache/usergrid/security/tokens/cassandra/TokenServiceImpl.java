@@ -17,6 +17,8 @@
 package org.apache.usergrid.security.tokens.cassandra;
 
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.inject.Injector;
 import me.prettyprint.hector.api.Keyspace;
 import me.prettyprint.hector.api.beans.HColumn;
@@ -49,9 +51,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.util.Assert;
 
+import javax.annotation.PreDestroy;
 import javax.ws.rs.client.Client;
 import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import static java.lang.System.currentTimeMillis;
 import static me.prettyprint.hector.api.factory.HFactory.createColumn;
@@ -79,6 +87,10 @@ public class TokenServiceImpl implements TokenService {
     public static final String PROPERTIES_AUTH_TOKEN_EXPIRES_FROM_LAST_USE =
             "usergrid.auth.token_expires_from_last_use";
     public static final String PROPERTIES_AUTH_TOKEN_REFRESH_REUSES_ID = "usergrid.auth.token_refresh_reuses_id";
+    public static final String PROPERTIES_AUTH_TOKEN_ACCESS_FLUSH_INTERVAL =
+            "usergrid.auth.token.access.flush_interval";
+    public static final String PROPERTIES_AUTH_TOKEN_INFO_CACHE_TTL = "usergrid.auth.token.info.cache.ttl";
+    public static final String PROPERTIES_AUTH_TOKEN_INFO_CACHE_SIZE = "usergrid.auth.token.info.cache.size";
 
     private static final String TOKEN_UUID = "uuid";
     private static final String TOKEN_TYPE = "type";
@@ -145,6 +157,17 @@ public class TokenServiceImpl implements TokenService {
             hashMap( ACCESS, LONG_TOKEN_AGE ).map( REFRESH, LONG_TOKEN_AGE ).map( EMAIL, LONG_TOKEN_AGE )
                     .map( OFFLINE, LONG_TOKEN_AGE );
 
+    // access times are written at most this often, in milliseconds
+    public static final long DEFAULT_ACCESS_FLUSH_INTERVAL = 5000;
+
+    // token info is cached locally this long, in milliseconds
+    public static final long DEFAULT_TOKEN_INFO_CACHE_TTL = 5000;
+
+    public static final int DEFAULT_TOKEN_INFO_CACHE_SIZE = 10000;
+
+    // the max number of tokens written in a single mutation when flushing access times
+    private static final int ACCESS_FLUSH_BATCH_SIZE = 500;
+
     long maxAccessTokenAge = SHORT_TOKEN_AGE;
     long maxRefreshTokenAge = LONG_TOKEN_AGE;
     long maxEmailTokenAge = LONG_TOKEN_AGE;
@@ -158,6 +181,19 @@ public class TokenServiceImpl implements TokenService {
 
     protected MetricsFactory metricsFactory;
 
+    /**
+     * Token info read on this node, so repeat validations of a token don't read cassandra.  Revoking a token on another
+     * node is seen here once the entry expires
+     */
+    private Cache<UUID, TokenInfo> tokenInfoCache;
+
+    /**
+     * Access times waiting to be written, coalesced per token
+     */
+    private final ConcurrentMap<UUID, PendingAccess> pendingAccess = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService accessFlushScheduler;
+
 
     public TokenServiceImpl() {
     }
@@ -204,6 +240,60 @@ public class TokenServiceImpl implements TokenService {
 
             tokenSecretSalt = properties.getProperty( PROPERTIES_AUTH_TOKEN_SECRET_SALT, TOKEN_SECRET_SALT );
         }
+
+        initAccessTracking();
+    }
+
+
+    /** Create the token info cache and start writing access times in the background if they are enabled */
+    private synchronized void initAccessTracking() {
+
+        long cacheTtl = getLongProperty( PROPERTIES_AUTH_TOKEN_INFO_CACHE_TTL, DEFAULT_TOKEN_INFO_CACHE_TTL );
+        long cacheSize = getLongProperty( PROPERTIES_AUTH_TOKEN_INFO_CACHE_SIZE, DEFAULT_TOKEN_INFO_CACHE_SIZE );
+
+        if ( cacheTtl > 0 && cacheSize > 0 ) {
+            tokenInfoCache = CacheBuilder.newBuilder().maximumSize( cacheSize )
+                                         .expireAfterWrite( cacheTtl, TimeUnit.MILLISECONDS ).build();
+        }
+        else {
+            tokenInfoCache = null;
+        }
+
+        long flushInterval = getLongProperty( PROPERTIES_AUTH_TOKEN_ACCESS_FLUSH_INTERVAL,
+                DEFAULT_ACCESS_FLUSH_INTERVAL );
+
+        if ( flushInterval > 0 && accessFlushScheduler == null ) {
+            accessFlushScheduler = Executors.newSingleThreadScheduledExecutor( runnable -> {
+                Thread thread = new Thread( runnable, "token-access-flush" );
+                thread.setDaemon( true );
+                return thread;
+            } );
+
+            accessFlushScheduler.scheduleWithFixedDelay( this::flushAccessTimes, flushInterval, flushInterval,
+                    TimeUnit.MILLISECONDS );
+
+            logger.info( "Token access times are written every {} ms", flushInterval );
+        }
+    }
+
+
+    private long getLongProperty( String name, long defaultValue ) {
+        if ( properties == null ) {
+            return defaultValue;
+        }
+        return Long.parseLong( properties.getProperty( name, "" + defaultValue ) );
+    }
+
+
+    /** Write any buffered access times before shutting down */
+    @PreDestroy
+    public synchronized void shutdown() {
+        if ( accessFlushScheduler != null ) {
+            accessFlushScheduler.shutdown();
+            accessFlushScheduler = null;
+        }
+
+        flushAccessTimes();
     }
 
 
@@ -355,7 +445,7 @@ public class TokenServiceImpl implements TokenService {
          * Usergrid being a provider, validate the external token.
          */
         try {
-            tokenInfo = getTokenInfo( uuid );
+            tokenInfo = getCachedTokenInfo( uuid, TokenCategory.getFromBase64String( token ) );
         } catch (InvalidTokenException e){
             // Try the request from Usergrid, conditions are specific so we don't incur perf hits for unncessary
             // token validations that are known to not
@@ -366,34 +456,174 @@ public class TokenServiceImpl implements TokenService {
             }
         }
 
-        if (updateAccessTime) {
-            //update the token
-            long now = currentTimeMillis();
+        if (!updateAccessTime) {
+            return copyTokenInfo( tokenInfo );
+        }
 
-            long maxTokenTtl = getMaxTtl(TokenCategory.getFromBase64String(token), tokenInfo.getPrincipal());
+        //update the token
+        long maxTokenTtl = getMaxTtl(TokenCategory.getFromBase64String(token), tokenInfo.getPrincipal());
 
-            Mutator<UUID> batch = createMutator(cassandra.getUsergridApplicationKeyspace(), ue);
+        final TokenInfo accessedInfo;
+        final PendingAccess access;
 
-            HColumn<String, Long> col =
-                    createColumn(TOKEN_ACCESSED, now, calcTokenTime(tokenInfo.getExpiration(maxTokenTtl)),
-                            se, le);
-            batch.addInsertion(uuid, TOKENS_CF, col);
+        // the cached info is shared, so the previous access time is read and replaced atomically
+        synchronized ( tokenInfo ) {
+            long now = currentTimeMillis();
 
             long inactive = now - tokenInfo.getAccessed();
-            if (inactive > tokenInfo.getInactive()) {
-                col = createColumn(TOKEN_INACTIVE, inactive, calcTokenTime(tokenInfo.getExpiration(maxTokenTtl)),
-                        se, le);
-                batch.addInsertion(uuid, TOKENS_CF, col);
-                tokenInfo.setInactive(inactive);
+            boolean inactiveChanged = inactive > tokenInfo.getInactive();
+
+            if ( inactiveChanged ) {
+                tokenInfo.setInactive( inactive );
             }
 
+            // callers see the previous access time
+            accessedInfo = copyTokenInfo( tokenInfo );
+
+            tokenInfo.setAccessed( now );
+
+            access = new PendingAccess( now, inactiveChanged ? inactive : -1,
+                    calcTokenTime( tokenInfo.getExpiration( maxTokenTtl ) ) );
+        }
+
+        if ( accessFlushScheduler == null ) {
+            Mutator<UUID> batch = createMutator( cassandra.getUsergridApplicationKeyspace(), ue );
+            access.addInsertions( uuid, batch );
             batch.execute();
         }
+        else {
+            pendingAccess.merge( uuid, access, PendingAccess::merge );
+        }
+
+        return accessedInfo;
+    }
+
+
+    /**
+     * Get the token info from the local cache, reading it from cassandra if it isn't cached or has expired.  The
+     * returned instance may be shared
+     */
+    private TokenInfo getCachedTokenInfo( UUID uuid, TokenCategory tokenCategory ) throws Exception {
+
+        final Cache<UUID, TokenInfo> cache = tokenInfoCache;
+
+        if ( cache != null && uuid != null ) {
+            TokenInfo cached = cache.getIfPresent( uuid );
+
+            // never serve a token from the cache once its columns would have expired in cassandra
+            if ( cached != null && !isExpired( cached, tokenCategory ) ) {
+                return cached;
+            }
+        }
+
+        TokenInfo tokenInfo = getTokenInfo( uuid );
+
+        // writes we haven't flushed yet are newer than what was read
+        PendingAccess access = pendingAccess.get( uuid );
+
+        if ( access != null ) {
+            tokenInfo.setAccessed( Math.max( tokenInfo.getAccessed(), access.accessed ) );
+            tokenInfo.setInactive( Math.max( tokenInfo.getInactive(), access.inactive ) );
+        }
+
+        if ( cache != null ) {
+            cache.put( uuid, tokenInfo );
+        }
 
         return tokenInfo;
     }
 
 
+    /**
+     * Whether the token has expired, either past the expiry signed into the token string, or inactive for longer than
+     * the ttl the access columns are written with on each use
+     */
+    private boolean isExpired( TokenInfo tokenInfo, TokenCategory tokenCategory ) throws Exception {
+
+        long now = currentTimeMillis();
+
+        // checked the same as the token string, the delta keeps an overflowed infinite expiry from expiring
+        long expires = getExpires( tokenCategory, tokenInfo.getUuid(), tokenInfo.getDuration() );
+        long expirationDelta = now - expires;
+
+        if ( expires != Long.MAX_VALUE && expirationDelta > 0 ) {
+            return true;
+        }
+
+        long expiration = tokenInfo.getDuration() > 0 ? tokenInfo.getDuration() :
+                          getMaxTtl( tokenCategory, tokenInfo.getPrincipal() );
+
+        return now - tokenInfo.getAccessed() >= expiration;
+    }
+
+
+    /** The time the token expires, or Long.MAX_VALUE if tokens of the category don't expire */
+    private long getExpires( TokenCategory tokenCategory, UUID uuid, long duration ) {
+
+        if ( !tokenCategory.getExpires() ) {
+            return Long.MAX_VALUE;
+        }
+
+        return UUIDUtils.getTimestampInMillis( uuid ) + ( ( duration > 0 ) ? duration :
+                                                          getExpirationForTokenType( tokenCategory ) );
+    }
+
+
+    private TokenInfo copyTokenInfo( TokenInfo tokenInfo ) {
+        return new TokenInfo( tokenInfo.getUuid(), tokenInfo.getType(), tokenInfo.getCreated(),
+                tokenInfo.getAccessed(), tokenInfo.getInactive(), tokenInfo.getDuration(), tokenInfo.getPrincipal(),
+                tokenInfo.getState(), tokenInfo.getWorkflowOrgId() );
+    }
+
+
+    /** Forget the cached info and any unwritten access times, so they can't recreate columns of a removed token */
+    private void evictToken( UUID uuid ) {
+        pendingAccess.remove( uuid );
+
+        if ( tokenInfoCache != null ) {
+            tokenInfoCache.invalidate( uuid );
+        }
+    }
+
+
+    /** Write all buffered access times, in batches of at most ACCESS_FLUSH_BATCH_SIZE tokens */
+    void flushAccessTimes() {
+
+        if ( pendingAccess.isEmpty() ) {
+            return;
+        }
+
+        try {
+            Mutator<UUID> batch = createMutator( cassandra.getUsergridApplicationKeyspace(), ue );
+            int size = 0;
+
+            for ( UUID uuid : pendingAccess.keySet() ) {
+                PendingAccess access = pendingAccess.remove( uuid );
+
+                if ( access == null ) {
+                    continue;
+                }
+
+                access.addInsertions( uuid, batch );
+
+                if ( ++size == ACCESS_FLUSH_BATCH_SIZE ) {
+                    batch.execute();
+                    batch = createMutator( cassandra.getUsergridApplicationKeyspace(), ue );
+                    size = 0;
+                }
+            }
+
+            if ( size > 0 ) {
+                batch.execute();
+            }
+        }
+        catch ( Exception e ) {
+            // access times are best effort, the next access writes them again
+            logger.error( "Unable to write token access times", e );
+        }
+    }
+
+
     /** Get the max ttl per app. This is null safe,and will return the default in the case of missing data */
     private long getMaxTtl( TokenCategory tokenCategory, AuthPrincipalInfo principal ) throws Exception {
 
@@ -447,6 +677,10 @@ public class TokenServiceImpl implements TokenService {
         batch.addDeletion( principalKey( principal ), PRINCIPAL_TOKEN_CF );
 
         batch.execute();
+
+        for ( UUID tokenId : tokenIds ) {
+            evictToken( tokenId );
+        }
     }
 
 
@@ -484,6 +718,8 @@ public class TokenServiceImpl implements TokenService {
         batch.addDeletion( bytebuffer( tokenId ), TOKENS_CF );
 
         batch.execute();
+
+        evictToken( tokenId );
     }
 
 
@@ -711,11 +947,8 @@ public class TokenServiceImpl implements TokenService {
         }
         ByteBuffer bytes = ByteBuffer.allocate( l );
         bytes.put( bytes( uuid ) );
-        long expires = Long.MAX_VALUE;
+        long expires = getExpires( tokenCategory, uuid, tokenInfo.getDuration() );
         if ( tokenCategory.getExpires() ) {
-            expires = ( tokenInfo.getDuration() > 0 ) ?
-                      UUIDUtils.getTimestampInMillis( uuid ) + ( tokenInfo.getDuration() ) :
-                      UUIDUtils.getTimestampInMillis( uuid ) + getExpirationForTokenType( tokenCategory );
             bytes.putLong( expires );
         }
         bytes.put( sha( tokenCategory.getPrefix() + uuid + tokenSecretSalt + expires ) );
@@ -759,6 +992,41 @@ public class TokenServiceImpl implements TokenService {
     private static final int MAX_TTL = 20 * 365 * 24 * 60 * 60;
 
 
+    /** The latest access of a token that hasn't been written yet */
+    private static final class PendingAccess {
+
+        private final long accessed;
+
+        // the new inactive period, or -1 if it didn't grow
+        private final long inactive;
+
+        private final int ttl;
+
+
+        private PendingAccess( long accessed, long inactive, int ttl ) {
+            this.accessed = accessed;
+            this.inactive = inactive;
+            this.ttl = ttl;
+        }
+
+
+        /** Keep the latest access time and the longest inactive period of both */
+        private static PendingAccess merge( PendingAccess first, PendingAccess second ) {
+            PendingAccess latest = first.accessed >= second.accessed ? first : second;
+            return new PendingAccess( latest.accessed, Math.max( first.inactive, second.inactive ), latest.ttl );
+        }
+
+
+        private void addInsertions( UUID uuid, Mutator<UUID> batch ) {
+            batch.addInsertion( uuid, TOKENS_CF, createColumn( TOKEN_ACCESSED, accessed, ttl, se, le ) );
+
+            if ( inactive >= 0 ) {
+                batch.addInsertion( uuid, TOKENS_CF, createColumn( TOKEN_INACTIVE, inactive, ttl, se, le ) );
+            }
+        }
+    }
+
+
     //-------------------------------------------------------------------------------------------------------
     //
     // Central SSO implementation
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.usergrid.services.activities;
+
+
+import java.io.Serializable;
+import java.util.UUID;
+
+
+/**
+ * Queued fan out of an activity to the feeds of its source's audience.  The audience is read in pages, and the message
+ * records the cursor after the last page written so a re-queued message continues from it.
+ */
+public class ActivityFanoutMessage implements Serializable {
+
+    private UUID applicationId;
+    private String sourceType;
+    private UUID sourceId;
+    private String audience;
+    private UUID activityId;
+    private String cursor;
+
+
+    public ActivityFanoutMessage() {
+    }
+
+
+    public ActivityFanoutMessage( UUID applicationId, String sourceType, UUID sourceId, String audience,
+                                  UUID activityId, String cursor ) {
+        this.applicationId = applicationId;
+        this.sourceType = sourceType;
+        this.sourceId = sourceId;
+        this.audience = audience;
+        this.activityId = activityId;
+        this.cursor = cursor;
+    }
+
+
+    public UUID getApplicationId() {
+        return applicationId;
+    }
+
+
+    public void setApplicationId( UUID applicationId ) {
+        this.applicationId = applicationId;
+    }
+
+
+    public String getSourceType() {
+        return sourceType;
+    }
+
+
+    public void setSourceType( String sourceType ) {
+        this.sourceType = sourceType;
+    }
+
+
+    public UUID getSourceId() {
+        return sourceId;
+    }
+
+
+    public void setSourceId( UUID sourceId ) {
+        this.sourceId = sourceId;
+    }
+
+
+    /**
+     * The name of the {@link ActivityFeedFanout.Audience} of the source
+     */
+    public String getAudience() {
+        return audience;
+    }
+
+
+    public void setAudience( String audience ) {
+        this.audience = audience;
+    }
+
+
+    public UUID getActivityId() {
+        return activityId;
+    }
+
+
+    public void setActivityId( UUID activityId ) {
+        this.activityId = activityId;
+    }
+
+
+    /**
+     * Where to continue reading the audience, or null to start from the beginning
+     */
+    public String getCursor() {
+        return cursor;
+    }
+
+
+    public void setCursor( String cursor ) {
+        this.cursor = cursor;
+    }
+
+
+    @Override
+    public String toString() {
+        return "ActivityFanoutMessage{" +
+            "applicationId=" + applicationId +
+            ", source=" + sourceType + ":" + sourceId +
+            ", audience=" + audience +
+            ", activityId=" + activityId +
+            ", cursor=" + cursor +
+            '}';
+    }
+}
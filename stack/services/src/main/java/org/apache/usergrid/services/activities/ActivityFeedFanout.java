@@ -0,0 +1,479 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.usergrid.services.activities;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.usergrid.persistence.Entity;
+import org.apache.usergrid.persistence.EntityManager;
+import org.apache.usergrid.persistence.EntityManagerFactory;
+import org.apache.usergrid.persistence.EntityRef;
+import org.apache.usergrid.persistence.Query;
+import org.apache.usergrid.persistence.Query.Level;
+import org.apache.usergrid.persistence.Results;
+import org.apache.usergrid.persistence.SimpleEntityRef;
+import org.apache.usergrid.persistence.core.metrics.MetricsFactory;
+import org.apache.usergrid.persistence.entities.Activity;
+import org.apache.usergrid.persistence.entities.User;
+import org.apache.usergrid.persistence.graph.Edge;
+import org.apache.usergrid.persistence.graph.GraphManager;
+import org.apache.usergrid.persistence.graph.GraphManagerFactory;
+import org.apache.usergrid.persistence.graph.MarkedEdge;
+import org.apache.usergrid.persistence.graph.SearchByEdgeType;
+import org.apache.usergrid.persistence.graph.impl.SimpleEdge;
+import org.apache.usergrid.persistence.graph.impl.SimpleSearchByIdType;
+import org.apache.usergrid.persistence.model.entity.Id;
+import org.apache.usergrid.persistence.model.entity.SimpleId;
+import org.apache.usergrid.persistence.queue.QueueManager;
+import org.apache.usergrid.persistence.queue.QueueManagerFactory;
+import org.apache.usergrid.persistence.queue.QueueMessage;
+import org.apache.usergrid.persistence.queue.QueueScope;
+import org.apache.usergrid.persistence.queue.impl.QueueScopeImpl;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import com.google.common.base.Optional;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.inject.Injector;
+
+import static org.apache.usergrid.corepersistence.util.CpNamingUtils.getApplicationScope;
+import static org.apache.usergrid.corepersistence.util.CpNamingUtils.getEdgeTypeFromConnectionType;
+
+
+/**
+ * Fans activities out to the feeds of their source's audience.  Small audiences are written on the posting thread.
+ * Audiences larger than the sync max are queued, and the listener writes them in batches, throttled per application.
+ * A queued fan out reads and writes one page of at most the message max of feeds, then queues a message with the
+ * cursor after it, so a large audience doesn't hold a worker and a failed message repeats only its own page.
+ */
+public class ActivityFeedFanout {
+
+    private static final Logger logger = LoggerFactory.getLogger( ActivityFeedFanout.class );
+
+    public static final String QUEUE_NAME = "activityfanout";
+
+    public static final String FEED = "feed";
+
+    public static final String ASYNC_ENABLED = "usergrid.activities.fanout.async.enabled";
+    public static final String SYNC_MAX = "usergrid.activities.fanout.sync.max";
+    public static final String BATCH_SIZE = "usergrid.activities.fanout.batch.size";
+    public static final String MESSAGE_MAX = "usergrid.activities.fanout.message.max";
+    public static final String EDGES_PER_SECOND = "usergrid.activities.fanout.app.edges_per_second";
+    public static final String WORKER_COUNT = "usergrid.activities.fanout.worker_count";
+    public static final String SLEEP = "usergrid.activities.fanout.sleep";
+
+    public static final int MAX_TAKE = 10;
+
+    private static final String FOLLOWING = "following";
+
+
+    /**
+     * Who receives an activity in their feed
+     */
+    public enum Audience {
+        /**
+         * Users following the source user
+         */
+        FOLLOWERS,
+
+        /**
+         * Users in the source group
+         */
+        GROUP_MEMBERS
+    }
+
+
+    private final EntityManagerFactory emf;
+    private final QueueManagerFactory queueManagerFactory;
+    private final GraphManagerFactory graphManagerFactory;
+
+    private final boolean asyncEnabled;
+    private final int syncMax;
+    private final int batchSize;
+    private final int messageMax;
+    private final int workerCount;
+    private final long sleep;
+
+    private final LoadingCache<UUID, RateLimiter> applicationLimits;
+
+    private final Meter edgeMeter;
+    private final Meter queuedMeter;
+    private final Timer messageTimer;
+
+    private ExecutorService pool;
+    private List<Future> futures;
+
+
+    public ActivityFeedFanout( EntityManagerFactory emf, Injector injector, Properties props ) {
+        this.emf = emf;
+        this.queueManagerFactory = injector.getInstance( QueueManagerFactory.class );
+        this.graphManagerFactory = injector.getInstance( GraphManagerFactory.class );
+
+        this.asyncEnabled = Boolean.parseBoolean( props.getProperty( ASYNC_ENABLED, "true" ) );
+        this.syncMax = Integer.parseInt( props.getProperty( SYNC_MAX, "1000" ) );
+        this.batchSize = Integer.parseInt( props.getProperty( BATCH_SIZE, "1000" ) );
+        this.messageMax = Integer.parseInt( props.getProperty( MESSAGE_MAX, "10000" ) );
+        this.workerCount = Integer.parseInt( props.getProperty( WORKER_COUNT, "2" ) );
+        this.sleep = Long.parseLong( props.getProperty( SLEEP, "100" ) );
+
+        final double edgesPerSecond = Double.parseDouble( props.getProperty( EDGES_PER_SECOND, "1000" ) );
+
+        this.applicationLimits = CacheBuilder.newBuilder().maximumSize( 1000 )
+                                             .build( new CacheLoader<UUID, RateLimiter>() {
+                                                 @Override
+                                                 public RateLimiter load( final UUID applicationId ) {
+                                                     return RateLimiter.create( edgesPerSecond );
+                                                 }
+                                             } );
+
+        final MetricsFactory metricsFactory = injector.getInstance( MetricsFactory.class );
+
+        this.edgeMeter = metricsFactory.getMeter( ActivityFeedFanout.class, "activities.fanout.edges" );
+        this.queuedMeter = metricsFactory.getMeter( ActivityFeedFanout.class, "activities.fanout.queued" );
+        this.messageTimer = metricsFactory.getTimer( ActivityFeedFanout.class, "activities.fanout.message" );
+    }
+
+
+    /**
+     * Add the activity to the feeds of the source's audience.  Only reads up to the sync max of the audience, and
+     * queues the fan out when there are more
+     */
+    public void distribute( EntityManager em, EntityRef source, Audience audience, Entity activity )
+            throws Exception {
+
+        if ( !asyncEnabled ) {
+            String cursor = null;
+
+            do {
+                final AudiencePage page = readAudience( em, source, audience, cursor, messageMax );
+                write( em, page.getMembers(), activity, null );
+                cursor = page.getCursor();
+            }
+            while ( cursor != null );
+
+            return;
+        }
+
+        final AudiencePage probe = readAudience( em, source, audience, null, syncMax + 1 );
+
+        if ( probe.getMembers().size() <= syncMax ) {
+            write( em, probe.getMembers(), activity, null );
+            return;
+        }
+
+        if ( logger.isDebugEnabled() ) {
+            logger.debug( "Queueing fan out of activity {} to more than {} {} of {}", activity.getUuid(), syncMax,
+                audience, source.getUuid() );
+        }
+
+        queue( new ActivityFanoutMessage( em.getApplicationId(), source.getType(), source.getUuid(), audience.name(),
+            activity.getUuid(), null ) );
+    }
+
+
+    /**
+     * Write the next page of a queued fan out, and queue the rest
+     */
+    public void fanout( ActivityFanoutMessage message ) throws Exception {
+
+        final EntityManager em = emf.getEntityManager( message.getApplicationId() );
+
+        final Entity activity = em.get( new SimpleEntityRef( Activity.ENTITY_TYPE, message.getActivityId() ) );
+
+        if ( activity == null ) {
+            logger.warn( "Activity {} no longer exists, dropping its fan out", message.getActivityId() );
+            return;
+        }
+
+        final AudiencePage page =
+            readAudience( em, new SimpleEntityRef( message.getSourceType(), message.getSourceId() ),
+                Audience.valueOf( message.getAudience() ), message.getCursor(), messageMax );
+
+        write( em, page.getMembers(), activity, applicationLimits.getUnchecked( message.getApplicationId() ) );
+
+        if ( page.getCursor() != null ) {
+            queue( new ActivityFanoutMessage( message.getApplicationId(), message.getSourceType(),
+                message.getSourceId(), message.getAudience(), message.getActivityId(), page.getCursor() ) );
+        }
+    }
+
+
+    /**
+     * Start the workers consuming queued fan outs
+     */
+    public void start() {
+
+        if ( workerCount < 1 ) {
+            logger.info( "ActivityFeedFanout: no workers configured, not consuming queued fan outs" );
+            return;
+        }
+
+        pool = Executors.newFixedThreadPool( workerCount );
+        futures = new ArrayList<>( workerCount );
+
+        for ( int i = 0; i < workerCount; i++ ) {
+            final int threadNumber = i;
+            futures.add( pool.submit( new Runnable() {
+                @Override
+                public void run() {
+                    Thread.currentThread().setName( ActivityFeedFanout.class.getSimpleName() + "-" + threadNumber );
+                    consume();
+                }
+            } ) );
+        }
+    }
+
+
+    public void stop() {
+        if ( futures == null ) {
+            return;
+        }
+
+        for ( Future future : futures ) {
+            future.cancel( true );
+        }
+
+        pool.shutdownNow();
+    }
+
+
+    private void consume() {
+
+        final QueueManager queueManager = getQueueManager();
+
+        while ( !Thread.currentThread().isInterrupted() ) {
+
+            try {
+                final List<QueueMessage> messages =
+                    queueManager.getMessages( MAX_TAKE, ActivityFanoutMessage.class );
+
+                if ( messages.isEmpty() ) {
+                    Thread.sleep( sleep );
+                    continue;
+                }
+
+                for ( QueueMessage message : messages ) {
+                    final ActivityFanoutMessage body = ( ActivityFanoutMessage ) message.getBody();
+                    final Timer.Context timer = messageTimer.time();
+
+                    try {
+                        fanout( body );
+                        queueManager.commitMessage( message );
+                    }
+                    catch ( Exception e ) {
+                        //not committed, so the message is retried once it's visible again
+                        logger.error( "Unable to fan out {}", body, e );
+                    }
+                    finally {
+                        timer.stop();
+                    }
+                }
+            }
+            catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+            }
+            catch ( Exception e ) {
+                logger.error( "Unable to read queued activity fan outs", e );
+
+                try {
+                    Thread.sleep( sleep );
+                }
+                catch ( InterruptedException ie ) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+
+    private void queue( final ActivityFanoutMessage message ) throws Exception {
+        getQueueManager().sendMessage( message );
+        queuedMeter.mark();
+    }
+
+
+    private QueueManager getQueueManager() {
+        return queueManagerFactory
+            .getQueueManager( new QueueScopeImpl( QUEUE_NAME, QueueScope.RegionImplementation.LOCAL ) );
+    }
+
+
+    /**
+     * Add the activity to the feeds in batches, waiting on the limiter when there is one
+     */
+    private void write( final EntityManager em, final List<EntityRef> members, final Entity activity,
+                        final RateLimiter limiter ) throws Exception {
+
+        for ( List<EntityRef> batch : Lists.partition( members, batchSize ) ) {
+
+            if ( limiter != null ) {
+                limiter.acquire( batch.size() );
+            }
+
+            em.addToCollections( batch, FEED, activity );
+            edgeMeter.mark( batch.size() );
+        }
+    }
+
+
+    /**
+     * Read up to the limit of audience members after the cursor
+     */
+    private AudiencePage readAudience( final EntityManager em, final EntityRef source, final Audience audience,
+                                       final String cursor, final int limit ) throws Exception {
+
+        switch ( audience ) {
+
+            case FOLLOWERS:
+                return readFollowers( em, source, cursor, limit );
+
+            case GROUP_MEMBERS:
+                return readGroupMembers( em, source, cursor, limit );
+
+            default:
+                throw new IllegalArgumentException( "Unknown audience " + audience );
+        }
+    }
+
+
+    /**
+     * Followers are read from the graph, newest first.  The cursor is the timestamp and follower uuid of the last
+     * edge read
+     */
+    private AudiencePage readFollowers( final EntityManager em, final EntityRef source, final String cursor,
+                                        final int limit ) {
+
+        final GraphManager gm = graphManagerFactory.createEdgeManager( getApplicationScope( em.getApplicationId() ) );
+
+        final Id target = new SimpleId( source.getUuid(), source.getType() );
+        final String edgeType = getEdgeTypeFromConnectionType( FOLLOWING );
+
+        final Optional<Edge> last = cursor == null
+                                    ? Optional.<Edge>absent()
+                                    : Optional.<Edge>of( parseFollowerCursor( cursor, edgeType, target ) );
+
+        final List<MarkedEdge> edges = gm.loadEdgesToTargetByType(
+            new SimpleSearchByIdType( target, edgeType, Long.MAX_VALUE, SearchByEdgeType.Order.DESCENDING,
+                User.ENTITY_TYPE, last ) ).take( limit ).toList().toBlocking().last();
+
+        final List<EntityRef> members = new ArrayList<>( edges.size() );
+
+        for ( MarkedEdge edge : edges ) {
+            members.add( new SimpleEntityRef( User.ENTITY_TYPE, edge.getSourceNode().getUuid() ) );
+        }
+
+        if ( edges.size() < limit ) {
+            return new AudiencePage( members, null );
+        }
+
+        final Edge lastRead = edges.get( edges.size() - 1 );
+
+        return new AudiencePage( members, lastRead.getTimestamp() + ":" + lastRead.getSourceNode().getUuid() );
+    }
+
+
+    private Edge parseFollowerCursor( final String cursor, final String edgeType, final Id target ) {
+
+        final int separator = cursor.indexOf( ':' );
+
+        if ( separator < 1 ) {
+            throw new IllegalArgumentException( "Invalid followers cursor " + cursor );
+        }
+
+        final long timestamp = Long.parseLong( cursor.substring( 0, separator ) );
+        final UUID follower = UUID.fromString( cursor.substring( separator + 1 ) );
+
+        return new SimpleEdge( new SimpleId( follower, User.ENTITY_TYPE ), edgeType, target, timestamp );
+    }
+
+
+    /**
+     * Group members are read from the users collection.  The cursor is the collection's query cursor
+     */
+    private AudiencePage readGroupMembers( final EntityManager em, final EntityRef source, final String cursor,
+                                           final int limit ) throws Exception {
+
+        final List<EntityRef> members = new ArrayList<>();
+
+        final Query query = new Query();
+        query.setCursor( cursor );
+
+        while ( members.size() < limit ) {
+
+            //whole pages only, so the cursor always follows the last member read
+            query.setLimit( Math.min( Query.MAX_LIMIT, limit - members.size() ) );
+
+            final Results page = em.getRelationManager( source ).getCollection( "users", query, Level.REFS );
+
+            if ( page == null ) {
+                return new AudiencePage( members, null );
+            }
+
+            if ( page.getRefs() != null ) {
+                members.addAll( page.getRefs() );
+            }
+
+            if ( !page.hasCursor() ) {
+                return new AudiencePage( members, null );
+            }
+
+            query.setCursor( page.getCursor() );
+        }
+
+        return new AudiencePage( members, query.getCursor().orNull() );
+    }
+
+
+    /**
+     * Audience members read in one page, and the cursor to read the next page or null when there are no more
+     */
+    private static final class AudiencePage {
+
+        private final List<EntityRef> members;
+        private final String cursor;
+
+
+        private AudiencePage( final List<EntityRef> members, final String cursor ) {
+            this.members = members;
+            this.cursor = cursor;
+        }
+
+
+        public List<EntityRef> getMembers() {
+            return members;
+        }
+
+
+        public String getCursor() {
+            return cursor;
+        }
+    }
+}
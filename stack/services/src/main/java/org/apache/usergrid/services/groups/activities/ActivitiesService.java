@@ -17,17 +17,15 @@
 package org.apache.usergrid.services.groups.activities;
 
 
-import java.util.List;
 import java.util.UUID;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.apache.usergrid.persistence.Entity;
 import org.apache.usergrid.persistence.EntityRef;
-import org.apache.usergrid.persistence.Results;
-import org.apache.usergrid.persistence.Query.Level;
 import org.apache.usergrid.services.ServiceContext;
 import org.apache.usergrid.services.ServiceResults;
+import org.apache.usergrid.services.activities.ActivityFeedFanout;
 import org.apache.usergrid.services.generic.GenericCollectionService;
 
 
@@ -69,10 +67,9 @@ public class ActivitiesService extends GenericCollectionService {
             return;
         }
         em.addToCollection( group, "feed", activity );
-        Results r = em.getCollection( group, "users", null, 10000, Level.REFS, false );
-        List<EntityRef> refs = r.getRefs();
-        if ( refs != null ) {
-            em.addToCollections( refs, "feed", activity );
-        }
+
+        //publish to all members, large groups are written in the background
+        getApplicationContext().getBean( ActivityFeedFanout.class )
+                               .distribute( em, group, ActivityFeedFanout.Audience.GROUP_MEMBERS, activity );
     }
 }
@@ -16,8 +16,10 @@
  */
 package org.apache.usergrid.services.notifications;
 
+import org.apache.usergrid.persistence.Entity;
 import org.apache.usergrid.persistence.EntityManager;
 import org.apache.usergrid.persistence.EntityRef;
+import org.apache.usergrid.persistence.RelationManager;
 import org.apache.usergrid.persistence.SimpleEntityRef;
 import org.apache.usergrid.persistence.entities.Device;
 import org.apache.usergrid.persistence.entities.Notification;
@@ -26,20 +28,35 @@ import org.apache.usergrid.persistence.entities.Receipt;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.collect.Lists;
+
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Tracks the outcome of sending a notification to the devices of one dequeued batch.  Receipts, provider id changes
+ * and counters are collected while the batch is sent and written together when the batch finishes.
+ */
 public class TaskManager {
 
     private static final Logger logger = LoggerFactory.getLogger(TaskManager.class);
 
+    private final static int DEVICE_LOAD_BATCH_SIZE = 100;
+
     private Notification notification;
     private AtomicLong successes = new AtomicLong();
     private AtomicLong failures = new AtomicLong();
     private EntityManager em;
 
+    //guarded by this, swapped out when the batch finishes
+    private BatchOutcomes outcomes = new BatchOutcomes();
+
+    //set once finishedBatch has run.  Outcomes reported after it come from provider callbacks, e.g. APNs
+    //rejections, and are written as they arrive since no later finishedBatch will pick them up
+    private volatile boolean batchFinished = false;
+
     public TaskManager(EntityManager em, Notification notification) {
         this.em = em;
         this.notification = notification;
@@ -64,15 +81,10 @@ public class TaskManager {
 
             //incrementNotificationCounter( "completed" );
 
-            EntityRef deviceRef = new SimpleEntityRef(Device.ENTITY_TYPE, deviceUUID);
-
             if (receipt != null) {
 
                 receipt.setSent(System.currentTimeMillis());
-                this.saveReceipt(notification, deviceRef, receipt,false);
-                if (logger.isTraceEnabled()) {
-                    logger.trace("Notification {} receipt saved for device {}", notification.getUuid(), deviceUUID);
-                }
+                this.queueReceipt(deviceUUID, receipt, false);
 
             }
 
@@ -80,13 +92,17 @@ public class TaskManager {
                 if (logger.isTraceEnabled()) {
                     logger.trace("Notification {} replacing notifier id for device {} ", notification.getUuid(), deviceUUID);
                 }
-                replaceProviderId(deviceRef, notifier, newProviderId);
+                queueProviderId(deviceUUID, notifier, newProviderId);
             }
 
             if (logger.isTraceEnabled()) {
                 logger.trace("Notification {} sending completed for device {}", notification.getUuid(), deviceUUID);
             }
 
+            if (batchFinished) {
+                saveLateOutcomes();
+            }
+
         } catch(Exception e) {
 
             logger.error("Unable to mark notification {} as completed due to: {}", notification.getUuid(), e);
@@ -109,11 +125,11 @@ public class TaskManager {
             if(receipt != null) {
                 receipt.setErrorCode( code );
                 receipt.setErrorMessage( message );
-                this.saveReceipt( notification, new SimpleEntityRef( Device.ENTITY_TYPE, deviceUUID ), receipt, true );
+                this.queueReceipt( deviceUUID, receipt, true );
             }
 
+            //writes the outcome right away when the failure was reported after the batch finished
             completed(notifier, deviceUUID);
-            finishedBatch();
 
         } catch (Exception e){
 
@@ -123,10 +139,10 @@ public class TaskManager {
     }
 
     /**
-    * Called from TaskManager - Creates a persistent receipt
+    * Called from TaskManager - Queues a receipt to be persisted when the batch finishes
     *
     */
-    private void saveReceipt(EntityRef notification, EntityRef device, Receipt receipt, boolean hasError) throws Exception {
+    private void queueReceipt(UUID deviceUUID, Receipt receipt, boolean hasError) {
 
         boolean debug = false;
         if(this.notification != null){
@@ -135,40 +151,23 @@ public class TaskManager {
 
         if ( debug || hasError) {
 
-            List<EntityRef> entities = Arrays.asList(notification, device);
-
-            if (receipt.getUuid() == null) {
-                Receipt savedReceipt = em.create(receipt);
-                em.addToCollections(entities, Notification.RECEIPTS_COLLECTION, savedReceipt);
-            } else {
-                em.addToCollections(entities, Notification.RECEIPTS_COLLECTION, receipt);
-            }
-
-            if ( logger.isDebugEnabled() ) {
-                logger.debug( "Notification {} receipt saved for device {}", notification.getUuid(), device.getUuid() );
+            synchronized (this) {
+                outcomes.receipts.add(new DeviceReceipt(deviceUUID, receipt));
             }
 
         }
 
     }
 
-    private void replaceProviderId(EntityRef device, Notifier notifier,
-                                     String newProviderId) throws Exception {
-        Object value = em.getProperty(device, notifier.getName()
-                + ApplicationQueueManager.NOTIFIER_ID_POSTFIX);
-        if (value != null) {
-            em.setProperty(device, notifier.getName() + ApplicationQueueManager.NOTIFIER_ID_POSTFIX, newProviderId);
-        } else {
-            value = em.getProperty(device, notifier.getUuid()
-                    + ApplicationQueueManager.NOTIFIER_ID_POSTFIX);
-            if (value != null) {
-                em.setProperty(device, notifier.getUuid() + ApplicationQueueManager.NOTIFIER_ID_POSTFIX, newProviderId);
-            }
-        }
+    private synchronized void queueProviderId(UUID deviceUUID, Notifier notifier, String newProviderId) {
+        //only the latest id of a device is kept
+        outcomes.providerIds.put(deviceUUID, new ProviderIdChange(notifier, newProviderId));
     }
 
+    /**
+     * Counters are summed in memory and incremented once when the batch finishes
+     */
     public void incrementNotificationCounter(String status){
-        em.incrementAggregateCounters( null,null,null,"counters.notifications."+notification.getUuid()+"."+status,1 );
 
         LocalDateTime localDateTime = LocalDateTime.now();
         StringBuilder currentDate = new StringBuilder(  );
@@ -177,19 +176,53 @@ public class TaskManager {
         currentDate.append( localDateTime.getMonth()+"." );
         currentDate.append( localDateTime.getDayOfMonth()+"." );
         currentDate.append( localDateTime.getMinute() );
-        em.incrementAggregateCounters( null,null,null,currentDate.toString(),1 );
 
+        synchronized (this) {
+            outcomes.counters.merge( "counters.notifications." + notification.getUuid() + "." + status, 1L, Long::sum );
+            outcomes.counters.merge( currentDate.toString(), 1L, Long::sum );
+        }
+
+    }
+
+    private synchronized BatchOutcomes takeOutcomes() {
+        BatchOutcomes taken = outcomes;
+        outcomes = new BatchOutcomes();
+        return taken;
     }
 
 
+    /**
+     * Called once all devices of the batch were sent to their providers
+     */
     public void finishedBatch() throws Exception {
 
-        long successes = this.successes.get();
-        long failures = this.failures.get();
+        batchFinished = true;
+
+        saveOutcomes(takeOutcomes());
+        updateStatistics();
 
-        // reset the counters
-        this.successes.set(0);
-        this.failures.set(0);
+    }
+
+    /**
+     * Write outcomes reported after the batch finished.  An outcome queued while the batch was finishing is in either
+     * the finished batch or this one, so it's written once
+     */
+    private void saveLateOutcomes() throws Exception {
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("Notification {} outcome reported after its batch finished", notification.getUuid());
+        }
+
+        saveOutcomes(takeOutcomes());
+        updateStatistics();
+
+    }
+
+    private void updateStatistics() throws Exception {
+
+        // take and reset the counters
+        long successes = this.successes.getAndSet(0);
+        long failures = this.failures.getAndSet(0);
 
         // get the latest notification info
         notification = em.get(this.notification.getUuid(), Notification.class);
@@ -201,4 +234,133 @@ public class TaskManager {
         em.update(notification);
 
     }
+
+    /**
+     * Write the receipts, provider id changes and counters of a batch.  A failure in one group does not stop the
+     * others, or the statistics update
+     */
+    private void saveOutcomes(BatchOutcomes batch) {
+
+        if (!batch.receipts.isEmpty()) {
+            try {
+                saveReceipts(batch.receipts);
+            } catch (Exception e) {
+                logger.error("Unable to save receipts for notification {}", notification.getUuid(), e);
+            }
+        }
+
+        if (!batch.providerIds.isEmpty()) {
+            try {
+                replaceProviderIds(batch.providerIds);
+            } catch (Exception e) {
+                logger.error("Unable to replace notifier ids for notification {}", notification.getUuid(), e);
+            }
+        }
+
+        if (!batch.counters.isEmpty()) {
+            try {
+                em.incrementAggregateCounters( null, null, null, batch.counters );
+            } catch (Exception e) {
+                logger.error("Unable to increment counters for notification {}", notification.getUuid(), e);
+            }
+        }
+
+    }
+
+    /**
+     * Creates the receipts and adds them to the notification and device receipt collections.  The notification's
+     * relation manager is shared by the batch so it's only loaded once
+     */
+    private void saveReceipts(List<DeviceReceipt> receipts) throws Exception {
+
+        RelationManager notificationReceipts = em.getRelationManager(notification);
+
+        for (DeviceReceipt deviceReceipt : receipts) {
+
+            EntityRef device = new SimpleEntityRef(Device.ENTITY_TYPE, deviceReceipt.deviceUUID);
+
+            try {
+
+                Receipt savedReceipt = deviceReceipt.receipt;
+                if (savedReceipt.getUuid() == null) {
+                    savedReceipt = em.create(savedReceipt);
+                }
+
+                notificationReceipts.addToCollection(Notification.RECEIPTS_COLLECTION, savedReceipt);
+                em.getRelationManager(device).addToCollection(Device.RECEIPTS_COLLECTION, savedReceipt);
+
+                if ( logger.isDebugEnabled() ) {
+                    logger.debug( "Notification {} receipt saved for device {}", notification.getUuid(), device.getUuid() );
+                }
+
+            } catch (Exception e) {
+                logger.error("Unable to save receipt of notification {} for device {}", notification.getUuid(),
+                    device.getUuid(), e);
+            }
+        }
+
+    }
+
+    /**
+     * Loads the devices in batches and sets the new notifier id of each with a single update
+     */
+    private void replaceProviderIds(Map<UUID, ProviderIdChange> providerIds) throws Exception {
+
+        for (List<UUID> deviceIds : Lists.partition(new ArrayList<>(providerIds.keySet()), DEVICE_LOAD_BATCH_SIZE)) {
+
+            for (Entity device : em.getEntities(deviceIds, Device.ENTITY_TYPE).getEntities()) {
+
+                ProviderIdChange change = providerIds.get(device.getUuid());
+
+                String nameKey = change.notifier.getName() + ApplicationQueueManager.NOTIFIER_ID_POSTFIX;
+                String uuidKey = change.notifier.getUuid() + ApplicationQueueManager.NOTIFIER_ID_POSTFIX;
+
+                final String key;
+                if (device.getProperty(nameKey) != null) {
+                    key = nameKey;
+                } else if (device.getProperty(uuidKey) != null) {
+                    key = uuidKey;
+                } else {
+                    continue;
+                }
+
+                Map<String, Object> properties = new HashMap<>(1);
+                properties.put(key, change.providerId);
+
+                em.updateProperties(device, properties);
+            }
+        }
+    }
+
+
+    /**
+     * The receipts, provider id changes and counter totals of a batch
+     */
+    private static final class BatchOutcomes {
+        private final List<DeviceReceipt> receipts = new ArrayList<>();
+        private final Map<UUID, ProviderIdChange> providerIds = new HashMap<>();
+        private final Map<String, Long> counters = new HashMap<>();
+    }
+
+
+    private static final class DeviceReceipt {
+        private final UUID deviceUUID;
+        private final Receipt receipt;
+
+        private DeviceReceipt(UUID deviceUUID, Receipt receipt) {
+            this.deviceUUID = deviceUUID;
+            this.receipt = receipt;
+        }
+    }
+
+
+    private static final class ProviderIdChange {
+        private final Notifier notifier;
+        private final String providerId;
+
+        private ProviderIdChange(Notifier notifier, String providerId) {
+            this.notifier = notifier;
+            this.providerId = providerId;
+        }
+    }
 }
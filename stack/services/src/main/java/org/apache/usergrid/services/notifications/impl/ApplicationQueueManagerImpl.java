@@ -39,6 +39,7 @@ import org.apache.usergrid.persistence.EntityManager;
 import org.apache.usergrid.persistence.EntityRef;
 import org.apache.usergrid.persistence.PathQuery;
 import org.apache.usergrid.persistence.Query;
+import org.apache.usergrid.persistence.Results;
 import org.apache.usergrid.persistence.SimpleEntityRef;
 import org.apache.usergrid.persistence.core.metrics.MetricsFactory;
 import org.apache.usergrid.persistence.entities.Device;
@@ -84,6 +85,9 @@ public class ApplicationQueueManagerImpl implements ApplicationQueueManager {
     private final static String PUSH_PROCESSING_QUEUESIZE_PROP = "usergrid.push.async.processing.queue.size";
     private final static String PUSH_PROCESSING_CONCURRENCY_PROP = "usergrid.push.async.processing.concurrency";
 
+    //the number of device refs loaded with a single multi-get
+    private final static int DEVICE_LOAD_BATCH_SIZE = 100;
+
     HashMap<Object, ProviderAdapter> notifierHashMap; // only retrieve notifiers once
 
 
@@ -260,6 +264,10 @@ public class ApplicationQueueManagerImpl implements ApplicationQueueManager {
 
             Observable processMessagesObservable = Observable.create(new IteratorObservable<EntityRef>(iterator))
 
+                // load the device refs that weren't loaded by the query in batches
+                .buffer( DEVICE_LOAD_BATCH_SIZE )
+                .flatMap( refs -> Observable.from( loadDevices( refs ) ) )
+
                 .flatMap( entityRef -> {
 
                     return Observable.just(entityRef).flatMap(ref->{
@@ -287,7 +295,13 @@ public class ApplicationQueueManagerImpl implements ApplicationQueueManager {
                             }else if ( ref.getType().equals(Device.ENTITY_TYPE)){
 
                                 try{
-                                    entities.add(em.get(ref));
+                                    // the query or the batch load has already loaded most devices
+                                    if ( ref instanceof Entity ) {
+                                        entities.add( ( Entity ) ref );
+                                    }
+                                    else {
+                                        entities.add( em.get( ref ) );
+                                    }
 
                                 }catch(Exception e){
 
@@ -571,35 +585,37 @@ public class ApplicationQueueManagerImpl implements ApplicationQueueManager {
             return message;
         };
 
-        //from each queue message, process them in parallel up to 10 at a time
+        //from each queue message, process them in parallel up to 10 at a time.  The batch is finished once all of
+        //them were sent, so outcomes are written once per notification rather than once per message
         Observable queueMessageObservable = Observable.from(messages).flatMap(queueMessage -> {
 
+            return Observable.just(queueMessage).map(func);
 
-            return Observable.just(queueMessage).map(func).buffer(messages.size()).map(queueMessages -> {
-                //for gcm this will actually send notification
-                for (ProviderAdapter providerAdapter : notifierMap.values()) {
+        }, 10).toList().map(queueMessages -> {
+            //for gcm this will actually send notification
+            for (ProviderAdapter providerAdapter : notifierMap.values()) {
+                try {
+                    providerAdapter.doneSendingNotifications();
+                } catch (Exception e) {
+                    logger.error("providerAdapter.doneSendingNotifications: ", e);
+                }
+            }
+            //TODO: check if a notification is done and mark it
+            HashMap<UUID, ApplicationQueueMessage> notifications = new HashMap<>();
+            for (ApplicationQueueMessage message : queueMessages) {
+                //null when the message could not be read
+                if (message != null && notifications.get(message.getNotificationId()) == null) {
                     try {
-                        providerAdapter.doneSendingNotifications();
+                        TaskManager taskManager = taskMap.get(message.getNotificationId());
+                        notifications.put(message.getNotificationId(), message);
+                        taskManager.finishedBatch();
                     } catch (Exception e) {
-                        logger.error("providerAdapter.doneSendingNotifications: ", e);
-                    }
-                }
-                //TODO: check if a notification is done and mark it
-                HashMap<UUID, ApplicationQueueMessage> notifications = new HashMap<>();
-                for (ApplicationQueueMessage message : queueMessages) {
-                    if (notifications.get(message.getNotificationId()) == null) {
-                        try {
-                            TaskManager taskManager = taskMap.get(message.getNotificationId());
-                            notifications.put(message.getNotificationId(), message);
-                            taskManager.finishedBatch();
-                        } catch (Exception e) {
-                            logger.error("Failed to finish batch", e);
-                        }
+                        logger.error("Failed to finish batch", e);
                     }
                 }
-                return notifications;
-            }).doOnError(throwable -> logger.error("Failed while sending", throwable));
-        }, 10);
+            }
+            return notifications;
+        }).doOnError(throwable -> logger.error("Failed while sending", throwable));
 
         return queueMessageObservable;
     }
@@ -733,8 +749,70 @@ public class ApplicationQueueManagerImpl implements ApplicationQueueManager {
     }
 
 
+    /**
+     * Replace the device refs in the batch that aren't loaded with their entities, loading them with a single
+     * multi-get.  Devices that no longer exist are dropped, other refs are returned as they are
+     */
+    private List<EntityRef> loadDevices(List<EntityRef> refs) {
+
+        final List<UUID> unloaded = new ArrayList<>();
+
+        for (EntityRef ref : refs) {
+            if (!(ref instanceof Entity) && Device.ENTITY_TYPE.equals(ref.getType())) {
+                unloaded.add(ref.getUuid());
+            }
+        }
+
+        if (unloaded.isEmpty()) {
+            return refs;
+        }
+
+        final Map<UUID, Entity> loaded = new HashMap<>(unloaded.size());
+
+        try {
+            final Results results = em.getEntities(unloaded, Device.ENTITY_TYPE);
+
+            for (Entity device : results.getEntities()) {
+                loaded.put(device.getUuid(), device);
+            }
+        } catch (Exception e) {
+            //the devices are loaded one at a time instead
+            logger.error("Unable to load batch of {} devices", unloaded.size(), e);
+            return refs;
+        }
+
+        final List<EntityRef> devices = new ArrayList<>(refs.size());
+
+        for (EntityRef ref : refs) {
+            if (ref instanceof Entity || !Device.ENTITY_TYPE.equals(ref.getType())) {
+                devices.add(ref);
+                continue;
+            }
+
+            final Entity device = loaded.get(ref.getUuid());
+
+            if (device != null) {
+                devices.add(device);
+            } else {
+                logger.warn("Device {} no longer exists, not sending to it", ref.getUuid());
+            }
+        }
+
+        return devices;
+    }
+
+
     private String getProviderId(EntityRef device, Notifier notifier) throws Exception {
         try {
+            // devices are loaded when they are queued, so read the notifier ids without loading them again
+            if (device instanceof Entity) {
+                Object value = ((Entity) device).getProperty(notifier.getName() + NOTIFIER_ID_POSTFIX);
+                if (value == null) {
+                    value = ((Entity) device).getProperty(notifier.getUuid() + NOTIFIER_ID_POSTFIX);
+                }
+                return value != null ? value.toString() : null;
+            }
+
             Object value = em.getProperty(device, notifier.getName() + NOTIFIER_ID_POSTFIX);
             if (value == null) {
                 value = em.getProperty(device, notifier.getUuid() + NOTIFIER_ID_POSTFIX);
@@ -25,10 +25,10 @@ import org.slf4j.LoggerFactory;
 import org.apache.usergrid.persistence.entities.Activity;
 import org.apache.usergrid.persistence.entities.Activity.ActivityObject;
 import org.apache.usergrid.persistence.entities.User;
-import org.apache.usergrid.persistence.Query.Level;
 import org.apache.usergrid.services.ServiceContext;
 import org.apache.usergrid.services.ServicePayload;
 import org.apache.usergrid.services.ServiceResults;
+import org.apache.usergrid.services.activities.ActivityFeedFanout;
 import org.apache.usergrid.services.generic.GenericCollectionService;
 
 
@@ -134,31 +134,8 @@ public class ActivitiesService extends GenericCollectionService {
         //add activity
         em.addToCollection( user, "feed", activity );
 
-        //publish to all connections
-        Results results =  em.getSourceEntities(
-            new SimpleEntityRef(user.getType(), user.getUuid()),
-            "following", User.ENTITY_TYPE, Level.REFS);
-
-        if( results != null ){
-            PagingResultsIterator itr = new PagingResultsIterator(results);
-
-            List<EntityRef> refs = new ArrayList<EntityRef>();
-            EntityRef c;
-            int breaker = 10000;
-            //collect
-            while (itr.hasNext()) {
-                c = (EntityRef) itr.next();
-                refs.add(c);
-                //break out when you get too big
-                if( refs.size() > breaker ){
-                    em.addToCollections(refs, "feed", activity);
-                    refs.clear();
-                }
-            }
-            //add to collections
-            if (refs.size() > 0) {
-                em.addToCollections(refs, "feed", activity);
-            }
-        }
+        //publish to all followers, large audiences are written in the background
+        getApplicationContext().getBean( ActivityFeedFanout.class )
+                               .distribute( em, user, ActivityFeedFanout.Audience.FOLLOWERS, activity );
     }
 }
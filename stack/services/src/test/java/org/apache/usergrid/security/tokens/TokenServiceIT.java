@@ -19,6 +19,7 @@ package org.apache.usergrid.security.tokens;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Properties;
 
 import org.junit.Before;
 import org.junit.ClassRule;
@@ -481,4 +482,136 @@ public class TokenServiceIT {
 
         assertTrue(last_access < tokenInfo.getAccessed());
     }
+
+
+    @Test
+    public void cachedTokenInfo() throws Exception {
+
+        TokenServiceImpl cachingTokenService = createTokenService( 0, 60000 );
+        TokenServiceImpl otherTokenService = createTokenService( 0, 0 );
+
+        try {
+            AuthPrincipalInfo userPrincipal =
+                    new AuthPrincipalInfo( AuthPrincipalType.APPLICATION_USER, UUIDUtils.newTimeUUID(),
+                            UUIDUtils.newTimeUUID() );
+
+            String token = cachingTokenService.createToken( TokenCategory.ACCESS, null, userPrincipal, null, 0 );
+
+            assertNotNull( cachingTokenService.getTokenInfo( token ) );
+
+            // revoked on another node, the cached info is served until it expires
+            otherTokenService.revokeToken( token );
+
+            TokenInfo tokenInfo = cachingTokenService.getTokenInfo( token, false );
+            assertNotNull( tokenInfo );
+            assertEquals( userPrincipal.getUuid(), tokenInfo.getPrincipal().getUuid() );
+
+            boolean invalidTokenException = false;
+
+            try {
+                otherTokenService.getTokenInfo( token, false );
+            }
+            catch ( InvalidTokenException ite ) {
+                invalidTokenException = true;
+            }
+
+            assertTrue( invalidTokenException );
+        }
+        finally {
+            cachingTokenService.shutdown();
+            otherTokenService.shutdown();
+        }
+    }
+
+
+    @Test
+    public void revokeInvalidatesCachedTokenInfo() throws Exception {
+
+        TokenServiceImpl cachingTokenService = createTokenService( 0, 60000 );
+
+        try {
+            AuthPrincipalInfo userPrincipal =
+                    new AuthPrincipalInfo( AuthPrincipalType.APPLICATION_USER, UUIDUtils.newTimeUUID(),
+                            UUIDUtils.newTimeUUID() );
+
+            String token = cachingTokenService.createToken( TokenCategory.ACCESS, null, userPrincipal, null, 0 );
+
+            assertNotNull( cachingTokenService.getTokenInfo( token ) );
+
+            cachingTokenService.revokeToken( token );
+
+            boolean invalidTokenException = false;
+
+            try {
+                cachingTokenService.getTokenInfo( token );
+            }
+            catch ( InvalidTokenException ite ) {
+                invalidTokenException = true;
+            }
+
+            assertTrue( invalidTokenException );
+        }
+        finally {
+            cachingTokenService.shutdown();
+        }
+    }
+
+
+    @Test
+    public void accessTimeWrittenOncePerFlush() throws Exception {
+
+        TokenServiceImpl bufferingTokenService = createTokenService( 60000, 60000 );
+        TokenServiceImpl otherTokenService = createTokenService( 0, 0 );
+
+        try {
+            AuthPrincipalInfo userPrincipal =
+                    new AuthPrincipalInfo( AuthPrincipalType.APPLICATION_USER, UUIDUtils.newTimeUUID(),
+                            UUIDUtils.newTimeUUID() );
+
+            String token = bufferingTokenService.createToken( TokenCategory.ACCESS, null, userPrincipal, null, 0 );
+
+            long created = otherTokenService.getTokenInfo( token, false ).getAccessed();
+
+            for ( int i = 0; i < 5; i++ ) {
+                Thread.sleep( 10 );
+                bufferingTokenService.getTokenInfo( token );
+            }
+
+            long lastAccess = bufferingTokenService.getTokenInfo( token, false ).getAccessed();
+
+            assertTrue( created < lastAccess );
+
+            // nothing is written until the access times are flushed
+            assertEquals( created, otherTokenService.getTokenInfo( token, false ).getAccessed() );
+
+            // then only the last access is written
+            bufferingTokenService.shutdown();
+
+            assertEquals( lastAccess, otherTokenService.getTokenInfo( token, false ).getAccessed() );
+        }
+        finally {
+            bufferingTokenService.shutdown();
+            otherTokenService.shutdown();
+        }
+    }
+
+
+    /**
+     * Create a token service of its own, as if on another node, with the access flush interval and token info cache
+     * ttl.  Either is disabled with 0
+     */
+    private TokenServiceImpl createTokenService( long flushInterval, long cacheTtl ) {
+
+        Properties properties = new Properties();
+        properties.putAll( setup.getProps() );
+        properties.setProperty( TokenServiceImpl.PROPERTIES_AUTH_TOKEN_ACCESS_FLUSH_INTERVAL, "" + flushInterval );
+        properties.setProperty( TokenServiceImpl.PROPERTIES_AUTH_TOKEN_INFO_CACHE_TTL, "" + cacheTtl );
+
+        TokenServiceImpl tokenService = new TokenServiceImpl();
+        tokenService.setCassandraService( setup.getCassSvc() );
+        tokenService.setEntityManagerFactory( setup.getEmf() );
+        tokenService.setProperties( properties );
+
+        return tokenService;
+    }
 }
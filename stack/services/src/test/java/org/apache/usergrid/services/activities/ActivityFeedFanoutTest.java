@@ -0,0 +1,260 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.usergrid.services.activities;
+
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import org.apache.usergrid.corepersistence.util.CpNamingUtils;
+import org.apache.usergrid.persistence.EntityManager;
+import org.apache.usergrid.persistence.EntityManagerFactory;
+import org.apache.usergrid.persistence.EntityRef;
+import org.apache.usergrid.persistence.SimpleEntityRef;
+import org.apache.usergrid.persistence.core.metrics.MetricsFactory;
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.entities.Activity;
+import org.apache.usergrid.persistence.entities.User;
+import org.apache.usergrid.persistence.graph.Edge;
+import org.apache.usergrid.persistence.graph.GraphManager;
+import org.apache.usergrid.persistence.graph.GraphManagerFactory;
+import org.apache.usergrid.persistence.graph.MarkedEdge;
+import org.apache.usergrid.persistence.graph.SearchByIdType;
+import org.apache.usergrid.persistence.graph.impl.SimpleMarkedEdge;
+import org.apache.usergrid.persistence.model.entity.Id;
+import org.apache.usergrid.persistence.model.entity.SimpleId;
+import org.apache.usergrid.persistence.model.util.UUIDGenerator;
+import org.apache.usergrid.persistence.queue.QueueManager;
+import org.apache.usergrid.persistence.queue.QueueManagerFactory;
+import org.apache.usergrid.persistence.queue.QueueScope;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import com.google.common.base.Optional;
+import com.google.inject.Injector;
+
+import rx.Observable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyList;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+public class ActivityFeedFanoutTest {
+
+    private static final int SYNC_MAX = 10;
+    private static final int MESSAGE_MAX = 30;
+
+    private final UUID applicationId = UUIDGenerator.newTimeUUID();
+    private final EntityRef source = new SimpleEntityRef( User.ENTITY_TYPE, UUIDGenerator.newTimeUUID() );
+
+    private EntityManager em;
+    private Activity activity;
+
+    //followers of the source, newest edge first
+    private List<MarkedEdge> followers;
+    private final AtomicInteger edgesRead = new AtomicInteger();
+
+    private final List<EntityRef> written = new ArrayList<>();
+    private final List<ActivityFanoutMessage> queued = new ArrayList<>();
+
+    private ActivityFeedFanout fanout;
+
+
+    @Before
+    public void setup() throws Exception {
+
+        activity = new Activity();
+        activity.setUuid( UUIDGenerator.newTimeUUID() );
+
+        em = mock( EntityManager.class );
+        when( em.getApplicationId() ).thenReturn( applicationId );
+        when( em.get( new SimpleEntityRef( Activity.ENTITY_TYPE, activity.getUuid() ) ) ).thenReturn( activity );
+        when( em.addToCollections( anyList(), eq( ActivityFeedFanout.FEED ), eq( activity ) ) ).thenAnswer(
+            new Answer<Object>() {
+                @Override
+                public Object answer( final InvocationOnMock invocation ) throws Throwable {
+                    written.addAll( ( List<EntityRef> ) invocation.getArguments()[0] );
+                    return activity;
+                }
+            } );
+
+        final EntityManagerFactory emf = mock( EntityManagerFactory.class );
+        when( emf.getEntityManager( applicationId ) ).thenReturn( em );
+
+        final QueueManager queueManager = mock( QueueManager.class );
+        doAnswer( new Answer<Void>() {
+            @Override
+            public Void answer( final InvocationOnMock invocation ) throws Throwable {
+                queued.add( ( ActivityFanoutMessage ) invocation.getArguments()[0] );
+                return null;
+            }
+        } ).when( queueManager ).sendMessage( any( ActivityFanoutMessage.class ) );
+
+        final QueueManagerFactory queueManagerFactory = mock( QueueManagerFactory.class );
+        when( queueManagerFactory.getQueueManager( any( QueueScope.class ) ) ).thenReturn( queueManager );
+
+        final GraphManager gm = mock( GraphManager.class );
+        when( gm.loadEdgesToTargetByType( any( SearchByIdType.class ) ) ).thenAnswer(
+            new Answer<Observable<MarkedEdge>>() {
+                @Override
+                public Observable<MarkedEdge> answer( final InvocationOnMock invocation ) throws Throwable {
+                    return Observable.from( after( ( ( SearchByIdType ) invocation.getArguments()[0] ).last() ) )
+                                     .doOnNext( edge -> edgesRead.incrementAndGet() );
+                }
+            } );
+
+        final GraphManagerFactory graphManagerFactory = mock( GraphManagerFactory.class );
+        when( graphManagerFactory.createEdgeManager( any( ApplicationScope.class ) ) ).thenReturn( gm );
+
+        final MetricsFactory metricsFactory = mock( MetricsFactory.class );
+        when( metricsFactory.getMeter( any( Class.class ), anyString() ) ).thenReturn( new Meter() );
+        when( metricsFactory.getTimer( any( Class.class ), anyString() ) ).thenReturn( new Timer() );
+
+        final Injector injector = mock( Injector.class );
+        when( injector.getInstance( QueueManagerFactory.class ) ).thenReturn( queueManagerFactory );
+        when( injector.getInstance( GraphManagerFactory.class ) ).thenReturn( graphManagerFactory );
+        when( injector.getInstance( MetricsFactory.class ) ).thenReturn( metricsFactory );
+
+        final Properties props = new Properties();
+        props.setProperty( ActivityFeedFanout.SYNC_MAX, String.valueOf( SYNC_MAX ) );
+        props.setProperty( ActivityFeedFanout.MESSAGE_MAX, String.valueOf( MESSAGE_MAX ) );
+        props.setProperty( ActivityFeedFanout.BATCH_SIZE, "7" );
+        props.setProperty( ActivityFeedFanout.EDGES_PER_SECOND, "1000000" );
+
+        fanout = new ActivityFeedFanout( emf, injector, props );
+    }
+
+
+    @Test
+    public void smallAudienceWrittenSynchronously() throws Exception {
+
+        createFollowers( SYNC_MAX );
+
+        fanout.distribute( em, source, ActivityFeedFanout.Audience.FOLLOWERS, activity );
+
+        assertEquals( SYNC_MAX, written.size() );
+        assertTrue( queued.isEmpty() );
+    }
+
+
+    @Test
+    public void largeAudienceQueuedAfterBoundedProbe() throws Exception {
+
+        createFollowers( 100 );
+
+        fanout.distribute( em, source, ActivityFeedFanout.Audience.FOLLOWERS, activity );
+
+        //the request thread reads no more than one past the sync max, and writes nothing
+        assertTrue( edgesRead.get() <= SYNC_MAX + 1 );
+        assertTrue( written.isEmpty() );
+
+        assertEquals( 1, queued.size() );
+        assertNull( queued.get( 0 ).getCursor() );
+    }
+
+
+    @Test
+    public void queuedFanoutPagesFromCursor() throws Exception {
+
+        createFollowers( 100 );
+
+        fanout.distribute( em, source, ActivityFeedFanout.Audience.FOLLOWERS, activity );
+
+        edgesRead.set( 0 );
+
+        int messages = 0;
+
+        while ( !queued.isEmpty() ) {
+            final ActivityFanoutMessage message = queued.remove( 0 );
+
+            if ( messages > 0 ) {
+                assertNotNull( message.getCursor() );
+            }
+
+            fanout.fanout( message );
+            messages++;
+        }
+
+        //each message reads only its own page
+        assertEquals( 4, messages );
+        assertEquals( 100, edgesRead.get() );
+
+        final Set<UUID> unique = new HashSet<>();
+        for ( EntityRef ref : written ) {
+            unique.add( ref.getUuid() );
+        }
+
+        assertEquals( 100, written.size() );
+        assertEquals( 100, unique.size() );
+    }
+
+
+    private void createFollowers( final int count ) {
+
+        final Id target = new SimpleId( source.getUuid(), source.getType() );
+        final String edgeType = CpNamingUtils.getEdgeTypeFromConnectionType( "following" );
+
+        followers = new ArrayList<>( count );
+
+        for ( int i = count; i > 0; i-- ) {
+            followers.add(
+                new SimpleMarkedEdge( new SimpleId( UUIDGenerator.newTimeUUID(), User.ENTITY_TYPE ), edgeType, target,
+                    i, false ) );
+        }
+    }
+
+
+    /**
+     * The followers after the last edge, as the graph seeks past it
+     */
+    private List<MarkedEdge> after( final Optional<Edge> last ) {
+
+        if ( !last.isPresent() ) {
+            return followers;
+        }
+
+        for ( int i = 0; i < followers.size(); i++ ) {
+            final MarkedEdge edge = followers.get( i );
+
+            if ( edge.getTimestamp() == last.get().getTimestamp() && edge.getSourceNode()
+                                                                         .equals( last.get().getSourceNode() ) ) {
+                return followers.subList( i + 1, followers.size() );
+            }
+        }
+
+        throw new IllegalArgumentException( "Unknown edge " + last.get() );
+    }
+}
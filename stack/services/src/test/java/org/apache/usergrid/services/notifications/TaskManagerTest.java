@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.usergrid.services.notifications;
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import org.apache.usergrid.persistence.EntityManager;
+import org.apache.usergrid.persistence.EntityRef;
+import org.apache.usergrid.persistence.RelationManager;
+import org.apache.usergrid.persistence.Results;
+import org.apache.usergrid.persistence.entities.Device;
+import org.apache.usergrid.persistence.entities.Notification;
+import org.apache.usergrid.persistence.entities.Notifier;
+import org.apache.usergrid.persistence.entities.Receipt;
+import org.apache.usergrid.persistence.model.util.UUIDGenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyList;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+public class TaskManagerTest {
+
+    private static final int DEVICE_COUNT = 5;
+
+    private EntityManager em;
+    private RelationManager relationManager;
+    private Notification notification;
+    private Notifier notifier;
+    private List<Device> devices;
+
+
+    @Before
+    public void setup() throws Exception {
+
+        notification = new Notification();
+        notification.setUuid( UUIDGenerator.newTimeUUID() );
+        notification.setDebug( true );
+
+        notifier = new Notifier();
+        notifier.setUuid( UUIDGenerator.newTimeUUID() );
+        notifier.setName( "apple" );
+
+        devices = new ArrayList<>();
+        for ( int i = 0; i < DEVICE_COUNT; i++ ) {
+            final Device device = new Device();
+            device.setUuid( UUIDGenerator.newTimeUUID() );
+            device.setProperty( "apple" + ApplicationQueueManager.NOTIFIER_ID_POSTFIX, "token" + i );
+            devices.add( device );
+        }
+
+        relationManager = mock( RelationManager.class );
+
+        em = mock( EntityManager.class );
+        when( em.get( notification.getUuid(), Notification.class ) ).thenReturn( notification );
+        when( em.getRelationManager( any( EntityRef.class ) ) ).thenReturn( relationManager );
+        when( em.create( any( Receipt.class ) ) ).thenAnswer( new Answer<Receipt>() {
+            @Override
+            public Receipt answer( final InvocationOnMock invocation ) throws Throwable {
+                final Receipt receipt = ( Receipt ) invocation.getArguments()[0];
+                receipt.setUuid( UUIDGenerator.newTimeUUID() );
+                return receipt;
+            }
+        } );
+        when( em.getEntities( anyList(), eq( Device.ENTITY_TYPE ) ) ).thenReturn( Results.fromEntities( devices ) );
+    }
+
+
+    @Test
+    public void batchWrittenWhenFinished() throws Exception {
+
+        final TaskManager taskManager = new TaskManager( em, notification );
+
+        for ( Device device : devices ) {
+            taskManager.completed( notifier, receipt( device ), device.getUuid(), "rotated-" + device.getUuid() );
+            taskManager.incrementNotificationCounter( "completed" );
+        }
+
+        //nothing is written while the batch is sent
+        verify( em, never() ).create( any( Receipt.class ) );
+        verify( em, never() ).update( any( Notification.class ) );
+        verify( em, never() ).updateProperties( any( EntityRef.class ), anyMap() );
+
+        taskManager.finishedBatch();
+
+        //one receipt per device, linked to the notification and the device
+        verify( em, times( DEVICE_COUNT ) ).create( any( Receipt.class ) );
+        verify( relationManager, times( DEVICE_COUNT * 2 ) )
+            .addToCollection( eq( Notification.RECEIPTS_COLLECTION ), any( Receipt.class ) );
+
+        //the devices are loaded once and each updated once
+        verify( em, times( 1 ) ).getEntities( anyList(), eq( Device.ENTITY_TYPE ) );
+        verify( em, times( DEVICE_COUNT ) ).updateProperties( any( EntityRef.class ), anyMap() );
+        verify( em, never() ).getProperty( any( EntityRef.class ), anyString() );
+
+        //the notification is read and updated once for the batch
+        verify( em, times( 1 ) ).get( notification.getUuid(), Notification.class );
+        verify( em, times( 1 ) ).update( any( Notification.class ) );
+
+        //the counter totals go in a single increment
+        final ArgumentCaptor<Map> counters = ArgumentCaptor.forClass( Map.class );
+        verify( em, times( 1 ) ).incrementAggregateCounters( isNull( UUID.class ), isNull( UUID.class ),
+            isNull( String.class ), counters.capture() );
+        verify( em, never() ).incrementAggregateCounters( any( UUID.class ), any( UUID.class ), anyString(),
+            anyString(), anyLong() );
+
+        assertEquals( ( long ) DEVICE_COUNT,
+            counters.getValue().get( "counters.notifications." + notification.getUuid() + ".completed" ) );
+
+        assertEquals( DEVICE_COUNT, ( ( Long ) notification.getStatistics().get( "sent" ) ).longValue() );
+    }
+
+
+    @Test
+    public void failuresWaitForTheBatch() throws Exception {
+
+        final TaskManager taskManager = new TaskManager( em, notification );
+
+        for ( Device device : devices ) {
+            taskManager.failed( notifier, receipt( device ), device.getUuid(), "error", "failed" );
+        }
+
+        verify( em, never() ).create( any( Receipt.class ) );
+        verify( em, never() ).update( any( Notification.class ) );
+
+        taskManager.finishedBatch();
+
+        verify( em, times( DEVICE_COUNT ) ).create( any( Receipt.class ) );
+        verify( em, times( 1 ) ).update( any( Notification.class ) );
+
+        assertEquals( DEVICE_COUNT, ( ( Long ) notification.getStatistics().get( "errors" ) ).longValue() );
+    }
+
+
+    @Test
+    public void lateCallbackWrittenOnArrival() throws Exception {
+
+        final TaskManager taskManager = new TaskManager( em, notification );
+
+        final Device device = devices.get( 0 );
+
+        taskManager.completed( notifier, receipt( device ), device.getUuid(), null );
+        taskManager.finishedBatch();
+
+        verify( em, times( 1 ) ).create( any( Receipt.class ) );
+        verify( em, times( 1 ) ).update( any( Notification.class ) );
+
+        //e.g. an APNs rejection reported after the batch finished
+        taskManager.failed( notifier, receipt( device ), device.getUuid(), "error", "rejected" );
+
+        verify( em, times( 2 ) ).create( any( Receipt.class ) );
+        verify( em, times( 2 ) ).update( any( Notification.class ) );
+
+        assertEquals( 1L, ( ( Long ) notification.getStatistics().get( "errors" ) ).longValue() );
+    }
+
+
+    private Receipt receipt( final Device device ) {
+        return new Receipt( notification.getUuid(), notifier.getUuid().toString(), Collections.emptyMap(),
+            device.getUuid() );
+    }
+}